@@ -96,6 +96,14 @@ import java.io.*;
  <tr><td valign=top><tt>checkpoint-directory</tt><br>
  <font size=-1>File (default is empty)</td>
  <td valign=top>(directory where the checkpoint files should be located)</td></tr>
+
+ <tr><td valign=top><tt>checkpoint-incremental</tt><br>
+ <font size=-1>bool = <tt>true</tt> or <tt>false</tt> (default)</td>
+ <td valign=top>(should checkpoints be written in the background, with individuals in their binary form, and only those individuals which changed since the last full checkpoint?  See ec.util.IncrementalCheckpoint)</td></tr>
+
+ <tr><td valign=top><tt>checkpoint-full-modulo</tt><br>
+ <font size=-1>int &gt;= 1 (default is 10)</td>
+ <td valign=top>(if checkpoints are incremental, how many checkpoints should be written per full checkpoint?)</td></tr>
  
  <tr><td valign=top><tt>quit-on-run-complete</tt><br>
  <font size=-1>bool = <tt>true</tt> or <tt>false</tt> (default)</td>
@@ -166,6 +174,9 @@ public class EvolutionState implements Singleton
     /** An array of random number generators, indexed by the thread number you were given (or, if you're not in a multithreaded area, use 0).  These generators are not threadsafe in and of themselves, but if you only use the random number generator assigned to your thread, as was intended, then you get random numbers in a threadsafe way.  These generators must each have a different seed, of course.*/
     public MersenneTwisterFast[] random;
 
+    /** A splittable random number generator, seeded from seed.0, from which you may make an independent, reproducible stream for each task with randomStreams.substream(taskNumber).  Unlike the per-thread generators in random[], these streams give the same results no matter how many threads there are or which thread happens to run each task.  Do not draw numbers from randomStreams itself in a multithreaded area.*/
+    public Xoshiro256 randomStreams;
+
     /** An array of HashMaps, indexed by the thread number you were given (or, if you're not in a multithreaded area, use 0).  This allows you to store per-thread specialized information (typically keyed with a string).  */
     public HashMap[] data;
 
@@ -190,6 +201,16 @@ public class EvolutionState implements Singleton
     /** The requested number of generations that should pass before we write out a checkpoint file. */
     public int checkpointModulo;
 
+    /** Should checkpoints be written by an IncrementalCheckpoint rather than serialized all at once? */
+    public boolean checkpointIncremental;
+
+    /** If checkpoints are incremental, how many checkpoints are written per full checkpoint (the rest hold only changed individuals). */
+    public int checkpointFullModulo;
+
+    /** The writer of incremental checkpoints, which remembers the last full checkpoint.  It isn't serialized,
+        so the first incremental checkpoint after restoring from a checkpoint is always a full one. */
+    public transient IncrementalCheckpoint incrementalCheckpoint;
+
     /** An amount to add to each random number generator seed to "offset" it -- often this is simply the job number.  
         If you are using more random number generators
         internally than the ones initially created for you in the EvolutionState, you might want to create them with the seed
@@ -276,6 +297,8 @@ public class EvolutionState implements Singleton
     public final static String P_CHECKPOINTMODULO = "checkpoint-modulo";
     public final static String P_CHECKPOINTDIRECTORY = "checkpoint-directory";
     public final static String P_CHECKPOINT = "checkpoint";
+    public final static String P_CHECKPOINTINCREMENTAL = "checkpoint-incremental";
+    public final static String P_CHECKPOINTFULLMODULO = "checkpoint-full-modulo";
     public final static String P_INNOVATIONNUMBER = "innovation-number";
     final static String P_CHECKPOINTPREFIX_OLD = "prefix";
 
@@ -350,6 +373,14 @@ public class EvolutionState implements Singleton
                 output.fatal("The checkpoint directory location is not a directory: " + checkpointDirectory, p);
             }
         else checkpointDirectory = null;
+
+        p = new Parameter(P_CHECKPOINTINCREMENTAL);
+        checkpointIncremental = parameters.getBoolean(p,null,false);
+
+        p = new Parameter(P_CHECKPOINTFULLMODULO);
+        checkpointFullModulo = parameters.getIntWithDefault(p,null,10);
+        if (checkpointFullModulo <= 0)
+            output.fatal("The checkpoint full modulo must be an integer >0.",p);
             
         p = new Parameter(P_EVALUATIONS);
         if (parameters.exists(p, null))
@@ -437,6 +468,28 @@ public class EvolutionState implements Singleton
         throws InternalError { return R_NOTDONE; }
 
 
+    /** Long-lived worker threads shared by the Breeder and the Evaluator when they are set to use
+        persistent threads.  Threads can't be serialized, so this is rebuilt on demand after
+        restoring from a checkpoint. */
+    transient PhasedThreadPool phasedThreadPool;
+
+    /** Returns the PhasedThreadPool shared by the Breeder and the Evaluator, building it
+        if necessary with as many workers as the larger of breedthreads and evalthreads. */
+    public PhasedThreadPool getPhasedThreadPool()
+        {
+        if (phasedThreadPool == null)
+            phasedThreadPool = new PhasedThreadPool(Math.max(breedthreads, evalthreads), "ECJ Persistent Thread");
+        return phasedThreadPool;
+        }
+
+    /** Kills the shared PhasedThreadPool, if any.  Called by Evolve.cleanup(...). */
+    public void killPhasedThreadPool()
+        {
+        if (phasedThreadPool != null)
+            phasedThreadPool.kill();
+        phasedThreadPool = null;
+        }
+
     // This is broken out like this so that incrementEvaluations can get inlined
     Object[] lock = new Object[0];
     void synchronizedIncrementEvaluations(int val)
@@ -480,6 +480,7 @@ public class Evolve
                 EvolutionState.class);
         state.parameters = parameters;
         state.random = random;
+        state.randomStreams = new Xoshiro256(seeds[0]);
         state.output = output;
         state.evalthreads = evalthreads;
         state.breedthreads = breedthreads;
@@ -498,6 +499,12 @@ public class Evolve
         
     public static void cleanup(EvolutionState state)
         {
+        // stop any persistent breeding/evaluation threads
+        state.killPhasedThreadPool();
+
+        // wait for any checkpoint still being written
+        Checkpoint.finishCheckpoint(state);
+
         // flush the output
         state.output.flush();
 
@@ -103,7 +103,25 @@ public abstract class Individual implements Prototype, Comparable<Individual>
             { throw new InternalError(); } // never happens
         }
 
-   
+    /** Turns this individual into a deep copy of ind, an individual of the same class, reusing this individual's
+        own storage (notably its genome array) where possible, and returns true.  If this isn't supported, returns
+        false and leaves the individual unchanged, and ind should be cloned instead.  This is used by IndividualPool
+        to recycle dead individuals rather than allocate new ones.  The default form returns false. */
+    public boolean copyFrom(Individual ind)
+        {
+        return false;
+        }
+
+    /** Copies the fitness (by cloning it), species, and evaluated flag of ind into this individual,
+        as clone() would.  For the benefit of copyFrom(...). */
+    protected void copyBasicsFrom(Individual ind)
+        {
+        fitness = (ind.fitness == null ? null : (Fitness)(ind.fitness.clone()));
+        species = ind.species;
+        evaluated = ind.evaluated;
+        }
+
+
     /** Returns the "size" of the individual.  This is used for things like
         parsimony pressure.  The default form of this method returns 0 --
         if you care about parsimony pressure, you'll need to override the
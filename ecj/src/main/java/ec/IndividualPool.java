@@ -0,0 +1,119 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec;
+import java.util.*;
+
+/*
+ * IndividualPool.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * An IndividualPool holds dead individuals of a Species -- those of a previous generation which made it into
+ * neither the new population nor anywhere else -- so that they may be recycled as copies of new individuals rather
+ * than allocating new ones, and their genome arrays with them.  It is turned on by SimpleBreeder's
+ * <tt>pool-individuals</tt> parameter, which gives each Species a pool and fills it each generation.
+ *
+ * <p>Individuals are kept in one free list per breeding thread, and are dealt out among the lists round-robin as
+ * they are released.  A thread only ever takes individuals from its own list, so no locking is required: but
+ * release(...) and clear() must only be called when no thread is breeding.
+ *
+ * <p>copy(ind, thread) takes the most recently released individual from the thread's free list and asks it to
+ * turn itself into a copy of ind via Individual.copyFrom(...).  If the list is empty, or the individual can't do
+ * so (as is the case for most kinds of individual other than the basic vector individuals), ind is cloned instead.
+ * The pool counts how many copies were made each way, and SimpleBreeder reports the counts each generation.
+ *
+ * <p>The pool is not checkpointed: Species holds it in a transient field, and it starts empty again after a
+ * restart.
+ *
+ * @version 1.0
+ */
+
+public class IndividualPool
+    {
+    ArrayList<ArrayList<Individual>> free;
+    long[] reused;
+    long[] allocated;
+    int next = 0;
+
+    /** Creates an empty pool with free lists for the given number of threads. */
+    public IndividualPool(int numThreads)
+        {
+        free = new ArrayList<ArrayList<Individual>>(numThreads);
+        for(int i = 0; i < numThreads; i++)
+            free.add(new ArrayList<Individual>());
+        reused = new long[numThreads];
+        allocated = new long[numThreads];
+        }
+
+    /** Returns a deep copy of ind, recycling a dead individual from the given thread's free list if possible,
+        else cloning ind.  Threads beyond the number the pool was created for always clone. */
+    public Individual copy(Individual ind, int thread)
+        {
+        if (thread < free.size())
+            {
+            ArrayList<Individual> list = free.get(thread);
+            while(!list.isEmpty())
+                {
+                Individual dead = list.remove(list.size() - 1);
+                if (dead.getClass() == ind.getClass() && dead.copyFrom(ind))
+                    {
+                    reused[thread]++;
+                    return dead;
+                    }
+                // else we can't use it and just let it go
+                }
+            allocated[thread]++;
+            }
+        return (Individual)(ind.clone());
+        }
+
+    /** Adds a dead individual to the pool.  Nothing else may hold on to it. */
+    public void release(Individual ind)
+        {
+        free.get(next).add(ind);
+        next++;
+        if (next == free.size()) next = 0;
+        }
+
+    /** Empties the pool, letting go of all the individuals in it. */
+    public void clear()
+        {
+        for(int i = 0; i < free.size(); i++)
+            free.get(i).clear();
+        next = 0;
+        }
+
+    /** Returns the number of individuals presently in the pool. */
+    public int size()
+        {
+        int size = 0;
+        for(int i = 0; i < free.size(); i++)
+            size += free.get(i).size();
+        return size;
+        }
+
+    /** Returns the number of copies so far made by recycling dead individuals. */
+    public long getReused()
+        {
+        long total = 0;
+        for(int i = 0; i < reused.length; i++)
+            total += reused[i];
+        return total;
+        }
+
+    /** Returns the number of copies so far made by cloning, because no usable dead individual was available. */
+    public long getAllocated()
+        {
+        long total = 0;
+        for(int i = 0; i < allocated.length; i++)
+            total += allocated[i];
+        return total;
+        }
+    }
@@ -80,11 +80,12 @@ public abstract class SelectionMethod extends BreedingSource
 
         int n = produceWithoutCloning(min, max, subpopulation, inds, state, thread, misc);
         
-        // clone every produced individual
+        // clone every produced individual (recycling dead ones if they're being pooled)
+        Species species = state.population.subpops.get(subpopulation).species;
         for(int q=start; q < n+start; q++)
             {
             //System.err.println("" + this + " makes " + inds.get(q));
-            inds.set(q, (Individual)(inds.get(q).clone()));
+            inds.set(q, species.copyIndividual(inds.get(q), thread));
             }
 
         return n;
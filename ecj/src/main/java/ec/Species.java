@@ -91,6 +91,10 @@ public abstract class Species implements Prototype
 
     /** The prototypical fitness for individuals of this species. */
     public Fitness f_prototype;    
+
+    /** Dead individuals of this species available for recycling, or null if individuals aren't being pooled.
+        See IndividualPool. */
+    public transient IndividualPool pool;
     
     public Object clone()
         {
@@ -100,6 +104,7 @@ public abstract class Species implements Prototype
             myobj.i_prototype = (Individual) i_prototype.clone();
             myobj.f_prototype = (Fitness) f_prototype.clone();
             myobj.pipe_prototype = (BreedingSource) pipe_prototype.clone();
+            myobj.pool = null;
             return myobj;
             }
         catch (CloneNotSupportedException e)
@@ -122,7 +127,7 @@ public abstract class Species implements Prototype
     
     public Individual newIndividual(final EvolutionState state, int thread)
         {
-        Individual newind = (Individual)(i_prototype.clone());
+        Individual newind = copyIndividual(i_prototype, thread);
 
         // Set the fitness
         newind.fitness = (Fitness)(f_prototype.clone());
@@ -135,6 +140,15 @@ public abstract class Species implements Prototype
         return newind;
         }
     
+    /** Returns a deep copy of ind, an individual of this species (or its prototype).  If individuals are
+        being pooled, this recycles a dead individual where possible: otherwise it simply clones ind. */
+    public Individual copyIndividual(Individual ind, int thread)
+        {
+        if (pool == null)
+            return (Individual)(ind.clone());
+        else return pool.copy(ind, thread);
+        }
+
     /**
        Provides an individual read from a stream, including
        the fitness; the individual will
@@ -37,8 +37,21 @@ public class CartPole extends Problem implements SimpleProblemForm
 
         return out;
         }
+
+    /** Feed-forward networks are activated compiled, which is much faster, and gives the same outputs. */
+    public double[] getNetOutput(NEATCompiledNetwork net, double[][] in, double[] out)
+        {
+        net.activate(in[0], out);
+        return out;
+        }
+
     public int runCartPole(NEATNetwork net, EvolutionState state)
         {
+        return runCartPole(net, null, state);
+        }
+
+    public int runCartPole(NEATNetwork net, NEATCompiledNetwork compiled, EvolutionState state)
+        {
 
 
 
@@ -54,6 +67,7 @@ public class CartPole extends Problem implements SimpleProblemForm
 
 
         double[][] in= new double[1][5];
+        double[] results = (compiled == null ? null : new double[compiled.getNumOutputs()]);
         while (steps++ < MAX_STEPS)
             {
 
@@ -66,7 +80,7 @@ public class CartPole extends Problem implements SimpleProblemForm
             in[0][3] = (theta + twelve_degrees) / .41;
             in[0][4] = (theta_dot + 1.0) / 2.0;
 
-            double[] out = getNetOutput(net,in,state);
+            double[] out = (compiled != null ? getNetOutput(compiled, in, results) : getNetOutput(net,in,state));
 
             /*-- decide which way to push via which output unit is greater --*/
             if(out[0] > out[1])
@@ -135,8 +149,9 @@ public class CartPole extends Problem implements SimpleProblemForm
 
 
         NEATNetwork net = neatInd.createNetwork();
+        NEATCompiledNetwork compiled = neatInd.compileNetwork();
 
-        double fitness = runCartPole(net, state);
+        double fitness = runCartPole(net, (compiled.isFeedForward() ? compiled : null), state);
 
         ((SimpleFitness)neatInd.fitness).setFitness(state, fitness, fitness >= (double)MAX_STEPS);
         neatInd.evaluated = true;
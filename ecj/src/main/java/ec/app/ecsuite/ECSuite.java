@@ -285,18 +285,20 @@ public class ECSuite extends Problem implements SimpleProblemForm
         if (ind.evaluated)  // don't bother reevaluating
             return;
 
-        if( !( ind instanceof DoubleVectorIndividual ) )
-            state.output.fatal( "The individuals for this problem should be DoubleVectorIndividuals." );
-
-        DoubleVectorIndividual temp = (DoubleVectorIndividual)ind;
-        double[] genome = temp.genome;
+        double[] genome = null;
+        if (ind instanceof DoubleVectorIndividual)
+            genome = ((DoubleVectorIndividual)ind).genome;
+        else if (ind instanceof DoubleVectorView)  // copy it out of the matrix
+            genome = ((DoubleVectorView)ind).loadGenome(threadnum);
+        else
+            state.output.fatal( "The individuals for this problem should be DoubleVectorIndividuals or DoubleVectorViews." );
         //int len = genome.length;
 
         // this curious break-out makes it easy to use the isOptimal() and function() methods
         // for other purposes, such as coevolutionary versions of this class.
 
         // compute the fitness on a per-function basis
-        double fit = (function(state, problemType, temp.genome, threadnum));
+        double fit = (function(state, problemType, genome, threadnum));
 
         // compute if we're optimal on a per-function basis
         boolean isOptimal = isOptimal(problemType, fit);
@@ -28,6 +28,10 @@ import ec.simple.*;
  * which returns true if the number of 1's is even (for even-parity) or odd
  * (for odd-parity), false otherwise. 
  *
+ * <p>If the <tt>batch</tt> parameter is true, each tree is evaluated on 64 fitness cases at a time,
+ * with the results packed into the bits of a long (see BatchNodeForm and ParityBatchData), as long
+ * as all of its nodes support this.  The fitness is the same as that of ordinary evaluation.
+ *
  <p><b>Parameters</b><br>
  <table>
  <tr><td valign=top><i>base</i>.<tt>data</tt><br>
@@ -39,6 +43,9 @@ import ec.simple.*;
  <tr><td valign=top><i>base</i>.<tt>bits</tt><br>
  <font size=-1> 2 &gt;= int &lt;= 31</font></td>
  <td valign=top>(The number of data bits)</td></tr>
+ <tr><td valign=top><i>base</i>.<tt>batch</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should trees be evaluated on 64 fitness cases at a time?)</td></tr>
  </table>
 
  <p><b>Parameter bases</b><br>
@@ -57,6 +64,10 @@ public class Parity extends GPProblem implements SimpleProblemForm
 
     public static final String P_NUMBITS = "bits";
     public static final String P_EVEN = "even";
+    public static final String P_BATCH = "batch";
+
+    /** The largest number of words (of 64 fitness cases each) in a batch. */
+    public static final int BATCH_WORDS = 1024;
 
     public boolean doEven;
     public int numBits;
@@ -64,6 +75,9 @@ public class Parity extends GPProblem implements SimpleProblemForm
 
     public int bits;  // data bits
 
+    // the batched GPData, or null if we're not evaluating in batch
+    public ParityBatchData batchInput;
+
     public void setup(final EvolutionState state,
         final Parameter base)
         {
@@ -87,6 +101,17 @@ public class Parity extends GPProblem implements SimpleProblemForm
             totalSize *=2;   // safer than Math.pow()
 
         doEven = state.parameters.getBoolean(base.push(P_EVEN),null,true);
+
+        if (state.parameters.getBoolean(base.push(P_BATCH),null,false))
+            batchInput = new ParityBatchData();
+        }
+
+    public Object clone()
+        {
+        Parity prob = (Parity)(super.clone());
+        if (batchInput != null)
+            prob.batchInput = (ParityBatchData)(batchInput.clone());
+        return prob;
         }
 
 
@@ -97,26 +122,45 @@ public class Parity extends GPProblem implements SimpleProblemForm
         {
         if (!ind.evaluated)  // don't bother reevaluating
             {
-            ParityData input = (ParityData)(this.input);
-
+            GPNode root = ((GPIndividual)ind).trees[0].child;
             int sum = 0;
-                
-            for(bits=0;bits<totalSize;bits++)
+            if (batchInput != null && ParityBatchData.batchable(root))
+                {
+                for(long start = 0; start < totalSize; start += BATCH_WORDS * 64L)
+                    {
+                    long cases = Math.min(BATCH_WORDS * 64L, totalSize - start);
+                    int words = (int)((cases + 63) >>> 6);
+                    batchInput.reset(start, words);
+                    batchInput.eval(root,state,threadnum,stack,((GPIndividual)ind),this);
+                    for(int w = 0; w < words; w++)
+                        {
+                        // a case is a hit if its result's low bit differs from its oddness (even-parity), or matches it (odd-parity)
+                        long hits = batchInput.x[w] ^ ParityBatchData.odd(start + ((long)w << 6));
+                        if (!doEven) hits = ~hits;
+                        long remaining = cases - ((long)w << 6);
+                        if (remaining < 64)
+                            hits &= (1L << remaining) - 1;
+                        sum += Long.bitCount(hits);
+                        }
+                    }
+                }
+            else
                 {
-                int tb = 0;
-                // first, is #bits even or odd?
-                for(int b=0;b<numBits;b++)
-                    tb += (bits >>> b) & 1;
-                tb &= 1;  // now tb is 1 if we're odd, 0 if we're even
-
-                ((GPIndividual)ind).trees[0].child.eval(
-                    state,threadnum,input,stack,((GPIndividual)ind),this);
-
-                if ((doEven && ((input.x & 1) != tb)) ||
-                    ((!doEven) && ((input.x & 1) == tb)))
-                    sum++;
+                ParityData input = (ParityData)(this.input);
+                for(bits=0;bits<totalSize;bits++)
+                    {
+                    int tb = 0;
+                    // first, is #bits even or odd?
+                    for(int b=0;b<numBits;b++)
+                        tb += (bits >>> b) & 1;
+                    tb &= 1;  // now tb is 1 if we're odd, 0 if we're even
+                    root.eval(
+                        state,threadnum,input,stack,((GPIndividual)ind),this);
+                    if ((doEven && ((input.x & 1) != tb)) ||
+                        ((!doEven) && ((input.x & 1) == tb)))
+                        sum++;
+                    }
                 }
-                
             // the fitness better be KozaFitness!
             KozaFitness f = ((KozaFitness)ind.fitness);
             f.setStandardizedFitness(state, (totalSize - sum));
@@ -0,0 +1,145 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.app.parity;
+import ec.*;
+import ec.gp.*;
+
+/*
+ * ParityBatchData.java
+ *
+ * Created: Sat Oct 17 2026
+ */
+
+/**
+ * ParityBatchData is the batched counterpart of ParityData, used by nodes implementing
+ * BatchNodeForm.  Since each fitness case has a one-bit result, the cases are packed 64 to a long:
+ * case <i>start + 64w + j</i> of the batch is bit <i>j</i> of word <i>w</i> of the column x.
+ * Nodes thus compute 64 cases at a time with ordinary bitwise operators.  Only the low bit of
+ * each case's result is meaningful, just as only the low bit of ParityData.x is, and the
+ * bits of the last word beyond the last case are garbage.
+ *
+ * <p>A nonterminal evaluates its first child, calls save() to set the resulting column aside,
+ * evaluates its next child into x, combines the two in place in x, and hands the saved column
+ * back with release(...).  Columns are recycled, so no further arrays are allocated once the
+ * data has seen a tree of a given depth.
+ *
+ * @author Sean Luke
+ * @version 1.0
+ */
+
+public class ParityBatchData extends GPData
+    {
+    private static final long serialVersionUID = 1;
+
+    // bit j of PATTERNS[b] is bit b of j, for b < 6
+    static final long[] PATTERNS = { 0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+                                     0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L };
+
+    /** The return values, 64 fitness cases to a word. */
+    public long[] x = new long[0];
+
+    /** The number of words in the batch. */
+    public int size;
+
+    /** The first fitness case of the batch, a multiple of 64. */
+    public long start;
+
+    // columns available for save()
+    long[][] spares = new long[0][];
+    int numSpares = 0;
+
+    static final GPNodeGatherer UNBATCHABLE = new GPNodeGatherer()
+        {
+        public boolean test(final GPNode node) { return !(node instanceof BatchNodeForm); }
+        };
+
+    /** Returns true if every node in the tree rooted at <i>root</i> implements BatchNodeForm. */
+    public static boolean batchable(GPNode root)
+        {
+        return root.numNodes(UNBATCHABLE) == 0;
+        }
+
+    /** Prepares for a batch of <i>size</i> words of fitness cases, beginning with case <i>start</i>,
+        which must be a multiple of 64. */
+    public void reset(long start, int size)
+        {
+        this.start = start;
+        if (this.size != size)
+            {
+            this.size = size;
+            x = new long[size];
+            numSpares = 0;  // they're the wrong size now
+            }
+        }
+
+    /** Evaluates the given node into x. */
+    public void eval(final GPNode node,
+        final EvolutionState state,
+        final int thread,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        ((BatchNodeForm)node).evalBatch(state,thread,this,stack,individual,problem);
+        }
+
+    /** Sets x to data bit number <i>bit</i> of each fitness case. */
+    public void data(int bit)
+        {
+        if (bit < PATTERNS.length)
+            java.util.Arrays.fill(x, 0, size, PATTERNS[bit]);
+        else for(int w = 0; w < size; w++)
+                 x[w] = -(((start + ((long)w << 6)) >>> bit) & 1L);  // all ones or all zeros
+        }
+
+    /** Returns a word whose bit j is 1 if case <i>first + j</i> has an odd number of 1 bits,
+        where <i>first</i> is a multiple of 64. */
+    public static long odd(long first)
+        {
+        // bit j of 0x6996966996696996 is the parity of j
+        return ((Long.bitCount(first) & 1) == 0 ? 0x6996966996696996L : ~0x6996966996696996L);
+        }
+
+    /** Returns the current column x, replacing it with a spare one.  The returned
+        column should eventually be handed back with release(...). */
+    public long[] save()
+        {
+        long[] saved = x;
+        x = (numSpares > 0 ? spares[--numSpares] : new long[size]);
+        return saved;
+        }
+
+    /** Returns a column obtained from save() to be reused. */
+    public void release(long[] column)
+        {
+        if (column.length != size) return;
+        if (numSpares == spares.length)
+            {
+            long[][] s = new long[numSpares * 2 + 1][];
+            System.arraycopy(spares, 0, s, 0, numSpares);
+            spares = s;
+            }
+        spares[numSpares++] = column;
+        }
+
+    public void copyTo(final GPData gpd)
+        {
+        ParityBatchData other = (ParityBatchData)gpd;
+        other.reset(start, size);
+        System.arraycopy(x, 0, other.x, 0, size);
+        }
+
+    public Object clone()
+        {
+        ParityBatchData other = (ParityBatchData)(super.clone());
+        other.x = (long[])(x.clone());
+        other.spares = new long[0][];
+        other.numSpares = 0;
+        return other;
+        }
+    }
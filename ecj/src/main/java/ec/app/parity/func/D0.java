@@ -23,7 +23,7 @@ import ec.util.*;
  * @version 1.0 
  */
 
-public class D0 extends GPNode
+public class D0 extends GPNode implements BatchNodeForm
     {
     public String toString() { return "D0"; }
 
@@ -42,6 +42,16 @@ public class D0 extends GPNode
     */
     public int expectedChildren() { return 0; }
 
+    public void evalBatch(final EvolutionState state,
+        final int thread,
+        final GPData input,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        ((ParityBatchData)(input)).data(0);
+        }
+
     public void eval(final EvolutionState state,
         final int thread,
         final GPData input,
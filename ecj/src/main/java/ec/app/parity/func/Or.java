@@ -23,7 +23,7 @@ import ec.util.*;
  * @version 1.0 
  */
 
-public class Or extends GPNode
+public class Or extends GPNode implements BatchNodeForm
     {
     public String toString() { return "or"; }
 
@@ -43,6 +43,23 @@ public class Or extends GPNode
 
     public int expectedChildren() { return 2; }
 
+    public void evalBatch(final EvolutionState state,
+        final int thread,
+        final GPData input,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        ParityBatchData d = ((ParityBatchData)(input));
+        d.eval(children[0],state,thread,stack,individual,problem);
+        long[] result = d.save();
+        d.eval(children[1],state,thread,stack,individual,problem);
+        long[] x = d.x;
+        for(int w = 0; w < d.size; w++)
+            x[w] = result[w] | x[w];
+        d.release(result);
+        }
+
     public void eval(final EvolutionState state,
         final int thread,
         final GPData input,
@@ -3,6 +3,7 @@ import ec.util.*;
 import ec.*;
 import ec.gp.*;
 import ec.gp.koza.*;
+import ec.gp.linear.*;
 import ec.simple.*;
 import java.io.*;
 import java.util.*;
@@ -49,6 +50,10 @@ import java.util.*;
 /**
  * Benchmarks by various people in the literature.
  *
+ * <p>Like Regression, Benchmarks can compile its trees (the GPProblem <tt>compile</tt> parameter)
+ * or evaluate them on all the training cases at once (the <i>base</i>.<tt>batch</tt> parameter).
+ * It also evaluates LinearGPIndividuals, with a LinearInterpreter if it can.
+ *
  */
 public class Benchmarks extends GPProblem implements SimpleProblemForm
     {
@@ -652,6 +657,7 @@ public class Benchmarks extends GPProblem implements SimpleProblemForm
     public static final String P_TESTING_FILE = "testing-file";
     public static final String P_TRAINING_FILE = "training-file";
     public static final String P_PROBLEM_TYPE = "type";
+    public static final String P_BATCH = "batch";
 
     public double[] currentValue;
     
@@ -663,6 +669,13 @@ public class Benchmarks extends GPProblem implements SimpleProblemForm
     public double[] trainingOutputs;
     public double[][] testingInputs;
     public double[] testingOutputs;
+    public double[][] trainingColumns;  // trainingInputs transposed, for RegressionBatchData
+
+    // the batched GPData, or null if we're not evaluating in batch
+    public RegressionBatchData batchInput;
+
+    // the interpreter for LinearGPIndividuals, built as needed
+    transient LinearInterpreter interpreter;
 
     // don't bother cloning the inputs and outputs; they're read-only :-)
     // don't bother cloning the current value, it's only set during evaluation
@@ -843,6 +856,27 @@ public class Benchmarks extends GPProblem implements SimpleProblemForm
                     param);
             else state.output.message("Using function set " + pval);
             }
+
+        if (state.parameters.getBoolean(base.push(P_BATCH), null, false))
+            {
+            batchInput = new RegressionBatchData();
+            batchInput.cache = semanticsCache;
+            trainingColumns = new double[trainingInputs[0].length][trainingInputs.length];
+            for(int y = 0; y < trainingInputs.length; y++)
+                for(int v = 0; v < trainingInputs[y].length; v++)
+                    trainingColumns[v][y] = trainingInputs[y][v];
+            }
+        else if (semanticsCache != null)
+            state.output.warning("The semantics cache is only used when evaluating in batch.", base.push(P_BATCH));
+        }
+
+    public Object clone()
+        {
+        Benchmarks prob = (Benchmarks)(super.clone());
+        if (batchInput != null)
+            prob.batchInput = (RegressionBatchData)(batchInput.clone());
+        prob.interpreter = null;  // each clone needs its own stack
+        return prob;
         }
 
 
@@ -858,14 +892,46 @@ public class Benchmarks extends GPProblem implements SimpleProblemForm
         if (!ind.evaluated)  // don't bother reevaluating
             {
             RegressionData input = (RegressionData)(this.input);
+            GPIndividual gpind = null;
+            LinearGPSpecies linearSpecies = null;
+            LinearGPTree linear = null;
+            if (ind instanceof LinearGPIndividual)
+                {
+                linearSpecies = (LinearGPSpecies)(ind.species);
+                linear = ((LinearGPIndividual)ind).trees[0];
+                if (!linearSpecies.interpretable(linear))
+                    { gpind = linearSpecies.toGPIndividual((LinearGPIndividual)ind); linear = null; }
+                else if (interpreter == null) interpreter = new LinearInterpreter();
+                }
+            else gpind = (GPIndividual)ind;
+
+            double[] batched = null;
+            GPTreeCompiler.CompiledTree compiled = null;
+            if (gpind != null)
+                {
+                GPNode root = gpind.trees[0].child;
+                if (batchInput != null && RegressionBatchData.batchable(root))
+                    {
+                    batchInput.reset(trainingColumns, trainingInputs.length);
+                    batchInput.eval(root,state,threadnum,stack,gpind,this);
+                    batched = batchInput.x;
+                    }
+                compiled = (batched != null || compiler == null ? null : compiler.compile(state, root));
+                }
 
             int hits = 0;
             double sum = 0.0;
             for (int y=0;y<trainingInputs.length;y++)
                 {
                 currentValue = trainingInputs[y];
-                ((GPIndividual)ind).trees[0].child.eval(
-                    state,threadnum,input,stack,((GPIndividual)ind),this);
+                if (batched != null)
+                    input.x = batched[y];
+                else if (linear != null)
+                    input.x = interpreter.eval(linearSpecies, linear, currentValue);
+                else if (compiled != null)
+                    input.x = compiled.eval(currentValue);
+                else gpind.trees[0].child.eval(
+                    state,threadnum,input,stack,gpind,this);
 
                 double error = error(input.x, trainingOutputs[y]);
                                 
@@ -888,6 +954,7 @@ public class Benchmarks extends GPProblem implements SimpleProblemForm
     public void describe(EvolutionState state, Individual ind, int subpopulation, int threadnum, int log)
         {
         RegressionData input = (RegressionData)(this.input);
+        GPIndividual gpind = (ind instanceof LinearGPIndividual ? ((LinearGPIndividual)ind).toGPIndividual() : (GPIndividual)ind);
 
         // we do the testing set here
         
@@ -898,8 +965,8 @@ public class Benchmarks extends GPProblem implements SimpleProblemForm
         for (int y=0;y<testingInputs.length;y++)
             {
             currentValue = testingInputs[y];
-            ((GPIndividual)ind).trees[0].child.eval(
-                state,threadnum,input,stack,((GPIndividual)ind),this);
+            gpind.trees[0].child.eval(
+                state,threadnum,input,stack,gpind,this);
 
             double error = error(input.x, testingOutputs[y]);
                         
@@ -10,6 +10,7 @@ import ec.util.*;
 import ec.*;
 import ec.gp.*;
 import ec.gp.koza.*;
+import ec.gp.linear.*;
 import ec.simple.*;
 import java.io.*;
 import java.util.*;
@@ -27,6 +28,14 @@ import java.util.*;
  * <p>The equation to be regressed is y = x^4 + x^3 + x^2 + x, {x in [-1,1]}
  * <p>This equation was introduced in J. R. Koza, GP II, 1994.
  *
+ * <p>If the GPProblem's <tt>compile</tt> parameter is true, each tree is compiled once by
+ * a GPTreeCompiler and the compiled form is run on the fitness cases.
+ * If the <tt>batch</tt> parameter is true, each tree is instead evaluated on all the fitness cases
+ * at once (see BatchNodeForm and RegressionBatchData), as long as all of its nodes support this.
+ * Batched evaluation may also use the GPProblem's SemanticsCache (the <tt>semantics-cache</tt> parameter).
+ * LinearGPIndividuals are evaluated with a LinearInterpreter, or if some of their nodes are not LinearNodeForms,
+ * converted to GPIndividuals and evaluated as usual.
+ *
  <p><b>Parameters</b><br>
  <table>
  <tr><td valign=top><i>base</i>.<tt>data</tt><br>
@@ -35,6 +44,9 @@ import java.util.*;
  <tr><td valign=top><i>base</i>.<tt>size</tt><br>
  <font size=-1>int >= 1</font></td>
  <td valign=top>(the size of the training set)</td></tr>
+ <tr><td valign=top><i>base</i>.<tt>batch</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should trees be evaluated on all fitness cases at once?)</td></tr>
  </table>
 
  <p><b>Parameter bases</b><br>
@@ -54,6 +66,7 @@ public class Regression extends GPProblem implements SimpleProblemForm
     public static final String P_SIZE = "size";
     public static final String P_FILE = "file";
     public static final String P_USE_FUNCTION = "use-function";
+    public static final String P_BATCH = "batch";
 
     public double currentValue;
     public int trainingSetSize;
@@ -67,6 +80,13 @@ public class Regression extends GPProblem implements SimpleProblemForm
     
     public double inputs[];
     public double outputs[];
+    public double inputColumns[][];  // just { inputs }, for RegressionBatchData
+
+    // the batched GPData, or null if we're not evaluating in batch
+    public RegressionBatchData batchInput;
+
+    // the interpreter for LinearGPIndividuals, built as needed
+    transient LinearInterpreter interpreter;
 
     // don't bother cloning the inputs and outputs; they're read-only :-)
     // don't bother cloning the currentValue; it's transitory
@@ -142,6 +162,24 @@ public class Regression extends GPProblem implements SimpleProblemForm
                 outputs[x] = func(inputs[x]);
             state.output.message("{" + inputs[x] + "," + outputs[x] + "},");
             }
+        inputColumns = new double[][] { inputs };
+
+        if (state.parameters.getBoolean(base.push(P_BATCH), null, false))
+            {
+            batchInput = new RegressionBatchData();
+            batchInput.cache = semanticsCache;
+            }
+        else if (semanticsCache != null)
+            state.output.warning("The semantics cache is only used when evaluating in batch.", base.push(P_BATCH));
+        }
+
+    public Object clone()
+        {
+        Regression prob = (Regression)(super.clone());
+        if (batchInput != null)
+            prob.batchInput = (RegressionBatchData)(batchInput.clone());
+        prob.interpreter = null;  // each clone needs its own stack
+        return prob;
         }
 
 
@@ -153,6 +191,33 @@ public class Regression extends GPProblem implements SimpleProblemForm
         if (!ind.evaluated)  // don't bother reevaluating
             {
             RegressionData input = (RegressionData)(this.input);
+            GPIndividual gpind = null;
+            LinearGPSpecies linearSpecies = null;
+            LinearGPTree linear = null;
+            if (ind instanceof LinearGPIndividual)
+                {
+                linearSpecies = (LinearGPSpecies)(ind.species);
+                linear = ((LinearGPIndividual)ind).trees[0];
+                if (!linearSpecies.interpretable(linear))
+                    { gpind = linearSpecies.toGPIndividual((LinearGPIndividual)ind); linear = null; }
+                else if (interpreter == null) interpreter = new LinearInterpreter();
+                }
+            else gpind = (GPIndividual)ind;
+
+            double[] batched = null;
+            GPTreeCompiler.CompiledTree compiled = null;
+            if (gpind != null)
+                {
+                GPNode root = gpind.trees[0].child;
+                if (batchInput != null && RegressionBatchData.batchable(root))
+                    {
+                    batchInput.reset(inputColumns, trainingSetSize);
+                    batchInput.eval(root,state,threadnum,stack,gpind,this);
+                    batched = batchInput.x;
+                    }
+                compiled = (batched != null || compiler == null ? null : compiler.compile(state, root));
+                }
+            double[] variables = new double[1];
 
             int hits = 0;
             double sum = 0.0;
@@ -160,8 +225,20 @@ public class Regression extends GPProblem implements SimpleProblemForm
             for (int y=0;y<trainingSetSize;y++)
                 {
                 currentValue = inputs[y];
-                ((GPIndividual)ind).trees[0].child.eval(
-                    state,threadnum,input,stack,((GPIndividual)ind),this);
+                if (batched != null)
+                    input.x = batched[y];
+                else if (linear != null)
+                    {
+                    variables[0] = currentValue;
+                    input.x = interpreter.eval(linearSpecies, linear, variables);
+                    }
+                else if (compiled != null)
+                    {
+                    variables[0] = currentValue;
+                    input.x = compiled.eval(variables);
+                    }
+                else gpind.trees[0].child.eval(
+                    state,threadnum,input,stack,gpind,this);
 
                 // It's possible to get NaN because cos(infinity) and
                 // sin(infinity) are undefined (hence cos(exp(3000)) zings ya!)
@@ -0,0 +1,151 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.app.regression;
+import ec.*;
+import ec.gp.*;
+
+/* 
+ * RegressionBatchData.java
+ * 
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * RegressionBatchData is the batched counterpart of RegressionData, used by nodes implementing
+ * BatchNodeForm.  Rather than a single return value x, it holds a column x of return values,
+ * one per fitness case, of which the first <i>size</i> are meaningful.  It also holds the
+ * input variables of all the fitness cases, one column per variable, for terminals to copy from.
+ *
+ * <p>Nodes should evaluate their children with eval(...) rather than calling evalBatch(...) directly,
+ * so that the results of nonterminal subtrees can be looked up in the problem's SemanticsCache, if any.
+ * A nonterminal typically evaluates its first child, calls save() to set the resulting column aside
+ * (x is replaced by a spare column), evaluates its next child into x, combines the two in place
+ * in x, and finally hands the saved column back with release(...).  Columns are recycled, so
+ * once the data has seen a tree of a given depth, no further arrays are allocated.
+ *
+ * @version 1.0 
+ */
+
+public class RegressionBatchData extends GPData
+    {
+    private static final long serialVersionUID = 1;
+
+    /** The return values, one per fitness case. */
+    public double[] x = new double[0];
+
+    /** The number of fitness cases. */
+    public int size;
+
+    /** The input variables, indexed as variables[variable][case].  Read-only. */
+    public double[][] variables;
+
+    /** The cache of subtree results, or null.  Shared. */
+    public SemanticsCache cache;
+
+    // columns available for save()
+    double[][] spares = new double[0][];
+    int numSpares = 0;
+
+    static final GPNodeGatherer UNBATCHABLE = new GPNodeGatherer()
+        {
+        public boolean test(final GPNode node) { return !(node instanceof BatchNodeForm); }
+        };
+
+    /** Returns true if every node in the tree rooted at <i>root</i> implements BatchNodeForm. */
+    public static boolean batchable(GPNode root)
+        {
+        return root.numNodes(UNBATCHABLE) == 0;
+        }
+
+    /** Prepares for a batch of fitness cases with the given input variables, indexed
+        as variables[variable][case], each column holding <i>size</i> values. */
+    public void reset(double[][] variables, int size)
+        {
+        this.variables = variables;
+        if (this.size != size)
+            {
+            this.size = size;
+            x = new double[size];
+            numSpares = 0;  // they're the wrong size now
+            }
+        }
+
+    /** Evaluates the given node into x.  If there is a cache, the results of nonterminals are looked up in
+        the cache first, and stored in it if they were not found.  Terminals are always evaluated directly, as
+        this is cheaper than looking them up. */
+    public void eval(final GPNode node,
+        final EvolutionState state,
+        final int thread,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        if (cache == null || node.children.length == 0)
+            {
+            ((BatchNodeForm)node).evalBatch(state,thread,this,stack,individual,problem);
+            return;
+            }
+
+        GPTreeKey key = new GPTreeKey(node);
+        double[] column = (double[])(cache.get(key));
+        if (column != null && column.length == size)
+            System.arraycopy(column, 0, x, 0, size);
+        else
+            {
+            ((BatchNodeForm)node).evalBatch(state,thread,this,stack,individual,problem);
+            if (cache.admit(key))
+                cache.put(key, java.util.Arrays.copyOf(x, size));
+            }
+        }
+
+    /** Sets x to input variable number <i>index</i>, or to all zeros if there are not that many variables. */
+    public void variable(int index)
+        {
+        if (index < variables.length)
+            System.arraycopy(variables[index], 0, x, 0, size);
+        else java.util.Arrays.fill(x, 0, size, 0.0);
+        }
+
+    /** Returns the current column x, replacing it with a spare one.  The returned
+        column should eventually be handed back with release(...). */
+    public double[] save()
+        {
+        double[] saved = x;
+        x = (numSpares > 0 ? spares[--numSpares] : new double[size]);
+        return saved;
+        }
+
+    /** Returns a column obtained from save() to be reused. */
+    public void release(double[] column)
+        {
+        if (column.length != size) return;
+        if (numSpares == spares.length)
+            {
+            double[][] s = new double[numSpares * 2 + 1][];
+            System.arraycopy(spares, 0, s, 0, numSpares);
+            spares = s;
+            }
+        spares[numSpares++] = column;
+        }
+
+    public void copyTo(final GPData gpd) 
+        {
+        RegressionBatchData other = (RegressionBatchData)gpd;
+        other.reset(variables, size);
+        System.arraycopy(x, 0, other.x, 0, size);
+        }
+
+    public Object clone()
+        {
+        RegressionBatchData other = (RegressionBatchData)(super.clone());
+        other.x = (double[])(x.clone());
+        other.spares = new double[0][];
+        other.numSpares = 0;
+        return other;
+        }
+    }
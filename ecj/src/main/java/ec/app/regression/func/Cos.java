@@ -9,6 +9,7 @@ package ec.app.regression.func;
 import ec.*;
 import ec.app.regression.*;
 import ec.gp.*;
+import ec.gp.linear.*;
 import ec.util.*;
 
 /* 
@@ -23,7 +24,7 @@ import ec.util.*;
  * @version 1.0 
  */
 
-public class Cos extends GPNode
+public class Cos extends GPNode implements CompilableNodeForm, BatchNodeForm, LinearNodeForm
     {
     public String toString() { return "cos"; }
 
@@ -42,6 +43,33 @@ public class Cos extends GPNode
     */
     public int expectedChildren() { return 1; }
 
+    public static double cos(double a) { return /*Strict*/Math.cos(a); }
+
+    public void compile(final GPTreeCompiler.Emitter emitter)
+        {
+        emitter.invoke(Cos.class, "cos", 1);
+        }
+
+    public int evalLinear(final double[] stack, final int top, final double[] variables)
+        {
+        stack[top - 1] = cos(stack[top - 1]);
+        return top;
+        }
+
+    public void evalBatch(final EvolutionState state,
+        final int thread,
+        final GPData input,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        RegressionBatchData rd = ((RegressionBatchData)(input));
+        rd.eval(children[0],state,thread,stack,individual,problem);
+        double[] x = rd.x;
+        for(int i = 0; i < rd.size; i++)
+            x[i] = /*Strict*/Math.cos(x[i]);
+        }
+
     public void eval(final EvolutionState state,
         final int thread,
         final GPData input,
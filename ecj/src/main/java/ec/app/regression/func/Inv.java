@@ -9,6 +9,7 @@ package ec.app.regression.func;
 import ec.*;
 import ec.app.regression.*;
 import ec.gp.*;
+import ec.gp.linear.*;
 import ec.util.*;
 
 /* 
@@ -28,12 +29,39 @@ import ec.util.*;
  * @version 1.0 
  */
 
-public class Inv extends GPNode
+public class Inv extends GPNode implements CompilableNodeForm, BatchNodeForm, LinearNodeForm
     {
     public String toString() { return "1/"; }
 
     public int expectedChildren() { return 1; }
 
+    public static double inv(double a) { return 1.0 / a; }
+
+    public void compile(final GPTreeCompiler.Emitter emitter)
+        {
+        emitter.invoke(Inv.class, "inv", 1);
+        }
+
+    public int evalLinear(final double[] stack, final int top, final double[] variables)
+        {
+        stack[top - 1] = inv(stack[top - 1]);
+        return top;
+        }
+
+    public void evalBatch(final EvolutionState state,
+        final int thread,
+        final GPData input,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        RegressionBatchData rd = ((RegressionBatchData)(input));
+        rd.eval(children[0],state,thread,stack,individual,problem);
+        double[] x = rd.x;
+        for(int i = 0; i < rd.size; i++)
+            x[i] = 1.0 / x[i];
+        }
+
     public void eval(final EvolutionState state,
         final int thread,
         final GPData input,
@@ -9,6 +9,7 @@ package ec.app.regression.func;
 import ec.*;
 import ec.app.regression.*;
 import ec.gp.*;
+import ec.gp.linear.*;
 import ec.util.*;
 
 /* 
@@ -23,7 +24,7 @@ import ec.util.*;
  * @version 1.0 
  */
 
-public class Log extends GPNode
+public class Log extends GPNode implements CompilableNodeForm, BatchNodeForm, LinearNodeForm
     {
     private static final long serialVersionUID = 1;
 
@@ -44,6 +45,33 @@ public class Log extends GPNode
     */
     public int expectedChildren() { return 1; }
 
+    public static double log(double a) { return (a == 0.0 ? 0.0 : /*Strict*/Math.log(/*Strict*/Math.abs(a))); }
+
+    public void compile(final GPTreeCompiler.Emitter emitter)
+        {
+        emitter.invoke(Log.class, "log", 1);
+        }
+
+    public int evalLinear(final double[] stack, final int top, final double[] variables)
+        {
+        stack[top - 1] = log(stack[top - 1]);
+        return top;
+        }
+
+    public void evalBatch(final EvolutionState state,
+        final int thread,
+        final GPData input,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        RegressionBatchData rd = ((RegressionBatchData)(input));
+        rd.eval(children[0],state,thread,stack,individual,problem);
+        double[] x = rd.x;
+        for(int i = 0; i < rd.size; i++)
+            x[i] = (x[i] == 0.0 ? 0.0 : /*Strict*/Math.log(/*Strict*/Math.abs(x[i])));
+        }
+
     public void eval(final EvolutionState state,
         final int thread,
         final GPData input,
@@ -9,6 +9,7 @@ package ec.app.regression.func;
 import ec.*;
 import ec.app.regression.*;
 import ec.gp.*;
+import ec.gp.linear.*;
 import ec.util.*;
 import java.io.*;
 
@@ -25,7 +26,7 @@ import java.io.*;
  * @version 1.0 
  */
 
-public class RegERC extends ERC
+public class RegERC extends ERC implements CompilableNodeForm, BatchNodeForm, LinearNodeForm
     {
     public double value;
 
@@ -96,6 +97,28 @@ public class RegERC extends ERC
     public String toStringForHumans()
         { return "" + value; }
 
+    public void compile(final GPTreeCompiler.Emitter emitter)
+        {
+        emitter.constant(value);
+        }
+
+    public int evalLinear(final double[] stack, final int top, final double[] variables)
+        {
+        stack[top] = value;
+        return top + 1;
+        }
+
+    public void evalBatch(final EvolutionState state,
+        final int thread,
+        final GPData input,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        RegressionBatchData rd = ((RegressionBatchData)(input));
+        java.util.Arrays.fill(rd.x, 0, rd.size, value);
+        }
+
     public void eval(final EvolutionState state,
         final int thread,
         final GPData input,
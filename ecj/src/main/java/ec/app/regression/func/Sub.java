@@ -9,6 +9,7 @@ package ec.app.regression.func;
 import ec.*;
 import ec.app.regression.*;
 import ec.gp.*;
+import ec.gp.linear.*;
 import ec.util.*;
 
 /* 
@@ -23,7 +24,7 @@ import ec.util.*;
  * @version 1.0 
  */
 
-public class Sub extends GPNode
+public class Sub extends GPNode implements CompilableNodeForm, BatchNodeForm, LinearNodeForm
     {
     public String toString() { return "-"; }
 
@@ -42,6 +43,34 @@ public class Sub extends GPNode
     */
     public int expectedChildren() { return 2; }
 
+    public void compile(final GPTreeCompiler.Emitter emitter)
+        {
+        emitter.subtract();
+        }
+
+    public int evalLinear(final double[] stack, final int top, final double[] variables)
+        {
+        stack[top - 2] = stack[top - 1] - stack[top - 2];
+        return top - 1;
+        }
+
+    public void evalBatch(final EvolutionState state,
+        final int thread,
+        final GPData input,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        RegressionBatchData rd = ((RegressionBatchData)(input));
+        rd.eval(children[0],state,thread,stack,individual,problem);
+        double[] result = rd.save();
+        rd.eval(children[1],state,thread,stack,individual,problem);
+        double[] x = rd.x;
+        for(int i = 0; i < rd.size; i++)
+            x[i] = result[i] - x[i];
+        rd.release(result);
+        }
+
     public void eval(final EvolutionState state,
         final int thread,
         final GPData input,
@@ -36,6 +36,32 @@ public class VladERCB extends VladERCA
     public String toStringForHumans()
         { return "n+" + value; }
 
+    public void compile(final GPTreeCompiler.Emitter emitter)
+        {
+        emitter.constant(value);
+        emitter.add();
+        }
+
+    public int evalLinear(final double[] stack, final int top, final double[] variables)
+        {
+        stack[top - 1] = stack[top - 1] + value;
+        return top;
+        }
+
+    public void evalBatch(final EvolutionState state,
+        final int thread,
+        final GPData input,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        RegressionBatchData rd = ((RegressionBatchData)(input));
+        rd.eval(children[0],state,thread,stack,individual,problem);
+        double[] x = rd.x;
+        for(int i = 0; i < rd.size; i++)
+            x[i] = x[i] + value;
+        }
+
     public void eval(final EvolutionState state,
         final int thread,
         final GPData input,
@@ -9,6 +9,7 @@ package ec.app.regression.func;
 import ec.*;
 import ec.app.regression.*;
 import ec.gp.*;
+import ec.gp.linear.*;
 import ec.util.*;
 
 /* 
@@ -23,7 +24,7 @@ import ec.util.*;
  * @version 1.0 
  */
 
-public class X2 extends GPNode
+public class X2 extends GPNode implements CompilableNodeForm, BatchNodeForm, LinearNodeForm
     {
     public String toString() { return "x2"; }
 
@@ -42,6 +43,28 @@ public class X2 extends GPNode
     */
     public int expectedChildren() { return 0; }
 
+    public void compile(final GPTreeCompiler.Emitter emitter)
+        {
+        emitter.variable(1);
+        }
+
+    public int evalLinear(final double[] stack, final int top, final double[] variables)
+        {
+        stack[top] = (variables.length >= 2 ? variables[1] : 0.0);
+        return top + 1;
+        }
+
+    public void evalBatch(final EvolutionState state,
+        final int thread,
+        final GPData input,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem)
+        {
+        RegressionBatchData rd = ((RegressionBatchData)(input));
+        rd.variable(1);
+        }
+
     public void eval(final EvolutionState state,
         final int thread,
         final GPData input,
@@ -23,6 +23,13 @@ import java.util.Map;
 import java.util.Set;
 
 /**
+ * A complete directed graph of TSPLIB nodes, with distances computed according to the instance's edge weight type.
+ *
+ * The graph can also hold a nearest-neighbor candidate list for each node (see <code>computeNearestNeighbors()</code>),
+ * which ACO and local search algorithms use to restrict their attention to short edges, and a precomputed matrix of
+ * the distances between every pair of nodes (see <code>computeDistanceMatrix()</code>).  All of the supported edge
+ * weight types give symmetric, integer distances, so the matrix holds one int for each unordered pair of distinct
+ * nodes: about 2<i>n</i><sup>2</sup> bytes for <i>n</i> nodes.
  *
  * @author Eric O. Scott
  */
@@ -32,6 +39,12 @@ public class TSPGraph {
     private EdgeWeightType edgeWeightType;
     private int dimension;
     private Map<Integer, double[]> nodes;
+    /** The same points as <code>nodes</code>, indexed by node ID. */
+    private double[][] points;
+    /** For each node, the IDs of its nearest neighbors, nearest first; or null if they haven't been computed. */
+    private int[][] nearestNeighbors;
+    /** The distance between nodes <i>i</i> &gt; <i>j</i> is at <i>i(i-1)/2 + j</i>; or null if it hasn't been computed. */
+    private int[] distanceMatrix;
     
     public EdgeWeightType weightType()
         {
@@ -44,6 +57,13 @@ public class TSPGraph {
         final BufferedReader r = new BufferedReader(new FileReader(file));
         loadHeader(r);
         nodes = loadNodes(r);
+        points = new double[dimension][];
+        for (final Map.Entry<Integer, double[]> node : nodes.entrySet())
+            {
+            if (node.getKey() < 0 || node.getKey() >= dimension)
+                throw new IllegalStateException(String.format("%s: node ID %d is out of range.  IDs must run from 1 to the 'DIMENSION' attribute (%d).", TSPProblem.class.getSimpleName(), node.getKey() + 1, dimension));
+            points[node.getKey()] = node.getValue();
+            }
         assert(repOK());
         }
     
@@ -165,6 +185,157 @@ public class TSPGraph {
         {
         return new TSPComponent(from, to);
         }
+
+    /** @return The distance from one node to another. */
+    public double distance(final int from, final int to)
+        {
+        if (distanceMatrix != null && from != to)
+            return (from > to ? distanceMatrix[from * (from - 1) / 2 + to] : distanceMatrix[to * (to - 1) / 2 + from]);
+        return distance(points[from], points[to]);
+        }
+
+    /** Precompute the distance between every pair of distinct nodes, so that <code>distance()</code> becomes a table
+     * lookup.  This takes O(<i>n</i><sup>2</sup>) time and memory for <i>n</i> nodes.  If the graph has more than
+     * 65536 nodes, or some distance is too large to fit in an int, no matrix is kept.
+     *
+     * @return Whether the matrix was computed. */
+    public boolean computeDistanceMatrix()
+        {
+        final int n = numNodes();
+        distanceMatrix = null;
+        if (n > 65536) // n(n-1)/2 would overflow an int index
+            return false;
+        final int[] result = new int[n * (n - 1) / 2];
+        int index = 0;
+        for (int i = 1; i < n; i++)
+            for (int j = 0; j < i; j++)
+                {
+                final double d = distance(points[i], points[j]);
+                if (d > Integer.MAX_VALUE)
+                    return false;
+                result[index++] = (int) d;
+                }
+        distanceMatrix = result;
+        return true;
+        }
+
+    /** @return Whether a distance matrix has been computed with <code>computeDistanceMatrix()</code>. */
+    public boolean hasDistanceMatrix()
+        {
+        return distanceMatrix != null;
+        }
+
+    /** Compute the <code>k</code> nearest neighbors of every node, which are afterwards available from
+     * <code>getNearestNeighbors()</code>.  This takes O(<i>n</i><sup>2</sup>) time for <i>n</i> nodes and small <i>k</i>.
+     * Ties are broken in favor of the node with the smaller ID. */
+    public void computeNearestNeighbors(final int k)
+        {
+        nearestNeighbors = (k == 0 ? null : findNearestNeighbors(k));
+        }
+
+    /** Compute the <code>k</code> nearest neighbors of every node, as <code>computeNearestNeighbors()</code> does,
+     * but return them rather than storing them in the graph.  Local search algorithms use this to get neighbor
+     * lists of their own size without disturbing the graph's candidate lists.
+     *
+     * @return For each node, the IDs of its <code>k</code> nearest neighbors, nearest first. */
+    public int[][] findNearestNeighbors(final int k)
+        {
+        final int n = numNodes();
+        if (k < 0 || k > n - 1)
+            throw new IllegalArgumentException(String.format("%s: the number of nearest neighbors must be between 0 and %d, but was %d.", this.getClass().getSimpleName(), n - 1, k));
+        final int[][] result = new int[n][];
+        final double[] dist = new double[k];
+        for (int i = 0; i < n; i++)
+            {
+            final int[] near = new int[k];
+            int size = 0;
+            for (int j = 0; j < n && k > 0; j++)
+                {
+                if (j == i)
+                    continue;
+                final double d = distance(i, j);
+                if (size == k && d >= dist[k - 1])
+                    continue;
+                // Insertion into the sorted list, dropping the farthest if it's full
+                int pos = (size == k ? k - 1 : size++);
+                while (pos > 0 && dist[pos - 1] > d)
+                    {
+                    dist[pos] = dist[pos - 1];
+                    near[pos] = near[pos - 1];
+                    pos--;
+                    }
+                dist[pos] = d;
+                near[pos] = j;
+                }
+            result[i] = near;
+            }
+        return result;
+        }
+
+    /** @return The number of nearest neighbors computed for each node, or 0 if they haven't been computed. */
+    public int numNearestNeighbors()
+        {
+        return (nearestNeighbors == null ? 0 : nearestNeighbors[0].length);
+        }
+
+    /** @return The IDs of the nearest neighbors of the given node, nearest first.  Don't modify this array.
+     *  <code>computeNearestNeighbors()</code> must have been called first. */
+    public int[] getNearestNeighbors(final int node)
+        {
+        if (nearestNeighbors == null)
+            throw new IllegalStateException(String.format("%s: nearest neighbors have not been computed.", this.getClass().getSimpleName()));
+        return nearestNeighbors[node];
+        }
+
+    private double distance(final double[] from, final double[] to)
+        {
+        switch (weightType())
+            {
+            default:
+            case EUC_2D:
+                return euclideanDistance(from, to);
+            case ATT:
+                return attDistance(from, to);
+            case GEO:
+                return geoDistance(from, to);
+            }
+        }
+
+    /** Euclidean distance, rounded to the nearest integer. */
+    private static double euclideanDistance(final double[] from, final double[] to)
+        {
+        final double dist = Math.sqrt(Math.pow(from[0] - to[0], 2) + Math.pow(from[1] - to[1], 2));
+
+        // TSPLIB's Euclidean distance metric rounds to the nearest integer.  Most (all?) TSPLIB benchmark tasks
+        // don't have distances small enough to be rounded down to zero.  We want to make sure that truly identical
+        // points have a distance of zero, but that different points have non-zero distance:
+        if (dist == 0.0)
+            return 0.0;
+        else return Math.max(1.0, Math.rint(dist));
+        }
+
+    /** A "pseudo-Euclidean" distance, used in some TSPLIB instances. */
+    private static double attDistance(final double[] from, final double[] to)
+        {
+        final double xd = from[0] - to[0];
+        final double yd = from[1] - to[1];
+        final double rft = Math.sqrt((xd*xd + yd*yd) / 10.0);
+        final double tft = Math.rint(rft);
+        if (tft < rft)
+            return tft + 1;
+        else
+            return tft;
+        }
+
+    /** A geographical distance based on latitude and longitude. */
+    private static double geoDistance(final double[] from, final double[] to)
+        {
+        final double rrr = 6378.388;
+        final double q1 = Math.cos(longitude(from) - longitude(to));
+        final double q2 = Math.cos(latitude(from) - latitude(to));
+        final double q3 = Math.cos(latitude(from) + latitude(to));
+        return (int) (rrr * Math.acos(0.5 * ((1.0 + q1)*q2 - (1.0 - q1)*q3) ) + 1.0);
+        }
     
     public class TSPComponent extends Component
         {
@@ -193,8 +364,8 @@ public class TSPGraph {
             assert(to < numNodes());
             fromNode = from;
             toNode = to;
-            this.from = nodes.get(fromNode);
-            this.to = nodes.get(toNode);
+            this.from = points[fromNode];
+            this.to = points[toNode];
             assert(repOK());
             }
         
@@ -209,52 +380,7 @@ public class TSPGraph {
 
         public double distance()
             {
-            switch (weightType())
-                {
-                default:
-                case EUC_2D:
-                    return euclideanDistance();
-                case ATT:
-                    return attDistance();
-                case GEO:
-                    return geoDistance();
-                }
-            }
-        
-        /** Euclidean distance, rounded to the nearest integer. */
-        private double euclideanDistance()
-            {
-            final double dist = Math.sqrt(Math.pow(from[0] - to[0], 2) + Math.pow(from[1] - to[1], 2));
-
-            // TSPLIB's Euclidean distance metric rounds to the nearest integer.  Most (all?) TSPLIB benchmark tasks
-            // don't have distances small enough to be rounded down to zero.  We want to make sure that truly identical
-            // points have a distance of zero, but that different points have non-zero distance:
-            if (dist == 0.0)
-                return 0.0;
-            else return Math.max(1.0, Math.rint(dist));
-            }
-
-        /** A "pseudo-Euclidean" distance, used in some TSPLIB instances. */
-        private double attDistance()
-            {
-            final double xd = from[0] - to[0];
-            final double yd = from[1] - to[1];
-            final double rft = Math.sqrt((xd*xd + yd*yd) / 10.0);
-            final double tft = Math.rint(rft);
-            if (tft < rft)
-                return tft + 1;
-            else
-                return tft;
-            }
-
-        /** A geographical distance based on latitude and longitude. */
-        private double geoDistance()
-            {
-            final double rrr = 6378.388;
-            final double q1 = Math.cos(longitude(from) - longitude(to));
-            final double q2 = Math.cos(latitude(from) - latitude(to));
-            final double q3 = Math.cos(latitude(from) + latitude(to));
-            return (int) (rrr * Math.acos(0.5 * ((1.0 + q1)*q2 - (1.0 - q1)*q3) ) + 1.0);
+            return TSPGraph.this.distance(fromNode, toNode);
             }
         
         @Override
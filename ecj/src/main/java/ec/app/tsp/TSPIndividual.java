@@ -10,8 +10,8 @@ import ec.app.tsp.TSPGraph.TSPComponent;
 import ec.co.ConstructiveIndividual;
 import java.io.DataInput;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.BitSet;
+import java.util.Collection;
 
 /**
  * A constructive individual for use with Traveling Salesmen Problems.
@@ -24,7 +24,9 @@ import java.util.Set;
 public class TSPIndividual extends ConstructiveIndividual<TSPComponent> {
     private static final long serialVersionUID = 1;
     
-    private Set<Integer> visitedNodes = new HashSet<Integer>();
+    private BitSet visitedNodes = new BitSet();
+    
+    private int numVisited = 0;
     
     private int lastNodeVisited = -1;
     
@@ -32,7 +34,13 @@ public class TSPIndividual extends ConstructiveIndividual<TSPComponent> {
         {
         assert(node >= 0);
         assert(repOK());
-        return visitedNodes.contains(node);
+        return visitedNodes.get(node);
+        }
+    
+    /** @return The number of distinct nodes in the tour so far. */
+    public int numVisited()
+        {
+        return numVisited;
         }
     
     public int getLastNodeVisited()
@@ -49,9 +57,9 @@ public class TSPIndividual extends ConstructiveIndividual<TSPComponent> {
         if (!(component instanceof TSPComponent))
             state.output.fatal(String.format("%s: attempted to add a component of type %s, but must be %s.", this.getClass().getSimpleName(), component.getClass().getSimpleName(), TSPComponent.class.getSimpleName()));
         final TSPComponent e = (TSPComponent) component;
-        if (visitedNodes.contains(e.from()) && visitedNodes.contains(e.to()))
+        if (visitedNodes.get(e.from()) && visitedNodes.get(e.to()))
             state.output.fatal(String.format("%s: attempted to add an edge connected two nodes that have already been visited, but this is disallowed.", this.getClass().getSimpleName()));
-        if (!visitedNodes.isEmpty() && (!visitedNodes.contains(e.from()) && !visitedNodes.contains(e.to())))
+        if (!visitedNodes.isEmpty() && (!visitedNodes.get(e.from()) && !visitedNodes.get(e.to())))
             state.output.fatal(String.format("%s: attempted to add an edge that is disconnected from the existing tour, but this is disallowed.", this.getClass().getSimpleName()));
         
         // FIXME Trying to infer the directionality of the edge being added.  But what do we do when the first edge of the tour is being added?
@@ -60,18 +68,37 @@ public class TSPIndividual extends ConstructiveIndividual<TSPComponent> {
         // for each direction, which contradicts the classical formulation of ACO for TSP.
         
         // 
-        assert(visitedNodes.isEmpty() || visitedNodes.contains(e.from()));
+        assert(visitedNodes.isEmpty() || visitedNodes.get(e.from()));
         lastNodeVisited = e.to();
         
-        visitedNodes.add(e.from());
-        visitedNodes.add(e.to());
+        visit(e.from());
+        visit(e.to());
         assert(repOK());
         }
     
+    private void visit(final int node)
+        {
+        if (!visitedNodes.get(node))
+            {
+            visitedNodes.set(node);
+            numVisited++;
+            }
+        }
+    
+    @Override
+    public void setComponents(final EvolutionState state, final Collection<TSPComponent> newComponents)
+        {
+        visitedNodes = new BitSet();
+        numVisited = 0;
+        lastNodeVisited = -1;
+        super.setComponents(state, newComponents);
+        }
+    
     @Override
     public void readGenotype(final EvolutionState state, final DataInput dataInput) throws IOException
         {
-        visitedNodes = new HashSet<Integer>();
+        visitedNodes = new BitSet();
+        numVisited = 0;
         super.readGenotype(state, dataInput);
         }
     
@@ -80,7 +107,7 @@ public class TSPIndividual extends ConstructiveIndividual<TSPComponent> {
         {
         TSPIndividual myobj = (TSPIndividual) (super.clone());
         
-        myobj.visitedNodes = new HashSet<Integer>(visitedNodes);
+        myobj.visitedNodes = (BitSet) visitedNodes.clone();
         
         assert(repOK());
         return myobj;
@@ -90,6 +117,7 @@ public class TSPIndividual extends ConstructiveIndividual<TSPComponent> {
     public boolean repOK()
         {
         return super.repOK()
-            && visitedNodes != null;
+            && visitedNodes != null
+            && visitedNodes.cardinality() == numVisited;
         }
     }
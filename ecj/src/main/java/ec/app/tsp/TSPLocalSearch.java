@@ -0,0 +1,353 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.app.tsp;
+
+import ec.EvolutionState;
+import ec.app.tsp.TSPGraph.TSPComponent;
+import ec.co.ConstructiveIndividual;
+import ec.co.LocalSearch;
+import ec.util.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A 2-opt and Or-opt local search for TSP tours, which can be plugged into <code>GraspSpecies</code> or
+ * <code>AntSpecies</code> with their <code>local-search</code> parameter.
+ *
+ * The tour is held as an array of nodes along with each node's position in it, and is improved by first-improvement
+ * moves until none is left:
+ *
+ * <ul>
+ * <li><b>2-opt</b> replaces two edges of the tour with two shorter ones, reversing the path between them.</li>
+ * <li><b>Or-opt</b> moves a path of up to <code>base.or-opt</code> nodes (default 3) somewhere else in the tour,
+ * possibly reversing it.  Set it to 0 to use 2-opt alone.</li>
+ * </ul>
+ *
+ * <p>Only moves which add an edge from a node to one of its <code>base.neighbors</code> nearest neighbors (default
+ * 10) are tried, and only if that edge is shorter than the one it replaces.  Each node has a "don't-look bit": a
+ * node is looked at again only if one of its edges changes.  Together these make each pass take roughly linear rather
+ * than quadratic time, so large instances reach a good tour quickly.  The neighbor lists are computed the first time
+ * they are needed, and are separate from the TSPProblem's candidate lists.
+ *
+ * <p>Tours are assumed to be symmetric, as they are for all of the edge weight types TSPGraph supports.  Individuals
+ * which aren't complete tours without cycles are left alone.
+ *
+ * <p><b>Parameters</b><br>
+ * <table>
+ * <tr><td valign=top><i>base.</i><tt>neighbors</tt><br>
+ * <font size=-1>int &gt;= 1 (default 10)</font></td>
+ * <td valign=top>(the number of nearest neighbors each node considers new edges to)</td></tr>
+ * <tr><td valign=top><i>base.</i><tt>or-opt</tt><br>
+ * <font size=-1>int &gt;= 0 (default 3)</font></td>
+ * <td valign=top>(the longest path moved by Or-opt moves, or 0 for none)</td></tr>
+ * </table>
+ *
+ * @see TSPGraph#computeDistanceMatrix()
+ */
+public class TSPLocalSearch implements LocalSearch
+    {
+    private static final long serialVersionUID = 1;
+
+    public final static String P_NEIGHBORS = "neighbors";
+    public final static String P_OR_OPT = "or-opt";
+    public final static int DEFAULT_NEIGHBORS = 10;
+    public final static int DEFAULT_OR_OPT = 3;
+
+    /** Improvements smaller than this are ignored, to guard against cycling on rounding errors. */
+    private final static double EPSILON = 1e-9;
+
+    private int numNeighbors;
+    private int orOpt;
+    private transient TSPGraph graph;
+    private transient int[][] neighbors;
+
+    @Override
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        assert(state != null);
+        assert(base != null);
+        numNeighbors = state.parameters.getIntWithDefault(base.push(P_NEIGHBORS), null, DEFAULT_NEIGHBORS);
+        if (numNeighbors < 1)
+            state.output.fatal(String.format("%s: '%s' is set to %d, but must be positive.", this.getClass().getSimpleName(), base.push(P_NEIGHBORS), numNeighbors), base.push(P_NEIGHBORS));
+        orOpt = state.parameters.getIntWithDefault(base.push(P_OR_OPT), null, DEFAULT_OR_OPT);
+        if (orOpt < 0)
+            state.output.fatal(String.format("%s: '%s' is set to %d, but must be non-negative.", this.getClass().getSimpleName(), base.push(P_OR_OPT), orOpt), base.push(P_OR_OPT));
+        assert(repOK());
+        }
+
+    @Override
+    public ConstructiveIndividual improve(final EvolutionState state, final ConstructiveIndividual ind, final int thread)
+        {
+        assert(state != null);
+        assert(ind != null);
+        if (!(state.evaluator.p_problem instanceof TSPProblem))
+            state.output.fatal(String.format("%s: the problem must be a %s, but was %s.", this.getClass().getSimpleName(), TSPProblem.class.getSimpleName(), state.evaluator.p_problem.getClass().getSimpleName()));
+        if (!(ind instanceof TSPIndividual))
+            state.output.fatal(String.format("%s: received an individual of type %s, but must be %s.", this.getClass().getSimpleName(), ind.getClass().getSimpleName(), TSPIndividual.class.getSimpleName()));
+        final TSPGraph g = ((TSPProblem) state.evaluator.p_problem).getGraph();
+        final TSPIndividual tind = (TSPIndividual) ind;
+        final int n = g.numNodes();
+        if (n < 5 || tind.numVisited() != n || tind.size() != n - 1) // Too small to improve, or not a tour
+            return ind;
+
+        final Tour tour = new Tour(g, tind);
+        if (tour.optimize(neighbors(g), orOpt))
+            {
+            final int start = tind.get(0).from();
+            final List<TSPComponent> edges = new ArrayList<TSPComponent>(n - 1);
+            for (int i = 0, from = start; i < n - 1; i++)
+                {
+                final int to = tour.next(from);
+                edges.add(g.getEdge(from, to));
+                from = to;
+                }
+            tind.setComponents(state, edges);
+            tind.evaluated = false;
+            }
+        return tind;
+        }
+
+    /** @return The neighbor lists for the given graph, computing them if we haven't already. */
+    private synchronized int[][] neighbors(final TSPGraph g)
+        {
+        if (g != graph)
+            {
+            neighbors = g.findNearestNeighbors(Math.min(numNeighbors, g.numNodes() - 1));
+            graph = g;
+            }
+        return neighbors;
+        }
+
+    /** A cyclic tour, with the moves which improve it. */
+    static class Tour
+        {
+        final TSPGraph graph;
+        final int n;
+        /** The nodes in tour order. */
+        final int[] order;
+        /** The position of each node in <code>order</code>. */
+        final int[] pos;
+        /** A FIFO queue of the nodes whose don't-look bits are off. */
+        final int[] queue;
+        final boolean[] queued;
+        int head;
+        int count;
+
+        Tour(final TSPGraph graph, final TSPIndividual ind)
+            {
+            this.graph = graph;
+            n = graph.numNodes();
+            order = new int[n];
+            pos = new int[n];
+            queue = new int[n];
+            queued = new boolean[n];
+            order[0] = ind.get(0).from();
+            for (int i = 1; i < n; i++)
+                order[i] = ind.get(i - 1).to();
+            for (int i = 0; i < n; i++)
+                pos[order[i]] = i;
+            }
+
+        int next(final int node) { return order[pos[node] == n - 1 ? 0 : pos[node] + 1]; }
+
+        int prev(final int node) { return order[pos[node] == 0 ? n - 1 : pos[node] - 1]; }
+
+        /** @return next(node) if forward, else prev(node). */
+        int step(final int node, final boolean forward) { return (forward ? next(node) : prev(node)); }
+
+        double d(final int from, final int to) { return graph.distance(from, to); }
+
+        void push(final int node)
+            {
+            if (!queued[node])
+                {
+                queue[(head + count) % n] = node;
+                queued[node] = true;
+                count++;
+                }
+            }
+
+        /** Apply improving moves until there are none left among the neighbor lists.
+         *
+         * @return Whether the tour was changed. */
+        boolean optimize(final int[][] neighbors, final int orOpt)
+            {
+            boolean improved = false;
+            for (int i = 0; i < n; i++)
+                push(order[i]);
+            while (count > 0)
+                {
+                final int a = queue[head];
+                head = (head + 1) % n;
+                count--;
+                queued[a] = false;
+                if (twoOpt(a, neighbors[a]) || orOpt(a, neighbors[a], orOpt))
+                    {
+                    push(a); // Look at a again, since it may have more to give
+                    improved = true;
+                    }
+                }
+            return improved;
+            }
+
+        /** Try to replace an edge of <code>a</code> with a shorter one to one of its neighbors. */
+        boolean twoOpt(final int a, final int[] near)
+            {
+            for (int dir = 0; dir < 2; dir++)
+                {
+                final boolean forward = (dir == 0);
+                final int b = step(a, forward);
+                final double dab = d(a, b);
+                for (final int c : near)
+                    {
+                    final double dac = d(a, c);
+                    if (dac >= dab) // Neighbors are sorted, so no later one will be shorter either
+                        break;
+                    final int e = step(c, forward);
+                    if (c == b || e == a)
+                        continue;
+                    if (dab + d(c, e) - dac - d(b, e) > EPSILON)
+                        {
+                        // Replace (a, b) and (c, e) with (a, c) and (b, e)
+                        if (forward)
+                            move(a, b, c, e);
+                        else
+                            move(b, a, e, c);
+                        push(b);
+                        push(c);
+                        push(e);
+                        return true;
+                        }
+                    }
+                }
+            return false;
+            }
+
+        /** Try to move a path of up to <code>maxLength</code> nodes starting at <code>s1</code> next to one of
+         * <code>s1</code>'s neighbors. */
+        boolean orOpt(final int s1, final int[] near, final int maxLength)
+            {
+            for (int length = 1; length <= maxLength && length <= n - 3; length++)
+                for (int dir = 0; dir < (length == 1 ? 1 : 2); dir++)
+                    {
+                    final boolean forward = (dir == 0);
+                    int s2 = s1;
+                    for (int i = 1; i < length; i++)
+                        s2 = step(s2, forward);
+                    final int p = step(s1, !forward);
+                    final int nx = step(s2, forward);
+                    final double removeGain = d(p, s1) + d(s2, nx) - d(p, nx);
+                    if (removeGain <= EPSILON)
+                        continue;
+                    for (final int c : near)
+                        {
+                        final double dc = d(s1, c);
+                        if (dc >= removeGain)
+                            break;
+                        if (inPath(c, s1, length, forward))
+                            continue;
+                        for (int side = 0; side < 2; side++)
+                            {
+                            final int x = (side == 0 ? next(c) : prev(c));
+                            if (inPath(x, s1, length, forward))
+                                continue;
+                            if (removeGain + d(c, x) - dc - d(s2, x) > EPSILON)
+                                {
+                                // Replace (p, s1), (s2, nx) and (c, x) with (p, nx), (c, s1) and (s2, x)
+                                if (forward)
+                                    movePath(s1, s2, p, nx, s1, c, x);
+                                else
+                                    movePath(s2, s1, nx, p, s1, c, x);
+                                push(s2);
+                                push(p);
+                                push(nx);
+                                push(c);
+                                push(x);
+                                return true;
+                                }
+                            }
+                        }
+                    }
+            return false;
+            }
+
+        /** @return Whether <code>node</code> is one of the <code>length</code> nodes from <code>s1</code> on. */
+        boolean inPath(final int node, final int s1, final int length, final boolean forward)
+            {
+            final int offset = (forward ? pos[node] - pos[s1] : pos[s1] - pos[node]);
+            return (offset + n) % n < length;
+            }
+
+        /** Move the path f1..f2 (in tour order), which lies between pf and nf, into the edge between
+         * <code>c</code> and <code>x</code>, with <code>c</code> joined to <code>s1</code>, which is f1 or f2.
+         * This is done with two or three 2-opt moves. */
+        void movePath(final int f1, final int f2, final int pf, final int nf, final int s1, final int c, final int x)
+            {
+            final int u = (next(c) == x ? c : x); // The edge (u, v) runs in tour order
+            final int v = (u == c ? x : c);
+            move(pf, f1, u, v);  // Now pf u ... nf f2 ... f1 v
+            move(pf, u, nf, f2); // Now pf nf ... u f2 ... f1 v
+            if ((u == c) != (f2 == s1)) // The path is the wrong way around
+                move(u, f2, f1, v);
+            }
+
+        /** The 2-opt move which replaces edges (a, b) and (c, d) with (a, c) and (b, d), where b follows a and d
+         * follows c in one direction around the tour or the other. */
+        void move(int a, int b, int c, int d)
+            {
+            if (next(a) != b) // The edges run the other way around the tour
+                {
+                final int t = a;
+                a = d;
+                d = t;
+                final int u = b;
+                b = c;
+                c = u;
+                }
+            assert(next(a) == b && next(c) == d);
+            reverse(pos[b], pos[c]);
+            }
+
+        /** Reverse the positions from i through j, wrapping around the end of the tour.  Since the tour is a cycle,
+         * reversing the rest of the tour instead gives the same tour, so we reverse whichever is shorter. */
+        void reverse(int i, int j)
+            {
+            int length = (j - i + n) % n + 1;
+            if (2 * length > n)
+                {
+                final int t = i;
+                i = (j + 1) % n;
+                j = (t + n - 1) % n;
+                length = n - length;
+                }
+            for (int k = 0; k < length / 2; k++)
+                {
+                final int a = order[i];
+                final int b = order[j];
+                order[i] = b;
+                pos[b] = i;
+                order[j] = a;
+                pos[a] = j;
+                i = (i == n - 1 ? 0 : i + 1);
+                j = (j == 0 ? n - 1 : j - 1);
+                }
+            }
+        }
+
+    /** Representation invariant, used for verification.
+     *
+     * @return true if the class is found to be in an erroneous state.
+     */
+    public final boolean repOK()
+        {
+        return P_NEIGHBORS != null
+            && !P_NEIGHBORS.isEmpty()
+            && P_OR_OPT != null
+            && !P_OR_OPT.isEmpty()
+            && numNeighbors > 0
+            && orOpt >= 0;
+        }
+    }
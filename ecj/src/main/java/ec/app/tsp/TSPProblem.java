@@ -11,9 +11,10 @@ import ec.Problem;
 import ec.app.tsp.TSPGraph.TSPComponent;
 import ec.co.Component;
 import ec.co.ConstructiveIndividual;
-import ec.co.ConstructiveProblemForm;
+import ec.co.IndexedProblemForm;
 import ec.simple.SimpleFitness;
 import ec.simple.SimpleProblemForm;
+import ec.util.IntBag;
 import ec.util.Parameter;
 import java.io.File;
 import java.util.ArrayList;
@@ -27,22 +28,61 @@ import java.util.Set;
  * The format used for the file is similar to the TSPLIB format
  * (https://www.iwr.uni-heidelberg.de/groups/comopt/software/TSPLIB95/tsp95.pdf),
  * though we don't support all of TSPLIB's features.
+ *
+ * The edge from node <i>i</i> to node <i>j</i> of an <i>n</i>-node problem is component number <i>i*n + j</i>.
+ * If <code>base.candidates</code> is set to some <i>k</i> &gt; 0, the nearest <i>k</i> neighbors of each node are
+ * computed when the problem is set up, and <code>getAllowedComponents()</code> only offers edges to the unvisited
+ * nearest neighbors of the last node in the tour, falling back to all of the unvisited nodes once the nearest
+ * neighbors have all been visited.  This is the "candidate list" of Ant Colony System, and makes each construction
+ * step take O(<i>k</i>) rather than O(<i>n</i>) time for most steps.  The default, 0, offers every unvisited node.
+ *
+ * <p>Instances of up to <code>base.distance-matrix</code> nodes (default 5000) have the distance between every pair of
+ * nodes computed once, when the problem is set up, rather than every time it is needed.  The matrix takes about
+ * 2<i>n</i><sup>2</sup> bytes, or 50MB for 5000 nodes.  Set it to 0 to always compute distances from coordinates.
  * 
  * @author Eric O. Scott
  */
-public class TSPProblem extends Problem implements SimpleProblemForm, ConstructiveProblemForm<TSPComponent> {
+public class TSPProblem extends Problem implements SimpleProblemForm, IndexedProblemForm<TSPComponent> {
     private static final long serialVersionUID = 1;
 
     public final static String P_FILE = "file";
     public final static String P_ALLOW_CYCLES = "allow-cycles";
+    public final static String P_CANDIDATES = "candidates";
+    public final static String P_DISTANCE_MATRIX = "distance-matrix";
+    public final static int DEFAULT_DISTANCE_MATRIX = 5000;
 
     private boolean allowCycles;
+    private int candidates;
     private TSPGraph graph;
     
     public TSPComponent getComponent(final int from, final int to) {
         return graph.getEdge(from, to);
         }
     
+    @Override
+    public TSPComponent getComponent(final int index) {
+        return graph.getEdge(index / graph.numNodes(), index % graph.numNodes());
+        }
+    
+    @Override
+    public int getComponentIndex(final TSPComponent component) {
+        return component.from() * graph.numNodes() + component.to();
+        }
+    
+    @Override
+    public double desirability(final int index) {
+        final double eta = 1.0/graph.distance(index / graph.numNodes(), index % graph.numNodes());
+        assert(!Double.isInfinite(eta));
+        assert(!Double.isNaN(eta));
+        return eta;
+        }
+    
+    /** @return The graph defining this problem instance. */
+    public TSPGraph getGraph()
+        {
+        return graph;
+        }
+    
     public TSPComponent getComponentFromString(final String s)
         {
         assert(s != null);
@@ -113,6 +153,16 @@ public class TSPProblem extends Problem implements SimpleProblemForm, Constructi
             {
             state.output.fatal(String.format("%s: Unable to load TSP instance from file '%s': %s", this.getClass().getSimpleName(), state.parameters.getString(base.push(P_FILE), null), e), base.push(P_FILE));
             }
+        final int matrixNodes = state.parameters.getIntWithDefault(base.push(P_DISTANCE_MATRIX), null, DEFAULT_DISTANCE_MATRIX);
+        if (matrixNodes < 0)
+            state.output.fatal(String.format("%s: '%s' is set to %d, but must be non-negative.", this.getClass().getSimpleName(), base.push(P_DISTANCE_MATRIX), matrixNodes), base.push(P_DISTANCE_MATRIX));
+        if (graph.numNodes() <= matrixNodes && !graph.computeDistanceMatrix())
+            state.output.warning(String.format("%s: some distances are too large to precompute, so they will be computed as they are needed.", this.getClass().getSimpleName()), base.push(P_DISTANCE_MATRIX));
+        candidates = state.parameters.getIntWithDefault(base.push(P_CANDIDATES), null, 0);
+        if (candidates < 0)
+            state.output.fatal(String.format("%s: '%s' is set to %d, but must be non-negative.", this.getClass().getSimpleName(), base.push(P_CANDIDATES), candidates), base.push(P_CANDIDATES));
+        if (candidates > 0)
+            graph.computeNearestNeighbors(Math.min(candidates, graph.numNodes() - 1));
         assert(repOK());
         }
 
@@ -170,42 +220,66 @@ public class TSPProblem extends Problem implements SimpleProblemForm, Constructi
     
     @Override
     public List<TSPComponent> getAllowedComponents(final ConstructiveIndividual<TSPComponent> partialSolution) {
+        final IntBag allowed = new IntBag();
+        getAllowedComponents(partialSolution, allowed);
+        final List<TSPComponent> allowedComponents = new ArrayList<>(allowed.numObjs);
+        for (int i = 0; i < allowed.numObjs; i++)
+            allowedComponents.add(getComponent(allowed.objs[i]));
+        assert(allowedComponents.size() <= numComponents());
+        return allowedComponents;
+        }
+    
+    @Override
+    public void getAllowedComponents(final ConstructiveIndividual<TSPComponent> partialSolution, final IntBag allowed) {
         assert(partialSolution != null);
+        assert(allowed != null);
         
         if (!(partialSolution instanceof TSPIndividual))
             throw new IllegalStateException(String.format("%s: received an individual of type %s, but must be %s.", this.getClass().getSimpleName(), partialSolution.getClass().getSimpleName(), TSPIndividual.class.getSimpleName()));
         final TSPIndividual tspSol = (TSPIndividual) partialSolution;
+        final int n = graph.numNodes();
         
-        final List<TSPComponent> allowedComponents = new ArrayList<>();
-        
+        allowed.clear();
         // If the solution is empty, then any non-self-loop component is allowed
         if (partialSolution.isEmpty())
             {
-            for (final TSPComponent edge : graph.getAllEdges())
-                if (edge.to() != edge.from()) // Disallow self-loops
-                    allowedComponents.add(edge);
+            for (int from = 0; from < n; from++)
+                for (int to = 0; to < n; to++)
+                    if (to != from) // Disallow self-loops
+                        allowed.add(from * n + to);
             }
         else
             { // Otherwise, only edges extending from either end of the path are allowed
             // Focus on the most recently added node in the tour
             final int mostRecentNode = tspSol.getLastNodeVisited();
             assert(mostRecentNode == tspSol.get((int) partialSolution.size() - 1).to());
+            final int base = mostRecentNode * n;
+            // Try the candidate list first
+            if (candidates > 0)
+                {
+                final int[] neighbors = graph.getNearestNeighbors(mostRecentNode);
+                for (final int to : neighbors)
+                    if (allowCycles || !tspSol.visited(to))
+                        allowed.add(base + to);
+                if (!allowed.isEmpty())
+                    return;
+                }
             // Loop through every edge eminating from that node
-            for (int to = 0; to < graph.numNodes(); to++)
+            for (int to = 0; to < n; to++)
                 {
                 if (mostRecentNode != to) // Disallow self-loops
                     if (allowCycles || !tspSol.visited(to))
-                        allowedComponents.add(graph.getEdge(mostRecentNode, to));
+                        allowed.add(base + to);
                 }
             }
         assert(repOK());
-        assert(allowedComponents.size() <= numComponents());
-        return allowedComponents;
         }
 
     /** Check whether a solution forms a valid tour of all the nodes. */
     @Override
     public boolean isCompleteSolution(final ConstructiveIndividual<TSPComponent> solution) {
+        if (solution instanceof TSPIndividual) // TSPIndividual keeps track of the nodes it has visited
+            return ((TSPIndividual) solution).numVisited() == graph.numNodes();
         final Set<Integer> visited = nodesVisited(solution);
         return visited.size() == graph.numNodes()
             && visited.containsAll(graph.getNodes())
@@ -31,24 +31,37 @@ public class XOR extends Problem implements SimpleProblemForm
         double[] out = new double[4];
         double[] expectedOut = new double[] { 0.0, 1.0, 1.0, 0.0 };
 
-        NEATNetwork net = neatInd.createNetwork();
+        NEATCompiledNetwork compiled = neatInd.compileNetwork();
         
-        int netDepth = net.maxDepth();
-
-        // Load and activate the network on each input
-        for(int i = 0; i < in.length ;i++) 
+        if (compiled.isFeedForward())
             {
-            net.loadSensors(in[i]);
-            
-            for(int relax = 0; relax < netDepth; relax++) 
+            // Activate the network on all four inputs at once
+            double[][] results = new double[in.length][compiled.getNumOutputs()];
+            compiled.activateBatch(in, results);
+            for(int i = 0; i < in.length; i++)
+                out[i] = results[i][0];
+            }
+        else
+            {
+            NEATNetwork net = neatInd.createNetwork();
+        
+            int netDepth = net.maxDepth();
+
+            // Load and activate the network on each input
+            for(int i = 0; i < in.length ;i++) 
                 {
-                net.activate(state);
-                }
+                net.loadSensors(in[i]);
+            
+                for(int relax = 0; relax < netDepth; relax++) 
+                    {
+                    net.activate(state);
+                    }
                 
-            // only have one output, so let's get it
-            out[i] = net.getOutputResults()[0];
+                // only have one output, so let's get it
+                out[i] = net.getOutputResults()[0];
 
-            net.flush();
+                net.flush();
+                }
             }
 
 
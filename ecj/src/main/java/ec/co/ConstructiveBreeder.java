@@ -6,7 +6,11 @@
 package ec.co;
 
 import ec.*;
+import ec.co.ant.AntSpecies;
+import ec.util.MersenneTwisterFast;
 import ec.util.Parameter;
+import ec.util.ThreadPool;
+import ec.util.Xoshiro256;
 
 /**
  * A basic Breeder that generates a new population by asking each subpopulation's
@@ -15,12 +19,23 @@ import ec.util.Parameter;
  * This is used with algorithms like GRASP, which generate new individuals at
  * each step (rather than producing them by running an old population through a pipeline).
  *
+ * <p>Individuals are built on <code>breedthreads</code> threads, each of which builds a contiguous chunk of every
+ * subpopulation.  Each individual is built with its own random number generator, made from
+ * <code>state.randomStreams</code> for its generation, subpopulation, and position in the subpopulation, and goes in
+ * that position no matter which thread builds it or finishes first.  So results depend only on the seed, and not
+ * on the number of threads.  (If <code>state.randomStreams</code> is null, each thread instead uses its own
+ * generator, as in <code>SimpleBreeder</code>, and results are the same from run to run only for a given seed
+ * and number of threads.)  Before building ants, the pheromones of an <code>AntSpecies</code> are all initialized
+ * using thread 0's generator, so that the ants only read them.
+ *
  * @author Eric O. Scott
  */
 public class ConstructiveBreeder extends Breeder
     {
     private static final long serialVersionUID = 1;
 
+    public ThreadPool pool = new ThreadPool();
+
     @Override
     public void setup(final EvolutionState state, final Parameter base)
         {
@@ -37,15 +52,63 @@ public class ConstructiveBreeder extends Breeder
         for (int i = 0; i < state.population.subpops.size(); i++)
             {
             final Subpopulation oldSubpop = state.population.subpops.get(i);
-            final Species species = state.population.subpops.get(i).species;
+            final Species species = oldSubpop.species;
+            final Individual[] newInds = new Individual[oldSubpop.individuals.size()];
+            final int numThreads = Math.max(1, Math.min(state.breedthreads, newInds.length));
+            final Xoshiro256 streams = (state.randomStreams == null ? null :
+                state.randomStreams.substream(state.generation).substream(i));
 
-            // Execute ants
-            for (int j = 0; j < oldSubpop.individuals.size(); j++)
+            if (species instanceof AntSpecies)
+                ((AntSpecies) species).initializePheromones(state);
+
+            if (numThreads == 1)
+                breedChunk(state, species, newInds, 0, newInds.length, 0, streams);
+            else
                 {
-                final Individual newInd = species.newIndividual(state, i);
-                newPop.subpops.get(i).individuals.add(newInd);
+                // Execute ants, one chunk per thread
+                for (int y = 0; y < numThreads; y++)
+                    {
+                    final int from = newInds.length * y / numThreads;
+                    final int to = newInds.length * (y + 1) / numThreads;
+                    final int thread = y;
+                    pool.start(new Runnable()
+                        {
+                        public void run() { breedChunk(state, species, newInds, from, to, thread, streams); }
+                        }, "ECJ Breeding Thread " + y);
+                    }
+                pool.joinAll();
                 }
+
+            for (int j = 0; j < newInds.length; j++)
+                newPop.subpops.get(i).individuals.add(newInds[j]);
             }
         return newPop;
         }
+
+    /** Build individuals <code>from</code> through <code>to - 1</code> of a subpopulation on the given thread.
+     * Individual <i>j</i> is built with <code>state.random[thread]</code> temporarily replaced by a generator made
+     * from <code>streams.substream(j)</code>, or with <code>state.random[thread]</code> itself if streams is null. */
+    protected void breedChunk(final EvolutionState state, final Species species, final Individual[] newInds, final int from, final int to, final int thread, final Xoshiro256 streams)
+        {
+        if (streams == null)
+            {
+            for (int j = from; j < to; j++)
+                newInds[j] = species.newIndividual(state, thread);
+            return;
+            }
+
+        final MersenneTwisterFast random = state.random[thread];
+        try
+            {
+            for (int j = from; j < to; j++)
+                {
+                state.random[thread] = streams.substream(j).nextMersenneTwisterFast();
+                newInds[j] = species.newIndividual(state, thread);
+                }
+            }
+        finally
+            {
+            state.random[thread] = random;
+            }
+        }
     }
@@ -0,0 +1,39 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.co;
+
+import ec.util.IntBag;
+
+/**
+ * A <code>ConstructiveProblemForm</code> whose components are numbered from 0 to <code>numComponents() - 1</code>.
+ *
+ * Algorithms can use these indices to keep per-component information (such as pheromones) in plain arrays, and to
+ * build solutions without creating a new <code>List</code> of candidate components at every step.  The indices
+ * must agree with <code>getAllComponents()</code>: component <i>i</i> of that list has index <i>i</i>.
+ *
+ * @see ec.co.ant.IndexedPheromoneTable
+ * @see ec.co.ant.IndexedComponentSelector
+ */
+public interface IndexedProblemForm<T extends Component> extends ConstructiveProblemForm<T>
+    {
+    /** @return The index of the given component, from 0 to <code>numComponents() - 1</code>. */
+    public abstract int getComponentIndex(final T component);
+
+    /** @return The component with the given index. */
+    public abstract T getComponent(final int index);
+
+    /** @return The heuristic value of the component with the given index, the same as its <code>desirability()</code>. */
+    public abstract double desirability(final int index);
+
+    /**
+     * Indexed equivalent of <code>getAllowedComponents(partialSolution)</code>.
+     *
+     * @param partialSolution A partial solution that we wish to add a component to.
+     * @param allowed Cleared, and then filled with the indices of all components that can be added to the partial
+     * solution, in the same order as <code>getAllowedComponents(partialSolution)</code> would return them.
+     */
+    public abstract void getAllowedComponents(final ConstructiveIndividual<T> partialSolution, final IntBag allowed);
+    }
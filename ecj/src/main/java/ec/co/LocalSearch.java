@@ -0,0 +1,24 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.co;
+
+import ec.EvolutionState;
+import ec.Setup;
+
+/**
+ * Improves a complete solution after it has been constructed.
+ *
+ * <code>GraspSpecies</code> and <code>AntSpecies</code> apply a LocalSearch, if one is given by their
+ * <code>local-search</code> parameter, to every individual they construct, before it is evaluated.
+ * <code>improve()</code> may be called on several threads at once.
+ *
+ * @see ec.app.tsp.TSPLocalSearch
+ */
+public interface LocalSearch extends Setup
+    {
+    /** @return A solution at least as good as <code>ind</code>, which may be <code>ind</code> itself. */
+    public abstract ConstructiveIndividual improve(EvolutionState state, ConstructiveIndividual ind, int thread);
+    }
@@ -10,7 +10,10 @@ import ec.Fitness;
 import ec.Individual;
 import ec.Species;
 import ec.Subpopulation;
+import ec.co.Component;
 import ec.co.ConstructiveIndividual;
+import ec.co.ConstructiveProblemForm;
+import ec.co.LocalSearch;
 import ec.util.Parameter;
 import java.util.ArrayList;
 
@@ -27,6 +30,11 @@ import java.util.ArrayList;
  * algorithms are controlled by the usual <code>EvolutionState</code> characters, which hand off control to
  * <code>Species</code> at appropriate points to generate solutions or perform pheromone updates.
  *
+ * <br/><br/>
+ *
+ * If a <code>LocalSearch</code> is given by the <code>local-search</code> parameter, each ant's solution is improved
+ * by it as soon as it is constructed, so the improved solution is the one which is evaluated and deposits pheromones.
+ *
  * @author Eric O. Scott
  * @see ec.app.tsp
  * @see ec.app.knapsack
@@ -42,11 +50,13 @@ public class AntSpecies extends Species
     public final static String P_PHEROMONE_TABLE = "pheromone-table";
     public final static String P_UPDATE_RULE = "update-rule";
     public final static String P_LOCAL_UPDATE_RULE = "local-update-rule";
+    public final static String P_LOCAL_SEARCH = "local-search";
 
     private ConstructionRule constructionRule;
     private PheromoneTable pheromones;
     private UpdateRule updateRule;
     private UpdateRule localUpdateRule;
+    private LocalSearch localSearch;
 
     @Override
     public void setup(final EvolutionState state, final Parameter base)
@@ -71,6 +81,12 @@ public class AntSpecies extends Species
             localUpdateRule = (UpdateRule) state.parameters.getInstanceForParameter(base.push(P_LOCAL_UPDATE_RULE), null, UpdateRule.class);
             localUpdateRule.setup(state, base.push(P_LOCAL_UPDATE_RULE));
             }
+
+        if (state.parameters.exists(base.push(P_LOCAL_SEARCH), null))
+            {
+            localSearch = (LocalSearch) state.parameters.getInstanceForParameter(base.push(P_LOCAL_SEARCH), null, LocalSearch.class);
+            localSearch.setup(state, base.push(P_LOCAL_SEARCH));
+            }
         assert(repOK());
         }
 
@@ -122,6 +138,23 @@ public class AntSpecies extends Species
             }
         }
 
+    /** Initialize every pheromone in the table which hasn't been already, using thread 0, so that building ants
+     * on several threads at once only ever reads the table.  Called by <code>ConstructiveBreeder</code> before it
+     * builds ants in parallel. */
+    public void initializePheromones(final EvolutionState state)
+        {
+        assert(state != null);
+        if (pheromones instanceof IndexedPheromoneTable)
+            ((IndexedPheromoneTable) pheromones).initializeAll(state, 0);
+        else
+            {
+            assert(state.evaluator.p_problem instanceof ConstructiveProblemForm);
+            final ConstructiveProblemForm problem = (ConstructiveProblemForm) state.evaluator.p_problem;
+            for (final Object c : problem.getAllComponents())
+                pheromones.get(state, (Component) c, 0);
+            }
+        }
+
     @Override
     public ConstructiveIndividual<?> newIndividual(final EvolutionState state, final int thread)
         {
@@ -130,7 +163,8 @@ public class AntSpecies extends Species
 
         final ConstructiveIndividual<?> ind = (ConstructiveIndividual<?>)(super.newIndividual(state, thread));
         assert(repOK());
-        return constructionRule.constructSolution(state, ind, pheromones, thread);
+        final ConstructiveIndividual<?> ant = constructionRule.constructSolution(state, ind, pheromones, thread);
+        return (localSearch == null ? ant : localSearch.improve(state, ant, thread));
         }
 
     @Override
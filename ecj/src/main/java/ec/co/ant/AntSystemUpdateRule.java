@@ -9,6 +9,8 @@ import ec.EvolutionState;
 import ec.co.Component;
 import ec.co.ConstructiveIndividual;
 import ec.co.ConstructiveProblemForm;
+import ec.co.IndexedProblemForm;
+import ec.util.IntBag;
 import ec.util.Parameter;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -32,6 +34,9 @@ public class AntSystemUpdateRule implements UpdateRule
     public enum DepositRule { ANT_CYCLE, ANT_DENSITY, ANT_QUANTITY };
     private DepositRule depositRule;
     private double q;
+    /** Scratch space for the contributions to an IndexedPheromoneTable, and the components which have them. */
+    private transient double[] indexedContributions;
+    private transient IntBag contributed;
 
     @Override
     public void setup(final EvolutionState state, final Parameter base)
@@ -86,6 +91,11 @@ public class AntSystemUpdateRule implements UpdateRule
         assert(!individuals.isEmpty());
 
         decayPheromones(state, pheromones);
+        if (pheromones instanceof IndexedPheromoneTable)
+            {
+            depositPheromones(state, (IndexedPheromoneTable) pheromones, individuals);
+            return;
+            }
 
         final Map<Component, Double> contributions = new HashMap<>();
         // Loop through every individual and record its pheremone contributions (scores) for each edge
@@ -114,10 +124,56 @@ public class AntSystemUpdateRule implements UpdateRule
         assert(repOK());
         }
 
+    /** Equivalent to the deposit step of updatePheromones(), but records contributions in an array rather than a
+     * HashMap. */
+    private void depositPheromones(final EvolutionState state, final IndexedPheromoneTable pheromones, final List individuals)
+        {
+        final IndexedProblemForm problem = (IndexedProblemForm) state.evaluator.p_problem;
+        if (indexedContributions == null || indexedContributions.length != pheromones.numComponents())
+            {
+            indexedContributions = new double[pheromones.numComponents()];
+            contributed = new IntBag();
+            }
+        // Loop through every individual and record its pheremone contributions (scores) for each edge
+        for (final Object o : individuals)
+            {
+            final ConstructiveIndividual<?> ind = (ConstructiveIndividual<?>) o;
+            assert(ind.size() > 0);
+            for (final Object oo : ind)
+                {
+                assert(oo instanceof Component);
+                final Component c = (Component) oo;
+                final int index = problem.getComponentIndex(c);
+                final double cPheromone = pheromoneContribution(ind, c);
+                if (indexedContributions[index] == 0.0) // first contribution (or all zero so far, which is harmless to repeat)
+                    contributed.add(index);
+                indexedContributions[index] += cPheromone;
+                }
+            }
+        // Apply the new pheromones
+        for (int i = 0; i < contributed.numObjs; i++)
+            {
+            final int c = contributed.objs[i];
+            final double oldPheromone = pheromones.get(state, c, 0); // Using thread 0 because we are in a single-threaded function
+            pheromones.set(c, oldPheromone + indexedContributions[c]);
+            indexedContributions[c] = 0.0;
+            }
+        contributed.clear();
+        assert(repOK());
+        }
+
     private void decayPheromones(final EvolutionState state, final PheromoneTable pheromones)
         {
         assert(state != null);
         assert(pheromones != null);
+        if (pheromones instanceof IndexedPheromoneTable) // Decay by index, without creating every component, using the breeding threads
+            {
+            ((IndexedPheromoneTable) pheromones).update(state, state.breedthreads, new IndexedPheromoneTable.Updater()
+                {
+                public double update(final int index, final double pheromone) { return (1.0-decayRate)*pheromone; }
+                });
+            return;
+            }
         final List<? extends Component> components = ((ConstructiveProblemForm<?>)state.evaluator.p_problem).getAllComponents();
         for (final Component c : components)
             pheromones.set(c, (1.0-decayRate)*pheromones.get(state, c, 0)); // Using thread 0 because we are in a single-threaded function
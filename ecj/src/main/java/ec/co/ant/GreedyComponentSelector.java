@@ -8,6 +8,8 @@ package ec.co.ant;
 import ec.EvolutionState;
 import ec.Setup;
 import ec.co.Component;
+import ec.co.IndexedProblemForm;
+import ec.util.IntBag;
 import ec.util.Misc;
 import ec.util.Parameter;
 import java.util.List;
@@ -17,7 +19,7 @@ import java.util.List;
  *
  * @author Eric O. Scott
  */
-public class GreedyComponentSelector implements ComponentSelector {
+public class GreedyComponentSelector implements IndexedComponentSelector {
     
     public GreedyComponentSelector() {}
 
@@ -44,6 +46,28 @@ public class GreedyComponentSelector implements ComponentSelector {
         assert(best != null);
         return best;
         }
+
+    @Override
+    public int choose(final EvolutionState state, final IndexedProblemForm problem, final IntBag components, final IndexedPheromoneTable pheromones, final int thread) {
+        assert(problem != null);
+        assert(components != null);
+        assert(!components.isEmpty());
+
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int best = -1;
+        for (int i = 0; i < components.numObjs; i++)
+            {
+            final int c = components.objs[i];
+            final double value = problem.desirability(c);
+            if (value >= bestValue)
+                {
+                bestValue = value;
+                best = c;
+                }
+            }
+        assert(best >= 0);
+        return best;
+        }
     
     public final boolean repOK()
         {
@@ -0,0 +1,27 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.co.ant;
+
+import ec.EvolutionState;
+import ec.co.IndexedProblemForm;
+import ec.util.IntBag;
+
+/**
+ * A <code>ComponentSelector</code> which can also choose among components identified by their indices in an
+ * <code>IndexedProblemForm</code>, reading their pheromones from an <code>IndexedPheromoneTable</code>.
+ *
+ * <code>SimpleConstructionRule</code> uses this form whenever the problem, the selector, and the pheromone table all
+ * support it.  It must choose exactly the same component (consuming the same random numbers) as
+ * <code>choose(state, components, pheromones, thread)</code> would given the corresponding list of components.
+ *
+ * @see SimpleConstructionRule
+ */
+public interface IndexedComponentSelector extends ComponentSelector
+    {
+    /** @return The chosen index, which is one of the first <code>components.numObjs</code> elements of
+     * <code>components</code>.  The pheromone table may be null if the selector doesn't use pheromones. */
+    public abstract int choose(final EvolutionState state, final IndexedProblemForm problem, final IntBag components, final IndexedPheromoneTable pheromones, final int thread);
+    }
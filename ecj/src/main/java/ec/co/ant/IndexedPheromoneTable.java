@@ -0,0 +1,202 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.co.ant;
+
+import ec.EvolutionState;
+import ec.co.Component;
+import ec.co.IndexedProblemForm;
+import ec.util.Parameter;
+import ec.util.ThreadPool;
+import java.util.Arrays;
+
+/**
+ * A pheromone table for an <code>IndexedProblemForm</code>, which stores the concentration of every component in a
+ * dense array indexed by the component's index.
+ *
+ * This takes the same parameters and behaves exactly the same as <code>SimplePheromoneTable</code> (including drawing
+ * the same random numbers for uninitialized pheromones, in the same order), but looking up a pheromone involves
+ * no hashing or boxing.  It uses <code>numComponents()</code> doubles of memory, which for an <i>n</i>-city TSP is
+ * <i>n</i><sup>2</sup>.
+ *
+ * <p>Ant rules in <code>ec.co.ant</code> recognize this table and use its indexed <code>get</code> and
+ * <code>set</code> methods directly.
+ *
+ * <p>The table is not synchronized.  Reading it from several threads at once is safe so long as no pheromone is
+ * uninitialized (reading an uninitialized pheromone writes it), which is why <code>ConstructiveBreeder</code> calls
+ * <code>initializeAll()</code> before building ants in parallel.  Rules which change every pheromone may do so in
+ * parallel with <code>update()</code>, which gives each thread its own stripe of components, so the results don't
+ * depend on the number of threads.
+ *
+ * @see SimplePheromoneTable
+ */
+public class IndexedPheromoneTable implements PheromoneTable {
+    private static final long serialVersionUID = 1;
+
+    public final static String P_INITIAL_CONCENTRATION = SimplePheromoneTable.P_INITIAL_CONCENTRATION;
+    public final static String P_INITIALIZE_WITH_NOISE = SimplePheromoneTable.P_INITIALIZE_WITH_NOISE;
+    public final static String P_NOISE = SimplePheromoneTable.P_NOISE;
+
+    private IndexedProblemForm problem;
+    private double initialConcentration;
+    private boolean initializeWithNoise;
+    private double noise;
+    /** Pheromone concentrations, indexed by component.  NaN marks a pheromone which hasn't been initialized. */
+    private double[] pheromones;
+    private ThreadPool pool = new ThreadPool();
+
+    /** Computes a new value for a pheromone, for use with <code>update()</code>. */
+    public interface Updater
+        {
+        /** @return The new concentration of the component with the given index, whose current concentration is
+         * <code>pheromone</code>. */
+        public double update(final int index, final double pheromone);
+        }
+
+    @Override
+    public void setup(final EvolutionState state, final Parameter base) {
+        assert(state != null);
+        assert(base != null);
+        if (!(state.evaluator.p_problem instanceof IndexedProblemForm))
+            state.output.fatal(String.format("%s: tried to use pheromone table with a %s, but must be %s.", this.getClass().getSimpleName(), state.evaluator.p_problem.getClass().getSimpleName(), IndexedProblemForm.class.getSimpleName()));
+        problem = (IndexedProblemForm) state.evaluator.p_problem;
+        pheromones = new double[problem.numComponents()];
+        Arrays.fill(pheromones, Double.NaN);
+        initializeWithNoise = state.parameters.getBoolean(base.push(P_INITIALIZE_WITH_NOISE), null, true);
+        if (initializeWithNoise)
+            {
+            if (state.parameters.exists(base.push(P_INITIAL_CONCENTRATION), null))
+                state.output.warnOnce(String.format("%s: '%s' is set to true, so I'm ignoring the '%s' parameter.  Is this what you intended?", this.getClass().getSimpleName(), base.push(P_INITIALIZE_WITH_NOISE), base.push(P_INITIAL_CONCENTRATION)), base.push(P_INITIAL_CONCENTRATION));
+            noise = state.parameters.getDoubleWithDefault(base.push(P_NOISE), null, 0.000001);
+            if (noise <= 0.0)
+                state.output.fatal(String.format("%s: '%s' is set to '%f', but must be positive.", this.getClass().getSimpleName(), base.push(P_NOISE), noise), base.push(P_NOISE));
+            }
+        else
+            {
+            if (state.parameters.exists(base.push(P_NOISE), null))
+                state.output.warnOnce(String.format("%s: '%s' is set to false, so I'm ignoring the '%s' parameter.  Is this what you intended?", this.getClass().getSimpleName(), base.push(P_INITIALIZE_WITH_NOISE), base.push(P_NOISE)), base.push(P_NOISE));
+            initialConcentration = state.parameters.getDoubleWithDefault(base.push(P_INITIAL_CONCENTRATION), null, 0.000001);
+            }
+        assert(repOK());
+        }
+
+    /** @return The number of components (and pheromones) in the table. */
+    public int numComponents()
+        {
+        return pheromones.length;
+        }
+
+    /** Retrieve the pheromone concentration for the component with the given index. */
+    public double get(final EvolutionState state, final int index, final int thread)
+        {
+        final double value = pheromones[index];
+        if (value > 0.0)
+            return value;
+        else if (!Double.isNaN(value))
+            {
+            state.output.fatal(String.format("%s: a pheremone value of '%f' was found, but must be positive.", this.getClass().getSimpleName(), value));
+            return value;
+            }
+        else if (initializeWithNoise) // Uninitialized pheromone: replace with a small random number
+            {
+            final double perturbation = state.random[thread].nextDouble()*noise;
+            pheromones[index] = perturbation;
+            return perturbation;
+            }
+        else // Uninitialized pheromone: replace with a small fixed number
+            {
+            pheromones[index] = initialConcentration;
+            return initialConcentration;
+            }
+        }
+
+    /** Set the pheromone concentration for the component with the given index. */
+    public void set(final int index, final double value)
+        {
+        pheromones[index] = value;
+        }
+
+    /** Initialize every pheromone which hasn't been already, in order of index, just as calling <code>get()</code>
+     * on each of them in turn would. */
+    public void initializeAll(final EvolutionState state, final int thread)
+        {
+        for (int i = 0; i < pheromones.length; i++)
+            if (Double.isNaN(pheromones[i]))
+                get(state, i, thread);
+        }
+
+    /** Replace every pheromone with the result of the updater, splitting the components into
+     * <code>numThreads</code> contiguous stripes which are updated in parallel.  Uninitialized pheromones are first
+     * initialized with <code>initializeAll(state, 0)</code>, so the result is the same as updating each component in
+     * turn on thread 0, whatever the number of threads.  If <code>numThreads</code> is 1 or less, the update is done
+     * on the calling thread.  The updater must not touch pheromones other than the one it's given. */
+    public void update(final EvolutionState state, final int numThreads, final Updater updater)
+        {
+        initializeAll(state, 0);
+        final int n = pheromones.length;
+        if (numThreads <= 1)
+            {
+            updateStripe(updater, 0, n);
+            return;
+            }
+        for (int t = 0; t < numThreads; t++)
+            {
+            final int from = (int)(((long) n) * t / numThreads);
+            final int to = (int)(((long) n) * (t + 1) / numThreads);
+            pool.start(new Runnable()
+                {
+                public void run() { updateStripe(updater, from, to); }
+                }, "ECJ Pheromone Update Thread " + t);
+            }
+        pool.joinAll();
+        }
+
+    private void updateStripe(final Updater updater, final int from, final int to)
+        {
+        for (int i = from; i < to; i++)
+            pheromones[i] = updater.update(i, pheromones[i]);
+        }
+
+    @Override
+    public double get(final EvolutionState state, final Component c, final int thread) {
+        assert(c != null);
+        return get(state, problem.getComponentIndex(c), thread);
+        }
+
+    @Override
+    public void set(final Component c, final double value) {
+        assert(c != null);
+        set(problem.getComponentIndex(c), value);
+        }
+
+    public boolean repOK()
+        {
+        return problem != null
+            && pheromones != null
+            && pheromones.length == problem.numComponents();
+        }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 67 * hash + (int) (Double.doubleToLongBits(this.noise) ^ (Double.doubleToLongBits(this.noise) >>> 32));
+        hash = 67 * hash + Arrays.hashCode(this.pheromones);
+        return hash;
+        }
+
+    @Override
+    public boolean equals(final Object o)
+        {
+        if (o == this)
+            return true;
+        if (!(o instanceof IndexedPheromoneTable))
+            return false;
+        final IndexedPheromoneTable ref = (IndexedPheromoneTable) o;
+        return noise == ref.noise
+            && initializeWithNoise == ref.initializeWithNoise
+            && initialConcentration == ref.initialConcentration
+            && Arrays.equals(pheromones, ref.pheromones);
+        }
+    }
@@ -127,6 +127,14 @@ public class MaxMinUpdateRule implements UpdateRule {
         {
         assert(state != null);
         assert(pheromones != null);
+        if (pheromones instanceof IndexedPheromoneTable) // Decay by index, without creating every component, using the breeding threads
+            {
+            ((IndexedPheromoneTable) pheromones).update(state, state.breedthreads, new IndexedPheromoneTable.Updater()
+                {
+                public double update(final int index, final double pheromone) { return Math.max(min, (1.0-decayRate)*pheromone); }
+                });
+            return;
+            }
         final List<Component> components = ((ConstructiveProblemForm)state.evaluator.p_problem).getAllComponents();
         for (final Component c : components) {
             Double pherVal = (1.0-decayRate)*pheromones.get(state, c, 0);
@@ -8,8 +8,11 @@ package ec.co.ant;
 import ec.EvolutionState;
 import ec.Setup;
 import ec.co.Component;
+import ec.co.IndexedProblemForm;
+import ec.util.IntBag;
 import ec.util.Parameter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -21,11 +24,13 @@ import java.util.List;
  * 
  * @author Eric O. Scott
  */
-public class ProportionateComponentSelector implements ComponentSelector, Setup {
+public class ProportionateComponentSelector implements IndexedComponentSelector, Setup {
     public final static String P_ALPHA = "alpha";
     public final static String P_BETA = "beta";
     private double alpha;
     private double beta;
+    /** Per-thread scratch arrays for the scores of the candidate components. */
+    private transient volatile double[][] scoreBuffers;
     
     public double getAlpha()
         {
@@ -91,6 +96,63 @@ public class ProportionateComponentSelector implements ComponentSelector, Setup
         assert(repOK());
         return components.get(i);
         }
+
+    @Override
+    public int choose(final EvolutionState state, final IndexedProblemForm problem, final IntBag components, final IndexedPheromoneTable pheromones, final int thread) {
+        assert(state != null);
+        assert(state.random != null);
+        assert(problem != null);
+        assert(components != null);
+        assert(!components.isEmpty());
+        assert(pheromones != null);
+        assert(thread >= 0);
+
+        final double[] scores = scoreBuffer(thread, components.numObjs);
+        double denominator = 0.0;
+        for (int j = 0; j < components.numObjs; j++)
+            {
+            final int c = components.objs[j];
+            final double tau = pheromones.get(state, c, thread);
+            final double eta = problem.desirability(c);
+            // Math.pow(x, 1.0) is exactly x, so skipping it doesn't change the result
+            final double score = (alpha == 1.0 ? tau : Math.pow(tau, alpha))*(beta == 1.0 ? eta : Math.pow(eta, beta));
+            scores[j] = score;
+            denominator += score;
+            }
+        assert(!Double.isInfinite(denominator));
+        assert(!Double.isNaN(denominator));
+        assert(denominator >= 0);
+
+        final double dart = state.random[thread].nextDouble();
+        int i = 0;
+        double val = scores[0]/denominator;
+        while (val < dart)
+            val += scores[++i]/denominator;
+        assert(i < components.numObjs);
+        return components.objs[i];
+        }
+
+    /** Returns a scratch array of at least the given size for the use of the given thread. */
+    double[] scoreBuffer(final int thread, final int size)
+        {
+        final double[][] b = scoreBuffers;
+        if (b != null && thread < b.length && b[thread] != null && b[thread].length >= size)
+            return b[thread];
+        return addScoreBuffer(thread, size);
+        }
+
+    private synchronized double[] addScoreBuffer(final int thread, final int size)
+        {
+        double[][] b = scoreBuffers;
+        if (b == null)
+            b = new double[thread + 1][];
+        else if (thread >= b.length)
+            b = Arrays.copyOf(b, thread + 1);
+        if (b[thread] == null || b[thread].length < size)
+            b[thread] = new double[size];
+        scoreBuffers = b;
+        return b[thread];
+        }
     
     public final boolean repOK()
         {
@@ -8,6 +8,8 @@ package ec.co.ant;
 import ec.EvolutionState;
 import ec.Setup;
 import ec.co.Component;
+import ec.co.IndexedProblemForm;
+import ec.util.IntBag;
 import ec.util.Misc;
 import ec.util.Parameter;
 import java.util.List;
@@ -21,7 +23,7 @@ import java.util.List;
  *
  * @author Eric O. Scott
  */
-public class PseudorandomProportionateComponentSelector implements ComponentSelector, Setup {
+public class PseudorandomProportionateComponentSelector implements IndexedComponentSelector, Setup {
     public final static String P_PROB_BEST = "prob-best";
     
     private double probBest;
@@ -71,6 +73,36 @@ public class PseudorandomProportionateComponentSelector implements ComponentSele
             return proportionateSelector.choose(state, components, pheromones, thread);
             }
         }
+
+    @Override
+    public int choose(final EvolutionState state, final IndexedProblemForm problem, final IntBag components, final IndexedPheromoneTable pheromones, final int thread)
+        {
+        assert(state != null);
+        assert(problem != null);
+        assert(components != null);
+        assert(pheromones != null);
+        assert(thread >= 0);
+        assert(thread < state.random.length);
+
+        if (state.random[thread].nextDouble() <= probBest)
+            {
+            int best = -1;
+            double best_score = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < components.numObjs; i++)
+                {
+                final int c = components.objs[i];
+                final double score = problem.desirability(c)*pheromones.get(state, c, thread);
+                if (score > best_score)
+                    {
+                    best = c;
+                    best_score = score;
+                    }
+                }
+            return best;
+            }
+        else
+            return proportionateSelector.choose(state, problem, components, pheromones, thread);
+        }
     
     @Override
     public boolean equals(final Object o)
@@ -9,12 +9,20 @@ import ec.EvolutionState;
 import ec.co.Component;
 import ec.co.ConstructiveIndividual;
 import ec.co.ConstructiveProblemForm;
+import ec.co.IndexedProblemForm;
+import ec.util.IntBag;
 import ec.util.Parameter;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Builds an individual by adding one component at a time.  The component
  * is chosen using a <code>ComponentSelector</code> of your choice.
+ *
+ * If the problem is an <code>IndexedProblemForm</code>, the selector is an <code>IndexedComponentSelector</code>,
+ * and the pheromone table is an <code>IndexedPheromoneTable</code> (or null), each step works with component
+ * indices in a reused per-thread <code>IntBag</code> rather than building a new list of candidate components.  The
+ * result is the same either way.
  * 
  * @author Eric O. Scott
  */
@@ -26,6 +34,8 @@ public class SimpleConstructionRule implements ConstructionRule {
 
     private String startComponent;
     private ComponentSelector selector;
+    /** Per-thread scratch lists of allowed component indices. */
+    private transient volatile IntBag[] allowedBuffers;
     
     @Override
     public void setup(final EvolutionState state, final Parameter base)
@@ -60,17 +70,55 @@ public class SimpleConstructionRule implements ConstructionRule {
             ind.add(state, problem.getArbitraryComponent(state, thread));
         
         // Constructively build a new individual
-        while (!problem.isCompleteSolution(ind))
+        if (problem instanceof IndexedProblemForm && selector instanceof IndexedComponentSelector
+            && (pheromones == null || pheromones instanceof IndexedPheromoneTable))
             {
-            final List<Component> allowedMoves = problem.getAllowedComponents(ind);
-            final Component component = selector.choose(state, allowedMoves, pheromones, thread);
-            ind.add(state, component);
+            final IndexedProblemForm indexedProblem = (IndexedProblemForm) problem;
+            final IndexedComponentSelector indexedSelector = (IndexedComponentSelector) selector;
+            final IntBag allowedMoves = allowedBuffer(thread);
+            while (!problem.isCompleteSolution(ind))
+                {
+                indexedProblem.getAllowedComponents(ind, allowedMoves);
+                final int component = indexedSelector.choose(state, indexedProblem, allowedMoves, (IndexedPheromoneTable) pheromones, thread);
+                ind.add(state, indexedProblem.getComponent(component));
+                }
+            }
+        else
+            {
+            while (!problem.isCompleteSolution(ind))
+                {
+                final List<Component> allowedMoves = problem.getAllowedComponents(ind);
+                final Component component = selector.choose(state, allowedMoves, pheromones, thread);
+                ind.add(state, component);
+                }
             }
         
         assert(repOK());
         return ind;
         }
     
+    /** Returns the scratch list of allowed component indices for the given thread. */
+    IntBag allowedBuffer(final int thread)
+        {
+        final IntBag[] b = allowedBuffers;
+        if (b != null && thread < b.length && b[thread] != null)
+            return b[thread];
+        return addAllowedBuffer(thread);
+        }
+
+    private synchronized IntBag addAllowedBuffer(final int thread)
+        {
+        IntBag[] b = allowedBuffers;
+        if (b == null)
+            b = new IntBag[thread + 1];
+        else if (thread >= b.length)
+            b = Arrays.copyOf(b, thread + 1);
+        if (b[thread] == null)
+            b[thread] = new IntBag();
+        allowedBuffers = b;
+        return b[thread];
+        }
+
     public final boolean repOK()
         {
         return P_SELECTOR != null
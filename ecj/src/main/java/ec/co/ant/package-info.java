@@ -6,6 +6,11 @@
  *
  * The central object in this package is <code>AntSpecies</code>, which coordinates most of the other components.
  *
+ * For problems which number their components (<code>ec.co.IndexedProblemForm</code>), such as TSP,
+ * <code>IndexedPheromoneTable</code> keeps pheromones in an array, and <code>SimpleConstructionRule</code> builds
+ * ants using the component indices and an <code>IndexedComponentSelector</code>.  This is much faster on large
+ * problems and gives the same results.
+ *
  * Have a look at the the <code>ec.app.tsp</code> and <code>ec.app.knapsack</code> example apps to get a sense of how
  * these components can be used in practice.
  */
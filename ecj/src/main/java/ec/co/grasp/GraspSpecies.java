@@ -6,6 +6,7 @@ import ec.EvolutionState;
 import ec.Fitness;
 import ec.Individual;
 import ec.co.ConstructiveIndividual;
+import ec.co.LocalSearch;
 
 public class GraspSpecies extends Species
     {
@@ -13,8 +14,10 @@ public class GraspSpecies extends Species
     public final static String SPECIES_NAME = "constructive-species";
 
     public final static String P_CONSTRUCTION_RULE = "construction-rule";
+    public final static String P_LOCAL_SEARCH = "local-search";
 
     private ConstructionRule constructionRule;
+    private LocalSearch localSearch;
 
     @Override
     public void setup(final EvolutionState state, final Parameter base)
@@ -25,6 +28,12 @@ public class GraspSpecies extends Species
         constructionRule = (ConstructionRule) state.parameters.getInstanceForParameter(base.push(P_CONSTRUCTION_RULE), null, ConstructionRule.class);
         constructionRule.setup(state, base.push(P_CONSTRUCTION_RULE));
 
+        if (state.parameters.exists(base.push(P_LOCAL_SEARCH), null))
+            {
+            localSearch = (LocalSearch) state.parameters.getInstanceForParameter(base.push(P_LOCAL_SEARCH), null, LocalSearch.class);
+            localSearch.setup(state, base.push(P_LOCAL_SEARCH));
+            }
+
         assert(repOK());
         }
 
@@ -57,7 +66,8 @@ public class GraspSpecies extends Species
 
         final ConstructiveIndividual ind = (ConstructiveIndividual)(super.newIndividual(state, thread));
         assert(repOK());
-        return constructionRule.constructSolution(state, ind, thread);
+        final ConstructiveIndividual solution = constructionRule.constructSolution(state, ind, thread);
+        return (localSearch == null ? solution : localSearch.improve(state, solution, thread));
         }
 
     @Override
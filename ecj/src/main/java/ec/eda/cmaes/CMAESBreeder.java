@@ -7,8 +7,6 @@
 
 package ec.eda.cmaes;
 
-import java.util.ArrayList;
-
 import ec.*;
 import ec.util.*;
 
@@ -55,9 +53,7 @@ public class CMAESBreeder extends Breeder
             species.updateDistribution(state, subpop);
                 
             // overwrite individuals
-            ArrayList<Individual> inds = subpop.individuals;
-            for(int j = 0; j < inds.size(); j++)
-                inds.set(j, species.newIndividual(state, 0));
+            species.newIndividuals(state, subpop.individuals, 0);
             }
                 
         return pop;
@@ -0,0 +1,424 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.eda.cmaes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import ec.*;
+import ec.util.*;
+
+/**
+ * CMAESRestartBreeder is a CMAESBreeder which restarts CMA-ES whenever it has stagnated, within
+ * the same run, using either the IPOP-CMA-ES or the BIPOP-CMA-ES restart strategy (Auger and
+ * Hansen, 2005; Hansen, 2009).  Each restart starts the CMAESSpecies over from its initial mean
+ * and covariance (see CMAESSpecies.restart(...)), with a new lambda and sigma, and resizes the
+ * subpopulation to match.
+ *
+ * <p><b>IPOP</b> multiplies the original lambda by <tt>increase</tt> (normally 2) at every restart.
+ * <b>BIPOP</b> interleaves two regimes.  The <i>large</i> regime works just like IPOP.  The <i>small</i>
+ * regime uses a lambda chosen at random between the original lambda and half the largest lambda so far,
+ * and an initial sigma of the original sigma times 10<sup>-2U</sup>, where U is uniform in [0,1).
+ * The first restart is in the large regime; after that, each restart is in whichever regime has
+ * used fewer evaluations so far, not counting the first run.
+ *
+ * <p>All of the runs share the run's generations or evaluations budget: the evaluation count isn't
+ * reset by a restart, and the run ends when the budget is used up, whatever run it is in.
+ *
+ * <p>A run has stagnated when any of the following hold.  These are the usual restart criteria
+ * for IPOP-CMA-ES and BIPOP-CMA-ES, and assume that larger fitness() values are better.
+ * <ul>
+ * <li><b>TolFun</b>: the best fitnesses of the last 10 + 30n/lambda generations, and all the fitnesses of
+ * the present generation, lie within <tt>tol-fun</tt> of one another.
+ * <li><b>TolX</b>: sigma times the standard deviation of the distribution in every coordinate, and sigma
+ * times every element of p_c, are less than <tt>tol-x</tt> times the initial sigma.  In the limited-memory model,
+ * the initial standard deviations are used instead.
+ * <li><b>NoEffectAxis</b> (full model only): adding 0.1 standard deviations along a principal axis of the
+ * distribution doesn't change the mean.  One axis is tested per generation.
+ * <li><b>NoEffectCoord</b> (not in the limited-memory model): adding 0.2 standard deviations in some
+ * coordinate doesn't change the mean.
+ * <li><b>ConditionCov</b> (not in the limited-memory model): the condition number of C exceeds 10<sup>14</sup>.
+ * <li><b>Stagnation</b>: over the last 20% of the run's generations (but at least 120 + 30n/lambda and at
+ * most 20000), neither the best nor the median fitness of the most recent 30% of them is better than
+ * that of the oldest 30%.
+ * </ul>
+ *
+ * <p>At each restart, CMAESRestartBreeder calls preRestartStatistics(...) and postRestartStatistics(...)
+ * on every Statistics object which implements CMAESRestartStatisticsForm, such as CMAESRestartStatistics.
+ * You probably don't want to turn on CMAESSpecies' <tt>alternative-termination</tt>, since it ends the
+ * whole run rather than restarting.
+ *
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>restart</tt><br>
+ <font size=-1>String, either "ipop" (default) or "bipop"</td>
+ <td valign=top>The restart strategy.
+ </td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>increase</tt><br>
+ <font size=-1>Floating-point value &gt;= 1.0, default 2.0</td>
+ <td valign=top>The factor by which lambda grows with each (large) restart.
+ </td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>max-restarts</tt><br>
+ <font size=-1>Integer &gt;= 0, default unlimited</td>
+ <td valign=top>The most restarts to make on any one subpopulation.
+ </td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>tol-fun</tt><br>
+ <font size=-1>Floating-point value &gt;= 0.0, default 1e-12</td>
+ <td valign=top>The TolFun restart criterion.
+ </td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>tol-x</tt><br>
+ <font size=-1>Floating-point value &gt;= 0.0, default 1e-12</td>
+ <td valign=top>The TolX restart criterion, relative to the initial sigma.
+ </td></tr>
+ </table>
+ *
+ * @author Sean Luke
+ * @version 1.0
+ */
+
+public class CMAESRestartBreeder extends CMAESBreeder
+    {
+    private static final long serialVersionUID = 1;
+
+    public static final String P_RESTART = "restart";
+    public static final String V_IPOP = "ipop";
+    public static final String V_BIPOP = "bipop";
+    public static final String P_INCREASE = "increase";
+    public static final String P_MAX_RESTARTS = "max-restarts";
+    public static final String P_TOL_FUN = "tol-fun";
+    public static final String P_TOL_X = "tol-x";
+
+    public static final double DEFAULT_INCREASE = 2.0;
+    public static final double DEFAULT_TOL_FUN = 1e-12;
+    public static final double DEFAULT_TOL_X = 1e-12;
+
+    /** The longest window of generations the Stagnation criterion looks at. */
+    public static final int MAX_HISTORY = 20000;
+
+    /** Are we using BIPOP rather than IPOP? */
+    public boolean bipop;
+    public double increase;
+    public int maxRestarts;
+    public double tolFun;
+    public double tolX;
+
+    /** How many times each subpopulation has been restarted. */
+    public int[] restarts;
+    /** How many of each subpopulation's restarts were in the large regime.  For IPOP, this is all of them. */
+    public int[] largeRestarts;
+    /** Is each subpopulation's present run in BIPOP's small regime? */
+    public boolean[] smallRegime;
+    /** How many evaluations each subpopulation has spent in the large regime, not counting its first run. */
+    public long[] largeEvaluations;
+    /** How many evaluations each subpopulation has spent in the small regime. */
+    public long[] smallEvaluations;
+    /** The lambda of each subpopulation's first run. */
+    public int[] defaultLambda;
+    /** The initial sigma of each subpopulation's first run. */
+    public double[] defaultSigma;
+
+    // The best and median fitnesses of each generation of each subpopulation's present run,
+    // and the range of fitnesses of its latest generation
+    double[][] bestHistory;
+    double[][] medianHistory;
+    int[] historySize;
+    double[] range;
+    transient double[] fitnesses;
+    transient double[] buffer;
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        super.setup(state, base);
+
+        String restart = state.parameters.getStringWithDefault(base.push(P_RESTART), null, V_IPOP);
+        if (restart.equals(V_IPOP))
+            bipop = false;
+        else if (restart.equals(V_BIPOP))
+            bipop = true;
+        else
+            state.output.fatal("Invalid CMA-ES restart strategy " + restart, base.push(P_RESTART), null);
+
+        increase = state.parameters.getDoubleWithDefault(base.push(P_INCREASE), null, DEFAULT_INCREASE);
+        if (increase < 1.0)
+            state.output.fatal("If the CMA-ES increase parameter is provided, it must be a valid number >= 1.0", base.push(P_INCREASE), null);
+
+        maxRestarts = Integer.MAX_VALUE;
+        if (state.parameters.exists(base.push(P_MAX_RESTARTS), null))
+            {
+            maxRestarts = state.parameters.getInt(base.push(P_MAX_RESTARTS), null, 0);
+            if (maxRestarts < 0)
+                state.output.fatal("If the CMA-ES max-restarts parameter is provided, it must be a valid integer >= 0", base.push(P_MAX_RESTARTS), null);
+            }
+
+        tolFun = state.parameters.getDoubleWithDefault(base.push(P_TOL_FUN), null, DEFAULT_TOL_FUN);
+        if (tolFun < 0.0)
+            state.output.fatal("If the CMA-ES tol-fun parameter is provided, it must be a valid number >= 0.0", base.push(P_TOL_FUN), null);
+        tolX = state.parameters.getDoubleWithDefault(base.push(P_TOL_X), null, DEFAULT_TOL_X);
+        if (tolX < 0.0)
+            state.output.fatal("If the CMA-ES tol-x parameter is provided, it must be a valid number >= 0.0", base.push(P_TOL_X), null);
+        }
+
+    /** Updates the CMA-ES distribution given the current population, restarts it if it has stagnated,
+        then replaces the population with new samples generated from the distribution.
+        Returns the revised population. */
+
+    public Population breedPopulation(final EvolutionState state)
+        {
+        Population pop = state.population;
+        if (restarts == null)
+            initialize(state, pop);
+
+        for(int i = 0; i < pop.subpops.size(); i++)
+            {
+            Subpopulation subpop = pop.subpops.get(i);
+            if (!(subpop.species instanceof CMAESSpecies))  // uh oh
+                state.output.fatal("To use CMAESRestartBreeder, subpopulation " + i + " must contain a CMAESSpecies.  But it contains a " + subpop.species);
+
+            CMAESSpecies species = (CMAESSpecies)(subpop.species);
+
+            // charge this generation to its regime
+            if (restarts[i] > 0)
+                {
+                if (smallRegime[i])
+                    smallEvaluations[i] += subpop.individuals.size();
+                else
+                    largeEvaluations[i] += subpop.individuals.size();
+                }
+            record(i, subpop);
+
+            // update distribution[i] for subpop, and restart if need be
+            species.updateDistribution(state, subpop);
+            if (restarts[i] < maxRestarts)
+                {
+                String reason = stagnation(i, species);
+                if (reason != null)
+                    restart(state, i, species, reason);
+                }
+
+            // overwrite individuals, resizing to lambda
+            ArrayList<Individual> inds = subpop.individuals;
+            while(inds.size() > species.lambda)
+                inds.remove(inds.size() - 1);
+            while(inds.size() < species.lambda)
+                inds.add(null);
+            species.newIndividuals(state, inds, 0);
+            }
+
+        return pop;
+        }
+
+    void initialize(final EvolutionState state, final Population pop)
+        {
+        int len = pop.subpops.size();
+        restarts = new int[len];
+        largeRestarts = new int[len];
+        smallRegime = new boolean[len];
+        largeEvaluations = new long[len];
+        smallEvaluations = new long[len];
+        defaultLambda = new int[len];
+        defaultSigma = new double[len];
+        bestHistory = new double[len][16];
+        medianHistory = new double[len][16];
+        historySize = new int[len];
+        range = new double[len];
+        for(int i = 0; i < len; i++)
+            {
+            if (!(pop.subpops.get(i).species instanceof CMAESSpecies))
+                continue;   // breedPopulation will complain
+            CMAESSpecies species = (CMAESSpecies)(pop.subpops.get(i).species);
+            defaultLambda[i] = species.lambda;
+            defaultSigma[i] = species.initialSigma;
+            if (species.useAltTermination)
+                state.output.warnOnce("CMAESRestartBreeder is being used with CMA-ES's alternative termination, which will end the run rather than restarting it.");
+            }
+        }
+
+    /** Records the best and median fitness of the subpopulation, and the range of its fitnesses. */
+    void record(final int subpop, final Subpopulation sp)
+        {
+        int size = sp.individuals.size();
+        if (fitnesses == null || fitnesses.length < size)
+            fitnesses = new double[size];
+        for(int k = 0; k < size; k++)
+            fitnesses[k] = sp.individuals.get(k).fitness.fitness();
+        Arrays.sort(fitnesses, 0, size);
+        range[subpop] = fitnesses[size - 1] - fitnesses[0];
+
+        if (historySize[subpop] == bestHistory[subpop].length)
+            {
+            if (historySize[subpop] < 2 * MAX_HISTORY)
+                {
+                int len = Math.min(2 * MAX_HISTORY, 2 * historySize[subpop]);
+                bestHistory[subpop] = Arrays.copyOf(bestHistory[subpop], len);
+                medianHistory[subpop] = Arrays.copyOf(medianHistory[subpop], len);
+                }
+            else    // drop the older half
+                {
+                System.arraycopy(bestHistory[subpop], MAX_HISTORY, bestHistory[subpop], 0, MAX_HISTORY);
+                System.arraycopy(medianHistory[subpop], MAX_HISTORY, medianHistory[subpop], 0, MAX_HISTORY);
+                historySize[subpop] = MAX_HISTORY;
+                }
+            }
+        bestHistory[subpop][historySize[subpop]] = fitnesses[size - 1];
+        medianHistory[subpop][historySize[subpop]] = fitnesses[size / 2];
+        historySize[subpop]++;
+        }
+
+    /** Returns the standard deviation of the species' distribution in coordinate j, not counting sigma. */
+    double deviation(final CMAESSpecies species, final int j)
+        {
+        if (species.model == CMAESSpecies.MODEL_FULL)
+            return Math.sqrt(species.c.get(j,j));
+        else if (species.model == CMAESSpecies.MODEL_SEPARABLE)
+            return species.d.data[j];
+        else
+            return species.memoryScale[j];
+        }
+
+    /** Returns the name of the criterion by which the subpopulation's present run has stagnated, or null if it hasn't. */
+    String stagnation(final int subpop, final CMAESSpecies species)
+        {
+        int n = species.genomeSize;
+        double sigma = species.sigma;
+        double[] mean = species.xmean.data;
+        int size = historySize[subpop];
+
+        // TolFun
+        int window = 10 + (int)Math.ceil(30.0 * n / species.lambda);
+        if (size >= window && range[subpop] < tolFun)
+            {
+            double max = Double.NEGATIVE_INFINITY;
+            double min = Double.POSITIVE_INFINITY;
+            for(int k = size - window; k < size; k++)
+                {
+                max = Math.max(max, bestHistory[subpop][k]);
+                min = Math.min(min, bestHistory[subpop][k]);
+                }
+            if (max - min < tolFun)
+                return "TolFun";
+            }
+
+        // TolX
+        double tol = tolX * species.initialSigma;
+        boolean small = true;
+        for(int j = 0; j < n && small; j++)
+            small = (sigma * deviation(species, j) < tol) && (species.pc == null || Math.abs(sigma * species.pc.data[j]) < tol);
+        if (small)
+            return "TolX";
+
+        if (species.model != CMAESSpecies.MODEL_LIMITED_MEMORY)
+            {
+            // NoEffectAxis
+            if (species.model == CMAESSpecies.MODEL_FULL)
+                {
+                int axis = species.iterations % n;
+                double step = 0.1 * sigma * species.d.get(axis,axis);
+                boolean noEffect = true;
+                for(int j = 0; j < n && noEffect; j++)
+                    noEffect = (mean[j] + step * species.b.get(j,axis) == mean[j]);
+                if (noEffect)
+                    return "NoEffectAxis";
+                }
+
+            // NoEffectCoord
+            for(int j = 0; j < n; j++)
+                if (mean[j] + 0.2 * sigma * deviation(species, j) == mean[j])
+                    return "NoEffectCoord";
+
+            // ConditionCov
+            double maxD = 0.0;
+            double minD = Double.POSITIVE_INFINITY;
+            for(int j = 0; j < n; j++)
+                {
+                double dj = (species.model == CMAESSpecies.MODEL_FULL ? species.d.get(j,j) : species.d.data[j]);
+                maxD = Math.max(maxD, dj);
+                minD = Math.min(minD, dj);
+                }
+            if (maxD * maxD > 1e14 * minD * minD)
+                return "ConditionCov";
+            }
+
+        // Stagnation
+        window = Math.min(MAX_HISTORY, Math.max(120 + (int)Math.ceil(30.0 * n / species.lambda), (int)(0.2 * species.iterations)));
+        if (size >= window && !improved(bestHistory[subpop], size, window) && !improved(medianHistory[subpop], size, window))
+            return "Stagnation";
+
+        return null;
+        }
+
+    /** Returns true if, of the last window entries in the history, the median of the most recent 30% is
+        better than the median of the oldest 30%. */
+    boolean improved(final double[] history, final int size, final int window)
+        {
+        int part = Math.max(1, (int)(0.3 * window));
+        if (buffer == null || buffer.length < part)
+            buffer = new double[part];
+        System.arraycopy(history, size - window, buffer, 0, part);
+        Arrays.sort(buffer, 0, part);
+        double oldest = buffer[part / 2];
+        System.arraycopy(history, size - part, buffer, 0, part);
+        Arrays.sort(buffer, 0, part);
+        return buffer[part / 2] > oldest;
+        }
+
+    /** Restarts the subpopulation's species with the next lambda and sigma of the restart strategy. */
+    void restart(final EvolutionState state, final int subpop, final CMAESSpecies species, final String reason)
+        {
+        preRestartStatistics(state.statistics, state, subpop, reason);
+
+        int lambda;
+        double sigma;
+        if (bipop && largeRestarts[subpop] > 0 && smallEvaluations[subpop] < largeEvaluations[subpop])
+            {
+            // small regime
+            double largest = defaultLambda[subpop] * Math.pow(increase, largeRestarts[subpop]);
+            double u = state.random[0].nextDouble();
+            lambda = (int)Math.floor(defaultLambda[subpop] * Math.pow(0.5 * largest / defaultLambda[subpop], u * u));
+            lambda = Math.max(lambda, defaultLambda[subpop]);
+            sigma = defaultSigma[subpop] * Math.pow(10.0, -2.0 * state.random[0].nextDouble());
+            smallRegime[subpop] = true;
+            }
+        else
+            {
+            // large regime, or IPOP
+            largeRestarts[subpop]++;
+            lambda = (int)Math.round(defaultLambda[subpop] * Math.pow(increase, largeRestarts[subpop]));
+            sigma = defaultSigma[subpop];
+            smallRegime[subpop] = false;
+            }
+        restarts[subpop]++;
+
+        state.output.message("CMA-ES restart " + restarts[subpop] + " of subpopulation " + subpop + " (" + reason + "), lambda: " + lambda + " sigma: " + sigma);
+        species.restart(state, lambda, sigma);
+        historySize[subpop] = 0;
+
+        postRestartStatistics(state.statistics, state, subpop);
+        }
+
+    /** Calls preRestartStatistics(...) on the statistics object and all its descendants which implement CMAESRestartStatisticsForm. */
+    void preRestartStatistics(final Statistics statistics, final EvolutionState state, final int subpop, final String reason)
+        {
+        if (statistics instanceof CMAESRestartStatisticsForm)
+            ((CMAESRestartStatisticsForm)statistics).preRestartStatistics(state, subpop, reason);
+        for(int x = 0; x < statistics.children.length; x++)
+            preRestartStatistics(statistics.children[x], state, subpop, reason);
+        }
+
+    /** Calls postRestartStatistics(...) on the statistics object and all its descendants which implement CMAESRestartStatisticsForm. */
+    void postRestartStatistics(final Statistics statistics, final EvolutionState state, final int subpop)
+        {
+        if (statistics instanceof CMAESRestartStatisticsForm)
+            ((CMAESRestartStatisticsForm)statistics).postRestartStatistics(state, subpop);
+        for(int x = 0; x < statistics.children.length; x++)
+            postRestartStatistics(statistics.children[x], state, subpop);
+        }
+    }
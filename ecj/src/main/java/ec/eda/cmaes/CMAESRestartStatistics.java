@@ -0,0 +1,142 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.eda.cmaes;
+import ec.*;
+import ec.util.*;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * CMAESRestartStatistics prints a summary of each CMA-ES run of each subpopulation when
+ * CMAESRestartBreeder restarts it, and of the last runs at the end: why the run ended, how
+ * many generations and evaluations it took, its lambda and final sigma, and the best fitness
+ * it found.  It also notes the lambda and sigma of each new run.  It's normally used as a
+ * child of another Statistics object, such as SimpleStatistics.
+ *
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base.</i><tt>gzip</tt><br>
+ <font size=-1>boolean</font></td>
+ <td valign=top>(whether or not to compress the file (.gz suffix added)</td></tr>
+ <tr><td valign=top><i>base.</i><tt>file</tt><br>
+ <font size=-1>String (a filename), or nonexistant (signifies stdout)</font></td>
+ <td valign=top>(the log for statistics)</td></tr>
+ </table>
+ *
+ * @author Sean Luke
+ * @version 1.0
+ */
+
+public class CMAESRestartStatistics extends Statistics implements CMAESRestartStatisticsForm
+    {
+    private static final long serialVersionUID = 1;
+
+    /** log file parameter */
+    public static final String P_STATISTICS_FILE = "file";
+
+    /** compress? */
+    public static final String P_COMPRESS = "gzip";
+
+    /** The Statistics' log */
+    public int statisticslog = 0;  // stdout
+
+    /** The number of each subpopulation's present run, starting at 0 */
+    public int[] run;
+    /** The number of generations in each subpopulation's present run so far */
+    public int[] runGenerations;
+    /** The number of evaluations in each subpopulation's present run so far */
+    public long[] runEvaluations;
+    /** The best individual of each subpopulation's present run so far */
+    public Individual[] bestOfRun;
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        super.setup(state,base);
+
+        boolean compress = state.parameters.getBoolean(base.push(P_COMPRESS),null,false);
+        File statisticsFile = state.parameters.getFile(base.push(P_STATISTICS_FILE),null);
+
+        if (silentFile)
+            {
+            statisticslog = Output.NO_LOGS;
+            }
+        else if (statisticsFile!=null)
+            {
+            try
+                {
+                statisticslog = state.output.addLog(statisticsFile, !compress, compress);
+                }
+            catch (IOException i)
+                {
+                state.output.fatal("An IOException occurred while trying to create the log " + statisticsFile + ":\n" + i);
+                }
+            }
+        }
+
+    public void postInitializationStatistics(final EvolutionState state)
+        {
+        super.postInitializationStatistics(state);
+        int len = state.population.subpops.size();
+        run = new int[len];
+        runGenerations = new int[len];
+        runEvaluations = new long[len];
+        bestOfRun = new Individual[len];
+        }
+
+    public void postEvaluationStatistics(final EvolutionState state)
+        {
+        super.postEvaluationStatistics(state);
+        for(int x = 0; x < state.population.subpops.size(); x++)
+            {
+            Subpopulation subpop = state.population.subpops.get(x);
+            for(int y = 0; y < subpop.individuals.size(); y++)
+                {
+                Individual ind = subpop.individuals.get(y);
+                if (bestOfRun[x] == null || ind.fitness.betterThan(bestOfRun[x].fitness))
+                    bestOfRun[x] = (Individual)(ind.clone());
+                }
+            runGenerations[x]++;
+            runEvaluations[x] += subpop.individuals.size();
+            }
+        }
+
+    public void preRestartStatistics(final EvolutionState state, int subpop, String reason)
+        {
+        printRun(state, subpop, reason);
+        run[subpop]++;
+        runGenerations[subpop] = 0;
+        runEvaluations[subpop] = 0;
+        bestOfRun[subpop] = null;
+        }
+
+    public void postRestartStatistics(final EvolutionState state, int subpop)
+        {
+        CMAESSpecies species = (CMAESSpecies)(state.population.subpops.get(subpop).species);
+        state.output.println("Subpop " + subpop + " Run " + run[subpop] + " Started: Generation " + state.generation +
+            "\tLambda: " + species.lambda + "\tSigma: " + species.sigma, statisticslog);
+        }
+
+    public void finalStatistics(final EvolutionState state, final int result)
+        {
+        super.finalStatistics(state, result);
+        for(int x = 0; x < state.population.subpops.size(); x++)
+            printRun(state, x, "End of Run");
+        }
+
+    void printRun(final EvolutionState state, final int subpop, final String reason)
+        {
+        Species species = state.population.subpops.get(subpop).species;
+        String mes = "Subpop " + subpop + " Run " + run[subpop] + " Ended: " + reason +
+            "\tGenerations: " + runGenerations[subpop] + "\tEvaluations: " + runEvaluations[subpop];
+        if (species instanceof CMAESSpecies)
+            mes += "\tLambda: " + ((CMAESSpecies)species).lambda + "\tSigma: " + ((CMAESSpecies)species).sigma;
+        if (bestOfRun[subpop] != null)
+            mes += "\tBest Fitness: " + bestOfRun[subpop].fitness.fitnessToStringForHumans();
+        state.output.println(mes, statisticslog);
+        }
+    }
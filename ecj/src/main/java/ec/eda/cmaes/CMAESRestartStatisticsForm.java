@@ -0,0 +1,30 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.eda.cmaes;
+import ec.*;
+
+/**
+ * This interface defines the hooks which CMAESRestartBreeder calls on Statistics objects
+ * when it restarts CMA-ES on a subpopulation.  It is an optional interface: CMAESRestartBreeder
+ * calls these hooks on the statistics object and on every one of its descendants which implements
+ * CMAESRestartStatisticsForm, and ignores the rest.  So unlike the standard hooks, implementations
+ * should <i>not</i> call these hooks on their own children.
+ *
+ * @author Sean Luke
+ * @version 1.0
+ */
+
+public interface CMAESRestartStatisticsForm
+    {
+    /** Called just before the CMAESSpecies of the given subpopulation is restarted, for the given reason.
+        The species still holds the distribution of the run which is ending. */
+    public void preRestartStatistics(final EvolutionState state, int subpop, String reason);
+    /** Called just after the CMAESSpecies of the given subpopulation has been restarted with its new
+        lambda and sigma, but before the subpopulation has been refilled with new individuals. */
+    public void postRestartStatistics(final EvolutionState state, int subpop);
+    }
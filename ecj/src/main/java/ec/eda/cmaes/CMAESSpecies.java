@@ -14,12 +14,9 @@ import org.ejml.data.DenseMatrix64F;
 import org.ejml.factory.DecompositionFactory;
 import org.ejml.interfaces.decomposition.EigenDecomposition;
 import org.ejml.ops.CommonOps;
-import org.ejml.ops.NormOps;
-import org.ejml.ops.RandomMatrices;
-import org.ejml.simple.SimpleMatrix;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 
 /* 
  * CMAESSpecies.java
@@ -83,6 +80,31 @@ import java.util.Collections;
  * if a specific gene bound is violated, then *for that gene only* the value is chosen at
  * random uniformly from within the gene bounds.
  *
+ * <p>For large genomes, CMAESSpecies can use a cheaper model of the covariance matrix, set
+ * with the <tt>model</tt> parameter:
+ *
+ * <ul>
+ * <li><b>full</b> (the default) is ordinary CMA-ES, with a full n x n covariance matrix.  Each
+ * generation costs O(n<sup>2</sup>) per individual, plus an O(n<sup>3</sup>) eigendecomposition
+ * which is only done every 1/(10n(c1+cmu)) generations.
+ * <li><b>separable</b> is sep-CMA-ES (Ros and Hansen, 2008), which only adapts the diagonal of
+ * the covariance matrix, with learning rates c1 and cmu increased by a factor of (n+2)/3 by
+ * default.  Everything costs O(n) per individual, but the variables can't be rotated.
+ * <li><b>limited-memory</b> is LM-MA-ES (Loshchilov, Glasmachers, and Beyer, 2019), which
+ * models the covariance matrix with <tt>memory</tt> vectors rather than a matrix.  Everything
+ * costs O(memory * n) per individual.  It is meant for genomes of hundreds of genes or more,
+ * and uses its own defaults for cs and for its learning rates, and its own step-size rule.
+ * It doesn't use the cc, c1, cmu, damps, or alternative-termination parameters.
+ * </ul>
+ *
+ * <p>Whatever the model, CMAESSpecies keeps its matrices and vectors from generation to
+ * generation, updating them in place.  CMAESBreeder samples all of the new individuals in a
+ * generation at once using newIndividuals(...), and updateDistribution(...) only picks out
+ * the mu best individuals rather than sorting the subpopulation.
+ *
+ * <p>CMAESSpecies can be started over from its initial distribution, with a new lambda and sigma,
+ * with restart(...).  CMAESRestartBreeder uses this to implement the IPOP and BIPOP restart strategies.
+ *
  * <p>CMAESSpecies relies on the EJML matrix library, available at 
  * <a href="http://ejml.org/">http://ejml.org/</a>
 
@@ -196,6 +218,17 @@ import java.util.Collections;
  <td valign=top>Should we also terminate on CMA-ES's additional termination conditions?.
  </td></tr>
 
+ <tr><td valign=top><i>base</i>.<tt>model</tt><br>
+ <font size=-1>String, one of "full" (default), "separable", or "limited-memory"</td>
+ <td valign=top>How the covariance matrix is modeled (see above).
+ </td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>memory</tt><br>
+ <font size=-1>Integer > 0</td>
+ <td valign=top>(number of vectors used by the limited-memory model)<br>
+ If not provided, this defaults to 4 + Math.floor(3 * Math.log(n)).
+ </td></tr>
+
  </table>
 
 
@@ -235,6 +268,19 @@ public class CMAESSpecies extends FloatVectorSpecies
     public static final String P_ALTERNATIVE_GENERATOR = "alternative-generator";
     public static final String P_ALTERNATIVE_GENERATOR_TRIES = "alternative-generator-tries";
 
+    public static final String P_MODEL = "model";
+    public static final String V_FULL = "full";
+    public static final String V_SEPARABLE = "separable";
+    public static final String V_LIMITED_MEMORY = "limited-memory";
+    public static final String P_MEMORY = "memory";
+
+    public static final int MODEL_FULL = 0;
+    public static final int MODEL_SEPARABLE = 1;
+    public static final int MODEL_LIMITED_MEMORY = 2;
+
+    /** How the covariance matrix is modeled: MODEL_FULL, MODEL_SEPARABLE, or MODEL_LIMITED_MEMORY. */
+    public int model = MODEL_FULL;
+
     /** The individuals generated from the distribution. 
         If not specified in the parameters, by default 
         lambda = 4+(int)Math.floor(3*Math.log(n));
@@ -297,41 +343,91 @@ public class CMAESSpecies extends FloatVectorSpecies
     /** The "sigma" scaling factor for the covariance matrix. */
     public double sigma;
 
-    /** The mean of the distribution. */
-    public SimpleMatrix xmean;
+    /** The mean of the distribution, an n x 1 vector. */
+    public DenseMatrix64F xmean;
 
-    /** The "C" covariance matrix of the distribution. */
-    public SimpleMatrix c;
+    /** The "C" covariance matrix of the distribution.  In the separable model, this is an n x 1
+        vector holding just the diagonal.  Not used in the limited-memory model. */
+    public DenseMatrix64F c;
 
-    /** The "B" matrix, eigendecomposed from the "C" covariance matrix of the distribution. */
-    public SimpleMatrix b;
+    /** The "B" matrix, eigendecomposed from the "C" covariance matrix of the distribution.
+        Only used in the full model. */
+    public DenseMatrix64F b;
 
-    /** The "C" matrix, eigendecomposed from the "C" covariance matrix of the distribution. */
-    public SimpleMatrix d;
+    /** The "D" matrix, eigendecomposed from the "C" covariance matrix of the distribution.  In the
+        separable model, this is an n x 1 vector holding just the diagonal.  Not used in the
+        limited-memory model. */
+    public DenseMatrix64F d;
     
-    /** b x d */
+    /** b x d.  Only used in the full model. */
     public DenseMatrix64F bd;
     
-    /** bd x sigma */
+    /** bd x sigma.  Only used in the full model. */
     public DenseMatrix64F sbd;
     
-    /** C^{-1/2}.  This is equal to B x D^{-1} x B^T */
-    public SimpleMatrix invsqrtC;
+    /** C^{-1/2}.  This is equal to B x D^{-1} x B^T.  Only used in the full model. */
+    public DenseMatrix64F invsqrtC;
 
     /** The p_{\sigma} evolution path vector. */
-    public SimpleMatrix ps;
+    public DenseMatrix64F ps;
     
-    /** The p_c evolution path vector. */
-    public SimpleMatrix pc;
+    /** The p_c evolution path vector.  Not used in the limited-memory model. */
+    public DenseMatrix64F pc;
+
+    /** The vectors which model the covariance matrix in the limited-memory model, one per row. */
+    public DenseMatrix64F memory;
+
+    /** How many rows of memory are presently in use.  This grows by one each generation, up to
+        the number of rows. */
+    public int memoryUsed;
+
+    /** The c_d rates of each vector in the limited-memory model, 1 / (1.5^j n) for vector j. */
+    public double[] memoryRates;
+
+    /** The c_c learning rates of each vector in the limited-memory model, lambda / (4^j n) for vector j. */
+    public double[] memoryLearningRates;
+
+    /** The standard deviations of the initial covariance matrix, by which the limited-memory model
+        scales every sample. */
+    public double[] memoryScale;
+
+    // Buffers reused from generation to generation
+    transient EigenDecomposition<DenseMatrix64F> eig;
+    transient DenseMatrix64F eigBuffer;
+    transient DenseMatrix64F artmp;
+    transient DenseMatrix64F weightedArtmp;
+    transient DenseMatrix64F samples;
+    transient DenseMatrix64F transformed;
+    transient double[] xold;
+    transient double[] y;
+    transient double[] z;
+    transient int[] selected;
+    transient volatile double[][] sampleBuffers;
     
     /** An estimate of the expected size of the standard multivariate gaussian N(0,I). 
         This is chiN = Math.sqrt(n)*(1.0-1.0/(4.0*n)+1.0/(21.0*n*n))
     */
     public double chiN;
 
-    /** The most recent generation where an eigendecomposition on C was performed into B and D */
+    /** The most recent iteration where an eigendecomposition on C was performed into B and D */
     public int lastEigenDecompositionGeneration = -1;
 
+    /** The number of times updateDistribution(...) has been called since the distribution
+        was last initialized, either during setup or by restart(...). */
+    public int iterations;
+
+    /** The initial sigma, as set up from the parameters. */
+    public double initialSigma;
+
+    /** The initial mean, as set up from the parameters.  Genes whose mean is to be chosen at random are NaN. */
+    public double[] initialMean;
+
+    /** The diagonal of the initial covariance matrix, as set up from the parameters. */
+    public double[] initialVariances;
+
+    /** The parameter base we were set up with, from which restart(...) reloads the strategy parameters. */
+    public Parameter setupBase;
+
     /** Should we terminate when the eigenvalues get too small?  If we don't, they might go negative and the eigendecomposition will fail. */
     public boolean useAltTermination;
     
@@ -399,54 +495,56 @@ public class CMAESSpecies extends FloatVectorSpecies
             covs += cvals[i];
             }
         state.output.message(covs + ">");
+        initialSigma = sigma;
+        initialVariances = cvals;
+        setupBase = base;
                 
         // set myself up and define my initial distribution here
         int n = genomeSize;
-        b = SimpleMatrix.identity(n);
-        c = new SimpleMatrix(CommonOps.diag(cvals));
-        
-        d = SimpleMatrix.identity(n);
-        bd = CommonOps.identity(n,n);
-        sbd = CommonOps.identity(n,n);
-        invsqrtC = SimpleMatrix.identity(n);
+        String modelName = state.parameters.getStringWithDefault(base.push(P_MODEL), def.push(P_MODEL), V_FULL);
+        if (modelName.equals(V_FULL))
+            model = MODEL_FULL;
+        else if (modelName.equals(V_SEPARABLE))
+            model = MODEL_SEPARABLE;
+        else if (modelName.equals(V_LIMITED_MEMORY))
+            model = MODEL_LIMITED_MEMORY;
+        else
+            state.output.fatal("Invalid CMA-ES model " + modelName, base.push(P_MODEL), def.push(P_MODEL));
+        state.output.message("model:  " + modelName);
 
-        
-        // Here we do one FIRST round of eigendecomposition, because newIndividual needs
-        // a valid version of sbd.  If c is initially the identity matrix (and sigma = 1), 
-        // then sbd is too, and we're done.  But if c is scaled in any way, we need to compute
-        // the proper value of sbd.  Along the way we'll wind up computing b, d, bd, and invsqrtC
-                
-        EigenDecomposition<DenseMatrix64F> eig = DecompositionFactory.eig(genomeSize,true,true);
-        if( eig.decompose(c.copy().getMatrix())) 
+        // The distribution's values are filled in by initializeDistribution(...) at the end
+        if (model == MODEL_FULL)
             {
-            SimpleMatrix dinv = new SimpleMatrix(genomeSize,genomeSize);
-            for(int i = 0; i < genomeSize; i++)
-                {
-                double eigrt = Math.sqrt(eig.getEigenvalue(i).real);
-                d.set(i,i,eigrt);
-                dinv.set(i,i,1/eigrt);
-                CommonOps.insert(eig.getEigenVector(i), b.getMatrix(),0,i);
-                }
-
-            invsqrtC = b.mult(dinv.mult(b.transpose()));
-            CommonOps.mult(b.getMatrix(),d.getMatrix(), bd);
+            c = new DenseMatrix64F(n,n);
+            b = new DenseMatrix64F(n,n);
+            d = new DenseMatrix64F(n,n);
+            bd = new DenseMatrix64F(n,n);
+            sbd = new DenseMatrix64F(n,n);
+            invsqrtC = new DenseMatrix64F(n,n);
+            }
+        else if (model == MODEL_SEPARABLE)
+            {
+            // c and d are just their diagonals
+            c = new DenseMatrix64F(n,1);
+            d = new DenseMatrix64F(n,1);
             }
         else
             {
-            state.output.fatal("CMA-ES eigendecomposition failed. ");
+            if (n < 2)
+                state.output.fatal("The CMA-ES limited-memory model requires a genome size of at least 2.", base.push(P_MODEL), def.push(P_MODEL));
+            memoryScale = new double[n];
+            for(int i = 0; i < n; i++)
+                memoryScale[i] = Math.sqrt(cvals[i]);
             }
-        CommonOps.scale(sigma, bd, sbd);
-                
-        // End FIRST round of eigendecomposition
-        
-        
 
         // Initialize dynamic (internal) strategy parameters and constants
-        pc = new SimpleMatrix(n,1);
-        ps = new SimpleMatrix(n,1);   // evolution paths for C and sigma
+        if (model != MODEL_LIMITED_MEMORY)
+            pc = new DenseMatrix64F(n,1);
+        ps = new DenseMatrix64F(n,1);   // evolution paths for C and sigma
         chiN=Math.sqrt(n)*(1.0-1.0/(4.0*n)+1.0/(21.0*n*n));  // expectation of ||N(0,I)|| == norm(randn(N,1))
 
-        xmean = new SimpleMatrix(genomeSize,1);
+        xmean = new DenseMatrix64F(genomeSize,1);
+        initialMean = new double[genomeSize];
         
         boolean meanSpecified = false;
         String val = state.parameters.getString(base.push(P_MEAN), def.push(P_MEAN));
@@ -457,21 +555,21 @@ public class CMAESSpecies extends FloatVectorSpecies
                 {
                 for(int i = 0; i < genomeSize; i++)
                     {
-                    xmean.set(i,0, (maxGene(i) + minGene(i)) / 2.0);
+                    initialMean[i] = (maxGene(i) + minGene(i)) / 2.0;
                     }
                 }
             else if (val.equals(V_ZERO))
                 {
                 for(int i = 0; i < genomeSize; i++)
                     {
-                    xmean.set(i,0,0);   // it is this anyway
+                    initialMean[i] = 0;   // it is this anyway
                     }
                 }
             else if (val.equals(V_RANDOM))
                 {
                 for(int i = 0; i < genomeSize; i++)
                     {
-                    xmean.set(i,0, state.random[0].nextDouble(true, true) * (maxGene(i) - minGene(i)) + minGene(i));
+                    initialMean[i] = Double.NaN;    // chosen by initializeDistribution(...)
                     }
                 }
             else
@@ -490,7 +588,7 @@ public class CMAESSpecies extends FloatVectorSpecies
             double m_i = 0;
             try { 
                 m_i = state.parameters.getDouble(base.push(P_MEAN).push(""+i), def.push(P_MEAN).push(""+i)); 
-                xmean.set(i,0,m_i);
+                initialMean[i] = m_i;
                 nonDefaultMeanSpecified = true;
                 }
             catch (NumberFormatException e)
@@ -506,12 +604,6 @@ public class CMAESSpecies extends FloatVectorSpecies
             state.output.warning("A default mean value was specified, but certain mean values were overridden."); 
             }
 
-        String mes = "Initial Mean: <";
-        for(int i = 0; i < genomeSize - 1; i++)
-            mes = mes + xmean.get(i,0) + ", ";
-        mes = mes + xmean.get(genomeSize-1, 0) + ">";
-        state.output.message(mes);              
-
         if(!state.parameters.exists(base.push(P_LAMBDA), def.push(P_LAMBDA)))
             {
             lambda = 4+(int)Math.floor(3*Math.log(n));
@@ -523,6 +615,19 @@ public class CMAESSpecies extends FloatVectorSpecies
                 state.output.fatal("If the CMA-ES lambda parameter is provided, it must be a valid integer > 0", base.push(P_LAMBDA), def.push(P_LAMBDA));
             }
 
+        setupStrategyParameters(state, base);
+        initializeDistribution(state, sigma);
+        }
+
+
+    /** Sets up mu, the weights, the learning rates, and the other strategy parameters which
+        depend on lambda, either from the parameters or from their defaults. */
+    void setupStrategyParameters(final EvolutionState state, final Parameter base)
+        {
+        Parameter def = defaultBase();
+        int n = genomeSize;
+        String mes;
+
         if(!state.parameters.exists(base.push(P_MU), def.push(P_MU)))
             {
             mu = (int)(Math.floor(lambda/2.0));
@@ -607,6 +712,8 @@ public class CMAESSpecies extends FloatVectorSpecies
         if(!state.parameters.exists(base.push(P_CS), def.push(P_CS)))
             {
             cs = (mueff+2.0)/(n+mueff+5.0);  // t-const for cumulation for sigma control
+            if (model == MODEL_LIMITED_MEMORY && 2.0*lambda/n < 1.0)
+                cs = 2.0*lambda/n;
             }
         else
             {
@@ -618,6 +725,8 @@ public class CMAESSpecies extends FloatVectorSpecies
         if(!state.parameters.exists(base.push(P_C1), def.push(P_C1)))
             {
             c1 = 2.0 / ((n+1.3)*(n+1.3)+mueff);  // learning rate for rank-one update of C
+            if (model == MODEL_SEPARABLE)
+                c1 *= (n+2.0)/3.0;
             }
         else
             {
@@ -628,7 +737,10 @@ public class CMAESSpecies extends FloatVectorSpecies
         
         if(!state.parameters.exists(base.push(P_CMU), def.push(P_CMU)))
             {
-            cmu = Math.min(1.0-c1, 2.0*(mueff-2.0+1.0/mueff) / ((n+2.0)*(n+2.0)+mueff));
+            cmu = 2.0*(mueff-2.0+1.0/mueff) / ((n+2.0)*(n+2.0)+mueff);
+            if (model == MODEL_SEPARABLE)
+                cmu *= (n+2.0)/3.0;
+            cmu = Math.min(1.0-c1, cmu);
             }
         else
             {
@@ -658,6 +770,27 @@ public class CMAESSpecies extends FloatVectorSpecies
         if (damps > damps_max || damps < damps_min)
             state.output.warning("CMA-ES damps ought to be close to 1.  You are using damps = " + damps);  
 
+        if (model == MODEL_LIMITED_MEMORY)
+            {
+            int m = 4+(int)Math.floor(3*Math.log(n));
+            if (state.parameters.exists(base.push(P_MEMORY), def.push(P_MEMORY)))
+                {
+                m = state.parameters.getInt(base.push(P_MEMORY), def.push(P_MEMORY),1);
+                if (m <= 0)
+                    state.output.fatal("If the CMA-ES memory parameter is provided, it must be a valid integer > 0", base.push(P_MEMORY), def.push(P_MEMORY));
+                }
+            memory = new DenseMatrix64F(m, n);
+            memoryUsed = 0;
+            memoryRates = new double[m];
+            memoryLearningRates = new double[m];
+            for(int j = 0; j < m; j++)
+                {
+                memoryRates[j] = 1.0 / (Math.pow(1.5, j) * n);
+                memoryLearningRates[j] = Math.min(1.0, lambda / (Math.pow(4.0, j) * n));
+                }
+            state.output.message("memory: " + m);
+            }
+
         state.output.message("lambda: " + lambda);
         state.output.message("mu:     " + mu);
         state.output.message("mueff:  " + mueff);
@@ -669,27 +802,226 @@ public class CMAESSpecies extends FloatVectorSpecies
         }
 
 
+    /** Sets the distribution to its initial mean and covariance with the given sigma, and clears the
+        evolution paths.  Mean genes which are to be chosen at random are chosen anew. */
+    void initializeDistribution(final EvolutionState state, double sigma)
+        {
+        int n = genomeSize;
+        this.sigma = sigma;
+        iterations = 0;
+        lastEigenDecompositionGeneration = -1;
+
+        if (model == MODEL_FULL)
+            {
+            c.zero();
+            for(int i = 0; i < n; i++)
+                c.set(i,i,initialVariances[i]);
+            CommonOps.setIdentity(d);
+
+            // Here we do one FIRST round of eigendecomposition, because newIndividual needs
+            // a valid version of sbd.  If c is initially the identity matrix (and sigma = 1), 
+            // then sbd is too, and we're done.  But if c is scaled in any way, we need to compute
+            // the proper value of sbd.  Along the way we'll wind up computing b, d, bd, and invsqrtC
+            eigendecomposition(state);
+            CommonOps.scale(sigma, bd, sbd);
+            }
+        else if (model == MODEL_SEPARABLE)
+            {
+            for(int i = 0; i < n; i++)
+                {
+                c.data[i] = initialVariances[i];
+                d.data[i] = Math.sqrt(initialVariances[i]);
+                }
+            }
+        else
+            {
+            memory.zero();
+            memoryUsed = 0;
+            }
+
+        if (pc != null)
+            pc.zero();
+        ps.zero();
+
+        for(int i = 0; i < n; i++)
+            {
+            if (Double.isNaN(initialMean[i]))
+                xmean.set(i,0, state.random[0].nextDouble(true, true) * (maxGene(i) - minGene(i)) + minGene(i));
+            else
+                xmean.set(i,0, initialMean[i]);
+            }
+
+        String mes = "Initial Mean: <";
+        for(int i = 0; i < genomeSize - 1; i++)
+            mes = mes + xmean.get(i,0) + ", ";
+        mes = mes + xmean.get(genomeSize-1, 0) + ">";
+        state.output.message(mes);              
+        }
+
+
+    /** Starts CMA-ES over from its initial mean and covariance, with a new lambda and sigma, as is
+        done by restart strategies such as IPOP-CMA-ES (see CMAESRestartBreeder).  Strategy parameters
+        which weren't given explicitly, such as mu, the weights, and the learning rates, are recomputed
+        for the new lambda.  You will need to resize the subpopulation to lambda yourself. */
+    public void restart(final EvolutionState state, int lambda, double sigma)
+        {
+        this.lambda = lambda;
+        setupStrategyParameters(state, setupBase);
+        initializeDistribution(state, sigma);
+        }
+
+
 
     public Object clone()
         {
         CMAESSpecies myobj = (CMAESSpecies) (super.clone());
             
         // clone the distribution and other variables here
-        myobj.c = c.copy();
-        myobj.b = b.copy();
-        myobj.d = d.copy();
-        myobj.bd = bd.copy();
-        myobj.sbd = sbd.copy();
-        myobj.invsqrtC = invsqrtC.copy();
+        if (c != null) myobj.c = c.copy();
+        if (b != null) myobj.b = b.copy();
+        if (d != null) myobj.d = d.copy();
+        if (bd != null) myobj.bd = bd.copy();
+        if (sbd != null) myobj.sbd = sbd.copy();
+        if (invsqrtC != null) myobj.invsqrtC = invsqrtC.copy();
+        if (memory != null) myobj.memory = memory.copy();
     
         myobj.xmean = xmean.copy();
         myobj.ps = ps.copy();
-        myobj.pc = pc.copy();
+        if (pc != null) myobj.pc = pc.copy();
+
+        // the clone gets its own buffers when it needs them
+        myobj.eig = null;
+        myobj.eigBuffer = null;
+        myobj.artmp = null;
+        myobj.weightedArtmp = null;
+        myobj.samples = null;
+        myobj.transformed = null;
+        myobj.xold = null;
+        myobj.y = null;
+        myobj.z = null;
+        myobj.selected = null;
+        myobj.sampleBuffers = null;
             
         return myobj;
         } 
 
 
+    /** Transforms the standard normal vector in z, starting at zOffset, into a sample from the distribution
+        centered at the origin (in the full model, sigma x B x D x z), and stores it in y starting at yOffset.
+        The two may not overlap. */
+    void transform(final double[] z, final int zOffset, final double[] y, final int yOffset)
+        {
+        final int n = genomeSize;
+        if (model == MODEL_FULL)
+            {
+            final double[] m = sbd.data;
+            for(int i = 0; i < n; i++)
+                {
+                double sum = 0.0;
+                int row = i * n;
+                for(int j = 0; j < n; j++)
+                    sum += m[row + j] * z[zOffset + j];
+                y[yOffset + i] = sum;
+                }
+            }
+        else if (model == MODEL_SEPARABLE)
+            {
+            final double[] dd = d.data;
+            for(int i = 0; i < n; i++)
+                y[yOffset + i] = sigma * dd[i] * z[zOffset + i];
+            }
+        else
+            {
+            // y = (1 - cd_j) y + cd_j (M_j . y) M_j, for each vector M_j in memory in turn
+            System.arraycopy(z, zOffset, y, yOffset, n);
+            final double[] m = memory.data;
+            for(int j = 0; j < memoryUsed; j++)
+                {
+                int row = j * n;
+                double dot = 0.0;
+                for(int i = 0; i < n; i++)
+                    dot += m[row + i] * y[yOffset + i];
+                double a = 1.0 - memoryRates[j];
+                double bb = memoryRates[j] * dot;
+                for(int i = 0; i < n; i++)
+                    y[yOffset + i] = a * y[yOffset + i] + bb * m[row + i];
+                }
+            for(int i = 0; i < n; i++)
+                y[yOffset + i] *= sigma * memoryScale[i];
+            }
+        }
+
+
+    /** Undoes the memory vectors' part of transform(...) in the limited-memory model, in place. */
+    void untransform(final double[] v)
+        {
+        final int n = genomeSize;
+        final double[] m = memory.data;
+        // each step of transform(...) multiplies by aI + c M M^T, whose inverse is (I - c M M^T / (a + c |M|^2)) / a
+        for(int j = memoryUsed - 1; j >= 0; j--)
+            {
+            int row = j * n;
+            double dot = 0.0;
+            double sqr = 0.0;
+            for(int i = 0; i < n; i++)
+                {
+                dot += m[row + i] * v[i];
+                sqr += m[row + i] * m[row + i];
+                }
+            double a = 1.0 - memoryRates[j];
+            double bb = memoryRates[j] * dot / (a + memoryRates[j] * sqr);
+            for(int i = 0; i < n; i++)
+                v[i] = (v[i] - bb * m[row + i]) / a;
+            }
+        }
+
+
+    /** Returns true if the genome is within the min/max gene bounds.  If we're using the alternative
+        generator and have already made more than altGeneratorTries tries, out-of-bounds genes
+        are instead replaced with values selected uniformly from their bounds. */
+    boolean isValid(final double[] genome, final int tries, final MersenneTwisterFast random)
+        {
+        for (int i = 0; i < genomeSize; i++)
+            if (genome[i] < minGene(i) || genome[i] > maxGene(i))
+                {
+                if (useAltGenerator && tries > altGeneratorTries)
+                    {
+                    // instead of just failing, we're going to select uniformly from
+                    // possible values for this particular gene.
+                    genome[i] = random.nextDouble() * (maxGene(i) - minGene(i)) + minGene(i);
+                    }
+                else
+                    {
+                    return false;
+                    }
+                }
+        return true;
+        }
+
+
+    /** Returns a scratch array of genomeSize for the use of the given thread. */
+    double[] sampleBuffer(final int thread)
+        {
+        final double[][] buf = sampleBuffers;
+        if (buf != null && thread < buf.length && buf[thread] != null && buf[thread].length == genomeSize)
+            return buf[thread];
+        return addSampleBuffer(thread);
+        }
+
+    synchronized double[] addSampleBuffer(final int thread)
+        {
+        double[][] buf = sampleBuffers;
+        if (buf == null)
+            buf = new double[thread + 1][];
+        else if (thread >= buf.length)
+            buf = Arrays.copyOf(buf, thread + 1);
+        if (buf[thread] == null || buf[thread].length != genomeSize)
+            buf[thread] = new double[genomeSize];
+        sampleBuffers = buf;
+        return buf[thread];
+        }
+
+
     public static final int MAX_TRIES_BEFORE_WARNING = 100000;
         
     public Individual newIndividual(final EvolutionState state, int thread)
@@ -701,9 +1033,9 @@ public class CMAESSpecies extends FloatVectorSpecies
             state.output.fatal("To use CMAESSpecies, the species must be initialized with a DoubleVectorIndividual.  But it contains a " + newind);
         
         DoubleVectorIndividual dvind = (DoubleVectorIndividual)(newind);
-
-        DenseMatrix64F genome = DenseMatrix64F.wrap(genomeSize,1,dvind.genome);
-        DenseMatrix64F temp = new DenseMatrix64F(genomeSize,1);
+        double[] genome = dvind.genome;
+        double[] temp = sampleBuffer(thread);
+        double[] mean = xmean.data;
 
         // arz(:,k) = randn(N,1); % standard normally distributed vector
         // arx(:,k) = xmean + sigma*(B*D*arz(:,k));
@@ -711,29 +1043,13 @@ public class CMAESSpecies extends FloatVectorSpecies
         while(true)
             {           
             for( int i = 0; i < genomeSize; i++ ) 
-                dvind.genome[i] = random.nextGaussian();
-
-            CommonOps.mult(sbd,genome,temp); // temp = sigma*b*d*genome;
-            CommonOps.add(temp,xmean.getMatrix(),genome); // genome = temp + xmean;
+                genome[i] = random.nextGaussian();
 
-            boolean invalid_value = false;
-            for (int i = 0; i < genomeSize; i++)
-                if (dvind.genome[i] < minGene(i) || dvind.genome[i] > maxGene(i))
-                    {
-                    if (useAltGenerator && tries > altGeneratorTries)
-                        {
-                        // instead of just failing, we're going to select uniformly from
-                        // possible values for this particular gene.
-                        dvind.genome[i] = state.random[thread].nextDouble() * (maxGene(i) - minGene(i)) + minGene(i);
-                        }
-                    else
-                        {
-                        invalid_value = true;
-                        break;
-                        }
-                    }
+            transform(genome, 0, temp, 0); // temp = sigma*b*d*genome;
+            for( int i = 0; i < genomeSize; i++ ) 
+                genome[i] = temp[i] + mean[i]; // genome = temp + xmean;
 
-            if (invalid_value) 
+            if (!isValid(genome, tries, random)) 
                 {
                 if (++tries > MAX_TRIES_BEFORE_WARNING)
                     state.output.warnOnce("CMA-ES may be slow because many individuals are being generated which\n" +
@@ -752,6 +1068,110 @@ public class CMAESSpecies extends FloatVectorSpecies
         }
 
 
+    /** Replaces every individual in inds with a new individual sampled from the distribution.  This
+        is equivalent to calling newIndividual(...) for each one, but in the full model all of
+        the samples are transformed with a single matrix multiply.  Individuals which fall outside 
+        the gene bounds are then resampled with newIndividual(...). */
+    public void newIndividuals(final EvolutionState state, final ArrayList<Individual> inds, final int thread)
+        {
+        MersenneTwisterFast random = state.random[thread];
+        int n = genomeSize;
+        int size = inds.size();
+        if (samples == null || samples.numRows != size || samples.numCols != n)
+            {
+            samples = new DenseMatrix64F(size, n);
+            transformed = new DenseMatrix64F(size, n);
+            }
+        double[] zs = samples.data;
+        double[] ys = transformed.data;
+
+        for(int k = 0; k < size; k++)
+            {
+            Individual newind = super.newIndividual(state, thread);
+            if (!(newind instanceof DoubleVectorIndividual))  // uh oh
+                state.output.fatal("To use CMAESSpecies, the species must be initialized with a DoubleVectorIndividual.  But it contains a " + newind);
+            inds.set(k, newind);
+            for(int i = 0; i < n; i++)
+                zs[k * n + i] = random.nextGaussian();
+            }
+
+        // arx = xmean + sigma*(B*D*arz), all at once
+        if (model == MODEL_FULL)
+            CommonOps.multTransB(samples, sbd, transformed);
+        else
+            for(int k = 0; k < size; k++)
+                transform(zs, k * n, ys, k * n);
+
+        double[] mean = xmean.data;
+        for(int k = 0; k < size; k++)
+            {
+            double[] genome = ((DoubleVectorIndividual)(inds.get(k))).genome;
+            for(int i = 0; i < n; i++)
+                genome[i] = ys[k * n + i] + mean[i];
+            if (!isValid(genome, 0, random))
+                inds.set(k, newIndividual(state, thread));
+            }
+        }
+
+
+    /** Stores in selected the indices of the selected.length fittest individuals in inds, fittest first.
+        Ties go to the individual which appears first in inds, just as if inds had been stably sorted. */
+    void selectBest(final ArrayList<Individual> inds, final int[] selected)
+        {
+        int count = 0;
+        for(int k = 0; k < inds.size(); k++)
+            {
+            Individual ind = inds.get(k);
+            if (count == selected.length && !ind.fitness.betterThan(inds.get(selected[count - 1]).fitness))
+                continue;
+            int pos = (count < selected.length ? count++ : count - 1);
+            while(pos > 0 && ind.fitness.betterThan(inds.get(selected[pos - 1]).fitness))
+                {
+                selected[pos] = selected[pos - 1];
+                pos--;
+                }
+            selected[pos] = k;
+            }
+        }
+
+
+    /** Recomputes b, d, bd, and invsqrtC from c, which must be symmetric. */
+    void eigendecomposition(final EvolutionState state)
+        {
+        int n = genomeSize;
+        if (eig == null)
+            {
+            eig = DecompositionFactory.eig(n,true,true);
+            eigBuffer = new DenseMatrix64F(n,n);
+            }
+
+        // this copy gets modified by the decomposition
+        eigBuffer.set(c);
+        if (!eig.decompose(eigBuffer)) 
+            {
+            state.output.fatal("CMA-ES eigendecomposition failed. ");
+            }
+
+        for(int i = 0; i < n; i++)
+            {
+            double eigrt = Math.sqrt(eig.getEigenvalue(i).real);
+            double[] v = eig.getEigenVector(i).data;
+            d.set(i,i,eigrt);
+            for(int j = 0; j < n; j++)
+                {
+                b.data[j * n + i] = v[j];
+                bd.data[j * n + i] = v[j] * eigrt;
+                }
+            }
+
+        // invsqrtC = b x d^{-1} x b^T, using eigBuffer to hold b x d^{-1}
+        for(int j = 0; j < n; j++)
+            for(int i = 0; i < n; i++)
+                eigBuffer.data[j * n + i] = b.data[j * n + i] / d.data[i * n + i];
+        CommonOps.multTransB(eigBuffer, b, invsqrtC);
+        }
+
+
     /** Revises the CMA-ES distribution to reflect the current fitness results in the provided subpopulation. */
     public void updateDistribution(final EvolutionState state, final Subpopulation subpop)
         {
@@ -760,95 +1180,198 @@ public class CMAESSpecies extends FloatVectorSpecies
         // xmean = arx(:,arindex(1:mu))*weights;   % recombination            % Eq.39
         // counteval += lambda;
 
-        // only need partial sort?
-        Collections.sort(subpop.individuals);
-
-        SimpleMatrix artmp = new SimpleMatrix(genomeSize,mu);
-        SimpleMatrix xold = xmean;
-        xmean = new SimpleMatrix(genomeSize, 1);
+        iterations++;
 
-        for(int i = 0; i < mu; i++)
+        // We only need the mu best, so rather than sorting we just pick them out
+        int n = genomeSize;
+        if (selected == null || selected.length != mu)
+            {
+            selected = new int[mu];
+            artmp = new DenseMatrix64F(mu, n);
+            weightedArtmp = new DenseMatrix64F(mu, n);
+            }
+        if (xold == null)
             {
-            DoubleVectorIndividual dvind = (DoubleVectorIndividual)(subpop.individuals.get(i));
+            xold = new double[n];
+            y = new double[n];
+            z = new double[n];
+            }
+        selectBest(subpop.individuals, selected);
 
-            // won't modify the genome
-            SimpleMatrix arz = new SimpleMatrix(genomeSize,1,true,dvind.genome);
-            arz = (arz.minus(xold).divide(sigma));
+        if (model == MODEL_LIMITED_MEMORY)
+            {
+            updateLimitedMemory(state, subpop);
+            return;
+            }
 
-            for(int j = 0; j < genomeSize; j++) 
+        double[] mean = xmean.data;
+        double[] ar = artmp.data;
+        System.arraycopy(mean, 0, xold, 0, n);
+        Arrays.fill(mean, 0.0);
+        for(int i = 0; i < mu; i++)
+            {
+            double[] genome = ((DoubleVectorIndividual)(subpop.individuals.get(selected[i]))).genome;
+            int row = i * n;
+            for(int j = 0; j < n; j++) 
                 {
-                xmean.set(j,0, xmean.get(j,0)+weights[i]*dvind.genome[j]);
-                artmp.set(j,i,arz.get(j,0));
+                mean[j] += weights[i] * genome[j];
+                ar[row + j] = (genome[j] - xold[j]) / sigma;
                 }
             }
             
         // % Cumulation: Update evolution paths
 
-        SimpleMatrix y = xmean.minus(xold).divide(sigma);
-        SimpleMatrix bz = invsqrtC.mult( y );
-        SimpleMatrix bz_scaled = bz.scale(Math.sqrt(cs*(2.0-cs) * mueff));
-        ps = ps.scale(1.0-cs).plus(bz_scaled);
+        for(int j = 0; j < n; j++)
+            y[j] = (mean[j] - xold[j]) / sigma;
+
+        // z = C^{-1/2} y
+        if (model == MODEL_FULL)
+            {
+            double[] m = invsqrtC.data;
+            for(int i = 0; i < n; i++)
+                {
+                double sum = 0.0;
+                for(int j = 0; j < n; j++)
+                    sum += m[i * n + j] * y[j];
+                z[i] = sum;
+                }
+            }
+        else
+            {
+            for(int j = 0; j < n; j++)
+                z[j] = y[j] / d.data[j];
+            }
+
+        double[] p = ps.data;
+        double psScale = Math.sqrt(cs*(2.0-cs) * mueff);
+        double psSquared = 0.0;
+        for(int j = 0; j < n; j++)
+            {
+            p[j] = (1.0-cs) * p[j] + psScale * z[j];
+            psSquared += p[j] * p[j];
+            }
 
-        double h_sigma_value = ((ps.dot(ps) / (1.0 - Math.pow(1.0 - cs, 2.0 * (state.generation+1)) )) / genomeSize);
+        double h_sigma_value = ((psSquared / (1.0 - Math.pow(1.0 - cs, 2.0 * (iterations+1)) )) / genomeSize);
         int hsig = (h_sigma_value < (2.0 + (4.0 / (genomeSize + 1)))) ? 1 : 0;
 
-        SimpleMatrix y_scaled = y.scale(hsig * Math.sqrt(cc * (2.0-cc) * mueff));
-        pc = pc.scale(1.0-cc).plus(y_scaled);
+        double[] q = pc.data;
+        double pcScale = hsig * Math.sqrt(cc * (2.0-cc) * mueff);
+        for(int j = 0; j < n; j++)
+            q[j] = (1.0-cc) * q[j] + pcScale * y[j];
 
         // % Adapt covariance matrix C
-        c = c.scale(1.0-c1-cmu);
-        c = c.plus( pc.mult(pc.transpose()).plus(c.scale((1.0-hsig)*cc*(2.0-cc))).scale(c1) );
-        c = c.plus( (artmp.mult(SimpleMatrix.diag(weights).mult(artmp.transpose()))).scale(cmu) );
+        // C = (1-c1-cmu) * C + c1 * (pc*pc' + (1-hsig) * cc*(2-cc) * C) + cmu * artmp * diag(weights) * artmp'
+        double factor = 1.0 - c1 - cmu + c1 * (1 - hsig) * cc * (2.0-cc);
+        if (model == MODEL_FULL)
+            {
+            double[] war = weightedArtmp.data;
+            for(int i = 0; i < mu; i++)
+                for(int j = 0; j < n; j++)
+                    war[i * n + j] = weights[i] * ar[i * n + j];
+            CommonOps.scale(factor, c);
+            CommonOps.multAddTransB(c1, pc, pc, c);
+            CommonOps.multAddTransA(cmu, weightedArtmp, artmp, c);
+            }
+        else
+            {
+            // we only need the diagonal; z holds the rank-mu part
+            Arrays.fill(z, 0.0);
+            for(int i = 0; i < mu; i++)
+                for(int j = 0; j < n; j++)
+                    z[j] += weights[i] * ar[i * n + j] * ar[i * n + j];
+            double[] cd = c.data;
+            for(int j = 0; j < n; j++)
+                cd[j] = factor * cd[j] + c1 * q[j] * q[j] + cmu * z[j];
+            }
 
         // % Adapt step-size sigma
-        sigma = sigma*Math.exp((cs/damps)*(ps.normF()/chiN - 1.0));
+        sigma = sigma*Math.exp((cs/damps)*(Math.sqrt(psSquared)/chiN - 1.0));
 
-        // % Update B and D from C
-        if((state.generation - lastEigenDecompositionGeneration) > 1.0/((c1+cmu)*genomeSize*10.0) )
+        if (model == MODEL_FULL)
             {
-            lastEigenDecompositionGeneration = state.generation;
-
-            // make sure the matrix is symmetric (it should be already)
-            // not sure if this is necessary           
-            for(int i = 0; i < genomeSize; i++)
-                for(int j = 0; j < i; j++)
-                    c.set(j,i,c.get(i,j));
-
-            // this copy gets modified by the decomposition
-            DenseMatrix64F copy = c.copy().getMatrix();
-            EigenDecomposition<DenseMatrix64F> eig = DecompositionFactory.eig(genomeSize,true,true);
-            if(eig.decompose(copy)) 
+            // % Update B and D from C
+            if((iterations - lastEigenDecompositionGeneration) > 1.0/((c1+cmu)*genomeSize*10.0) )
                 {
-                SimpleMatrix dinv = new SimpleMatrix(genomeSize,genomeSize);
+                lastEigenDecompositionGeneration = iterations;
+
+                // make sure the matrix is symmetric (it should be already, up to roundoff)
                 for(int i = 0; i < genomeSize; i++)
-                    {
-                    double eigrt = Math.sqrt(eig.getEigenvalue(i).real);
-                    d.set(i,i,eigrt);
-                    dinv.set(i,i,1/eigrt);
-                    CommonOps.insert(eig.getEigenVector(i), b.getMatrix(),0,i);
-                    }
+                    for(int j = 0; j < i; j++)
+                        c.set(j,i,c.get(i,j));
 
-                invsqrtC = b.mult(dinv.mult(b.transpose()));
-                CommonOps.mult(b.getMatrix(),d.getMatrix(), bd);
+                eigendecomposition(state);
                 }
-            else
-                {
-                state.output.fatal("CMA-ES eigendecomposition failed. ");
-                }
-            }
 
-        CommonOps.scale(sigma, bd, sbd);
+            CommonOps.scale(sigma, bd, sbd);
+            }
+        else
+            {
+            // D is just the square root of the diagonal of C
+            for(int j = 0; j < n; j++)
+                d.data[j] = Math.sqrt(c.data[j]);
+            }
 
         // % Break, if fitness is good enough or condition exceeds 1e14, better termination methods are advisable 
         // if arfitness(1) <= stopfitness || max(D) > 1e7 * min(D)
         //   break;
         // end
-        if(useAltTermination && CommonOps.elementMax(d.extractDiag().getMatrix()) > 1e7*CommonOps.elementMin(d.extractDiag().getMatrix()))
+        if (useAltTermination)
             {
-            state.evaluator.setRunComplete("CMAESSpecies: Stopped because matrix condition exceeded limit.");
+            double maxD = Double.NEGATIVE_INFINITY;
+            double minD = Double.POSITIVE_INFINITY;
+            for(int i = 0; i < n; i++)
+                {
+                double di = (model == MODEL_FULL ? d.get(i,i) : d.data[i]);
+                maxD = Math.max(maxD, di);
+                minD = Math.min(minD, di);
+                }
+            if (maxD > 1e7*minD)
+                state.evaluator.setRunComplete("CMAESSpecies: Stopped because matrix condition exceeded limit.");
             }
         }
 
 
-    }
+    /** The limited-memory (LM-MA-ES) version of updateDistribution, once the mu best individuals have been selected. */
+    void updateLimitedMemory(final EvolutionState state, final Subpopulation subpop)
+        {
+        int n = genomeSize;
+        double[] mean = xmean.data;
+        System.arraycopy(mean, 0, xold, 0, n);
+        Arrays.fill(mean, 0.0);
+        for(int i = 0; i < mu; i++)
+            {
+            double[] genome = ((DoubleVectorIndividual)(subpop.individuals.get(selected[i]))).genome;
+            for(int j = 0; j < n; j++) 
+                mean[j] += weights[i] * genome[j];
+            }
+
+        // Because sampling is linear, the weighted sum of the selected samples' z vectors is
+        // just the mean's step, with the sampling transformation undone
+        for(int j = 0; j < n; j++)
+            z[j] = (mean[j] - xold[j]) / (sigma * memoryScale[j]);
+        untransform(z);
+
+        double[] p = ps.data;
+        double psScale = Math.sqrt(cs*(2.0-cs) * mueff);
+        double psSquared = 0.0;
+        for(int j = 0; j < n; j++)
+            {
+            p[j] = (1.0-cs) * p[j] + psScale * z[j];
+            psSquared += p[j] * p[j];
+            }
 
+        // M_j = (1 - cc_j) M_j + sqrt(mueff cc_j (2 - cc_j)) z
+        double[] m = memory.data;
+        for(int j = 0; j < memory.numRows; j++)
+            {
+            double a = 1.0 - memoryLearningRates[j];
+            double bb = Math.sqrt(mueff * memoryLearningRates[j] * (2.0 - memoryLearningRates[j]));
+            for(int i = 0; i < n; i++)
+                m[j * n + i] = a * m[j * n + i] + bb * z[i];
+            }
+        if (memoryUsed < memory.numRows)
+            memoryUsed++;
+
+        sigma = sigma * Math.exp((cs/2.0) * (psSquared / n - 1.0));
+        }
+    }
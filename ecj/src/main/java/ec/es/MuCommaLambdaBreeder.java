@@ -353,6 +353,9 @@ public class MuCommaLambdaBreeder extends Breeder
             for(int thread = 0; thread < numThreads; thread++)
                 {
                 newpopindividuals.addAll(newIndividuals[subpop][thread]);
+
+                // let go of the individuals, so they're not held (or checkpointed) a second time
+                newIndividuals[subpop][thread].clear();
                 }
             }
 
@@ -0,0 +1,83 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.eval;
+
+import java.io.*;
+
+/*
+ * FramedInputStream.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * FramedInputStream reads a stream of frames, each an int length (as written by DataOutputStream.writeInt(...))
+ * followed by that many bytes, and presents their bytes as one continuous stream.  It reads each frame in
+ * whole before handing out any of its bytes.  This is how the Slave reads from a master which uses framed
+ * messages (see NIOSlaveConnection).  The frame buffer is reused, and grows as necessary.
+ *
+ * @version 1.0
+ */
+
+class FramedInputStream extends InputStream
+    {
+    DataInputStream in;
+    byte[] frame = new byte[1024];
+    int pos;
+    int len;
+
+    public FramedInputStream(InputStream in)
+        {
+        this.in = new DataInputStream(in);
+        }
+
+    // reads the next frame if the current one is used up.  Returns false at the end of the stream.
+    boolean fill() throws IOException
+        {
+        while (pos == len)
+            {
+            int length;
+            try { length = in.readInt(); }
+            catch (EOFException e) { return false; }
+            if (length < 0)
+                throw new IOException("Bad frame length: " + length);
+            if (length > frame.length)
+                frame = new byte[Math.max(length, frame.length * 2)];
+            in.readFully(frame, 0, length);
+            pos = 0;
+            len = length;
+            }
+        return true;
+        }
+
+    public int read() throws IOException
+        {
+        if (!fill()) return -1;
+        return frame[pos++] & 0xFF;
+        }
+
+    public int read(byte[] b, int off, int n) throws IOException
+        {
+        if (n == 0) return 0;
+        if (!fill()) return -1;
+        n = Math.min(n, len - pos);
+        System.arraycopy(frame, pos, b, off, n);
+        pos += n;
+        return n;
+        }
+
+    public int available()
+        {
+        return len - pos;
+        }
+
+    public void close() throws IOException
+        {
+        in.close();
+        }
+    }
@@ -0,0 +1,54 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.eval;
+
+import java.io.*;
+
+/*
+ * FramedOutputStream.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * FramedOutputStream holds onto everything written to it until it's flushed, then writes it all out
+ * to the underlying stream as one frame: an int length (as written by DataOutputStream.writeInt(...))
+ * followed by that many bytes.  This is how the Slave writes to a master which uses framed messages
+ * (see NIOSlaveConnection): since the Slave only flushes at the end of a job, each job's results go
+ * out as one frame.  The buffer is reused, and grows as necessary.
+ *
+ * @version 1.0
+ */
+
+class FramedOutputStream extends ByteArrayOutputStream
+    {
+    DataOutputStream out;
+
+    public FramedOutputStream(OutputStream out)
+        {
+        super(1024);
+        this.out = new DataOutputStream(out);
+        }
+
+    public void flush() throws IOException
+        {
+        if (count > 0)
+            {
+            out.writeInt(count);
+            out.write(buf, 0, count);
+            reset();
+            }
+        out.flush();
+        }
+
+    public void close() throws IOException
+        {
+        flush();
+        out.close();
+        }
+    }
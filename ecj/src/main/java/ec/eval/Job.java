@@ -26,6 +26,11 @@ import ec.*;
  pointers to the individuals, boolean flags indicating whether their fitness is to be updated or
  not, and another boolean flag indicating whether to count only victories in competitive tournament.
 
+ <p>If speculative evaluation is turned on in the SlaveMonitor, a straggling job may be <i>copied</i>
+ and the copy sent to a second slave.  The copy shares the original's individuals, and whichever of
+ the two comes back first is merged into them: the other is read and thrown away.  All reading, writing,
+ and merging of the individuals is thus done while synchronized on the original job (see primary()).
+
  * @author Liviu Panait
  * @version 1.0 
  */
@@ -41,25 +46,70 @@ public class Job
     int[] subPops; 
     boolean countVictoriesOnly;
     boolean[] updateFitness;
+
+    // when the job was sent (System.nanoTime()), whether other jobs were still out on the slave at the
+    // time, and whether the job has been completely written out to the slave
+    long sentTime;
+    boolean pipelined;
+    volatile boolean written;
+
+    // if this job is a speculative copy, the job it's a copy of, else null
+    Job original;
+    // has a copy been made of this job?
+    boolean copied;
+    // have the results of this job (or of a copy of it) been merged back into the individuals?
+    volatile boolean finished;
     
+    /** Returns the job this job is a copy of, or the job itself if it's not a copy. */
+    Job primary() { return (original == null ? this : original); }
+
+    /** Returns a speculative copy of this job, which shares its individuals. */
+    Job copy()
+        {
+        Job job = new Job();
+        job.type = type;
+        job.inds = inds;
+        job.subPops = subPops;
+        job.countVictoriesOnly = countVictoriesOnly;
+        job.updateFitness = updateFitness;
+        job.original = primary();
+        return job;
+        }
+
     void copyIndividualsForward()
         {
-        if (newinds == null || newinds.length != inds.length)
-            newinds = new Individual[inds.length];
-        for(int i=0; i < inds.length; i++)
+        synchronized(primary())
             {
-            newinds[i] = (Individual)(inds[i].clone());
-            // delete the trials since they'll get remerged
-            newinds[i].fitness.trials = null;
-            // delete the context, since it'll get remerged
-            newinds[i].fitness.setContext(null);
+            if (newinds == null || newinds.length != inds.length)
+                newinds = new Individual[inds.length];
+            for(int i=0; i < inds.length; i++)
+                {
+                newinds[i] = (Individual)(inds[i].clone());
+                // delete the trials since they'll get remerged
+                newinds[i].fitness.trials = null;
+                // delete the context, since it'll get remerged
+                newinds[i].fitness.setContext(null);
+                }
             }
         }
         
-    void copyIndividualsBack(EvolutionState state)
+    /** Merges the returned individuals into the original ones and returns true, unless a copy
+        of this job (or its original) beat us to it, in which case the returned individuals are
+        thrown away and false is returned. */
+    boolean copyIndividualsBack(EvolutionState state)
         {
-        for(int i = 0; i < inds.length; i++)
-            inds[i].merge(state, newinds[i]);
-        newinds = null;
+        Job primary = primary();
+        synchronized(primary)
+            {
+            boolean merge = !primary.finished;
+            if (merge)
+                {
+                for(int i = 0; i < inds.length; i++)
+                    inds[i].merge(state, newinds[i]);
+                primary.finished = true;
+                }
+            newinds = null;
+            return merge;
+            }
         }
     }
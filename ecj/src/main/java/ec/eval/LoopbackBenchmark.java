@@ -0,0 +1,106 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.eval;
+import ec.*;
+import ec.util.*;
+import java.lang.management.*;
+import java.util.*;
+
+/*
+ * LoopbackBenchmark.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * LoopbackBenchmark compares the master's two transports, the ordinary thread-per-socket transport and the
+ * NIO transport (<tt>eval.nio = true</tt>).  For each it runs a master and some number of slaves in this JVM,
+ * talking over the loopback interface, using the parameters in ec/eval/loopback.params, and reports the
+ * time taken and the peak number of live threads in the JVM.  The slaves themselves account for one thread
+ * each under either transport.
+ *
+ * <p>Usage: <tt>java ec.eval.LoopbackBenchmark [<i>slaves</i>] [-p <i>parameter=value</i> ...]</tt>
+ *
+ * <p>The number of slaves defaults to 16.  Any -p arguments are given to both the master and the slaves.
+ *
+ * @version 1.0
+ */
+
+public class LoopbackBenchmark
+    {
+    public static final String PARAMS = "eval/loopback.params";
+    public static final int DEFAULT_SLAVES = 16;
+
+    public static void main(String[] args) throws InterruptedException
+        {
+        int slaves = DEFAULT_SLAVES;
+        ArrayList<String> extra = new ArrayList<String>();
+        for(int x = 0; x < args.length; x++)
+            {
+            if (args[x].equals("-p") && x + 1 < args.length)
+                {
+                extra.add(args[x]);
+                extra.add(args[++x]);
+                }
+            else slaves = Integer.parseInt(args[x]);
+            }
+
+        // warm up, then measure each transport
+        run(slaves, false, extra);
+        run(slaves, true, extra);
+
+        for(int i = 0; i < 2; i++)
+            {
+            report("threads", run(slaves, false, extra));
+            report("nio    ", run(slaves, true, extra));
+            }
+        }
+
+    static void report(String name, long[] result)
+        {
+        System.out.println(name + "\t" + result[0] + " ms\t" + result[1] + " peak threads");
+        }
+
+    /** Runs the master and the given number of slaves, and returns the elapsed milliseconds and the peak thread count. */
+    static long[] run(int slaves, boolean nio, ArrayList<String> extra) throws InterruptedException
+        {
+        ArrayList<String> a = new ArrayList<String>();
+        a.add(Evolve.A_FROM);
+        a.add(PARAMS);
+        a.addAll(extra);
+        a.add("-p");
+        a.add(SlaveMonitor.P_EVALNIO + "=" + nio);
+        final String[] args = a.toArray(new String[a.size()]);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long time = System.currentTimeMillis();
+
+        // the slaves keep trying to connect until the master is up
+        Thread[] s = new Thread[slaves];
+        for(int i = 0; i < slaves; i++)
+            {
+            s[i] = new Thread(new Runnable()
+                {
+                public void run() { Slave.main(args); }
+                });
+            s[i].start();
+            }
+
+        ParameterDatabase parameters = Evolve.loadParameterDatabase(args);
+        EvolutionState state = Evolve.initialize(parameters, 0);
+        state.run(EvolutionState.C_STARTED_FRESH);
+        Evolve.cleanup(state);
+
+        // one-shot slaves return when the master shuts them down
+        for(int i = 0; i < slaves; i++)
+            s[i].join();
+
+        return new long[] { System.currentTimeMillis() - time, threads.getPeakThreadCount() };
+        }
+    }
@@ -38,6 +38,11 @@ import java.util.List;
  <i>jobSize</i> individuals be submitted via evaluate(), and then sends them all off in a group,
  called a <i>job</i>, to the remote slave.  In other situations (coevolution, or no prepareToEvaluate())
  the MasterProblem sends off individuals immediately.
+
+ <p>If the SlaveMonitor sizes jobs adaptively (<tt>eval.masterproblem.adaptive-job-size</tt>), <i>jobSize</i>
+ is only used for slaves whose speed hasn't been measured yet: otherwise each job gets as many individuals
+ as suits the slave which will receive it.  While no slave has room for another job, the individuals are
+ simply held onto; and when finishEvaluating() is called, they are split up into jobs to fit the slaves.
  
  <p>It may be the case that no Slave has space in its queue to accept a new job containing, among others,
  your new individual.  In this case, calling evaluate() will block until one comes available.  You can avoid
@@ -83,10 +88,34 @@ import java.util.List;
  <font size=-1>boolean</font></td>
  <td valign=top>(whether the communication with the slaves should be compressed or not)<br>
  </td></tr>
+ <tr><td valign=top><tt>eval.nio</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should the slaves be talked to over non-blocking channels by a few shared threads, rather than by two threads per slave?)<br>
+ </td></tr>
+ <tr><td valign=top><tt>eval.nio.threads</tt><br>
+ <font size=-1>integer &gt; 0 (default = 1)</font></td>
+ <td valign=top>(if eval.nio is true, how many threads should do the talking?)<br>
+ </td></tr>
  <tr><td valign=top><tt>eval.masterproblem.max-jobs-per-slave</tt><br>
  <font size=-1>int</font></td>
  <td valign=top>(the maximum load (number of jobs) per slave at any point in time)<br>
  </td></tr>
+ <tr><td valign=top><tt>eval.masterproblem.adaptive-job-size</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should jobs be sized, and the number of jobs in flight be set, separately for each slave according to its measured speed?)<br>
+ </td></tr>
+ <tr><td valign=top><tt>eval.masterproblem.job-time</tt><br>
+ <font size=-1>double &gt; 0 (default = 1.0)</font></td>
+ <td valign=top>(if jobs are sized adaptively, about how many seconds should a slave spend evaluating a job?)<br>
+ </td></tr>
+ <tr><td valign=top><tt>eval.masterproblem.max-job-size</tt><br>
+ <font size=-1>integer &gt; 0 (default = unbounded)</font></td>
+ <td valign=top>(if jobs are sized adaptively, how large may a job be at most?)<br>
+ </td></tr>
+ <tr><td valign=top><tt>eval.masterproblem.speculative</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(when slaves go idle at the end of evaluation, should they be given other slaves' straggling jobs, or copies of them?)<br>
+ </td></tr>
 
  </table>
 
@@ -142,7 +171,7 @@ public class MasterProblem extends Problem implements SimpleProblemForm, Grouped
     // prepare for a batch of evaluations
     public void prepareToEvaluate(final EvolutionState state, final int threadnum)
         {
-        if (jobSize > 1) queue = new ArrayList<>();
+        if (jobSize > 1 || monitor.adaptiveJobSize) queue = new ArrayList<>();
         batchMode = true;
         }
 
@@ -163,11 +192,12 @@ public class MasterProblem extends Problem implements SimpleProblemForm, Grouped
     // evaluate a regular individual
     public void evaluate(EvolutionState state, Individual ind, int subpopulation, int threadnum)
         {
-        if (jobSize > 1 && batchMode == true)    // chunked evaluation mechanism
+        if (queue != null && batchMode == true)    // chunked evaluation mechanism
             {
             queue.add(new QueueIndividual(ind, subpopulation));
-            if (queue.size() >= jobSize)
-                flush(state, threadnum);
+            int size = monitor.nextJobSize(false, jobSize);
+            if (queue.size() >= size)
+                flush(state, threadnum, size);
             }
         else    /// ordinary evaluation mechanism  
             evaluate(state, new Individual[] { ind }, new int[] { subpopulation }, threadnum);           
@@ -177,19 +207,26 @@ public class MasterProblem extends Problem implements SimpleProblemForm, Grouped
     ArrayList<QueueIndividual> queue;
     void flush(EvolutionState state, int threadnum)
         {
-        if (queue!=null && queue.size() > 0 )
+        if (queue!=null)
+            while (queue.size() > 0)
+                flush(state, threadnum, monitor.adaptiveJobSize ? monitor.nextJobSize(true, jobSize) : queue.size());
+        queue = new ArrayList<>();
+        }
+
+    // sends the first size individuals in the queue (or all of them, if there are fewer) off as a job
+    void flush(EvolutionState state, int threadnum, int size)
+        {
+        size = Math.min(size, queue.size());
+        Individual[] inds = new Individual[size];
+        int[] subpopulations = new int[size];
+        for(int i = 0; i < size; i++)
             {
-            Individual[] inds = new Individual[queue.size()];
-            int[] subpopulations = new int[queue.size()];
-            for(int i = 0; i < queue.size(); i++)
-                {
-                QueueIndividual qind = (QueueIndividual)(queue.get(i));
-                inds[i] = qind.ind;
-                subpopulations[i] = qind.subpop; 
-                }
-            evaluate(state, inds, subpopulations, threadnum);
+            QueueIndividual qind = (QueueIndividual)(queue.get(i));
+            inds[i] = qind.ind;
+            subpopulations[i] = qind.subpop; 
             }
-        queue = new ArrayList<>();
+        queue.subList(0, size).clear();
+        evaluate(state, inds, subpopulations, threadnum);
         }
 
 
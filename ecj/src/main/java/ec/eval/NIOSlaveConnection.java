@@ -0,0 +1,253 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.eval;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import ec.*;
+
+/*
+ * NIOSlaveConnection.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * NIOSlaveConnection is a SlaveConnection which talks to its slave over a non-blocking java.nio SocketChannel
+ * rather than with a reader and a writer thread of its own.  Instead, a SlaveSelector thread does the reading
+ * and writing for it, along with that of many other NIOSlaveConnections, so a master can talk to thousands of
+ * slaves with a handful of threads.  The SlaveMonitor uses NIOSlaveConnections if <tt>eval.nio</tt> is true.
+ *
+ * <p>Jobs and their results are sent as <i>frames</i>: an int length followed by that many bytes.  The bytes
+ * are the same as those sent by an ordinary SlaveConnection, and the Slave reads and writes them the same
+ * way (through a FramedInputStream and FramedOutputStream).  But knowing the length up front means that the
+ * SlaveSelector can gather up a whole frame in a buffer, bit by bit as it comes in, without blocking, and
+ * only read the individuals out of it once it's all there.  Likewise each job is written into a buffer
+ * all at once, and the buffer is then sent out bit by bit as the socket will take it.  These buffers are
+ * direct ByteBuffers, and are reused from job to job, growing as necessary.
+ *
+ * <p>The initial handshake (see SlaveMonitor.registerSlave(...)) is not framed: it's done with the channel in
+ * blocking mode, exactly as for an ordinary SlaveConnection, and only then is the channel made non-blocking.
+ * The Slave learns that the master wants frames from the first byte of the handshake.  Framing can't be
+ * combined with compression.
+ *
+ * @version 1.0
+ */
+
+class NIOSlaveConnection extends SlaveConnection
+    {
+    /** The initial size of the input and output buffers. */
+    public static final int BUFFER_SIZE = 8192;
+
+    // a frame holding just Slave.V_SHUTDOWN
+    static final byte[] SHUTDOWN_FRAME = new byte[] { 0, 0, 0, 1, Slave.V_SHUTDOWN };
+
+    SocketChannel channel;
+    SlaveSelector selector;
+    // our key with the selector, only touched by the selector thread
+    SelectionKey key;
+
+    // incoming bytes, and a stream over the frame in them currently being read
+    ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    ByteBufferInputStream frameIn = new ByteBufferInputStream();
+    DataInputStream frameData = new DataInputStream(frameIn);
+
+    // the outgoing frame, the job it holds (if any), and a scratch stream to write jobs into
+    ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    Job outJob;
+    Encoder encoder = new Encoder();
+    DataOutputStream encoderData = new DataOutputStream(encoder);
+    Object outLock = new int[0];
+
+    public NIOSlaveConnection( EvolutionState state,
+        String slaveName,
+        Socket evalSocket,
+        DataOutputStream dataOut,
+        DataInputStream dataIn,
+        SlaveMonitor slaveMonitor,
+        SlaveSelector selector ) throws IOException
+        {
+        super(state, slaveName, evalSocket, dataOut, dataIn, slaveMonitor);
+        out.flip();  // nothing to send yet
+        channel = evalSocket.getChannel();
+        channel.configureBlocking(false);
+        this.selector = selector;
+        selector.wake(this);  // register us
+        }
+
+    /**
+       Builds an NIOSlaveConnection which isn't connected to any slave or registered with any selector.
+       Frames may be fed to it with read(source).  This is only useful for testing.
+    */
+    NIOSlaveConnection(EvolutionState state, String slaveName, SlaveMonitor slaveMonitor)
+        {
+        super(state, slaveName, slaveMonitor);
+        out.flip();  // nothing to send yet
+        }
+
+    // we have no threads of our own
+    void buildThreads() { }
+    void stopThreads() { }
+
+    void closeConnection()
+        {
+        synchronized(outLock)
+            {
+            // tell the slave to shut down, unless we're in the middle of sending it a frame
+            if (!out.hasRemaining())
+                try { channel.write(ByteBuffer.wrap(SHUTDOWN_FRAME)); } catch (IOException e) { }
+            try { channel.close(); } catch (IOException e) { }
+            }
+        }
+
+    public void scheduleJob( final Job job )
+        {
+        super.scheduleJob(job);
+        selector.wake(this);
+        }
+
+    /** Called by the SlaveSelector when something went wrong with the connection.  We can't shut down
+        in the selector thread, since rescheduling our jobs may have to wait on other slaves, whose
+        results come in via the same selector thread.  So we shut down in another thread. */
+    void lost()
+        {
+        if (key != null) key.cancel();
+        slaveMonitor.pool.start(new Runnable()
+            {
+            public void run() { shutdown(state); }
+            }, "Shutting down " + this);
+        }
+
+    /** Called by the SlaveSelector when there are bytes to read.  Reads whatever has come in, and
+        processes the results of each job whose frame is now complete. */
+    void read() throws IOException
+        {
+        read(channel);
+        }
+
+    /** Reads whatever has come in from the given source, and processes the results of each job whose
+        frame is now complete.  Throws an EOFException if the source has ended, even in the middle of a frame,
+        and an IOException if a frame's length is bad. */
+    void read(ReadableByteChannel source) throws IOException
+        {
+        if (source.read(in) < 0)
+            throw new EOFException();
+        in.flip();
+        while(in.remaining() >= 4)
+            {
+            int length = in.getInt(in.position());
+            if (length <= 0)
+                throw new IOException("Bad frame length: " + length);
+            if (in.remaining() - 4 < length)  // not all here yet
+                {
+                if (length + 4 > in.capacity())  // make room for it
+                    {
+                    ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(length + 4, in.capacity() * 2));
+                    bigger.put(in);
+                    bigger.flip();
+                    in = bigger;
+                    }
+                break;
+                }
+
+            int end = in.position() + 4 + length;
+            int limit = in.limit();
+            in.position(in.position() + 4);
+            in.limit(end);
+            frameIn.buffer = in;
+            debug(toString() + " Incoming Job");
+            readJob(frameData.readByte(), frameData);
+            in.limit(limit);
+            in.position(end);
+            }
+        in.compact();
+        }
+
+    /** Called by the SlaveSelector when we might be able to write.  Sends out as much as the socket
+        will take, starting with the rest of the current frame, then framing and sending unsent jobs.
+        If the socket fills up, asks the selector to call us again once it's writable. */
+    void write() throws IOException
+        {
+        while(true)
+            {
+            synchronized(outLock)
+                {
+                if (out.hasRemaining())
+                    {
+                    channel.write(out);
+                    if (out.hasRemaining())  // try again when there's room
+                        {
+                        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                        }
+                    }
+                if (outJob != null)
+                    {
+                    outJob.written = true;
+                    outJob = null;
+                    }
+                }
+
+            Job job = nextJobToSend();
+            if (job == null)
+                {
+                key.interestOps(SelectionKey.OP_READ);
+                return;
+                }
+            encoder.reset();
+            writeJob(job, encoderData);
+            encoderData.flush();
+
+            synchronized(outLock)
+                {
+                int length = encoder.size();
+                if (length + 4 > out.capacity())
+                    out = ByteBuffer.allocateDirect(Math.max(length + 4, out.capacity() * 2));
+                out.clear();
+                out.putInt(length);
+                out.put(encoder.buffer(), 0, length);
+                out.flip();
+                outJob = job;
+                }
+            }
+        }
+
+    // a ByteArrayOutputStream which lets us at its bytes
+    static class Encoder extends ByteArrayOutputStream
+        {
+        public Encoder() { super(BUFFER_SIZE); }
+        byte[] buffer() { return buf; }
+        }
+
+    // an InputStream over the remaining bytes of a ByteBuffer
+    static class ByteBufferInputStream extends InputStream
+        {
+        ByteBuffer buffer;
+
+        public int read()
+            {
+            return (buffer.hasRemaining() ? buffer.get() & 0xFF : -1);
+            }
+
+        public int read(byte[] b, int off, int len)
+            {
+            if (len == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+            }
+
+        public int available()
+            {
+            return buffer.remaining();
+            }
+        }
+    }
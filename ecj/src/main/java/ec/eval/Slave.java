@@ -52,6 +52,9 @@ import ec.util.*;
  is critical for doing compressed network streams).  In order to do compression, you need to download the
  JZLIB library from the ECJ website or from http://www.jcraft.com/jzlib/  .  ECJ will detect and use it
  automatically.
+
+ <p>If the master uses NIO (<tt>eval.nio</tt>), it tells the slave so when it connects, and from then on the
+ slave sends and receives each message as a length-prefixed frame.  There is nothing to set on the slave.
  
  <p>Slaves presently always run in single-threaded mode and receive their random number generator seed
  from the master.  Thus they ignore any seed parameters given to them.
@@ -143,6 +146,9 @@ public class Slave
     public static final byte V_EVALUATESIMPLE = 1;
     public static final byte V_EVALUATEGROUPED = 2;
 
+    /** The first byte from the master if it wants all messages after the handshake to be framed (see NIOSlaveConnection). */
+    public static final byte V_FRAMED = 2;
+
     /** The argument indicating that we're starting fresh from a parameter file stored in a jar file or as some resource. */
     public static final String A_FROM = "-from";
 
@@ -337,6 +343,7 @@ public class Slave
                     
                     DataInputStream dataIn = null;
                     DataOutputStream dataOut = null;
+                    boolean framed = false;
 
                     try
                         {
@@ -370,8 +377,11 @@ public class Slave
                         InputStream tmpIn = socket.getInputStream();
                         OutputStream tmpOut = socket.getOutputStream();
                         
-                        // The first thing we do is read a single byte telling us whether to use compression or nt
-                        boolean useCompression = (tmpIn.read() != 0);
+                        // The first thing we do is read a single byte telling us whether to use compression or nt,
+                        // or whether to use framed messages
+                        int mode = tmpIn.read();
+                        framed = (mode == V_FRAMED);
+                        boolean useCompression = (mode != 0 && !framed);
                         
                         if (useCompression)
                             {
@@ -470,6 +480,13 @@ public class Slave
                     final MasterProblem storage = state.evaluator.masterproblem;
                     storage.receiveAdditionalData(state, dataIn);
                     storage.transferAdditionalData(state);
+
+                    // 6. From here on, the master might want messages framed
+                    if (framed)
+                        {
+                        dataIn = new DataInputStream(new FramedInputStream(dataIn));
+                        dataOut = new DataOutputStream(new FramedOutputStream(dataOut));
+                        }
                     
                     try
                         {
@@ -27,6 +27,13 @@ import ec.util.*;
  
  <P>Generally SlaveConnection is only seen by communicates only with SlaveMonitor.
 
+ <p>As jobs come back, the SlaveConnection also measures how fast the slave is: how long it takes
+ per individual, and how much extra time a round trip takes on top of that (the latency).  When jobs are pipelined
+ (sent while another job is still out on the slave), the time between two jobs coming back is almost entirely
+ spent evaluating, so these jobs tell us the former.  When a job has the slave to itself, we see the whole round
+ trip, which tells us the latter.  Both are exponentially smoothed so as to follow slaves whose speed changes.
+ The SlaveMonitor uses these to size the slave's jobs, decide how many to keep in flight, and pick stragglers.
+
  * @author Liviu Panait, Keith Sullivan, and Sean Luke
  * @version 2.0 
  */
@@ -61,6 +68,16 @@ class SlaveConnection
     // the jobs need to be represented as a queue.
     LinkedList<Job> jobs = new LinkedList<>();
 
+    // the measured number of seconds the slave takes per individual, or -1 if not measured yet
+    volatile double secondsPerIndividual = -1;
+    // the measured round trip time, in seconds, of a job beyond the time spent evaluating it
+    volatile double latency = 0;
+    // when the last job came back (System.nanoTime())
+    long lastReturned;
+
+    /** The weight given each new measurement of the slave's speed. */
+    public static final double SMOOTHING = 0.25;
+
     /**
        The constructor also creates the queue storing the jobs that the slave
        has been asked to evaluate.  It also creates and launches the worker
@@ -83,6 +100,19 @@ class SlaveConnection
         buildThreads();
         showDebugInfo = slaveMonitor.showDebugInfo;
         }
+
+    /**
+       Builds a SlaveConnection which isn't connected to any slave and has no threads, and so never sends
+       its jobs anywhere.  Its speed may be set by hand.  This is only useful for testing the SlaveMonitor's
+       scheduling.
+    */
+    SlaveConnection(EvolutionState state, String slaveName, SlaveMonitor slaveMonitor)
+        {
+        this.slaveName = slaveName;
+        this.state = state;
+        this.slaveMonitor = slaveMonitor;
+        showDebugInfo = slaveMonitor.showDebugInfo;
+        }
         
     /**
        This method is called whenever there are any communication problems with the slave
@@ -96,15 +126,31 @@ class SlaveConnection
         // prevent me from hitting this multiple times
         synchronized(shutDownLock) { if (shuttingDown) return; else shuttingDown = true; }
         
+        closeConnection();
+
+        slaveMonitor.unregisterSlave(this);  // unregister me BEFORE I reschedule my jobs
+
+        stopThreads();
+
+        state.output.systemMessage("Slave " + slaveName + " shut down." );
+        if (slaveMonitor.rescheduleLostJobs)
+            rescheduleJobs(state);  // AFTER we've shut down the slave
+        }
+
+    // tells the slave to shut down, then closes the connection
+    void closeConnection()
+        {
         // don't want to miss any of these so we'll wrap them individually
         try { dataOut.writeByte(Slave.V_SHUTDOWN); } catch (Exception e) { }  // exception, not IOException, because JZLib throws some array exceptions
         try { dataOut.flush(); } catch (Exception e) { }
         try { dataOut.close(); } catch (Exception e) { }
         try { dataIn.close(); } catch (Exception e) { }
         try { evalSocket.close(); } catch (IOException e) { }
+        }
 
-        slaveMonitor.unregisterSlave(this);  // unregister me BEFORE I reschedule my jobs
-
+    // stops the reader and writer threads
+    void stopThreads()
+        {
         synchronized(jobs) 
             {
             // notify my threads now that I've closed stuff in case they're still waiting
@@ -122,10 +168,6 @@ class SlaveConnection
         writer = null;
         readerRun = null;
         writerRun = null;  // let GC
-
-        state.output.systemMessage("Slave " + slaveName + " shut down." );
-        if (slaveMonitor.rescheduleLostJobs)
-            rescheduleJobs(state);  // AFTER we've shut down the slave
         }
 
     public String toString() { return "Slave(" + slaveName + ")"; }
@@ -144,6 +186,166 @@ class SlaveConnection
         {
         synchronized(jobs) { return jobs.size(); }
         }
+
+    /**
+       Returns the number of jobs that a slave is in charge of whose results have not come back yet,
+       either from this slave or from another slave evaluating a copy of the job.
+    */
+    public int numUnfinishedJobs()
+        {
+        int n = 0;
+        synchronized(jobs)
+            {
+            for(Job job : jobs)
+                if (!job.primary().finished) n++;
+            }
+        return n;
+        }
+
+    /**
+       Returns the number of individuals the slave should be sent in its next job, so that it spends
+       about SlaveMonitor.jobTime seconds evaluating it.  If we don't know yet, returns defaultSize.
+    */
+    public int jobSize(int defaultSize)
+        {
+        return jobSize(secondsPerIndividual, slaveMonitor.jobTime, slaveMonitor.maxJobSize, defaultSize);
+        }
+
+    /**
+       Returns the number of individuals which a slave taking <i>secondsPerIndividual</i> seconds per individual
+       should be sent so that it spends about <i>jobTime</i> seconds evaluating them, between 1 and <i>maxJobSize</i>
+       inclusive.  If secondsPerIndividual is negative (unknown), returns defaultSize.
+    */
+    static int jobSize(double secondsPerIndividual, double jobTime, int maxJobSize, int defaultSize)
+        {
+        if (secondsPerIndividual < 0) return defaultSize;
+        return (int)Math.max(1, Math.min(maxJobSize, Math.round(jobTime / secondsPerIndividual)));
+        }
+
+    /**
+       Returns the number of jobs the slave may be in charge of at one time.  This is normally
+       SlaveMonitor.maxJobsPerSlave.  But if the SlaveMonitor sizes jobs adaptively, it's just enough
+       jobs to keep the slave busy while the results of one are on their way back and the next is
+       on its way out (at least 2, so we can keep measuring the slave's speed), and no more.
+    */
+    public int capacity()
+        {
+        int max = slaveMonitor.maxJobsPerSlave;
+        double spi = secondsPerIndividual;
+        if (!slaveMonitor.adaptiveJobSize || spi <= 0) return max;
+        return capacity(jobSize(1) * spi, latency, max);
+        }
+
+    /**
+       Returns the number of jobs, each taking <i>jobTime</i> seconds to evaluate, which should be in flight to a slave
+       whose round trips take <i>latency</i> seconds beyond evaluation, so that the slave is never left waiting:
+       at least 2 (or <i>max</i> if it's smaller), and at most <i>max</i>.
+    */
+    static int capacity(double jobTime, double latency, int max)
+        {
+        if (max <= 2) return max;
+        return (int)Math.min(max, Math.max(2, 1 + Math.ceil(latency / jobTime)));
+        }
+
+    /**
+       Returns how long, in seconds, the slave would be expected to take to return the given job if it
+       were sent right now, or 0 if we don't know yet.
+    */
+    public double expectedTime(Job job)
+        {
+        double spi = secondsPerIndividual;
+        return (spi < 0 ? 0 : latency + job.inds.length * spi);
+        }
+
+    // when the job last returned by straggler(...) is expected to come back, in seconds from when it was called
+    double stragglerBack;
+
+    /**
+       Returns the job in our queue which we expect to come back last, out of the ones which the
+       other slave would be expected to return sooner if it were given the job right now, or null if there is none.
+       Only unfinished jobs are considered, and only if they haven't been sent yet, or have been sent
+       but not copied yet.  If we've never heard back from our slave, its jobs are expected never to come back.
+       When the job is expected to come back is stored in stragglerBack.
+    */
+    Job straggler(SlaveConnection other)
+        {
+        return straggler(other, System.nanoTime());
+        }
+
+    /** Same as straggler(other), as if it were called at the given time (System.nanoTime()). */
+    Job straggler(SlaveConnection other, long now)
+        {
+        double spi = secondsPerIndividual;
+        double lat = latency;
+        double free = 0;  // when we expect the slave to be done with the jobs so far, in seconds from now
+        Job straggler = null;
+        double latest = 0;
+        synchronized(jobs)
+            {
+            for(Job job : jobs)
+                {
+                double back = Double.POSITIVE_INFINITY;
+                if (spi >= 0)
+                    {
+                    double arrives = lat + (job.sent ? (job.sentTime - now) / 1.0e9 : 0);
+                    back = free = Math.max(free, arrives) + job.inds.length * spi;
+                    }
+                Job primary = job.primary();
+                if (!primary.finished && (!job.sent || (job.written && !primary.copied)) &&
+                    (straggler == null || back > latest) && other.expectedTime(job) < back)
+                    {
+                    straggler = job;
+                    latest = back;
+                    }
+                }
+            }
+        stragglerBack = latest;
+        return straggler;
+        }
+
+    /**
+       Removes the given job from our queue, but only if it hasn't been sent yet.  Returns true if it was removed.
+    */
+    boolean removeUnsentJob(Job job)
+        {
+        synchronized(jobs)
+            {
+            return (!job.sent && jobs.remove(job));
+            }
+        }
+
+    // updates our measurements of the slave's speed with a job which just came back
+    void measure(Job job)
+        {
+        measure(job, System.nanoTime());
+        }
+
+    // updates our measurements of the slave's speed with a job which came back at the given time (System.nanoTime())
+    void measure(Job job, long now)
+        {
+        int n = job.inds.length;
+        if (job.pipelined && slaveMonitor.maxJobsPerSlave > 1)
+            {
+            // the slave started on the job once it had finished the previous one (or once
+            // the job arrived, if that was later), so we're seeing about the time it spent evaluating.
+            secondsPerIndividual = smooth(secondsPerIndividual, (now - Math.max(job.sentTime, lastReturned)) / 1.0e9 / n);
+            }
+        else
+            {
+            // the job had the slave to itself, so we're seeing the whole round trip
+            double roundTrip = (now - job.sentTime) / 1.0e9;
+            if (secondsPerIndividual < 0 || slaveMonitor.maxJobsPerSlave == 1)
+                // we can't tell latency from evaluation here, so lump them together
+                secondsPerIndividual = smooth(secondsPerIndividual, roundTrip / n);
+            else latency = smooth(latency, Math.max(0, roundTrip - n * secondsPerIndividual));
+            }
+        lastReturned = now;
+        }
+
+    static double smooth(double old, double measurement)
+        {
+        return (old < 0 ? measurement : old + SMOOTHING * (measurement - old));
+        }
     
     // constructs the worker thread for the slave and starts it
     void buildThreads()
@@ -180,59 +382,102 @@ class SlaveConnection
             }
         return null;
         }
+
+    // returns true if there is an unsent job.
+    // NOT SYNCHRONIZED -- YOU MUST SYNCHRONIZE ON jobs!
+    boolean hasUnsentJob()
+        {
+        Iterator<Job> i = jobs.iterator();
+        while(i.hasNext())
+            if (!i.next().sent) return true;
+        return false;
+        }
         
     
-    boolean writeLoop()
+    // Returns the oldest unsent job, marked as sent, or null if there is none.  Speculative copies
+    // of jobs which have already come back are dropped along the way rather than sent.
+    Job nextJobToSend()
         {
-        Job job = null;
-        
-        try
+        while(true)
             {
             synchronized(jobs)
                 {
-                // check for an unsent job
-                if ((job = oldestUnsentJob()) == null)  // automatically marks as sent
+                Job job = oldestUnsentJob();  // automatically marks as sent
+                if (job == null) return null;
+                if (job.original == null || !job.original.finished)
                     {
-                    // failed -- wait and drop out of the loop and come in again
-                    debug("" + Thread.currentThread().getName() + "Waiting for a job to send" );                    
-                    // this is a copy of waitOnMonitor but I handle the InterruptedException
-                    jobs.wait(); 
+                    job.sentTime = System.nanoTime();
+                    job.pipelined = (jobs.getFirst() != job);
+                    return job;
                     }
+                // a speculative copy of a job which has already come back -- don't bother
+                jobs.remove(job);
+                }
+            slaveMonitor.notifySlaveAvailability(this, null, state);
+            }
+        }
+
+    // Writes out the job.  The caller must flush.
+    void writeJob(Job job, DataOutputStream dataOut) throws IOException
+        {
+        synchronized(job.primary())  // so nobody merges into the individuals while we're writing them
+            {
+            // send the job
+            debug("" + Thread.currentThread().getName() + "Sending Job");
+            if( job.type == Slave.V_EVALUATESIMPLE )
+                {
+                // Tell the server we're evaluating a SimpleProblemForm
+                dataOut.writeByte(Slave.V_EVALUATESIMPLE);
                 }
-            if (job != null)  // we got a job inside our synchronized wait
+            else
                 {
-                // send the job
-                debug("" + Thread.currentThread().getName() + "Sending Job");
-                if( job.type == Slave.V_EVALUATESIMPLE )
-                    {
-                    // Tell the server we're evaluating a SimpleProblemForm
-                    dataOut.writeByte(Slave.V_EVALUATESIMPLE);
-                    }
-                else
-                    {
-                    // Tell the server we're evaluating a GroupedProblemForm
-                    dataOut.writeByte(Slave.V_EVALUATEGROUPED);
+                // Tell the server we're evaluating a GroupedProblemForm
+                dataOut.writeByte(Slave.V_EVALUATEGROUPED);
                                         
-                    // Tell the server whether to count victories only or not.
-                    dataOut.writeBoolean(job.countVictoriesOnly);
-                    }
+                // Tell the server whether to count victories only or not.
+                dataOut.writeBoolean(job.countVictoriesOnly);
+                }
                                 
-                // transmit number of individuals 
-                dataOut.writeInt(job.inds.length); 
+            // transmit number of individuals 
+            dataOut.writeInt(job.inds.length); 
                             
-                // Transmit the subpopulations to the slave 
-                for(int x=0;x<job.subPops.length;x++)
-                    dataOut.writeInt(job.subPops[x]);
+            // Transmit the subpopulations to the slave 
+            for(int x=0;x<job.subPops.length;x++)
+                dataOut.writeInt(job.subPops[x]);
                             
-                debug("Starting to transmit individuals"); 
+            debug("Starting to transmit individuals"); 
                             
-                // Transmit the individuals to the server for evaluation...
-                for(int i=0;i<job.inds.length;i++)
+            // Transmit the individuals to the server for evaluation...
+            for(int i=0;i<job.inds.length;i++)
+                {
+                job.inds[i].writeIndividual(state, dataOut);
+                dataOut.writeBoolean(job.updateFitness[i]);
+                }
+            }
+        }
+    
+    boolean writeLoop()
+        {
+        try
+            {
+            synchronized(jobs)
+                {
+                // check for an unsent job
+                if (!hasUnsentJob())
                     {
-                    job.inds[i].writeIndividual(state, dataOut);
-                    dataOut.writeBoolean(job.updateFitness[i]);
+                    // failed -- wait and drop out of the loop and come in again
+                    debug("" + Thread.currentThread().getName() + "Waiting for a job to send" );                    
+                    // this is a copy of waitOnMonitor but I handle the InterruptedException
+                    jobs.wait(); 
+                    return true;
                     }
+                }
+            Job job = nextJobToSend();
+            if (job != null)
+                {
+                writeJob(job, dataOut);
                 dataOut.flush();
+                job.written = true;
                 }
             }
         catch (Exception e)     // just in case RuntimeException is thrown
@@ -249,82 +494,88 @@ class SlaveConnection
         
     boolean readLoop()
         {
-        Job job = null;
-        
         try
             {
             // block on an incoming job
             byte val = dataIn.readByte();
             debug(SlaveConnection.this.toString() + " Incoming Job");
+            readJob(val, dataIn);
+            }
+        catch (IOException e)
+            {
+            shutdown(state);  // will redistribute jobs
+            return false;
+            }
+
+        return true;
+        }
+
+    // Reads in the results of the oldest job, given that we've already read its first byte.
+    void readJob(byte val, DataInputStream dataIn) throws IOException
+        {
+        Job job = null;
+        
+        // okay, we've got a job.  Grab the earliest job, that's what's coming in
             
-            // okay, we've got a job.  Grab the earliest job, that's what's coming in
-            
-            synchronized(jobs) 
-                {
-                job = (Job)(jobs.getFirst());                           // NO SUCH ELEMENT EXCEPTION
-                }
-            debug("Got job: " + job);
+        synchronized(jobs) 
+            {
+            job = (Job)(jobs.getFirst());                           // NO SUCH ELEMENT EXCEPTION
+            }
+        debug("Got job: " + job);
             
             
-            ///// NEXT STEP: COPY THE INDIVIDUALS FORWARD INTO NEWINDS.
-            ///// WE DO THIS SO WE CAN LOAD THE INDIVIDUALS BACK INTO NEWINDS
-            ///// AND THEN COPY THEM BACK INTO THE ORIGINAL INDS, BECAUSE ECJ
-            ///// DOESN'T HAVE A COPY(INDIVIDUAL,INTO_INDIVIDUAL) FUNCTION
+        ///// NEXT STEP: COPY THE INDIVIDUALS FORWARD INTO NEWINDS.
+        ///// WE DO THIS SO WE CAN LOAD THE INDIVIDUALS BACK INTO NEWINDS
+        ///// AND THEN COPY THEM BACK INTO THE ORIGINAL INDS, BECAUSE ECJ
+        ///// DOESN'T HAVE A COPY(INDIVIDUAL,INTO_INDIVIDUAL) FUNCTION
             
-            job.copyIndividualsForward();
+        job.copyIndividualsForward();
 
-            // now start reading.  Remember that we've already got a byte.
+        // now start reading.  Remember that we've already got a byte.
             
-            for(int i = 0; i < job.newinds.length; i++)
+        for(int i = 0; i < job.newinds.length; i++)
+            {
+            debug(SlaveConnection.this.toString() + " Individual# " + i);
+            debug(SlaveConnection.this.toString() + " Reading Byte" );
+            if (i > 0) val = dataIn.readByte();  // otherwise we've got it already
+            debug(SlaveConnection.this.toString() + " Reading Individual" );
+            if (val == Slave.V_INDIVIDUAL)
                 {
-                debug(SlaveConnection.this.toString() + " Individual# " + i);
-                debug(SlaveConnection.this.toString() + " Reading Byte" );
-                if (i > 0) val = dataIn.readByte();  // otherwise we've got it already
-                debug(SlaveConnection.this.toString() + " Reading Individual" );
-                if (val == Slave.V_INDIVIDUAL)
-                    {
-                    job.newinds[i].readIndividual(state, dataIn);
-                    }
-                else if (val == Slave.V_FITNESS)
-                    {
-                    job.newinds[i].evaluated = dataIn.readBoolean();
-                    job.newinds[i].fitness.readFitness(state,dataIn);
-                    }
-                else if (val == Slave.V_NOTHING)
-                    {
-                    // do nothing
-                    }
-                debug( SlaveConnection.this.toString() + " Read Individual" );
+                job.newinds[i].readIndividual(state, dataIn);
                 }
-
-            ///// NEXT STEP: COPY THE NEWLY-READ INDIVIDUALS BACK INTO THE ORIGINAL
-            ///// INDIVIDUALS.  THIS IS QUITE A HACK, IF YOU READ JOB.JAVA
-
-            // Now we have all the individuals in so we're good.  Copy them back into the original individuals
-            job.copyIndividualsBack(state);
-            
-            ///// LAST STEP: LET OTHERS KNOW WE'RE DONE AND AVAILABLE FOR ANOTHER JOB
-            // we're all done!  Yank the job from the queue so others think we're available
-            synchronized(jobs)
+            else if (val == Slave.V_FITNESS)
                 {
-                jobs.removeFirst();
+                job.newinds[i].evaluated = dataIn.readBoolean();
+                job.newinds[i].fitness.readFitness(state,dataIn);
                 }
-
-            // And let the slave monitor we just finished a job
-            slaveMonitor.notifySlaveAvailability( SlaveConnection.this, job, state );
+            else if (val == Slave.V_NOTHING)
+                {
+                // do nothing
+                }
+            debug( SlaveConnection.this.toString() + " Read Individual" );
             }
-        catch (IOException e)
+
+        ///// NEXT STEP: COPY THE NEWLY-READ INDIVIDUALS BACK INTO THE ORIGINAL
+        ///// INDIVIDUALS.  THIS IS QUITE A HACK, IF YOU READ JOB.JAVA
+
+        // Now we have all the individuals in so we're good.  Copy them back into the original individuals,
+        // unless a copy of the job came back first
+        boolean merged = job.copyIndividualsBack(state);
+            
+        ///// LAST STEP: LET OTHERS KNOW WE'RE DONE AND AVAILABLE FOR ANOTHER JOB
+        // we're all done!  Yank the job from the queue so others think we're available
+        synchronized(jobs)
             {
-            shutdown(state);  // will redistribute jobs
-            return false;
+            jobs.removeFirst();
             }
+        measure(job);
 
-        return true;
+        // And let the slave monitor we just finished a job
+        slaveMonitor.notifySlaveAvailability( SlaveConnection.this, merged ? job : null, state );
         }
 
     
 
-
     /**
        Adds a new jobs to the queue.  This implies that the slave will be in charge of executing
        this particular job.
@@ -355,8 +606,11 @@ class SlaveConnection
                 if( jobs.isEmpty() ) { return; }
                 job = (Job)(jobs.removeFirst());
                 }
+            if (job.original != null || job.finished)
+                continue;  // a speculative copy (its original will be rescheduled if need be), or already done
             debug(Thread.currentThread().getName() + " Waiting for a slave to reschedule the evaluation.");
             job.sent = false;  // reuse
+            job.written = false;
             slaveMonitor.scheduleJobForEvaluation(state,job);
             debug(Thread.currentThread().getName() + " Got a slave to reschedule the evaluation.");
             }
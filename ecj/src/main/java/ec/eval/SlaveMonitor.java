@@ -12,6 +12,7 @@ import ec.*;
 import java.io.*;
 import java.util.*;
 import java.net.*;
+import java.nio.channels.*;
 import ec.util.*;
 import ec.steadystate.QueueIndividual;
 
@@ -31,6 +32,26 @@ import ec.steadystate.QueueIndividual;
  
  <p>Generally speaking, the SlaveMonitor owns the SlaveConnections -- no one else
  should speak to them.  Also generally speaking, only MasterProblems create and speak to the SlaveMonitor.
+
+ <p>Ordinarily each SlaveConnection talks to its slave with a reader thread and a writer thread of its own, over
+ blocking streams.  This doesn't scale to more than a few hundred slaves.  If <tt>eval.nio</tt> is true, the monitor
+ instead makes NIOSlaveConnections, which send length-prefixed frames over non-blocking channels, and whose
+ reading and writing is all done by <tt>eval.nio.threads</tt> SlaveSelector threads.
+
+ <p>If <tt>eval.masterproblem.adaptive-job-size</tt> is true, the monitor sizes jobs separately for each slave,
+ based on how fast the slave has been evaluating individuals, so that each job keeps its slave busy for about
+ <tt>eval.masterproblem.job-time</tt> seconds (but is no bigger than <tt>eval.masterproblem.max-job-size</tt>).
+ Fast slaves thus get big jobs and slow slaves small ones.  It likewise keeps just as many jobs in flight to
+ each slave as it takes to hide the slave's round trip latency, at least 2 and at most
+ <tt>eval.masterproblem.max-jobs-per-slave</tt>.  See nextJobSize(...).
+
+ <p>If <tt>eval.masterproblem.speculative</tt> is true, then while waiting in waitForAllSlavesToFinishEvaluating(...),
+ whenever a slave sits idle while other slaves still have jobs out, the monitor gives it the job which is expected
+ to come back last, provided the idle slave is expected to finish it sooner.  If the job hasn't been sent yet, it is
+ simply moved to the idle slave.  Otherwise a copy of it is sent, and whichever of the two comes back first is
+ used.  This keeps a few slow slaves from holding up the end of every generation.  Do not turn this on if your
+ slaves return modified individuals and these might differ from one evaluation to the next in ways that matter to
+ you: then again, you'd not be happy with rescheduled jobs either.
   
  * @author Sean Luke, Liviu Panait, and Keith Sullivan
  * @version 1.0 
@@ -46,8 +67,14 @@ public class SlaveMonitor
 
     public static final String P_EVALMASTERPORT = "eval.master.port";
     public static final String P_EVALCOMPRESSION = "eval.compression";
+    public static final String P_EVALNIO = "eval.nio";
+    public static final String P_EVALNIOTHREADS = "eval.nio.threads";
     public static final String P_MAXIMUMNUMBEROFCONCURRENTJOBSPERSLAVE = "eval.masterproblem.max-jobs-per-slave";
     public static final String P_RESCHEDULELOSTJOBS = "eval.masterproblem.reschedule-lost-jobs";
+    public static final String P_ADAPTIVEJOBSIZE = "eval.masterproblem.adaptive-job-size";
+    public static final String P_JOBTIME = "eval.masterproblem.job-time";
+    public static final String P_MAXJOBSIZE = "eval.masterproblem.max-job-size";
+    public static final String P_SPECULATIVE = "eval.masterproblem.speculative";
     public static final int SEED_INCREMENT = 7919; // a large value (prime for fun) bigger than expected number of threads per slave
 
     public EvolutionState state;
@@ -75,6 +102,15 @@ public class SlaveMonitor
      */
     public boolean useCompression;
 
+    /**
+     * Indicates whether slaves are talked to with NIOSlaveConnections.
+     */
+    public boolean useNIO;
+
+    // the threads which read and write for the NIOSlaveConnections, handed out in turn
+    SlaveSelector[] selectors;
+    int nextSelector = 0;
+
     boolean shutdownInProgress = false;
     Object[] shutdownInProgressLock = new Object[0];  // arrays are serializable
     final boolean isShutdownInProgress() { synchronized (shutdownInProgressLock) { return shutdownInProgress; } }
@@ -111,6 +147,18 @@ public class SlaveMonitor
     // the maximum number of jobs per slave
     int maxJobsPerSlave;
 
+    // are jobs sized to each slave?
+    boolean adaptiveJobSize;
+
+    // how long (in seconds) a slave should take to evaluate a job, if jobs are sized to slaves
+    double jobTime;
+
+    // the largest job, if jobs are sized to slaves
+    int maxJobSize;
+
+    // are straggling jobs given to idle slaves at the end of evaluation?
+    boolean speculative;
+
     // whether the system should display information that is useful for debugging 
     boolean showDebugInfo;
     
@@ -140,7 +188,31 @@ public class SlaveMonitor
 
         rescheduleLostJobs = state.parameters.getBoolean(new Parameter(P_RESCHEDULELOSTJOBS), null, true);
 
+        adaptiveJobSize = state.parameters.getBoolean(new Parameter(P_ADAPTIVEJOBSIZE), null, false);
+        if (adaptiveJobSize)
+            {
+            jobTime = state.parameters.getDoubleWithDefault(new Parameter(P_JOBTIME), null, 1.0);
+            if (jobTime <= 0)
+                state.output.fatal("The job time must be a number > 0.", new Parameter(P_JOBTIME));
+            maxJobSize = state.parameters.getIntWithDefault(new Parameter(P_MAXJOBSIZE), null, Integer.MAX_VALUE);
+            if (maxJobSize <= 0)
+                state.output.fatal("The maximum job size must be an integer > 0.", new Parameter(P_MAXJOBSIZE));
+            }
+
+        speculative = state.parameters.getBoolean(new Parameter(P_SPECULATIVE), null, false);
+
         useCompression = state.parameters.getBoolean(new Parameter(P_EVALCOMPRESSION),null,false);
+
+        useNIO = state.parameters.getBoolean(new Parameter(P_EVALNIO),null,false);
+        int nioThreads = 0;
+        if (useNIO)
+            {
+            if (useCompression)
+                state.output.fatal("Compression is not available with NIO: eval.compression must be false if eval.nio is true.", new Parameter(P_EVALCOMPRESSION), new Parameter(P_EVALNIO));
+            nioThreads = state.parameters.getIntWithDefault(new Parameter(P_EVALNIOTHREADS), null, 1);
+            if (nioThreads <= 0)
+                state.output.fatal("The number of NIO threads must be an integer > 0.", new Parameter(P_EVALNIOTHREADS));
+            }
                 
         final int noDelay = state.parameters.exists(new Parameter(P_EVALNODELAY), null) ? 
             (state.parameters.getBoolean(new Parameter(P_EVALNODELAY), null, true) ? 1 : 0) : -1;
@@ -150,7 +222,16 @@ public class SlaveMonitor
         
         try
             {
-            servSock = new ServerSocket(port);
+            if (useNIO)
+                {
+                // the channel's sockets will come out of accept() with channels of their own
+                servSock = ServerSocketChannel.open().socket();
+                servSock.bind(new InetSocketAddress(port));
+                selectors = new SlaveSelector[nioThreads];
+                for(int i = 0; i < nioThreads; i++)
+                    selectors[i] = new SlaveSelector(this, i);
+                }
+            else servSock = new ServerSocket(port);
             }
         catch( IOException e )
             {
@@ -198,6 +279,21 @@ public class SlaveMonitor
         thread.start();
         }
 
+    /**
+       Builds a SlaveMonitor which doesn't listen for slaves and has no threads, with the given scheduling
+       settings.  Slaves (typically SlaveConnections which aren't connected to anything) may be added to
+       allSlaves and availableSlaves by hand.  This is only useful for testing the monitor's scheduling.
+    */
+    SlaveMonitor(final EvolutionState state, int maxJobsPerSlave, boolean adaptiveJobSize, double jobTime, int maxJobSize, boolean speculative)
+        {
+        this.state = state;
+        this.maxJobsPerSlave = maxJobsPerSlave;
+        this.adaptiveJobSize = adaptiveJobSize;
+        this.jobTime = jobTime;
+        this.maxJobSize = maxJobSize;
+        this.speculative = speculative;
+        }
+
     /**
        Registers a new slave with the monitor.  Upon registration, a slave is marked as available for jobs.
     */
@@ -233,8 +329,9 @@ public class SlaveMonitor
             InputStream tmpIn = socket.getInputStream();
             OutputStream tmpOut = socket.getOutputStream();
                         
-            // The first thing we do is send a single byte indicating whether we're using compression or not
-            tmpOut.write((byte)(useCompression ? 1 : 0));
+            // The first thing we do is send a single byte indicating whether we're using compression or not,
+            // or (if we're using NIO) that all messages after the handshake will be framed
+            tmpOut.write((byte)(useNIO ? Slave.V_FRAMED : (useCompression ? 1 : 0)));
                         
             if (useCompression)
                 {
@@ -272,7 +369,9 @@ public class SlaveMonitor
                 return slaveName;
                 }
 
-            SlaveConnection newSlave = new SlaveConnection( state, slaveName, socket, dataOut, dataIn, this );
+            SlaveConnection newSlave = (useNIO ?
+                new NIOSlaveConnection( state, slaveName, socket, dataOut, dataIn, this, selectors[nextSelector++ % selectors.length] ) :
+                new SlaveConnection( state, slaveName, socket, dataOut, dataIn, this ));
                 
             synchronized(allSlaves)
                 {
@@ -356,6 +455,10 @@ public class SlaveMonitor
             notifyMonitor(allSlaves);
             }
 
+        if (selectors != null)
+            for(int i = 0; i < selectors.length; i++)
+                selectors[i].shutdown();
+
         pool.killAll();  // clean up the thread pool
         debug("Shut Down Completed");
         }
@@ -387,7 +490,7 @@ public class SlaveMonitor
 
         result.scheduleJob(job);
 
-        if( result.numJobs() < maxJobsPerSlave )
+        if( result.numJobs() < result.capacity() )
             {
             synchronized(availableSlaves) 
                 {
@@ -402,7 +505,8 @@ public class SlaveMonitor
        new jobs can be assigned to the slaves.  This method is usually invoked from MasterProblem.finishEvaluating.  You
        should not abuse using this method: if there are two evaluation threads, where one of them waits until all jobs are
        finished, while the second evaluation thread keeps posting jobs to the slaves, the first thread might have to wait
-       until the second thread has had all its jobs finished.
+       until the second thread has had all its jobs finished.  If speculative evaluation is turned on,
+       slaves which go idle while we wait are given other slaves' straggling jobs (see speculate()).
     */
     public void waitForAllSlavesToFinishEvaluating( final EvolutionState state )
         {
@@ -427,7 +531,7 @@ public class SlaveMonitor
                 while( iter.hasNext() )
                     {
                     SlaveConnection slaveConnection = iter.next();
-                    int jobs = slaveConnection.numJobs();
+                    int jobs = slaveConnection.numUnfinishedJobs();
                     if( jobs != 0 )
                         {
                         debug("Slave " + slaveConnection + " has " + jobs + " more jobs to finish." );
@@ -437,6 +541,8 @@ public class SlaveMonitor
                     }
                 if( shouldCycle )
                     {
+                    if (speculative)
+                        speculate(System.nanoTime());
                     debug("Waiting for slaves to finish their jobs." );
                     waitOnMonitor(allSlaves);
                     debug("At least one job has been finished." );
@@ -447,9 +553,69 @@ public class SlaveMonitor
         debug("All slaves have finished their jobs." );
         }
 
+    /**
+       Gives each idle slave the job, out of all the other slaves' unfinished jobs, which is expected to come
+       back last, provided the idle slave is expected to finish it sooner.  If the job hasn't been sent yet,
+       it's moved to the idle slave.  Otherwise a copy of it is sent to the idle slave, and the results of
+       whichever comes back first are used.  Each job is copied at most once.
+       The time is now (System.nanoTime()).
+       NOT SYNCHRONIZED -- YOU MUST SYNCHRONIZE ON allSlaves!
+    */
+    void speculate(long now)
+        {
+        for(SlaveConnection idle : allSlaves)
+            {
+            if (idle.numJobs() != 0) continue;
+
+            // find the worst straggler
+            SlaveConnection slowest = null;
+            Job straggler = null;
+            double latest = 0;
+            for(SlaveConnection slave : allSlaves)
+                {
+                if (slave == idle) continue;
+                Job job = slave.straggler(idle, now);
+                if (job != null)
+                    {
+                    double back = slave.stragglerBack;
+                    if (straggler == null || back > latest)
+                        {
+                        slowest = slave;
+                        straggler = job;
+                        latest = back;
+                        }
+                    }
+                }
+            if (straggler == null) continue;
+
+            if (!straggler.sent)
+                {
+                if (!slowest.removeUnsentJob(straggler)) continue;  // it got sent in the meantime; we'll try again next time
+                debug("Moving a job from " + slowest + " to idle " + idle);
+                idle.scheduleJob(straggler);
+                }
+            else
+                {
+                debug("Copying a job from " + slowest + " to idle " + idle);
+                straggler.primary().copied = true;
+                idle.scheduleJob(straggler.copy());
+                }
+
+            if (idle.numJobs() >= idle.capacity())
+                {
+                synchronized(availableSlaves)
+                    {
+                    availableSlaves.remove(idle);
+                    notifyMonitor(availableSlaves);
+                    }
+                }
+            }
+        }
+
     /**
        Notifies the monitor that the particular slave has finished performing a job, and it (probably) is
-       available for other jobs.
+       available for other jobs.  The job is null if its results were thrown away (because a copy of it
+       came back first) or if it was never sent.
     */
     void notifySlaveAvailability( SlaveConnection slave, final Job job, EvolutionState state )
         {
@@ -463,7 +629,7 @@ public class SlaveMonitor
 
         // now announce that we've got a new available slave if someone wants it
         
-        if( slave.numJobs() < maxJobsPerSlave )
+        if( slave.numJobs() < slave.capacity() )
             {
             synchronized(availableSlaves)
                 { 
@@ -476,7 +642,7 @@ public class SlaveMonitor
 
         // now announce that we've got a new completed individual if someone is waiting for it
 
-        if( state instanceof ec.steadystate.SteadyStateEvolutionState )
+        if( job != null && state instanceof ec.steadystate.SteadyStateEvolutionState )
             {
             // Perhaps we should the individuals by fitness first, so the fitter ones show up later
             // and don't get immediately wiped out by less fit ones.  Or should it be the other way
@@ -521,6 +687,28 @@ public class SlaveMonitor
             }
         }
 
+    /**
+       Returns the number of individuals which should go into the next job, given that jobs would otherwise
+       have <i>defaultSize</i> individuals.  If jobs aren't sized to slaves, this is just defaultSize.  Else it's
+       the size suited to the slave which will get the next job (see SlaveConnection.jobSize(...)).  If no slave is
+       available yet, then if <i>block</i> is true, we wait for one; else we return Integer.MAX_VALUE, that is,
+       the caller might as well keep adding individuals to the job until a slave comes available.
+    */
+    public int nextJobSize(boolean block, int defaultSize)
+        {
+        if (!adaptiveJobSize) return defaultSize;
+        synchronized(availableSlaves)
+            {
+            while(availableSlaves.isEmpty())
+                {
+                if (!block) return Integer.MAX_VALUE;
+                debug("Waiting for an available slave." );
+                waitOnMonitor(availableSlaves);
+                }
+            return availableSlaves.getFirst().jobSize(defaultSize);
+            }
+        }
+
     /** Returns the number of available slave (not busy) */ 
     int numAvailableSlaves()
         {
@@ -0,0 +1,124 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.eval;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+
+/*
+ * SlaveSelector.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * SlaveSelector is a thread which does all the reading and writing for some number of NIOSlaveConnections,
+ * using a single java.nio Selector.  When a connection's socket has bytes to read, or room to write, the
+ * SlaveSelector calls the connection's read() or write() method.  When a connection is new, or has been given a
+ * new job, it calls wake(...), and the SlaveSelector registers it or has it write out the job.
+ *
+ * <p>The SlaveMonitor makes <tt>eval.nio.threads</tt> SlaveSelectors, and hands new connections out to them in
+ * turn.  Note that the SlaveSelector also reads the individuals out of the results as they come back, so if
+ * your individuals are large or your slaves very many, you might want more than one.
+ *
+ * @version 1.0
+ */
+
+class SlaveSelector implements Runnable
+    {
+    SlaveMonitor slaveMonitor;
+    Selector selector;
+    Thread thread;
+    volatile boolean running = true;
+
+    // connections which are new or have new jobs
+    ArrayList<NIOSlaveConnection> pending = new ArrayList<>();
+
+    public SlaveSelector(SlaveMonitor slaveMonitor, int num) throws IOException
+        {
+        this.slaveMonitor = slaveMonitor;
+        selector = Selector.open();
+        thread = new Thread(this);
+        thread.setName("SlaveSelector " + num + "::    ");
+        thread.setDaemon(true);
+        thread.start();
+        }
+
+    /** Asks the selector thread to register the connection, if it's new, and to send it any unsent jobs. */
+    public void wake(NIOSlaveConnection connection)
+        {
+        synchronized(pending) { pending.add(connection); }
+        selector.wakeup();
+        }
+
+    public void run()
+        {
+        ArrayList<NIOSlaveConnection> woken = new ArrayList<>();
+        while(running)
+            {
+            try
+                {
+                selector.select();
+                }
+            catch (IOException e)
+                {
+                slaveMonitor.state.output.warning("SlaveSelector could not select:\n" + e);
+                break;
+                }
+
+            synchronized(pending)
+                {
+                woken.addAll(pending);
+                pending.clear();
+                }
+            for(NIOSlaveConnection connection : woken)
+                {
+                try
+                    {
+                    if (connection.key == null)
+                        connection.key = connection.channel.register(selector, SelectionKey.OP_READ, connection);
+                    connection.write();
+                    }
+                catch (Exception e)  // including CancelledKeyException and ClosedChannelException
+                    {
+                    connection.lost();
+                    }
+                }
+            woken.clear();
+
+            Iterator<SelectionKey> i = selector.selectedKeys().iterator();
+            while(i.hasNext())
+                {
+                SelectionKey key = i.next();
+                i.remove();
+                NIOSlaveConnection connection = (NIOSlaveConnection)(key.attachment());
+                try
+                    {
+                    if (key.isReadable()) connection.read();
+                    if (key.isValid() && key.isWritable()) connection.write();
+                    }
+                catch (Exception e)  // just in case RuntimeException is thrown
+                    {
+                    connection.lost();
+                    }
+                }
+            }
+        }
+
+    /** Stops the selector thread and closes the selector. */
+    public void shutdown()
+        {
+        running = false;
+        selector.wakeup();
+        try { thread.join(); }
+        catch (InterruptedException e) { }
+        try { selector.close(); }
+        catch (IOException e) { }
+        }
+    }
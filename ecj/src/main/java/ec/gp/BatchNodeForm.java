@@ -0,0 +1,44 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp;
+import ec.*;
+
+/* 
+ * BatchNodeForm.java
+ * 
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * BatchNodeForm is implemented by GPNodes which can evaluate themselves on many fitness cases
+ * at once.  Ordinarily a problem with N fitness cases calls eval(...) on the root of a tree N times,
+ * walking the entire tree and dispatching eval(...) on every node for each case.  A problem supporting
+ * batches instead calls evalBatch(...) on the root just once, with a batched GPData object holding
+ * whole columns of values (one slot per fitness case) rather than a single value.  Each node
+ * evaluates its children into columns and then combines them in a simple loop over the cases,
+ * which the JIT compiler can unroll and vectorize.
+ *
+ * <p>The batched GPData class is problem-specific, just as the ordinary GPData class is: for example,
+ * ec.app.regression.RegressionBatchData.  A tree may only be evaluated in batch if every one of its
+ * nodes implements BatchNodeForm, which the problem should check beforehand, for example with
+ * GPNode.numNodes(GPNodeGatherer).  Thus nodes may safely cast their children to BatchNodeForm.
+ *
+ * @version 1.0 
+ */
+
+public interface BatchNodeForm
+    {
+    /** Evaluates the node on all fitness cases held in the given batched <i>input</i>, leaving the results
+        there.  The arguments are otherwise the same as those of GPNode.eval(...). */
+    public void evalBatch(final EvolutionState state,
+        final int thread,
+        final GPData input,
+        final ADFStack stack,
+        final GPIndividual individual,
+        final Problem problem);
+    }
@@ -0,0 +1,41 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp;
+
+/* 
+ * CompilableNodeForm.java
+ * 
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * CompilableNodeForm is implemented by GPNodes which can be compiled by a GPTreeCompiler.
+ * A tree may only be compiled if every one of its nodes implements this interface.
+ *
+ * <p>Trees are compiled in postorder onto a stack of doubles.  By the time a node's
+ * compile(...) method is called, the results of its children have been pushed onto the stack
+ * in order (the last child on top).  The node must then use the Emitter to pop those
+ * results and push its own, computing exactly what its eval(...) method would.
+ * Terminals push a constant or an input variable; nonterminals typically call a public
+ * static method of their own.  For example, an addition node might say:
+ *
+ * <pre><tt>
+ *    public static double add(double a, double b) { return a + b; }
+ *
+ *    public void compile(GPTreeCompiler.Emitter emitter)
+ *        { emitter.invoke(Add.class, "add", 2); }
+ * </tt></pre>
+ *
+ * @version 1.0 
+ */
+
+public interface CompilableNodeForm
+    {
+    /** Emits code which pops the results of this node's children and pushes the result of this node. */
+    public void compile(GPTreeCompiler.Emitter emitter);
+    }
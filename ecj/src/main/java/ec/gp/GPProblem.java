@@ -32,6 +32,21 @@ import ec.simple.*;
  <tr><td valign=top><i>base</i><tt>.data</tt><br>
  <font size=-1>classname, inherits and != ec.GPData</font></td>
  <td valign=top>(the class for the GPProblem's basic GPData type)</td></tr>
+ <tr><td valign=top><i>base</i><tt>.compile</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should the GPProblem build a GPTreeCompiler for problems which know how to use one?)</td></tr>
+ <tr><td valign=top><i>base</i><tt>.compile-cache-size</tt><br>
+ <font size=-1>int &gt;= 1 (default = 4096)</font></td>
+ <td valign=top>(the maximum number of compiled trees held by the GPTreeCompiler)</td></tr>
+ <tr><td valign=top><i>base</i><tt>.semantics-cache</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should the GPProblem build a SemanticsCache for problems which know how to use one?)</td></tr>
+ <tr><td valign=top><i>base</i><tt>.semantics-cache-size</tt><br>
+ <font size=-1>int &gt;= 1 (default = 1024)</font></td>
+ <td valign=top>(the maximum number of subtrees whose results are held by the SemanticsCache)</td></tr>
+ <tr><td valign=top><i>base</i><tt>.semantics-cache-stripes</tt><br>
+ <font size=-1>int &gt;= 1 (default = 16)</font></td>
+ <td valign=top>(the number of independently locked portions of the SemanticsCache)</td></tr>
  </table>
 
  <p><b>Default Base</b><br>
@@ -54,6 +69,14 @@ public abstract class GPProblem extends Problem implements SimpleProblemForm
     public final static String P_GPPROBLEM = "problem";
     public final static String P_STACK = "stack";
     public final static String P_DATA = "data";
+    public final static String P_COMPILE = "compile";
+    public final static String P_COMPILE_CACHE_SIZE = "compile-cache-size";
+    public final static int DEFAULT_COMPILE_CACHE_SIZE = 4096;
+    public final static String P_SEMANTICS_CACHE = "semantics-cache";
+    public final static String P_SEMANTICS_CACHE_SIZE = "semantics-cache-size";
+    public final static String P_SEMANTICS_CACHE_STRIPES = "semantics-cache-stripes";
+    public final static int DEFAULT_SEMANTICS_CACHE_SIZE = 1024;
+    public final static int DEFAULT_SEMANTICS_CACHE_STRIPES = 16;
 
     /** The GPProblem's stack */
     public ADFStack stack;
@@ -61,6 +84,16 @@ public abstract class GPProblem extends Problem implements SimpleProblemForm
     /** The GPProblem's GPData */
     public GPData input;
 
+    /** The GPProblem's tree compiler, or null if trees are not to be compiled.  This is shared
+        among all clones of the GPProblem.  Problems which support compilation (see GPTreeCompiler)
+        should evaluate trees with it when it is non-null and fall back on eval(...) otherwise. */
+    public GPTreeCompiler compiler;
+
+    /** The GPProblem's cache of subtree results, or null if there is none.  This is shared
+        among all clones of the GPProblem.  Problems which support it (see SemanticsCache)
+        should consult it when it is non-null. */
+    public SemanticsCache semanticsCache;
+
     /** GPProblem defines a default base so your subclass doesn't
         absolutely have to. */
     public Parameter defaultBase()
@@ -83,6 +116,25 @@ public abstract class GPProblem extends Problem implements SimpleProblemForm
             (state.parameters.getInstanceForParameterEq(
                 p,def.push(P_DATA),GPData.class));
         input.setup(state,p);
+
+        if (state.parameters.getBoolean(base.push(P_COMPILE), def.push(P_COMPILE), false))
+            {
+            int size = state.parameters.getIntWithDefault(base.push(P_COMPILE_CACHE_SIZE), def.push(P_COMPILE_CACHE_SIZE), DEFAULT_COMPILE_CACHE_SIZE);
+            if (size < 1)
+                state.output.fatal("Compile cache size must be an integer >= 1", base.push(P_COMPILE_CACHE_SIZE), def.push(P_COMPILE_CACHE_SIZE));
+            compiler = new GPTreeCompiler(size);
+            }
+
+        if (state.parameters.getBoolean(base.push(P_SEMANTICS_CACHE), def.push(P_SEMANTICS_CACHE), false))
+            {
+            int size = state.parameters.getIntWithDefault(base.push(P_SEMANTICS_CACHE_SIZE), def.push(P_SEMANTICS_CACHE_SIZE), DEFAULT_SEMANTICS_CACHE_SIZE);
+            if (size < 1)
+                state.output.fatal("Semantics cache size must be an integer >= 1", base.push(P_SEMANTICS_CACHE_SIZE), def.push(P_SEMANTICS_CACHE_SIZE));
+            int stripes = state.parameters.getIntWithDefault(base.push(P_SEMANTICS_CACHE_STRIPES), def.push(P_SEMANTICS_CACHE_STRIPES), DEFAULT_SEMANTICS_CACHE_STRIPES);
+            if (stripes < 1)
+                state.output.fatal("Semantics cache stripes must be an integer >= 1", base.push(P_SEMANTICS_CACHE_STRIPES), def.push(P_SEMANTICS_CACHE_STRIPES));
+            semanticsCache = new SemanticsCache(size, stripes);
+            }
         }
 
     public Object clone()
@@ -0,0 +1,434 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp;
+import ec.*;
+import java.io.*;
+import java.lang.reflect.*;
+import java.util.*;
+
+/*
+ * GPTreeCompiler.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * GPTreeCompiler compiles GP trees whose nodes all implement CompilableNodeForm into
+ * freshly generated JVM classes.  A compiled tree is a CompiledTree, whose eval(...) method
+ * takes an array of input variables (a fitness case) and returns the tree's double result.
+ * Rather than walking the tree and dispatching eval(...) virtually on every node for every
+ * fitness case, a problem compiles the tree once and calls eval(...) on the compiled tree
+ * once per fitness case.  The generated method is straight-line code: a sequence of constant
+ * loads, variable loads, and calls to the static operator methods provided by the nodes,
+ * which the JIT compiler inlines.
+ *
+ * <p>Compilation works like a stack machine.  The tree is compiled in postorder: each node's
+ * children are compiled first, leaving their results on the operand stack, and then
+ * the node's compile(...) method is called to emit code which pops those results and pushes
+ * its own.  See CompilableNodeForm and GPTreeCompiler.Emitter.
+ *
+ * <p>Compiling and loading a class is not cheap, so compiled trees are kept in a bounded,
+ * least-recently-used cache keyed on the tree's structure (GPNode.rootedTreeHashCode() and
+ * rootedTreeEquals(...)).  Since GP populations are full of duplicate trees, most trees are
+ * compiled only once, and classes evicted from the cache are eventually unloaded.
+ * Trees which cannot be compiled (because some node does not implement CompilableNodeForm,
+ * or the tree is too large for a single JVM method) are remembered too, and compile(...)
+ * returns null for them: the caller should then fall back on eval(...).
+ * Compilation pays off when there are many fitness cases: with only a handful the JVM never
+ * gets around to JIT-compiling the generated classes.
+ *
+ * <p>A GPTreeCompiler is threadsafe, and is meant to be shared among all the clones of a Problem.
+ * Its cache is not serialized: after restoring from a checkpoint, trees are simply recompiled.
+ * The compiler keeps counts of its cache hits, misses, and uncompilable trees.
+ *
+ * @version 1.0
+ */
+
+public class GPTreeCompiler implements java.io.Serializable
+    {
+    private static final long serialVersionUID = 1;
+
+    /** A compiled GP tree. */
+    public interface CompiledTree
+        {
+        /** Returns the result of the tree given the input variables of a single fitness case. */
+        public double eval(double[] variables);
+        }
+
+    // Stored in the cache in place of null for trees which cannot be compiled
+    static final CompiledTree UNCOMPILABLE = new CompiledTree() { public double eval(double[] variables) { return 0; } };
+
+    // Used to give generated classes unique names
+    static long classCounter = 0;
+    static final Object classCounterLock = new Object[0];
+
+    /** The maximum number of compiled trees held in the cache. */
+    public int capacity;
+    transient LinkedHashMap<GPTreeKey, CompiledTree> cache;
+    long hits = 0;
+    long misses = 0;
+    long failures = 0;
+
+    public GPTreeCompiler(int capacity)
+        {
+        this.capacity = capacity;
+        }
+
+    /** Returns the compiled form of the tree rooted at the given node, or null
+        if the tree cannot be compiled. */
+    public CompiledTree compile(final EvolutionState state, final GPNode root)
+        {
+        GPTreeKey key = new GPTreeKey(root);
+        synchronized(this)
+            {
+            if (cache == null)
+                cache = new LinkedHashMap<GPTreeKey, CompiledTree>(16, 0.75f, true)
+                    {
+                    protected boolean removeEldestEntry(Map.Entry<GPTreeKey, CompiledTree> eldest)
+                        { return size() > capacity; }
+                    };
+            CompiledTree compiled = cache.get(key);
+            if (compiled != null)
+                {
+                hits++;
+                return (compiled == UNCOMPILABLE ? null : compiled);
+                }
+            misses++;
+            }
+
+        // compile outside of the lock.  Another thread might compile the same tree at the same time; that's fine.
+        CompiledTree compiled = build(state, root);
+        synchronized(this)
+            {
+            if (compiled == null) failures++;
+            cache.put(key.snapshot(), compiled == null ? UNCOMPILABLE : compiled);
+            }
+        return compiled;
+        }
+
+    CompiledTree build(final EvolutionState state, final GPNode root)
+        {
+        Emitter emitter = new Emitter(state);
+        if (!emitter.emitTree(root))
+            return null;
+        byte[] code = emitter.finish();
+        if (code == null)
+            return null;
+
+        String name;
+        synchronized(classCounterLock) { name = "ec.gp.GPTreeCompiler$Compiled" + (classCounter++); }
+        try
+            {
+            // One loader per class, so that a class may be unloaded once it leaves the cache
+            Class<?> c = new Loader(GPTreeCompiler.class.getClassLoader()).define(name, emitter.classFile(name, code));
+            return (CompiledTree)(c.getDeclaredConstructor().newInstance());
+            }
+        catch (ReflectiveOperationException e) { state.output.fatal("Could not instantiate compiled tree: " + e); }
+        catch (LinkageError e) { state.output.fatal("Could not load compiled tree: " + e); }
+        return null;
+        }
+
+    /** Returns the number of times compile(...) found the tree in the cache. */
+    public synchronized long getHits() { return hits; }
+
+    /** Returns the number of times compile(...) had to compile the tree. */
+    public synchronized long getMisses() { return misses; }
+
+    /** Returns the number of trees which turned out not to be compilable. */
+    public synchronized long getFailures() { return failures; }
+
+    /** Empties the cache.  */
+    public synchronized void clear()
+        {
+        if (cache != null) cache.clear();
+        }
+
+    /** Returns input variable number <i>index</i>, or 0 if there are not that many variables.
+        Called by compiled trees. */
+    public static double variable(double[] variables, int index)
+        {
+        return (index < variables.length ? variables[index] : 0.0);
+        }
+
+
+
+    static class Loader extends ClassLoader
+        {
+        Loader(ClassLoader parent) { super(parent); }
+        Class<?> define(String name, byte[] b) { return defineClass(name, b, 0, b.length); }
+        }
+
+
+
+    /**
+     * An Emitter writes the body of a compiled tree's eval(...) method.  It is handed to each
+     * node's compile(...) method after the node's children have pushed their results, in order,
+     * onto the stack.  The node must emit code which leaves exactly one more double on the stack
+     * than before its children were compiled.
+     */
+    public static class Emitter
+        {
+        // opcodes
+        static final int ALOAD_0 = 0x2a;
+        static final int ALOAD_1 = 0x2b;
+        static final int ICONST_0 = 0x03;
+        static final int BIPUSH = 0x10;
+        static final int SIPUSH = 0x11;
+        static final int DCONST_0 = 0x0e;
+        static final int DCONST_1 = 0x0f;
+        static final int LDC2_W = 0x14;
+        static final int DADD = 0x63;
+        static final int DSUB = 0x67;
+        static final int DMUL = 0x6b;
+        static final int DRETURN = 0xaf;
+        static final int RETURN = 0xb1;
+        static final int INVOKESPECIAL = 0xb7;
+        static final int INVOKESTATIC = 0xb8;
+
+        // constant pool tags
+        static final int CONSTANT_UTF8 = 1;
+        static final int CONSTANT_DOUBLE = 6;
+        static final int CONSTANT_CLASS = 7;
+        static final int CONSTANT_METHODREF = 10;
+        static final int CONSTANT_NAMEANDTYPE = 12;
+
+        static final int MAX_CODE_LENGTH = 65535;
+
+        EvolutionState state;
+        ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        DataOutputStream poolOut = new DataOutputStream(pool);
+        HashMap<Object, Integer> poolIndices = new HashMap<Object, Integer>();
+        int poolCount = 1;  // constant pool indices start at 1
+
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        int depth = 0;      // current stack depth in slots (each double takes two)
+        int maxDepth = 0;
+
+        Emitter(EvolutionState state) { this.state = state; }
+
+        /** Emits code to push a constant. */
+        public void constant(double value)
+            {
+            if (value == 0.0 && Double.doubleToRawLongBits(value) == 0L)  // not -0.0
+                code.write(DCONST_0);
+            else if (value == 1.0)
+                code.write(DCONST_1);
+            else
+                {
+                code.write(LDC2_W);
+                writeShort(code, doubleConstant(value));
+                }
+            push(2);
+            }
+
+        /** Emits code to push input variable number <i>index</i>, or 0 if there are not that many variables. */
+        public void variable(int index)
+            {
+            code.write(ALOAD_1);
+            push(1);
+            if (index >= 0 && index <= 5) code.write(ICONST_0 + index);
+            else if (index <= Byte.MAX_VALUE) { code.write(BIPUSH); code.write(index); }
+            else { code.write(SIPUSH); writeShort(code, index); }
+            push(1);
+            invokeStatic("ec/gp/GPTreeCompiler", "variable", "([DI)D", 2, 2);
+            }
+
+        /** Emits code to pop two doubles and push their sum. */
+        public void add() { code.write(DADD); depth -= 2; }
+
+        /** Emits code to pop two doubles and push the first minus the second (top of stack). */
+        public void subtract() { code.write(DSUB); depth -= 2; }
+
+        /** Emits code to pop two doubles and push their product. */
+        public void multiply() { code.write(DMUL); depth -= 2; }
+
+        /** Emits code to call a public static method in a public class, taking <i>arity</i> doubles and returning
+            a double.  The method pops the top <i>arity</i> doubles from the stack and pushes the result. */
+        public void invoke(Class<?> owner, String name, int arity)
+            {
+            Class<?>[] params = new Class<?>[arity];
+            StringBuilder descriptor = new StringBuilder("(");
+            for(int i = 0; i < arity; i++)
+                {
+                params[i] = Double.TYPE;
+                descriptor.append("D");
+                }
+            descriptor.append(")D");
+            try
+                {
+                Method method = owner.getMethod(name, params);
+                if (!Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(owner.getModifiers()) || method.getReturnType() != Double.TYPE)
+                    state.output.fatal("Compiled tree operator " + owner.getName() + "." + name + descriptor + " must be public static, in a public class, and return a double.");
+                }
+            catch (NoSuchMethodException e)
+                {
+                state.output.fatal("Compiled tree operator " + owner.getName() + "." + name + descriptor + " does not exist.");
+                }
+            invokeStatic(owner.getName().replace('.', '/'), name, descriptor.toString(), arity * 2, 2);
+            }
+
+        // compiles the tree in postorder.  Returns false if some node can't be compiled.
+        boolean emitTree(GPNode node)
+            {
+            if (!(node instanceof CompilableNodeForm))
+                return false;
+            for(int i = 0; i < node.children.length; i++)
+                if (!emitTree(node.children[i]))
+                    return false;
+            int before = depth;
+            ((CompilableNodeForm)node).compile(this);
+            if (depth != before - 2 * node.children.length + 2)
+                state.output.fatal("GPNode " + node.toStringForError() + " did not leave exactly one result on the stack when compiled.");
+            return code.size() <= MAX_CODE_LENGTH;
+            }
+
+        // Finishes the eval method, returning its code, or null if it's too big
+        byte[] finish()
+            {
+            code.write(DRETURN);
+            if (code.size() > MAX_CODE_LENGTH) return null;
+            return code.toByteArray();
+            }
+
+        void push(int slots)
+            {
+            depth += slots;
+            if (depth > maxDepth) maxDepth = depth;
+            }
+
+        void invokeStatic(String owner, String name, String descriptor, int popped, int pushed)
+            {
+            code.write(INVOKESTATIC);
+            writeShort(code, methodref(owner, name, descriptor));
+            depth -= popped;
+            push(pushed);
+            }
+
+        //// CONSTANT POOL
+
+        int utf8(String s)
+            {
+            Integer i = poolIndices.get("U" + s);
+            if (i != null) return i.intValue();
+            try { poolOut.writeByte(CONSTANT_UTF8); poolOut.writeUTF(s); }
+            catch (IOException e) { throw new InternalError(); }  // never happens
+            poolIndices.put("U" + s, Integer.valueOf(poolCount));
+            return poolCount++;
+            }
+
+        int classref(String internalName)
+            {
+            Integer i = poolIndices.get("C" + internalName);
+            if (i != null) return i.intValue();
+            int n = utf8(internalName);
+            pool.write(CONSTANT_CLASS);
+            writeShort(pool, n);
+            poolIndices.put("C" + internalName, Integer.valueOf(poolCount));
+            return poolCount++;
+            }
+
+        int methodref(String owner, String name, String descriptor)
+            {
+            String key = "M" + owner + "." + name + descriptor;
+            Integer i = poolIndices.get(key);
+            if (i != null) return i.intValue();
+            int c = classref(owner);
+            int n = utf8(name);
+            int d = utf8(descriptor);
+            pool.write(CONSTANT_NAMEANDTYPE);
+            writeShort(pool, n);
+            writeShort(pool, d);
+            int nt = poolCount++;
+            pool.write(CONSTANT_METHODREF);
+            writeShort(pool, c);
+            writeShort(pool, nt);
+            poolIndices.put(key, Integer.valueOf(poolCount));
+            return poolCount++;
+            }
+
+        int doubleConstant(double value)
+            {
+            Long bits = Long.valueOf(Double.doubleToRawLongBits(value));
+            Integer i = poolIndices.get(bits);
+            if (i != null) return i.intValue();
+            try { poolOut.writeByte(CONSTANT_DOUBLE); poolOut.writeLong(bits.longValue()); }
+            catch (IOException e) { throw new InternalError(); }  // never happens
+            poolIndices.put(bits, Integer.valueOf(poolCount));
+            int index = poolCount;
+            poolCount += 2;  // doubles take two constant pool entries
+            return index;
+            }
+
+        // Builds a class named 'name' implementing CompiledTree with the given eval(...) code
+        byte[] classFile(String name, byte[] evalCode)
+            {
+            String internalName = name.replace('.', '/');
+            int thisClass = classref(internalName);
+            int superClass = classref("java/lang/Object");
+            int iface = classref("ec/gp/GPTreeCompiler$CompiledTree");
+            int objectInit = methodref("java/lang/Object", "<init>", "()V");
+            int initName = utf8("<init>");
+            int initDescriptor = utf8("()V");
+            int evalName = utf8("eval");
+            int evalDescriptor = utf8("([D)D");
+            int codeName = utf8("Code");
+
+            try
+                {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);          // minor version
+                out.writeShort(50);         // major version: Java 6, so no stack map frames are required
+                out.writeShort(poolCount);
+                pool.writeTo(out);
+                out.writeShort(0x0031);     // public final super
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);          // interfaces
+                out.writeShort(iface);
+                out.writeShort(0);          // fields
+                out.writeShort(2);          // methods
+
+                // public <init>() { super(); }
+                byte[] initCode = new byte[] { (byte)ALOAD_0, (byte)INVOKESPECIAL, (byte)(objectInit >>> 8), (byte)objectInit, (byte)RETURN };
+                writeMethod(out, initName, initDescriptor, codeName, 1, 1, initCode);
+
+                // public double eval(double[] variables)
+                writeMethod(out, evalName, evalDescriptor, codeName, Math.max(maxDepth, 2), 2, evalCode);
+
+                out.writeShort(0);          // class attributes
+                out.flush();
+                return bytes.toByteArray();
+                }
+            catch (IOException e) { throw new InternalError(); }  // never happens
+            }
+
+        static void writeMethod(DataOutputStream out, int name, int descriptor, int codeName, int maxStack, int maxLocals, byte[] code) throws IOException
+            {
+            out.writeShort(0x0001);     // public
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);          // attributes: just Code
+            out.writeShort(codeName);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0);          // exception table
+            out.writeShort(0);          // code attributes
+            }
+
+        static void writeShort(ByteArrayOutputStream out, int value)
+            {
+            out.write(value >>> 8);
+            out.write(value);
+            }
+        }
+    }
@@ -0,0 +1,64 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp;
+
+/* 
+ * GPTreeKey.java
+ * 
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * GPTreeKey wraps a GPNode so that the tree rooted at it may be used as a key in a HashMap,
+ * based on its structure rather than on its identity.  hashCode() is the node's
+ * rootedTreeHashCode() (computed once), and equals(...) is rootedTreeEquals(...).
+ *
+ * <p>A key built to <i>look up</i> a tree may simply wrap the tree, since it is discarded
+ * immediately.  But a key to be <i>stored</i> should not refer to a tree which may later be
+ * modified by breeding: use snapshot() to obtain a key wrapping a private deep copy.
+ *
+ * @version 1.0 
+ */
+
+public class GPTreeKey implements java.io.Serializable
+    {
+    private static final long serialVersionUID = 1;
+
+    public final GPNode node;
+    final int hash;
+
+    public GPTreeKey(GPNode node)
+        {
+        this.node = node;
+        this.hash = node.rootedTreeHashCode();
+        }
+
+    GPTreeKey(GPNode node, int hash)
+        {
+        this.node = node;
+        this.hash = hash;
+        }
+
+    /** Returns a key for the same tree which wraps a private deep copy of it. */
+    public GPTreeKey snapshot()
+        {
+        GPNode copy = (GPNode)(node.clone());
+        copy.parent = null;
+        return new GPTreeKey(copy, hash);
+        }
+
+    public int hashCode() { return hash; }
+
+    public boolean equals(Object other)
+        {
+        if (other == this) return true;
+        if (!(other instanceof GPTreeKey)) return false;
+        GPTreeKey key = (GPTreeKey) other;
+        return key.hash == hash && node.rootedTreeEquals(key.node);
+        }
+    }
@@ -0,0 +1,201 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp;
+import java.util.*;
+
+/*
+ * SemanticsCache.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * SemanticsCache memoizes the <i>semantics</i> of subtrees: the results of a subtree over
+ * the problem's entire set of fitness cases.  Crossover and reproduction fill GP populations
+ * with copies of the same subtrees, and each copy would otherwise be evaluated from scratch.
+ * The cache is keyed on the structure of the subtree (see GPTreeKey), so any two subtrees which
+ * are rootedTreeEquals(...) share an entry, no matter which individuals they appear in.
+ * What is stored is up to the problem: typically a column of doubles, one per fitness case,
+ * as computed by batched evaluation (see BatchNodeForm).  Since the cached values are only valid
+ * for a particular set of fitness cases, a problem which changes its fitness cases must clear() the cache.
+ *
+ * <p>The cache holds at most <i>capacity</i> entries.  To keep contention low when many evaluation
+ * threads share it, it is split into a number of independently locked <i>stripes</i>, chosen by the
+ * subtree's hash code; each stripe evicts its least-recently-used entries once it holds more than
+ * its share of the capacity.  The cache counts hits, misses, and evictions, which
+ * SemanticsCacheStatistics reports each generation.
+ *
+ * <p>The entries are not serialized: after restoring from a checkpoint the cache starts out empty.
+ *
+ * @version 1.0
+ */
+
+public class SemanticsCache implements java.io.Serializable
+    {
+    private static final long serialVersionUID = 1;
+
+    /** The maximum number of entries in the cache. */
+    public int capacity;
+
+    // the size of the table of subtrees missed once, per entry in the cache
+    static final int SEEN_PER_ENTRY = 4;
+
+    final Stripe[] stripes;
+
+    /** Builds a cache holding up to <i>capacity</i> entries, split into the given number of stripes. */
+    public SemanticsCache(int capacity, int numStripes)
+        {
+        if (capacity < 1)
+            throw new IllegalArgumentException("SemanticsCache capacity must be >= 1, not " + capacity);
+        if (numStripes < 1)
+            throw new IllegalArgumentException("SemanticsCache must have at least one stripe, not " + numStripes);
+        if (numStripes > capacity) numStripes = capacity;
+        this.capacity = capacity;
+        stripes = new Stripe[numStripes];
+        for(int i = 0; i < numStripes; i++)
+            // spread the capacity as evenly as possible
+            stripes[i] = new Stripe(capacity / numStripes + (i < capacity % numStripes ? 1 : 0));
+        }
+
+    Stripe stripe(GPTreeKey key)
+        {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[(hash & Integer.MAX_VALUE) % stripes.length];
+        }
+
+    /** Returns the value stored for the subtree of the given key, or null if there is none. */
+    public Object get(GPTreeKey key)
+        {
+        return stripe(key).get(key);
+        }
+
+    /** Returns true if a subtree of the given key, which was just looked up without success, ought to
+        be stored.  Most subtrees are never seen again, and storing them would just push out more useful entries
+        (and cost a copy of the subtree and its value).  So a subtree is only admitted to the cache the
+        second time it is missed: this method returns false the first time it is asked about a subtree, and remembers
+        the subtree's hash code in a small table, so as to return true the next time. */
+    public boolean admit(GPTreeKey key)
+        {
+        return stripe(key).admit(key.hashCode());
+        }
+
+    /** Stores a value for the subtree of the given key.  The key is snapshot(), so the subtree
+        may subsequently be modified. */
+    public void put(GPTreeKey key, Object value)
+        {
+        stripe(key).put(key.snapshot(), value);
+        }
+
+    /** Removes all entries.  The counters are not reset. */
+    public void clear()
+        {
+        for(int i = 0; i < stripes.length; i++)
+            stripes[i].clear();
+        }
+
+    /** Returns the number of entries in the cache. */
+    public int size()
+        {
+        int size = 0;
+        for(int i = 0; i < stripes.length; i++)
+            size += stripes[i].size();
+        return size;
+        }
+
+    /** Returns the number of successful lookups. */
+    public long getHits()
+        {
+        long total = 0;
+        for(int i = 0; i < stripes.length; i++)
+            synchronized(stripes[i]) { total += stripes[i].hits; }
+        return total;
+        }
+
+    /** Returns the number of unsuccessful lookups. */
+    public long getMisses()
+        {
+        long total = 0;
+        for(int i = 0; i < stripes.length; i++)
+            synchronized(stripes[i]) { total += stripes[i].misses; }
+        return total;
+        }
+
+    /** Returns the number of entries evicted to make room for others. */
+    public long getEvictions()
+        {
+        long total = 0;
+        for(int i = 0; i < stripes.length; i++)
+            synchronized(stripes[i]) { total += stripes[i].evictions; }
+        return total;
+        }
+
+    /** Resets the hit, miss, and eviction counters to zero. */
+    public void resetCounters()
+        {
+        for(int i = 0; i < stripes.length; i++)
+            synchronized(stripes[i]) { stripes[i].hits = stripes[i].misses = stripes[i].evictions = 0; }
+        }
+
+
+    /** One independently locked LRU portion of the cache. */
+    static class Stripe implements java.io.Serializable
+        {
+        private static final long serialVersionUID = 1;
+
+        final int capacity;
+        transient LinkedHashMap<GPTreeKey, Object> map;
+        int[] seen;  // hash codes of subtrees missed once, direct-mapped
+        long hits;
+        long misses;
+        long evictions;
+
+        Stripe(int capacity)
+            {
+            this.capacity = capacity;
+            seen = new int[capacity * SEEN_PER_ENTRY];
+            }
+
+        // builds the map lazily, in particular after restoring from a checkpoint
+        LinkedHashMap<GPTreeKey, Object> map()
+            {
+            if (map == null)
+                map = new LinkedHashMap<GPTreeKey, Object>(16, 0.75f, true)
+                    {
+                    protected boolean removeEldestEntry(Map.Entry<GPTreeKey, Object> eldest)
+                        {
+                        if (size() > capacity) { evictions++; return true; }
+                        return false;
+                        }
+                    };
+            return map;
+            }
+
+        synchronized Object get(GPTreeKey key)
+            {
+            Object value = map().get(key);
+            if (value == null) misses++;
+            else hits++;
+            return value;
+            }
+
+        synchronized boolean admit(int hash)
+            {
+            int i = (hash & Integer.MAX_VALUE) % seen.length;
+            if (seen[i] == hash) return true;
+            seen[i] = hash;
+            return false;
+            }
+
+        synchronized void put(GPTreeKey key, Object value) { map().put(key, value); }
+
+        synchronized void clear() { map().clear(); }
+
+        synchronized int size() { return map().size(); }
+        }
+    }
@@ -0,0 +1,118 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp;
+import ec.*;
+import ec.util.*;
+import java.io.*;
+
+/*
+ * SemanticsCacheStatistics.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * SemanticsCacheStatistics reports how well the evaluator's SemanticsCache is doing, so that its
+ * capacity may be tuned.  After each generation's evaluation it prints one line of the form:
+ *
+ * <p><tt>generation hits misses hit-rate evictions size</tt>
+ *
+ * <p>...where the hits, misses, and evictions are those of that generation alone, the hit rate is
+ * hits / (hits + misses) for that generation, and the size is the number of entries in the cache.
+ * A high eviction count alongside a low hit rate suggests that the cache is too small.
+ * At the end of the run it prints the same totals for the run as a whole, prefixed with "Total".
+ *
+ * <p>SemanticsCacheStatistics is usually attached as a child of the main statistics object.
+ * If the evaluator's Problem is not a GPProblem with a SemanticsCache, it prints nothing.
+ *
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base.</i><tt>file</tt><br>
+ <font size=-1>String (a filename), or nonexistant (signifies stdout)</font></td>
+ <td valign=top>(the log for statistics)</td></tr>
+ </table>
+ *
+ * @version 1.0
+ */
+
+public class SemanticsCacheStatistics extends Statistics
+    {
+    private static final long serialVersionUID = 1;
+
+    /** log file parameter */
+    public static final String P_STATISTICS_FILE = "file";
+
+    /** The Statistics' log */
+    public int statisticslog = 0;  // stdout
+
+    long lastHits = 0;
+    long lastMisses = 0;
+    long lastEvictions = 0;
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        super.setup(state,base);
+
+        File statisticsFile = state.parameters.getFile(base.push(P_STATISTICS_FILE),null);
+
+        if (silentFile)
+            {
+            statisticslog = Output.NO_LOGS;
+            }
+        else if (statisticsFile!=null)
+            {
+            try
+                {
+                statisticslog = state.output.addLog(statisticsFile, true, false);
+                }
+            catch (IOException i)
+                {
+                state.output.fatal("An IOException occurred while trying to create the log " + statisticsFile + ":\n" + i);
+                }
+            }
+        }
+
+    /** Returns the evaluator's SemanticsCache, or null if there is none. */
+    public SemanticsCache getCache(final EvolutionState state)
+        {
+        Problem problem = state.evaluator.p_problem;
+        if (problem instanceof GPProblem)
+            return ((GPProblem)problem).semanticsCache;
+        return null;
+        }
+
+    public void postEvaluationStatistics(final EvolutionState state)
+        {
+        super.postEvaluationStatistics(state);
+        SemanticsCache cache = getCache(state);
+        if (cache == null) return;
+
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        long evictions = cache.getEvictions();
+        print(state, "" + state.generation, hits - lastHits, misses - lastMisses, evictions - lastEvictions, cache.size());
+        lastHits = hits;
+        lastMisses = misses;
+        lastEvictions = evictions;
+        }
+
+    public void finalStatistics(final EvolutionState state, final int result)
+        {
+        super.finalStatistics(state, result);
+        SemanticsCache cache = getCache(state);
+        if (cache == null) return;
+
+        print(state, "Total", cache.getHits(), cache.getMisses(), cache.getEvictions(), cache.size());
+        }
+
+    void print(final EvolutionState state, String label, long hits, long misses, long evictions, int size)
+        {
+        double rate = (hits + misses == 0 ? 0.0 : hits / (double)(hits + misses));
+        state.output.println(label + " " + hits + " " + misses + " " + rate + " " + evictions + " " + size, statisticslog);
+        }
+    }
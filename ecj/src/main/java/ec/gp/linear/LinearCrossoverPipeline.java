@@ -0,0 +1,402 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp.linear;
+import ec.*;
+import ec.util.*;
+import ec.gp.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/*
+ * LinearCrossoverPipeline.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * LinearCrossoverPipeline performs strongly-typed Koza-style subtree crossover on LinearGPIndividuals.
+ * It behaves exactly like ec.gp.koza.CrossoverPipeline, with the same parameters, and (with a LinearNodeSelector
+ * set up like the corresponding KozaNodeSelector) even picks the same crossover points given the same random
+ * numbers.  But rather than cloning both parents' trees node by node and rewiring the swapped subtrees,
+ * it builds each child's tree with three array copies: the part of the parent's tree before the crossover
+ * point, the other parent's subtree, and the part of the parent's tree after the subtree it replaced.
+ * The depth, size, and type checks are likewise done on the arrays.  Trees which are not crossed over
+ * are shared with the parents rather than copied.
+ *
+ <p><b>Typical Number of Individuals Produced Per <tt>produce(...)</tt> call</b><br>
+ 2 * minimum typical number of individuals produced by each source, unless tossSecondParent
+ is set, in which case it's simply the minimum typical number.
+
+ <p><b>Number of Sources</b><br>
+ 2
+
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>tries</tt><br>
+ <font size=-1>int &gt;= 1</font></td>
+ <td valign=top>(number of times to try finding valid pairs of nodes)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>maxdepth</tt><br>
+ <font size=-1>int &gt;= 1</font></td>
+ <td valign=top>(maximum valid depth of a crossed-over subtree)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>maxsize</tt><br>
+ <font size=-1>int &gt;= 1</font></td>
+ <td valign=top>(maximum valid size, in nodes, of a crossed-over subtree)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>tree.0</tt><br>
+ <font size=-1>0 &lt; int &lt; (num trees in individuals), if exists</font></td>
+ <td valign=top>(first tree for the crossover; if parameter doesn't exist, tree is picked at random)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>tree.1</tt><br>
+ <font size=-1>0 &lt; int &lt; (num trees in individuals), if exists</font></td>
+ <td valign=top>(second tree for the crossover; if parameter doesn't exist, tree is picked at random.  This tree <b>must</b> have the same GPTreeConstraints as <tt>tree.0</tt>, if <tt>tree.0</tt> is defined.)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>ns.</tt><i>n</i><br>
+ <font size=-1>classname, inherits or = LinearNodeSelector,<br>
+ or String <tt>same<tt></font></td>
+ <td valign=top>(LinearNodeSelector for parent <i>n</i> (n is 0 or 1) If, for <tt>ns.1</tt> the value is <tt>same</tt>, then <tt>ns.1</tt> a copy of whatever <tt>ns.0</tt> is.)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>toss</tt><br>
+ <font size=-1>bool = <tt>true</tt> or <tt>false</tt> (default)</font>/td>
+ <td valign=top>(after crossing over with the first new individual, should its second sibling individual be thrown away instead of adding it to the population?)</td></tr>
+ </table>
+
+ <p><b>Default Base</b><br>
+ gp.linear.xover
+
+ <p><b>Parameter bases</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>ns.</tt><i>n</i><br>
+ <td>nodeselect<i>n</i> (<i>n</i> is 0 or 1)</td></tr>
+ </table>
+
+ *
+ * @version 1.0
+ */
+
+public class LinearCrossoverPipeline extends LinearGPBreedingPipeline
+    {
+    private static final long serialVersionUID = 1;
+
+    public static final String P_NUM_TRIES = "tries";
+    public static final String P_MAXDEPTH = "maxdepth";
+    public static final String P_MAXSIZE = "maxsize";
+    public static final String P_CROSSOVER = "xover";
+    public static final String P_TOSS = "toss";
+    public static final int INDS_PRODUCED = 2;
+    public static final int NUM_SOURCES = 2;
+    public static final int NO_SIZE_LIMIT = -1;
+    public static final String KEY_PARENTS = "parents";
+
+    /** How the pipeline selects a node from individual 1 */
+    public LinearNodeSelector nodeselect1;
+
+    /** How the pipeline selects a node from individual 2 */
+    public LinearNodeSelector nodeselect2;
+
+    /** Is the first tree fixed?  If not, this is -1 */
+    public int tree1;
+
+    /** Is the second tree fixed?  If not, this is -1 */
+    public int tree2;
+
+    /** How many times the pipeline attempts to pick nodes until it gives up. */
+    public int numTries;
+
+    /** The deepest tree the pipeline is allowed to form.  Single terminal trees are depth 1. */
+    public int maxDepth;
+
+    /** The largest tree (measured as a nodecount) the pipeline is allowed to form. */
+    public int maxSize;
+
+    /** Should the pipeline discard the second parent after crossing over? */
+    public boolean tossSecondParent;
+
+    /** Temporary holding place for parents */
+    public ArrayList<Individual> parents;
+
+    public LinearCrossoverPipeline()
+        {
+        parents = new ArrayList<Individual>();
+        }
+
+    public Parameter defaultBase() { return LinearGPDefaults.base().push(P_CROSSOVER); }
+
+    public int numSources() { return NUM_SOURCES; }
+
+    public Object clone()
+        {
+        LinearCrossoverPipeline c = (LinearCrossoverPipeline)(super.clone());
+
+        // deep-cloned stuff
+        c.nodeselect1 = (LinearNodeSelector)(nodeselect1.clone());
+        c.nodeselect2 = (LinearNodeSelector)(nodeselect2.clone());
+        c.parents = new ArrayList<Individual>(parents);
+
+        return c;
+        }
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        super.setup(state,base);
+
+        Parameter def = defaultBase();
+        Parameter p = base.push(P_NODESELECTOR).push("0");
+        Parameter d = def.push(P_NODESELECTOR).push("0");
+
+        nodeselect1 = (LinearNodeSelector)
+            (state.parameters.getInstanceForParameterEq(
+                p,d, LinearNodeSelector.class));
+        nodeselect1.setup(state,p);
+
+        p = base.push(P_NODESELECTOR).push("1");
+        d = def.push(P_NODESELECTOR).push("1");
+
+        if (state.parameters.exists(p,d) &&
+            state.parameters.getString(p,d).equals(V_SAME))
+            // the selectors cache counts, so we have to clone it no matter what
+            nodeselect2 = (LinearNodeSelector)(nodeselect1.clone());
+        else
+            {
+            nodeselect2 = (LinearNodeSelector)
+                (state.parameters.getInstanceForParameterEq(
+                    p,d, LinearNodeSelector.class));
+            nodeselect2.setup(state,p);
+            }
+
+        numTries = state.parameters.getInt(base.push(P_NUM_TRIES),
+            def.push(P_NUM_TRIES),1);
+        if (numTries == 0)
+            state.output.fatal("LinearCrossoverPipeline has an invalid number of tries (it must be >= 1).",base.push(P_NUM_TRIES),def.push(P_NUM_TRIES));
+
+        maxDepth = state.parameters.getInt(base.push(P_MAXDEPTH),def.push(P_MAXDEPTH),1);
+        if (maxDepth==0)
+            state.output.fatal("LinearCrossoverPipeline has an invalid maximum depth (it must be >= 1).",base.push(P_MAXDEPTH),def.push(P_MAXDEPTH));
+
+        maxSize = NO_SIZE_LIMIT;
+        if (state.parameters.exists(base.push(P_MAXSIZE), def.push(P_MAXSIZE)))
+            {
+            maxSize = state.parameters.getInt(base.push(P_MAXSIZE), def.push(P_MAXSIZE), 1);
+            if (maxSize < 1)
+                state.output.fatal("Maximum tree size, if defined, must be >= 1");
+            }
+
+        tree1 = TREE_UNFIXED;
+        if (state.parameters.exists(base.push(P_TREE).push(""+0),
+                def.push(P_TREE).push(""+0)))
+            {
+            tree1 = state.parameters.getInt(base.push(P_TREE).push(""+0),
+                def.push(P_TREE).push(""+0),0);
+            if (tree1==-1)
+                state.output.fatal("Tree fixed value, if defined, must be >= 0");
+            }
+
+        tree2 = TREE_UNFIXED;
+        if (state.parameters.exists(base.push(P_TREE).push(""+1),
+                def.push(P_TREE).push(""+1)))
+            {
+            tree2 = state.parameters.getInt(base.push(P_TREE).push(""+1),
+                def.push(P_TREE).push(""+1),0);
+            if (tree2==-1)
+                state.output.fatal("Tree fixed value, if defined, must be >= 0");
+            }
+        tossSecondParent = state.parameters.getBoolean(base.push(P_TOSS),
+            def.push(P_TOSS),false);
+        }
+
+    /** Returns 2 * minimum number of typical individuals produced by any sources, else
+        1* minimum number if tossSecondParent is true. */
+    public int typicalIndsProduced()
+        {
+        return (tossSecondParent? minChildProduction(): minChildProduction()*2);
+        }
+
+    /** Returns true if the subtree at <i>pos1</i> in <i>tree1</i> can feasibly be swapped into
+        the position <i>pos2</i> in <i>tree2</i>. */
+    public boolean verifyPoints(final GPInitializer initializer, final LinearGPSpecies species,
+        final LinearGPTree tree1, final int pos1, final LinearGPTree tree2, final int pos2)
+        {
+        // first check to see if the subtree is swap-compatible on a type basis
+        if (!species.swapCompatible(initializer, tree1, pos1, tree2, pos2)) return false;
+
+        // next check to see if it can fit in the spot
+        if (tree1.depth(pos1) + tree2.atDepth(pos2) > maxDepth) return false;
+
+        // check for size, but only if the tree would grow
+        if (maxSize != NO_SIZE_LIMIT && tree1.size[pos1] > tree2.size[pos2] &&
+            tree2.length() - tree2.size[pos2] + tree1.size[pos1] > maxSize)
+            return false;
+
+        // checks done!
+        return true;
+        }
+
+
+    public int produce(final int min,
+        final int max,
+        final int subpopulation,
+        final ArrayList<Individual> inds,
+        final EvolutionState state,
+        final int thread, HashMap<String, Object> misc)
+
+        {
+        int start = inds.size();
+
+        // how many individuals should we make?
+        int n = typicalIndsProduced();
+        if (n < min) n = min;
+        if (n > max) n = max;
+
+        // should we bother?
+        if (!state.random[thread].nextBoolean(likelihood))
+            {
+            // just load from source 0 and clone 'em
+            sources[0].produce(n,n,subpopulation,inds, state,thread,misc);
+            return n;
+            }
+
+        IntBag[] parentparents = null;
+        IntBag[] preserveParents = null;
+        if (misc!=null&&misc.get(KEY_PARENTS) != null)
+            {
+            preserveParents = (IntBag[])misc.get(KEY_PARENTS);
+            parentparents = new IntBag[2];
+            misc.put(KEY_PARENTS, parentparents);
+            }
+
+        GPInitializer initializer = ((GPInitializer)state.initializer);
+
+        for(int q=start;q<n+start; /* no increment */)  // keep on going until we're filled up
+            {
+            parents.clear();
+
+            // grab two individuals from our sources
+            if (sources[0]==sources[1])  // grab from the same source
+                sources[0].produce(2,2,subpopulation, parents, state,thread, misc);
+            else // grab from different sources
+                {
+                sources[0].produce(1,1,subpopulation, parents, state,thread, misc);
+                sources[1].produce(1,1,subpopulation, parents, state,thread, misc);
+                }
+
+            LinearGPIndividual parent1 = (LinearGPIndividual)(parents.get(0));
+            LinearGPIndividual parent2 = (LinearGPIndividual)(parents.get(1));
+            LinearGPSpecies species = (LinearGPSpecies)(parent1.species);
+
+            // are our tree values valid?
+            if (tree1!=TREE_UNFIXED && (tree1<0 || tree1 >= parent1.trees.length))
+                // uh oh
+                state.output.fatal("LinearCrossoverPipeline attempted to fix tree.0 to a value which was out of bounds of the array of the individual's trees.  Check the pipeline's fixed tree values -- they may be negative or greater than the number of trees in an individual");
+            if (tree2!=TREE_UNFIXED && (tree2<0 || tree2 >= parent2.trees.length))
+                // uh oh
+                state.output.fatal("LinearCrossoverPipeline attempted to fix tree.1 to a value which was out of bounds of the array of the individual's trees.  Check the pipeline's fixed tree values -- they may be negative or greater than the number of trees in an individual");
+
+            int t1=0; int t2=0;
+            if (tree1==TREE_UNFIXED || tree2==TREE_UNFIXED)
+                {
+                do
+                    // pick random trees  -- their GPTreeConstraints must be the same
+                    {
+                    if (tree1==TREE_UNFIXED)
+                        if (parent1.trees.length > 1)
+                            t1 = state.random[thread].nextInt(parent1.trees.length);
+                        else t1 = 0;
+                    else t1 = tree1;
+
+                    if (tree2==TREE_UNFIXED)
+                        if (parent2.trees.length>1)
+                            t2 = state.random[thread].nextInt(parent2.trees.length);
+                        else t2 = 0;
+                    else t2 = tree2;
+                    } while (parent1.trees[t1].constraints != parent2.trees[t2].constraints);
+                }
+            else
+                {
+                t1 = tree1;
+                t2 = tree2;
+                // make sure the constraints are okay
+                if (parent1.trees[t1].constraints != parent2.trees[t2].constraints) // uh oh
+                    state.output.fatal("LinearCrossoverPipeline's two tree choices are both specified by the user -- but their GPTreeConstraints are not the same");
+                }
+
+            LinearGPTree treeA = parent1.trees[t1];
+            LinearGPTree treeB = parent2.trees[t2];
+
+            // validity results...
+            boolean res1 = false;
+            boolean res2 = false;
+
+            // prepare the nodeselectors
+            nodeselect1.reset();
+            nodeselect2.reset();
+
+            // pick some nodes
+            int p1 = 0;
+            int p2 = 0;
+
+            for(int x=0;x<numTries;x++)
+                {
+                // pick a node in individual 1
+                p1 = nodeselect1.pickNode(state,thread,treeA);
+
+                // pick a node in individual 2
+                p2 = nodeselect2.pickNode(state,thread,treeB);
+
+                // check for depth and swap-compatibility limits
+                res1 = verifyPoints(initializer,species,treeB,p2,treeA,p1);  // p2 can fill p1's spot -- order is important!
+                if (n-(q-start)<2 || tossSecondParent) res2 = true;
+                else res2 = verifyPoints(initializer,species,treeA,p1,treeB,p2);  // p1 can fill p2's spot -- order is important!
+
+                // did we get something that had both nodes verified?
+                // we reject if EITHER of them is invalid.  This is what lil-gp does.
+                if (res1 && res2) break;
+                }
+
+            // Create the new individuals.  Trees we don't change are shared with the parents.
+            LinearGPIndividual j1 = (LinearGPIndividual)(parent1.clone());
+            if (res1)
+                {
+                j1.trees[t1] = treeA.replace(p1, treeB, p2);
+                j1.evaluated = false;
+                }
+
+            LinearGPIndividual j2 = null;
+            if (n-(q-start)>=2 && !tossSecondParent)
+                {
+                j2 = (LinearGPIndividual)(parent2.clone());
+                if (res2)
+                    {
+                    j2.trees[t2] = treeB.replace(p2, treeA, p1);
+                    j2.evaluated = false;
+                    }
+                }
+
+            // add the individuals to the population
+            inds.add(j1);
+            if (preserveParents != null)
+                {
+                parentparents[0].addAll(parentparents[1]);
+                preserveParents[q] = parentparents[0];
+                }
+            q++;
+            if (q<n+start && !tossSecondParent)
+                {
+                inds.add(j2);
+                if (preserveParents != null)
+                    {
+                    parentparents[0].addAll(parentparents[1]);
+                    preserveParents[q] = parentparents[0];
+                    }
+                q++;
+                }
+            }
+        return n;
+        }
+    }
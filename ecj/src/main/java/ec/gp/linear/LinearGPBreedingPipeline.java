@@ -0,0 +1,49 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp.linear;
+import ec.*;
+
+/*
+ * LinearGPBreedingPipeline.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * A LinearGPBreedingPipeline is a BreedingPipeline which produces only
+ * members of some subclass of LinearGPSpecies.  It plays the same role for
+ * linear GP as GPBreedingPipeline does for ordinary GP.
+ *
+ * @version 1.0
+ */
+
+public abstract class LinearGPBreedingPipeline extends BreedingPipeline
+    {
+    /** Standard parameter for node-selectors associated with a LinearGPBreedingPipeline */
+    public static final String P_NODESELECTOR = "ns";
+
+    /** Standard parameter for tree fixing */
+    public static final String P_TREE = "tree";
+
+    /** Standard value for an unfixed tree */
+    public static final int TREE_UNFIXED = -1;
+
+    /** Returns true if <i>s</i> is a LinearGPSpecies. */
+    public boolean produces(final EvolutionState state,
+        final Population newpop,
+        final int subpopulation,
+        final int thread)
+        {
+        if (!super.produces(state,newpop,subpopulation,thread)) return false;
+
+        // we produce individuals which are owned by subclasses of LinearGPSpecies
+        if (newpop.subpops.get(subpopulation).species instanceof LinearGPSpecies)
+            return true;
+        return false;
+        }
+    }
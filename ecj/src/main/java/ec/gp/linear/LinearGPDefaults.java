@@ -0,0 +1,36 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp.linear;
+import ec.gp.GPDefaults;
+import ec.util.Parameter;
+import ec.*;
+
+/*
+ * LinearGPDefaults.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * A static class that returns the base for "default values" which linear GP
+ * operators use, rather than making the user specify them all on a per-
+ * species basis.
+ *
+ * @version 1.0
+ */
+
+public final class LinearGPDefaults implements DefaultsForm
+    {
+    public static final String P_LINEAR = "linear";
+
+    /** Returns the default base, which is built off of the GPDefaults base. */
+    public static final Parameter base()
+        {
+        return GPDefaults.base().push(P_LINEAR);
+        }
+    }
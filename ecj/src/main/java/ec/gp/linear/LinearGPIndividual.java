@@ -0,0 +1,129 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp.linear;
+import ec.*;
+import ec.gp.*;
+import ec.util.*;
+import java.io.*;
+
+/*
+ * LinearGPIndividual.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * LinearGPIndividual is a GP individual whose trees are LinearGPTrees rather than GPTrees.
+ * Its species must be a LinearGPSpecies, which builds, converts, and reads these individuals.
+ *
+ * <p>Because LinearGPTrees are never modified once built, clone() shares them with the
+ * original individual: it only copies the array of trees and the fitness.
+ *
+ * <p>LinearGPIndividuals print, read, and write themselves in exactly the same format as GPIndividuals,
+ * by converting themselves to a GPIndividual (see LinearGPSpecies.toGPIndividual(...)) and back.
+ * So statistics objects which just print individuals work without change.  Statistics objects
+ * which dig into GPIndividuals' trees, such as KozaShortStatistics, need to convert the individuals first.
+ *
+ <p><b>Default Base</b><br>
+ gp.linear.individual
+ *
+ * @version 1.0
+ */
+
+public class LinearGPIndividual extends Individual
+    {
+    private static final long serialVersionUID = 1;
+
+    public LinearGPTree[] trees;
+
+    public Parameter defaultBase()
+        {
+        return LinearGPDefaults.base().push(P_INDIVIDUAL);
+        }
+
+    public boolean equals(Object ind)
+        {
+        if (ind == null) return false;
+        if (!(this.getClass().equals(ind.getClass()))) return false;
+        LinearGPIndividual i = (LinearGPIndividual)ind;
+        if (trees.length != i.trees.length) return false;
+        for(int x=0;x<trees.length;x++)
+            if (!(trees[x].treeEquals(i.trees[x]))) return false;
+        return true;
+        }
+
+    public int hashCode()
+        {
+        int hash = this.getClass().hashCode();
+        for(int x=0;x<trees.length;x++)
+            hash = (hash << 1 | hash >>> 31 ) ^ trees[x].treeHashCode();
+        return hash;
+        }
+
+    /** Returns the equivalent GPIndividual, via our species. */
+    public GPIndividual toGPIndividual()
+        {
+        return ((LinearGPSpecies)species).toGPIndividual(this);
+        }
+
+    public void printIndividualForHumans(final EvolutionState state, final int log)
+        {
+        toGPIndividual().printIndividualForHumans(state, log);
+        }
+
+    public void printIndividual(final EvolutionState state, final int log)
+        {
+        toGPIndividual().printIndividual(state, log);
+        }
+
+    public void printIndividual(final EvolutionState state, final PrintWriter writer)
+        {
+        toGPIndividual().printIndividual(state, writer);
+        }
+
+    public void writeGenotype(final EvolutionState state,
+        final DataOutput dataOutput) throws IOException
+        {
+        toGPIndividual().writeGenotype(state, dataOutput);
+        }
+
+    public void readGenotype(final EvolutionState state,
+        final DataInput dataInput) throws IOException
+        {
+        LinearGPSpecies s = (LinearGPSpecies)species;
+        GPIndividual ind = ((GPIndividual)(s.i_prototype)).lightClone();
+        ind.readGenotype(state, dataInput);
+        trees = s.toLinear(state, ind).trees;
+        }
+
+    public void parseGenotype(final EvolutionState state,
+        final LineNumberReader reader) throws IOException
+        {
+        LinearGPSpecies s = (LinearGPSpecies)species;
+        GPIndividual ind = ((GPIndividual)(s.i_prototype)).lightClone();
+        ind.parseGenotype(state, reader);
+        trees = s.toLinear(state, ind).trees;
+        }
+
+    /** Clones the individual.  The trees themselves are shared, since they are never modified. */
+    public Object clone()
+        {
+        LinearGPIndividual myobj = (LinearGPIndividual)(super.clone());
+        myobj.trees = trees.clone();
+        return myobj;
+        }
+
+    /** Returns the number of nodes in all of the individual's trees. */
+    public long size()
+        {
+        long size = 0;
+        for(int x=0;x<trees.length;x++)
+            size += trees[x].length();
+        return size;
+        }
+    }
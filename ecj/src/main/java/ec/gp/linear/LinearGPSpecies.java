@@ -0,0 +1,268 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp.linear;
+import ec.*;
+import ec.gp.*;
+import ec.util.*;
+import java.io.*;
+import java.util.*;
+
+/*
+ * LinearGPSpecies.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * LinearGPSpecies is the species of LinearGPIndividuals.  It is set up exactly like a GPSpecies:
+ * its individual prototype (<i>base</i>.<tt>ind</tt>) is an ordinary GPIndividual, which describes
+ * the number of trees, their GPTreeConstraints, and so on, and which is used as a template when
+ * converting to and from GPIndividuals.  Existing GP parameter files can thus be used by just changing the
+ * species and the breeding pipelines (see LinearCrossoverPipeline and LinearMutationPipeline).
+ *
+ * <p>The species numbers the prototype nodes of the function sets of its trees, and these numbers are the
+ * opcodes of LinearGPTrees.  ERCs are not given opcodes, since each ERC carries its own value: they are
+ * held in each tree's pool instead.  Other nodes are assumed to be interchangeable with their prototype,
+ * that is, a node in a GPNode tree is given the opcode of the prototype it nodeEquals(...).
+ *
+ * <p>New individuals are built with the GPTreeConstraints' ordinary GPNodeBuilders, then converted.
+ * Reading individuals likewise reads a GPIndividual, then converts it.
+ *
+ <p><b>Default Base</b><br>
+ gp.species
+ *
+ * @version 1.0
+ */
+
+public class LinearGPSpecies extends GPSpecies
+    {
+    private static final long serialVersionUID = 1;
+
+    /** The prototype node of each opcode. */
+    public GPNode[] opcodes;
+
+    /** Each opcode's prototype as a LinearNodeForm, or null if it is not one. */
+    public LinearNodeForm[] forms;
+
+    // the candidate opcodes for each node class
+    HashMap<Class<?>, int[]> opcodesByClass;
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        super.setup(state,base);
+
+        // gather the (non-ERC) prototypes in our trees' function sets
+        GPInitializer initializer = (GPInitializer)(state.initializer);
+        GPIndividual ind = (GPIndividual)i_prototype;
+        ArrayList<GPNode> nodes = new ArrayList<GPNode>();
+        IdentityHashMap<GPNode, GPNode> seen = new IdentityHashMap<GPNode, GPNode>();
+        for(int x = 0; x < ind.trees.length; x++)
+            {
+            GPFunctionSet set = ind.trees[x].constraints(initializer).functionset;
+            for(int t = 0; t < set.nodes.length; t++)
+                for(int n = 0; n < set.nodes[t].length; n++)
+                    {
+                    GPNode node = set.nodes[t][n];
+                    if (!(node instanceof ERC) && !seen.containsKey(node))
+                        {
+                        seen.put(node, node);
+                        nodes.add(node);
+                        }
+                    }
+            }
+
+        opcodes = nodes.toArray(new GPNode[nodes.size()]);
+        forms = new LinearNodeForm[opcodes.length];
+        opcodesByClass = new HashMap<Class<?>, int[]>();
+        for(int i = 0; i < opcodes.length; i++)
+            {
+            if (opcodes[i] instanceof LinearNodeForm)
+                forms[i] = (LinearNodeForm)opcodes[i];
+            int[] c = opcodesByClass.get(opcodes[i].getClass());
+            c = (c == null ? new int[] { i } : append(c, i));
+            opcodesByClass.put(opcodes[i].getClass(), c);
+            }
+        }
+
+    static int[] append(int[] a, int i)
+        {
+        int[] b = new int[a.length + 1];
+        System.arraycopy(a, 0, b, 0, a.length);
+        b[a.length] = i;
+        return b;
+        }
+
+    /** Returns the node at position <i>pos</i> in the given tree: its prototype, or the ERC itself. */
+    public GPNode node(LinearGPTree tree, int pos)
+        {
+        int c = tree.code[pos];
+        return (c >= 0 ? opcodes[c] : tree.ercs[-1 - c]);
+        }
+
+    /** Returns the type of the slot the node at <i>pos</i> sits in, as in GPNode.parentType(...). */
+    public GPType parentType(GPInitializer initializer, LinearGPTree tree, int pos)
+        {
+        int parent = tree.parent(pos);
+        if (parent == -1)
+            return tree.constraints(initializer).treetype;
+        else return node(tree, parent).constraints(initializer).childtypes[tree.argposition(pos)];
+        }
+
+    /** Returns true if the node at <i>pos</i> in <i>tree</i> could fill the slot of the node at <i>otherPos</i> in <i>other</i>,
+        as in GPNode.swapCompatibleWith(...). */
+    public boolean swapCompatible(GPInitializer initializer, LinearGPTree tree, int pos, LinearGPTree other, int otherPos)
+        {
+        GPType returntype = node(tree, pos).constraints(initializer).returntype;
+        if (returntype == node(other, otherPos).constraints(initializer).returntype)
+            return true;
+        return returntype.compatibleWith(initializer, parentType(initializer, other, otherPos));
+        }
+
+
+
+    /** Builds a new individual with the GPNodeBuilders of its trees, then converts it. */
+    public Individual newIndividual(final EvolutionState state, int thread)
+        {
+        return toLinear(state, (GPIndividual)(super.newIndividual(state, thread)));
+        }
+
+    LinearGPIndividual blankIndividual()
+        {
+        LinearGPIndividual newind = new LinearGPIndividual();
+        newind.trees = new LinearGPTree[((GPIndividual)i_prototype).trees.length];
+        newind.fitness = (Fitness)(f_prototype.clone());
+        newind.evaluated = false;
+        newind.species = this;
+        return newind;
+        }
+
+    public Individual newIndividual(final EvolutionState state,
+        final LineNumberReader reader)
+        throws IOException
+        {
+        LinearGPIndividual newind = blankIndividual();
+        newind.readIndividual(state,reader);
+        return newind;
+        }
+
+    public Individual newIndividual(final EvolutionState state,
+        final DataInput dataInput)
+        throws IOException
+        {
+        LinearGPIndividual newind = blankIndividual();
+        newind.readIndividual(state,dataInput);
+        return newind;
+        }
+
+
+
+    /** Converts a GPIndividual to a LinearGPIndividual.  The fitness is cloned.  The GPIndividual is not modified. */
+    public LinearGPIndividual toLinear(final EvolutionState state, GPIndividual ind)
+        {
+        LinearGPIndividual newind = new LinearGPIndividual();
+        newind.trees = new LinearGPTree[ind.trees.length];
+        for(int x = 0; x < ind.trees.length; x++)
+            newind.trees[x] = toLinear(state, ind.trees[x].child, ind.trees[x].constraints);
+        newind.fitness = (Fitness)(ind.fitness.clone());
+        newind.evaluated = ind.evaluated;
+        newind.species = this;
+        return newind;
+        }
+
+    /** Converts the GPNode tree rooted at <i>root</i> to a LinearGPTree with the given GPTreeConstraints number.
+        The ERCs are light-cloned, so the GPNode tree may be modified afterwards. */
+    public LinearGPTree toLinear(final EvolutionState state, GPNode root, byte constraints)
+        {
+        int len = root.numNodes(GPNode.NODESEARCH_ALL);
+        int[] code = new int[len];
+        int[] size = new int[len];
+        ArrayList<ERC> ercs = new ArrayList<ERC>();
+        flatten(state, root, 0, code, size, ercs);
+        return new LinearGPTree(code, size, ercs.toArray(new ERC[ercs.size()]), constraints);
+        }
+
+    // writes the subtree rooted at node starting at pos, and returns the position just past it
+    int flatten(final EvolutionState state, GPNode node, int pos, int[] code, int[] size, ArrayList<ERC> ercs)
+        {
+        if (node instanceof ERC)
+            {
+            ercs.add((ERC)(node.lightClone()));
+            code[pos] = -ercs.size();    // that is, -1 - (ercs.size() - 1)
+            }
+        else code[pos] = opcode(state, node);
+
+        int end = pos + 1;
+        for(int x = 0; x < node.children.length; x++)
+            end = flatten(state, node.children[x], end, code, size, ercs);
+        size[pos] = end - pos;
+        return end;
+        }
+
+    /** Returns the opcode of the prototype of the given (non-ERC) node. */
+    public int opcode(final EvolutionState state, GPNode node)
+        {
+        int[] c = opcodesByClass.get(node.getClass());
+        if (c != null)
+            for(int i = 0; i < c.length; i++)
+                if (opcodes[c[i]].nodeEquals(node))
+                    return c[i];
+        state.output.fatal("The node " + node.toStringForError() + " is not in any function set of the LinearGPSpecies.");
+        return -1;  // never happens
+        }
+
+    /** Converts a LinearGPIndividual to a GPIndividual built from the species' prototypical GPIndividual.
+        The fitness is cloned.  The LinearGPIndividual is not modified. */
+    public GPIndividual toGPIndividual(LinearGPIndividual ind)
+        {
+        GPIndividual newind = ((GPIndividual)i_prototype).lightClone();
+        for(int x = 0; x < newind.trees.length; x++)
+            {
+            newind.trees[x].child = toGPNode(ind.trees[x]);
+            newind.trees[x].child.parent = newind.trees[x];
+            newind.trees[x].child.argposition = 0;
+            }
+        newind.fitness = (Fitness)(ind.fitness.clone());
+        newind.evaluated = ind.evaluated;
+        newind.species = this;
+        return newind;
+        }
+
+    /** Converts a LinearGPTree to a GPNode tree, whose root's parent and argposition are not set. */
+    public GPNode toGPNode(LinearGPTree tree)
+        {
+        return toGPNode(tree, 0);
+        }
+
+    /** Converts the subtree rooted at <i>pos</i> in a LinearGPTree to a GPNode tree, whose root's parent and argposition are not set. */
+    public GPNode toGPNode(LinearGPTree tree, int pos)
+        {
+        GPNode node = node(tree, pos).lightClone();
+        int c = pos + 1;
+        for(int x = 0; x < node.children.length; x++)
+            {
+            node.children[x] = toGPNode(tree, c);
+            node.children[x].parent = node;
+            node.children[x].argposition = (byte)x;
+            c += tree.size[c];
+            }
+        return node;
+        }
+
+    /** Returns true if every node in the tree is a LinearNodeForm, so that a LinearInterpreter can evaluate it. */
+    public boolean interpretable(LinearGPTree tree)
+        {
+        int[] code = tree.code;
+        for(int i = 0; i < code.length; i++)
+            {
+            if (code[i] >= 0)
+                { if (forms[code[i]] == null) return false; }
+            else if (!(tree.ercs[-1 - code[i]] instanceof LinearNodeForm)) return false;
+            }
+        return true;
+        }
+    }
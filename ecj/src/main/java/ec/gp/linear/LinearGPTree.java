@@ -0,0 +1,230 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp.linear;
+import ec.gp.*;
+import java.util.*;
+
+/*
+ * LinearGPTree.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * LinearGPTree is a GP tree flattened into arrays rather than hung from GPNode objects.
+ * The nodes are laid out in prefix order (a node, then the subtree of its first child, then
+ * the subtree of its second child, and so on), and each node is described by two ints:
+ *
+ * <ul>
+ * <li><b>code[i]</b>&nbsp;&nbsp;&nbsp;If zero or more, the index of the node's prototype in the
+ * LinearGPSpecies' table of opcodes.  If negative, the node is an ERC, namely <tt>ercs[-1 - code[i]]</tt>.
+ * <li><b>size[i]</b>&nbsp;&nbsp;&nbsp;The number of nodes in the subtree rooted at the node, including itself.
+ * Thus the subtree rooted at <i>i</i> occupies positions <i>i</i> through <i>i + size[i] - 1</i>,
+ * a terminal has a size of 1, the first child of <i>i</i> is at <i>i+1</i>, and each further child
+ * immediately follows the subtree of its previous sibling.
+ * </ul>
+ *
+ * <p>The ERCs of the tree are held in the <b>ercs</b> pool, in the order in which they appear in the tree.
+ *
+ * <p>LinearGPTrees are never modified once they have been built: crossover and mutation build new
+ * trees instead (see replace(...)).  This means that individuals may freely share their trees, so that
+ * cloning a LinearGPIndividual copies no nodes at all.  By the same token, the ERCs in the pool must never
+ * be modified in place.
+ *
+ * <p>LinearGPTrees know nothing about what their opcodes mean: see LinearGPSpecies, which converts them
+ * to and from ordinary GPNode trees, and LinearInterpreter, which evaluates them.
+ *
+ * @version 1.0
+ */
+
+public class LinearGPTree implements java.io.Serializable
+    {
+    private static final long serialVersionUID = 1;
+
+    /** The opcode of each node, in prefix order; negative opcodes refer to ERCs. */
+    public final int[] code;
+
+    /** The size of the subtree rooted at each node. */
+    public final int[] size;
+
+    /** The ERCs of the tree, in prefix order. */
+    public final ERC[] ercs;
+
+    /** The tree's GPTreeConstraints, as in GPTree. */
+    public final byte constraints;
+
+    public LinearGPTree(int[] code, int[] size, ERC[] ercs, byte constraints)
+        {
+        this.code = code;
+        this.size = size;
+        this.ercs = ercs;
+        this.constraints = constraints;
+        }
+
+    public final GPTreeConstraints constraints(final GPInitializer initializer)
+        {
+        return initializer.treeConstraints[constraints];
+        }
+
+    /** Returns the number of nodes in the tree. */
+    public int length() { return code.length; }
+
+    /** Returns the number of children of the node at <i>pos</i>. */
+    public int numChildren(int pos)
+        {
+        int n = 0;
+        int end = pos + size[pos];
+        for(int c = pos + 1; c < end; c += size[c])
+            n++;
+        return n;
+        }
+
+    /** Returns the position of the parent of the node at <i>pos</i>, or -1 if <i>pos</i> is the root. */
+    public int parent(int pos)
+        {
+        if (pos == 0) return -1;
+        int p = 0;
+        while(true)
+            {
+            // find the child of p whose subtree contains pos
+            int c = p + 1;
+            while(c + size[c] <= pos) c += size[c];
+            if (c == pos) return p;
+            p = c;
+            }
+        }
+
+    /** Returns which child of its parent the node at <i>pos</i> is, or 0 if it is the root. */
+    public int argposition(int pos)
+        {
+        int p = parent(pos);
+        if (p == -1) return 0;
+        int n = 0;
+        for(int c = p + 1; c < pos; c += size[c])
+            n++;
+        return n;
+        }
+
+    /** Returns the depth of the node at <i>pos</i>, as in GPNode.atDepth(): the root is at depth 0. */
+    public int atDepth(int pos)
+        {
+        int depth = 0;
+        int p = 0;
+        while(p != pos)
+            {
+            int c = p + 1;
+            while(c + size[c] <= pos) c += size[c];
+            p = c;
+            depth++;
+            }
+        return depth;
+        }
+
+    /** Returns the depth of the subtree rooted at <i>pos</i>, as in GPNode.depth(): a terminal has depth 1. */
+    public int depth(int pos)
+        {
+        int d = 0;
+        int end = pos + size[pos];
+        for(int c = pos + 1; c < end; c += size[c])
+            {
+            int cd = depth(c);
+            if (cd > d) d = cd;
+            }
+        return d + 1;
+        }
+
+    /** Returns the number of ERCs before position <i>pos</i>, which is also the index in the pool
+        of the first ERC at or after <i>pos</i>. */
+    public int ercsBefore(int pos)
+        {
+        int n = 0;
+        for(int i = 0; i < pos; i++)
+            if (code[i] < 0) n++;
+        return n;
+        }
+
+    /** Returns a new tree, identical to this one except that the subtree rooted at <i>pos</i> has been
+        replaced with a copy of the subtree rooted at <i>donorPos</i> in <i>donor</i>.  Neither this tree nor
+        the donor is modified.  No check is made that the result is type-correct. */
+    public LinearGPTree replace(int pos, LinearGPTree donor, int donorPos)
+        {
+        int oldSize = size[pos];
+        int newSize = donor.size[donorPos];
+        int delta = newSize - oldSize;
+        int len = code.length + delta;
+        int tail = code.length - (pos + oldSize);
+
+        int[] c = new int[len];
+        int[] s = new int[len];
+
+        // prefix, then the donated subtree, then the rest
+        System.arraycopy(code, 0, c, 0, pos);
+        System.arraycopy(size, 0, s, 0, pos);
+        System.arraycopy(donor.code, donorPos, c, pos, newSize);
+        System.arraycopy(donor.size, donorPos, s, pos, newSize);
+        System.arraycopy(code, pos + oldSize, c, pos + newSize, tail);
+        System.arraycopy(size, pos + oldSize, s, pos + newSize, tail);
+
+        // the ancestors of pos have grown or shrunk by delta
+        if (delta != 0 && pos != 0)
+            {
+            int p = 0;
+            while(p != pos)
+                {
+                s[p] += delta;
+                int ch = p + 1;
+                while(ch + size[ch] <= pos) ch += size[ch];
+                p = ch;
+                }
+            }
+
+        // splice the ERC pools the same way, renumbering the ERC opcodes as we go
+        int before = ercsBefore(pos);
+        int removed = 0;
+        for(int i = pos; i < pos + oldSize; i++)
+            if (code[i] < 0) removed++;
+        int donorBefore = donor.ercsBefore(donorPos);
+        int added = 0;
+        for(int i = donorPos; i < donorPos + newSize; i++)
+            if (donor.code[i] < 0) added++;
+
+        ERC[] e = ercs;
+        if (removed != 0 || added != 0)
+            {
+            e = new ERC[ercs.length - removed + added];
+            System.arraycopy(ercs, 0, e, 0, before);
+            System.arraycopy(donor.ercs, donorBefore, e, before, added);
+            System.arraycopy(ercs, before + removed, e, before + added, ercs.length - before - removed);
+            for(int i = pos; i < pos + newSize; i++)
+                if (c[i] < 0) c[i] += donorBefore - before;   // -1 - k  becomes  -1 - (k - donorBefore + before)
+            if (added != removed)
+                for(int i = pos + newSize; i < len; i++)
+                    if (c[i] < 0) c[i] -= added - removed;
+            }
+
+        return new LinearGPTree(c, s, e, constraints);
+        }
+
+    /** Returns true if the two trees have the same nodes and equal ERCs. */
+    public boolean treeEquals(LinearGPTree tree)
+        {
+        if (constraints != tree.constraints) return false;
+        if (!Arrays.equals(code, tree.code)) return false;   // the sizes follow from the codes
+        for(int i = 0; i < ercs.length; i++)
+            if (!ercs[i].nodeEquals(tree.ercs[i])) return false;
+        return true;
+        }
+
+    public int treeHashCode()
+        {
+        int hash = Arrays.hashCode(code);
+        for(int i = 0; i < ercs.length; i++)
+            hash = (hash << 1 | hash >>> 31) ^ ercs[i].nodeHashCode();
+        return hash;
+        }
+    }
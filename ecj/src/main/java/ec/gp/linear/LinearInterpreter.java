@@ -0,0 +1,53 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp.linear;
+import ec.gp.*;
+
+/*
+ * LinearInterpreter.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * LinearInterpreter evaluates real-valued LinearGPTrees directly on their arrays, without
+ * converting them to GPNode trees.  Every node in the tree must be a LinearNodeForm (see
+ * LinearGPSpecies.interpretable(...)).  The interpreter walks the tree from its last node back to
+ * its first, so each node finds its children's results already on the stack: there is no recursion,
+ * no GPData, and no pointer-chasing, just a tight loop over two arrays.
+ *
+ * <p>A LinearInterpreter holds its own stack, which grows as necessary, so it is not threadsafe:
+ * each thread (typically, each clone of the Problem) needs its own.
+ *
+ * @version 1.0
+ */
+
+public class LinearInterpreter
+    {
+    double[] stack = new double[64];
+
+    /** Evaluates the tree on the given variables and returns its result. */
+    public double eval(LinearGPSpecies species, LinearGPTree tree, double[] variables)
+        {
+        int[] code = tree.code;
+        if (stack.length < code.length)    // we never need more than one slot per node
+            stack = new double[code.length];
+
+        LinearNodeForm[] forms = species.forms;
+        ERC[] ercs = tree.ercs;
+        double[] stack = this.stack;
+        int top = 0;
+        for(int i = code.length - 1; i >= 0; i--)
+            {
+            int c = code[i];
+            LinearNodeForm form = (c >= 0 ? forms[c] : (LinearNodeForm)(ercs[-1 - c]));
+            top = form.evalLinear(stack, top, variables);
+            }
+        return stack[0];
+        }
+    }
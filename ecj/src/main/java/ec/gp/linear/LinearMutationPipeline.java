@@ -0,0 +1,294 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp.linear;
+import ec.*;
+import ec.util.*;
+import ec.gp.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/*
+ * LinearMutationPipeline.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * LinearMutationPipeline performs strongly-typed Koza-style subtree mutation on LinearGPIndividuals.
+ * It behaves exactly like ec.gp.koza.MutationPipeline, with the same parameters: it picks a node with
+ * its LinearNodeSelector, asks its GPNodeBuilder for a new subtree of the right type, and if the
+ * result is within the depth and size limits, it replaces the node's subtree with the new one.  The new subtree
+ * is built as an ordinary GPNode tree (the builders know no other kind), then flattened and spliced into a
+ * copy of the individual's tree.  The builder is given a null parent for the new subtree.
+ *
+ <p><b>Typical Number of Individuals Produced Per <tt>produce(...)</tt> call</b><br>
+ ...as many as the child produces
+
+ <p><b>Number of Sources</b><br>
+ 1
+
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>tries</tt><br>
+ <font size=-1>int &gt;= 1</font></td>
+ <td valign=top>(number of times to try finding valid pairs of nodes)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>maxdepth</tt><br>
+ <font size=-1>int &gt;= 1</font></td>
+ <td valign=top>(maximum valid depth of a mutated tree)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>maxsize</tt><br>
+ <font size=-1>int &gt;= 1</font></td>
+ <td valign=top>(maximum valid size, in nodes, of a mutated tree)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>ns</tt>.0<br>
+ <font size=-1>classname, inherits or = LinearNodeSelector</font></td>
+ <td valign=top>(LinearNodeSelector for tree)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>build</tt>.0<br>
+ <font size=-1>classname, inherits and != GPNodeBuilder</font></td>
+ <td valign=top>(GPNodeBuilder for new subtree)</td></tr>
+
+ <tr><td valign=top><tt>equal</tt><br>
+ <font size=-1>bool = <tt>true</tt> or <tt>false</tt> (default)</td>
+ <td valign=top>(do we attempt to replace the subtree with a new one of roughly the same size?)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>tree.0</tt><br>
+ <font size=-1>0 &lt; int &lt; (num trees in individuals), if exists</font></td>
+ <td valign=top>(tree chosen for mutation; if parameter doesn't exist, tree is picked at random)</td></tr>
+
+ </table>
+
+ <p><b>Default Base</b><br>
+ gp.linear.mutate
+
+ <p><b>Parameter bases</b><br>
+ <table>
+
+ <tr><td valign=top><i>base</i>.<tt>ns</tt><br>
+ <td>nodeselect</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>build</tt><br>
+ <td>builder</td></tr>
+
+ </table>
+
+ * @version 1.0
+ */
+
+public class LinearMutationPipeline extends LinearGPBreedingPipeline
+    {
+    private static final long serialVersionUID = 1;
+
+    public static final String P_NUM_TRIES = "tries";
+    public static final String P_MAXDEPTH = "maxdepth";
+    public static final String P_MAXSIZE = "maxsize";
+    public static final String P_MUTATION = "mutate";
+    public static final String P_BUILDER = "build";
+    public static final String P_EQUALSIZE = "equal";
+    public static final int INDS_PRODUCED = 1;
+    public static final int NUM_SOURCES = 1;
+    public static final int NO_SIZE_LIMIT = -1;
+
+    /** How the pipeline chooses a subtree to mutate */
+    public LinearNodeSelector nodeselect;
+
+    /** How the pipeline builds a new subtree */
+    public GPNodeBuilder builder;
+
+    /** The number of times the pipeline tries to build a valid mutated
+        tree before it gives up and just passes on the original */
+    int numTries;
+
+    /** The maximum depth of a mutated tree */
+    int maxDepth;
+
+    /** The largest tree (measured as a nodecount) the pipeline is allowed to form. */
+    public int maxSize;
+
+    /** Do we try to replace the subtree with another of the same size? */
+    boolean equalSize;
+
+    /** Is our tree fixed?  If not, this is -1 */
+    int tree;
+
+    public Parameter defaultBase() { return LinearGPDefaults.base().push(P_MUTATION); }
+
+    public int numSources() { return NUM_SOURCES; }
+
+    public Object clone()
+        {
+        LinearMutationPipeline c = (LinearMutationPipeline)(super.clone());
+
+        // deep-cloned stuff
+        c.nodeselect = (LinearNodeSelector)(nodeselect.clone());
+
+        return c;
+        }
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        super.setup(state,base);
+
+        Parameter def = defaultBase();
+        Parameter p = base.push(P_NODESELECTOR).push(""+0);
+        Parameter d = def.push(P_NODESELECTOR).push(""+0);
+
+        nodeselect = (LinearNodeSelector)
+            (state.parameters.getInstanceForParameterEq(
+                p,d, LinearNodeSelector.class));
+        nodeselect.setup(state,p);
+
+        p = base.push(P_BUILDER).push(""+0);
+        d = def.push(P_BUILDER).push(""+0);
+
+        builder = (GPNodeBuilder)
+            (state.parameters.getInstanceForParameter(
+                p,d, GPNodeBuilder.class));
+        builder.setup(state,p);
+
+        numTries = state.parameters.getInt(
+            base.push(P_NUM_TRIES),def.push(P_NUM_TRIES),1);
+        if (numTries ==0)
+            state.output.fatal("LinearMutationPipeline has an invalid number of tries (it must be >= 1).",base.push(P_NUM_TRIES),def.push(P_NUM_TRIES));
+
+        maxDepth = state.parameters.getInt(
+            base.push(P_MAXDEPTH),def.push(P_MAXDEPTH),1);
+        if (maxDepth==0)
+            state.output.fatal("The LinearMutationPipeline " + base + "has an invalid maximum depth (it must be >= 1).",base.push(P_MAXDEPTH),def.push(P_MAXDEPTH));
+
+        maxSize = NO_SIZE_LIMIT;
+        if (state.parameters.exists(base.push(P_MAXSIZE), def.push(P_MAXSIZE)))
+            {
+            maxSize = state.parameters.getInt(base.push(P_MAXSIZE), def.push(P_MAXSIZE), 1);
+            if (maxSize < 1)
+                state.output.fatal("Maximum tree size, if defined, must be >= 1");
+            }
+
+        equalSize = state.parameters.getBoolean(
+            base.push(P_EQUALSIZE),def.push(P_EQUALSIZE),false);
+
+        tree = TREE_UNFIXED;
+        if (state.parameters.exists(base.push(P_TREE).push(""+0),
+                def.push(P_TREE).push(""+0)))
+            {
+            tree = state.parameters.getInt(base.push(P_TREE).push(""+0),
+                def.push(P_TREE).push(""+0),0);
+            if (tree==-1)
+                state.output.fatal("Tree fixed value, if defined, must be >= 0");
+            }
+        }
+
+    /** Returns true if the new subtree <i>newSubtree</i> can feasibly replace the subtree at <i>pos</i> in <i>tree</i>. */
+    public boolean verifyPoints(GPNode newSubtree, LinearGPTree tree, int pos)
+        {
+        // We know they're swap-compatible since we generated the subtree
+        // to be exactly that.  So don't bother.
+
+        // next check to see if it can fit in the spot
+        if (newSubtree.depth() + tree.atDepth(pos) > maxDepth) return false;
+
+        // check for size, but only if the tree would grow
+        if (maxSize != NO_SIZE_LIMIT)
+            {
+            int newSize = newSubtree.numNodes(GPNode.NODESEARCH_ALL);
+            if (newSize > tree.size[pos] && tree.length() - tree.size[pos] + newSize > maxSize)
+                return false;
+            }
+
+        // checks done!
+        return true;
+        }
+
+    public int produce(final int min,
+        final int max,
+        final int subpopulation,
+        final ArrayList<Individual> inds,
+        final EvolutionState state,
+        final int thread, HashMap<String, Object> misc)
+        {
+        int start = inds.size();
+
+        // grab individuals from our source and stick 'em right into inds.
+        // we'll modify them from there
+        int n = sources[0].produce(min,max,subpopulation,inds, state,thread, misc);
+
+        // should we bother?
+        if (!state.random[thread].nextBoolean(likelihood))
+            {
+            return n;
+            }
+
+        GPInitializer initializer = ((GPInitializer)state.initializer);
+
+        // now let's mutate 'em
+        for(int q=start; q < n+start; q++)
+            {
+            LinearGPIndividual i = (LinearGPIndividual)inds.get(q);
+            LinearGPSpecies species = (LinearGPSpecies)(i.species);
+
+            if (tree!=TREE_UNFIXED && (tree<0 || tree >= i.trees.length))
+                // uh oh
+                state.output.fatal("LinearMutationPipeline attempted to fix tree.0 to a value which was out of bounds of the array of the individual's trees.  Check the pipeline's fixed tree values -- they may be negative or greater than the number of trees in an individual");
+
+            int t;
+            // pick random tree
+            if (tree==TREE_UNFIXED)
+                if (i.trees.length>1) t = state.random[thread].nextInt(i.trees.length);
+                else t = 0;
+            else t = tree;
+
+            LinearGPTree linear = i.trees[t];
+
+            // validity result...
+            boolean res = false;
+
+            // prepare the nodeselector
+            nodeselect.reset();
+
+            // pick a node
+            int p1 = 0;             // the node we pick
+            GPNode p2 = null;       // its replacement
+
+            for(int x=0;x<numTries;x++)
+                {
+                // pick a node in individual 1
+                p1 = nodeselect.pickNode(state,thread,linear);
+
+                // generate a tree swap-compatible with p1's position
+                int size = GPNodeBuilder.NOSIZEGIVEN;
+                if (equalSize) size = linear.size[p1];
+
+                p2 = builder.newRootedTree(state,
+                    species.parentType(initializer, linear, p1),
+                    thread,
+                    null,
+                    linear.constraints(initializer).functionset,
+                    linear.argposition(p1),
+                    size);
+
+                // check for depth and size limits
+                res = verifyPoints(p2,linear,p1);
+
+                // did we get something that had both nodes verified?
+                if (res) break;
+                }
+
+            if (res)  // we're in business
+                {
+                i.trees[t] = linear.replace(p1, species.toLinear(state, p2, linear.constraints), 0);
+                i.evaluated = false;  // we've modified it
+                }
+
+            // add the new individual, replacing its previous source
+            inds.set(q, i);
+            }
+        return n;
+        }
+    }
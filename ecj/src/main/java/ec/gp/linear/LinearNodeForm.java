@@ -0,0 +1,49 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp.linear;
+
+/*
+ * LinearNodeForm.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * LinearNodeForm is implemented by real-valued GPNodes which a LinearInterpreter can run directly
+ * on a LinearGPTree, without building GPNode trees or GPData objects.  The interpreter walks the tree
+ * backwards, from its last node to its first, using a stack of doubles.  By the time a node is reached,
+ * the results of its children have been pushed on the stack, with the result of its first child on top,
+ * the result of its second child just below that, and so on.  The node pops these results, pushes its
+ * own result, and returns the new top of the stack.
+ *
+ * <p>For example, a two-argument Add would do:
+ *
+ * <pre><tt>
+ * stack[top - 2] = stack[top - 1] + stack[top - 2];
+ * return top - 1;
+ * </tt></pre>
+ *
+ * <p>... and a terminal returning the first variable would do:
+ *
+ * <pre><tt>
+ * stack[top] = variables[0];
+ * return top + 1;
+ * </tt></pre>
+ *
+ * <p>Prototype nodes are shared by every tree, so evalLinear(...) must not depend on anything but
+ * the stack, the variables, and (for ERCs, which are not shared) the node's own value.
+ *
+ * @version 1.0
+ */
+
+public interface LinearNodeForm
+    {
+    /** Pops this node's children's results from the stack, pushes this node's result, and returns the new top,
+        that is, the index of the first empty slot.  The variables are those of the fitness case being evaluated. */
+    public int evalLinear(double[] stack, int top, double[] variables);
+    }
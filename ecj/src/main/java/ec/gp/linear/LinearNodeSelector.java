@@ -0,0 +1,185 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.gp.linear;
+import ec.*;
+import ec.util.*;
+
+/*
+ * LinearNodeSelector.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * LinearNodeSelector picks nodes in LinearGPTrees just as KozaNodeSelector picks them in GPTrees,
+ * and with the same parameters: with certain probabilities it picks a random terminal, a random
+ * nonterminal (if there is one, else the root), the root, or else any random node.  Nodes are counted
+ * in prefix order, the same order as GPNode.nodeInPosition(...) uses, so given the same random numbers
+ * the two selectors pick the same nodes.  Since a node is a terminal exactly when its subtree has size 1,
+ * this only involves a scan over the tree's size array.
+ *
+ * <p>As the selector picks a node, it counts the terminals and nonterminals in the tree.  Thus
+ * if you want to reuse this selector on another tree, you need to call reset() first.
+ *
+
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>terminals</tt><br>
+ <font size=-1>0.0 &lt;= double &lt;= 1.0,<br>
+ nonterminals + terminals + root <= 1.0</font></td>
+ <td valign=top>(the probability we must pick a terminal)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>nonterminals</tt><br>
+ <font size=-1>0.0 &lt;= double &lt;= 1.0,<br>
+ nonterminals + terminals + root <= 1.0</font></td>
+ <td valign=top>(the probability we must pick a nonterminal if possible)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>root</tt><br>
+ <font size=-1>0.0 &lt;= double &lt;= 1.0,<br>
+ nonterminals + terminals + root <= 1.0</font></td>
+ <td valign=top>(the probability we must pick the root)</td></tr>
+
+ </table>
+
+ <p><b>DefaultBase</b><br>
+ gp.linear.ns
+
+ * @version 1.0
+ */
+
+public class LinearNodeSelector implements Prototype
+    {
+    private static final long serialVersionUID = 1;
+
+    public static final String P_NODESELECTOR = "ns";
+    public static final String P_TERMINAL_PROBABILITY = "terminals";
+    public static final String P_NONTERMINAL_PROBABILITY = "nonterminals";
+    public static final String P_ROOT_PROBABILITY = "root";
+
+    /** The probability the root must be chosen */
+    public double rootProbability;
+
+    /** The probability a terminal must be chosen */
+    public double terminalProbability;
+
+    /** The probability a nonterminal must be chosen. */
+    public double nonterminalProbability;
+
+    /** The number of nonterminals in the tree, -1 if unknown. */
+    public int nonterminals;
+    /** The number of terminals in the tree, -1 if unknown. */
+    public int terminals;
+
+    public Parameter defaultBase()
+        {
+        return LinearGPDefaults.base().push(P_NODESELECTOR);
+        }
+
+    public LinearNodeSelector()
+        {
+        reset();
+        }
+
+    public Object clone()
+        {
+        try
+            {
+            LinearNodeSelector s = (LinearNodeSelector)(super.clone());
+            s.reset();
+            return s;
+            }
+        catch (CloneNotSupportedException e)
+            { throw new InternalError(); } // never happens
+        }
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        Parameter def = defaultBase();
+
+        terminalProbability = state.parameters.getDoubleWithMax(
+            base.push(P_TERMINAL_PROBABILITY),
+            def.push(P_TERMINAL_PROBABILITY), 0.0, 1.0);
+        if (terminalProbability==-1.0)
+            state.output.fatal("Invalid terminal probability for LinearNodeSelector ",
+                base.push(P_TERMINAL_PROBABILITY),
+                def.push(P_TERMINAL_PROBABILITY));
+
+        nonterminalProbability = state.parameters.getDoubleWithMax(
+            base.push(P_NONTERMINAL_PROBABILITY),
+            def.push(P_NONTERMINAL_PROBABILITY),0.0, 1.0);
+        if (nonterminalProbability==-1.0)
+            state.output.fatal("Invalid nonterminal probability for LinearNodeSelector ",
+                base.push(P_NONTERMINAL_PROBABILITY),
+                def.push(P_NONTERMINAL_PROBABILITY));
+
+        rootProbability = state.parameters.getDoubleWithMax(
+            base.push(P_ROOT_PROBABILITY),
+            def.push(P_ROOT_PROBABILITY),0.0, 1.0);
+        if (rootProbability==-1.0)
+            state.output.fatal("Invalid root probability for LinearNodeSelector ",
+                base.push(P_ROOT_PROBABILITY),
+                def.push(P_ROOT_PROBABILITY));
+
+        if (rootProbability+terminalProbability+nonterminalProbability > 1.0f)
+            state.output.fatal("The terminal, nonterminal, and root for LinearNodeSelector" + base + " may not sum to more than 1.0. (" + terminalProbability + " " + nonterminalProbability + " " + rootProbability + ")",base);
+
+        reset();
+        }
+
+    /** Forgets the counts of the last tree. */
+    public void reset()
+        {
+        nonterminals = terminals = -1;
+        }
+
+    /** Returns the position of a node in the given tree. */
+    public int pickNode(final EvolutionState s, final int thread, final LinearGPTree tree)
+        {
+        double rnd = s.random[thread].nextDouble();
+        int[] size = tree.size;
+
+        if (rnd > nonterminalProbability + terminalProbability + rootProbability)  // pick anyone
+            {
+            return s.random[thread].nextInt(size.length);
+            }
+        else if (rnd > nonterminalProbability + terminalProbability)  // pick the root
+            {
+            return 0;
+            }
+        else if (rnd > nonterminalProbability)  // pick terminals
+            {
+            if (terminals==-1) count(size);
+            return position(size, s.random[thread].nextInt(terminals), true);
+            }
+        else  // pick nonterminals if you can
+            {
+            if (nonterminals==-1) count(size);
+            if (nonterminals > 0) // there are some nonterminals
+                return position(size, s.random[thread].nextInt(nonterminals), false);
+            else // there ARE no nonterminals!  It must be the root node
+                return 0;
+            }
+        }
+
+    void count(int[] size)
+        {
+        terminals = 0;
+        for(int i = 0; i < size.length; i++)
+            if (size[i] == 1) terminals++;
+        nonterminals = size.length - terminals;
+        }
+
+    // returns the position of the p'th terminal or nonterminal
+    int position(int[] size, int p, boolean terminal)
+        {
+        for(int i = 0; i < size.length; i++)
+            if ((size[i] == 1) == terminal && p-- == 0)
+                return i;
+        return -1;  // never happens
+        }
+    }
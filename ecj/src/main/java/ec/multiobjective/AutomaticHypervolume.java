@@ -0,0 +1,78 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+import ec.*;
+import ec.util.*;
+
+/*
+ * AutomaticHypervolume.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * AutomaticHypervolume picks a hypervolume algorithm by the number of objectives: TwoDimensionalHypervolume
+ * for two, ThreeDimensionalHypervolume for three, WFGHypervolume for up to <i>max-exact-objectives</i>, and
+ * a MonteCarloHypervolume, set up from the same parameter base, beyond that.  Exclusive contributions
+ * are picked the same way.  This is the default for HypervolumeStatistics.
+ *
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>max-exact-objectives</tt><br>
+ <font size=-1>int &gt;= 1 (default = 6)</font></td>
+ <td valign=top>(the largest number of objectives for which the hypervolume is computed exactly)</td></tr>
+ </table>
+ *
+ * @version 1.0
+ */
+
+public class AutomaticHypervolume extends Hypervolume
+    {
+    private static final long serialVersionUID = 1;
+
+    public static final String P_MAX_EXACT_OBJECTIVES = "max-exact-objectives";
+
+    public int maxExactObjectives = 6;
+    public Hypervolume twoDimensional = new TwoDimensionalHypervolume();
+    public Hypervolume threeDimensional = new ThreeDimensionalHypervolume();
+    public Hypervolume exact = new WFGHypervolume();
+    public Hypervolume approximate = new MonteCarloHypervolume();
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        super.setup(state, base);
+        maxExactObjectives = state.parameters.getIntWithDefault(base.push(P_MAX_EXACT_OBJECTIVES), null, maxExactObjectives);
+        if (maxExactObjectives < 1)
+            state.output.fatal("The maximum number of objectives for exact hypervolumes must be >= 1.", base.push(P_MAX_EXACT_OBJECTIVES));
+        approximate.setup(state, base);
+        }
+
+    /** Returns the algorithm used for the given number of objectives. */
+    public Hypervolume choose(int m)
+        {
+        if (m > maxExactObjectives) return approximate;
+        else if (m == 2) return twoDimensional;
+        else if (m == 3) return threeDimensional;
+        else return exact;
+        }
+
+    public double volume(double[] points, int n, int m, double[] reference)
+        {
+        return choose(m).volume(points, n, m, reference);
+        }
+
+    public double contribution(double[] points, int n, int m, double[] reference, int i)
+        {
+        return choose(m).contribution(points, n, m, reference, i);
+        }
+
+    public double[] contributions(double[] points, int n, int m, double[] reference)
+        {
+        return choose(m).contributions(points, n, m, reference);
+        }
+    }
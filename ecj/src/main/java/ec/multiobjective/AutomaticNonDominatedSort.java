@@ -0,0 +1,48 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+
+/*
+ * AutomaticNonDominatedSort.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * AutomaticNonDominatedSort picks a sorting algorithm suited to the problem at hand: TwoObjectiveNonDominatedSort
+ * for one or two objectives, and otherwise EfficientNonDominatedSort for populations of moderate size and
+ * DivideAndConquerNonDominatedSort for large ones.  This is the default sort used by MultiObjectiveFitness and
+ * the NSGA breeders.  The threshold comes from ec.multiobjective.NonDominatedSortBenchmark.
+ *
+ * @version 1.0
+ */
+
+public class AutomaticNonDominatedSort extends NonDominatedSort
+    {
+    private static final long serialVersionUID = 1;
+
+    /** With more than two objectives and at least this many rows, DivideAndConquerNonDominatedSort is used. */
+    public static final int DIVIDE_AND_CONQUER_SIZE = 20000;
+
+    static final NonDominatedSort TWO_OBJECTIVE = new TwoObjectiveNonDominatedSort();
+    static final NonDominatedSort DIVIDE_AND_CONQUER = new DivideAndConquerNonDominatedSort();
+    static final NonDominatedSort EFFICIENT = new EfficientNonDominatedSort();
+
+    /** Returns the sort used for the given number of rows and objectives. */
+    public static NonDominatedSort choose(int numRows, int numObjectives)
+        {
+        if (numObjectives <= 2) return TWO_OBJECTIVE;
+        else if (numRows >= DIVIDE_AND_CONQUER_SIZE) return DIVIDE_AND_CONQUER;
+        else return EFFICIENT;
+        }
+
+    public int sort(double[] objectives, int numObjectives, int[] ranks)
+        {
+        return choose(ranks.length, numObjectives).sort(objectives, numObjectives, ranks);
+        }
+    }
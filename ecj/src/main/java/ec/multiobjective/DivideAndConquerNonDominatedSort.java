@@ -0,0 +1,353 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+import java.util.*;
+
+/*
+ * DivideAndConquerNonDominatedSort.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * DivideAndConquerNonDominatedSort implements Jensen's divide-and-conquer non-dominated sort, in the general form
+ * given in
+ *
+ * <p>Mikkel T. Jensen, "Reducing the Run-Time Complexity of Multiobjective EAs: The NSGA-II and Other Algorithms,"
+ * IEEE Transactions on Evolutionary Computation, 7 (5), October, 2003.
+ *
+ * <p>F&eacute;lix-Antoine Fortin, Simon Grenier, and Marc Parizeau, "Generalizing the Improved Run-Time Complexity
+ * Algorithm for Non-Dominated Sorting," in GECCO 2013.
+ *
+ * <p>Identical rows are collapsed into one, and the remainder sorted lexicographically.  Then the rows are split
+ * at the median of their last objective; the lower half is ranked, its ranks are pushed into the upper half
+ * (a problem with one objective fewer, since the lower half can no longer be worse in the last objective), and
+ * then the upper half is ranked.  Two-objective subproblems are finished off with a sweep, and small subproblems
+ * by brute force.  Rows equal to the median are kept in a group of their own, as in the Buzdalov and Shalyto
+ * variant of the algorithm, which keeps the recursion balanced when objectives take only a few distinct values.
+ *
+ * <p>This runs in O(n log<sup>m-1</sup> n) time, which makes it the algorithm of choice for large populations
+ * with a moderate number of objectives.  With many objectives EfficientNonDominatedSort is usually faster.
+ *
+ * @version 1.0
+ */
+
+public class DivideAndConquerNonDominatedSort extends NonDominatedSort
+    {
+    private static final long serialVersionUID = 1;
+
+    /** Subproblems of at most this many rows are ranked by brute force. */
+    public static final int BRUTE_FORCE_SIZE = 24;
+
+    public int sort(double[] objectives, int numObjectives, int[] ranks)
+        {
+        int n = ranks.length;
+        if (n == 0) return 0;
+        int m = numObjectives;
+        if (m < 2)
+            return new TwoObjectiveNonDominatedSort().sort(objectives, numObjectives, ranks);
+        int[] order = lexicographicOrder(objectives, m, n);
+
+        // collapse identical rows into the first of them
+        int[] rows = new int[n];
+        int[] twin = new int[n];
+        int size = 0;
+        for(int i = 0; i < n; i++)
+            {
+            int p = order[i];
+            if (size > 0 && compare(objectives, m, rows[size - 1], p) == 0)
+                twin[p] = rows[size - 1];
+            else
+                {
+                twin[p] = p;
+                rows[size++] = p;
+                }
+            }
+
+        Arrays.fill(ranks, 0);
+        new Sorter(objectives, m, ranks, n).sortA(rows, size, m - 1);
+
+        for(int i = 0; i < n; i++)
+            ranks[i] = ranks[twin[i]];
+        return numRanks(ranks);
+        }
+
+    /** The working state of a single sort.  Row sets are passed around as arrays of row indices in lexicographic
+        order, along with the number of indices actually used. */
+    static class Sorter
+        {
+        double[] objectives;
+        int m;
+        int[] ranks;
+
+        // scratch space for medians and sweeps, which never nest
+        double[] values;
+        int[] tree;
+
+        Sorter(double[] objectives, int m, int[] ranks, int n)
+            {
+            this.objectives = objectives;
+            this.m = m;
+            this.ranks = ranks;
+            values = new double[n];
+            tree = new int[n + 1];
+            }
+
+        double get(int row, int k) { return objectives[row * m + k]; }
+
+        // Ranks the rows in s, all of which agree in objectives above k, by their objectives 0 ... k.
+        // Ranks may already have been raised by rows outside s.
+        void sortA(int[] s, int size, int k)
+            {
+            if (size < 2) return;
+            if (size <= BRUTE_FORCE_SIZE) { bruteA(s, size, k); return; }
+            if (k == 1) { sweepA(s, size); return; }
+
+            double pivot = median(s, size, k);
+            int[] lower = filter(s, size, k, pivot, -1);
+            int[] equal = filter(s, size, k, pivot, 0);
+            int[] upper = filter(s, size, k, pivot, 1);
+            if (equal.length == size)  // everyone ties in objective k
+                { sortA(s, size, k - 1); return; }
+
+            sortA(lower, lower.length, k);
+            sortB(lower, lower.length, equal, equal.length, k - 1);
+            sortA(equal, equal.length, k - 1);
+            if (upper.length > 0)
+                {
+                int[] notUpper = filter(s, size, k, pivot, 2);
+                sortB(notUpper, notUpper.length, upper, upper.length, k - 1);
+                sortA(upper, upper.length, k);
+                }
+            }
+
+        // Raises the ranks of the rows in h which are dominated by rows in l, whose ranks are final.  Every
+        // row in l is no worse than every row in h in objectives above k, so only objectives 0 ... k are considered.
+        void sortB(int[] l, int nl, int[] h, int nh, int k)
+            {
+            if (nl == 0 || nh == 0) return;
+            if (nl == 1 || nh == 1 || (long)nl * nh <= BRUTE_FORCE_SIZE * BRUTE_FORCE_SIZE) { bruteB(l, nl, h, nh, k); return; }
+            if (k == 1) { sweepB(l, nl, h, nh); return; }
+
+            double lmin = Double.POSITIVE_INFINITY, lmax = Double.NEGATIVE_INFINITY;
+            for(int i = 0; i < nl; i++)
+                { double v = get(l[i], k); if (v < lmin) lmin = v; if (v > lmax) lmax = v; }
+            double hmin = Double.POSITIVE_INFINITY, hmax = Double.NEGATIVE_INFINITY;
+            for(int i = 0; i < nh; i++)
+                { double v = get(h[i], k); if (v < hmin) hmin = v; if (v > hmax) hmax = v; }
+
+            if (lmax <= hmin)  // objective k no longer matters
+                { sortB(l, nl, h, nh, k - 1); return; }
+            if (lmin > hmax)  // no row in l can dominate a row in h
+                return;
+
+            // split both at the median of their union
+            for(int i = 0; i < nl; i++) values[i] = get(l[i], k);
+            for(int i = 0; i < nh; i++) values[nl + i] = get(h[i], k);
+            double pivot = select(values, nl + nh, (nl + nh) / 2);
+
+            int[] lowerL = filter(l, nl, k, pivot, -1);
+            int[] lowerH = filter(h, nh, k, pivot, -1);
+            sortB(lowerL, lowerL.length, lowerH, lowerH.length, k);
+            int[] notUpperL = filter(l, nl, k, pivot, 2);
+            int[] notLowerH = filter(h, nh, k, pivot, 3);
+            sortB(notUpperL, notUpperL.length, notLowerH, notLowerH.length, k - 1);
+            int[] upperL = filter(l, nl, k, pivot, 1);
+            int[] upperH = filter(h, nh, k, pivot, 1);
+            sortB(upperL, upperL.length, upperH, upperH.length, k);
+            }
+
+        void bruteA(int[] s, int size, int k)
+            {
+            for(int j = 1; j < size; j++)
+                {
+                int q = s[j];
+                int r = ranks[q];
+                for(int i = 0; i < j; i++)
+                    {
+                    int p = s[i];
+                    if (ranks[p] >= r && noWorse(p, q, 1, k))  // rows before q can't be worse in objective 0
+                        r = ranks[p] + 1;
+                    }
+                ranks[q] = r;
+                }
+            }
+
+        void bruteB(int[] l, int nl, int[] h, int nh, int k)
+            {
+            for(int j = 0; j < nh; j++)
+                {
+                int q = h[j];
+                int r = ranks[q];
+                for(int i = 0; i < nl; i++)
+                    {
+                    int p = l[i];
+                    if (ranks[p] >= r && noWorse(p, q, 0, k))
+                        r = ranks[p] + 1;
+                    }
+                ranks[q] = r;
+                }
+            }
+
+        // is row p no worse than row q in objectives from ... to inclusive?
+        boolean noWorse(int p, int q, int from, int to)
+            {
+            int ip = p * m;
+            int iq = q * m;
+            for(int j = from; j <= to; j++)
+                if (objectives[ip + j] > objectives[iq + j]) return false;
+            return true;
+            }
+
+        // Two objectives: s is sorted by objective 0 then 1, so each row is dominated by exactly those rows
+        // before it which are no worse in objective 1.  A Fenwick tree over objective 1 gives the highest rank
+        // among them.
+        void sweepA(int[] s, int size)
+            {
+            int u = distinctValues(s, size);
+            Arrays.fill(tree, 0, u + 1, -1);
+            for(int i = 0; i < size; i++)
+                {
+                int q = s[i];
+                int slot = slot(get(q, 1), u);
+                int r = query(slot) + 1;
+                if (r > ranks[q]) ranks[q] = r;
+                update(slot, ranks[q], u);
+                }
+            }
+
+        // Two objectives: merges l and h by objective 0 then 1, taking rows in l first on ties, so that
+        // each row in h is dominated by exactly those rows in l before it which are no worse in objective 1.
+        void sweepB(int[] l, int nl, int[] h, int nh)
+            {
+            int u = distinctValues(l, nl);
+            Arrays.fill(tree, 0, u + 1, -1);
+            int a = 0;
+            for(int b = 0; b < nh; b++)
+                {
+                int q = h[b];
+                while(a < nl && !after(l[a], q))
+                    {
+                    int p = l[a++];
+                    update(slot(get(p, 1), u), ranks[p], u);
+                    }
+                int r = query(slot(get(q, 1), u)) + 1;
+                if (r > ranks[q]) ranks[q] = r;
+                }
+            }
+
+        // does p come after q by objective 0 then 1?
+        boolean after(int p, int q)
+            {
+            double p0 = get(p, 0), q0 = get(q, 0);
+            return p0 > q0 || (p0 == q0 && get(p, 1) > get(q, 1));
+            }
+
+        // Loads the distinct values of objective 1 among the rows in s into values, sorted, and returns their number
+        int distinctValues(int[] s, int n)
+            {
+            for(int i = 0; i < n; i++)
+                values[i] = get(s[i], 1);
+            Arrays.sort(values, 0, n);
+            int u = 0;
+            for(int i = 0; i < n; i++)
+                if (u == 0 || values[i] != values[u - 1])
+                    values[u++] = values[i];
+            return u;
+            }
+
+        // The number of distinct values which are <= v, that is, the Fenwick tree prefix to query or update
+        int slot(double v, int u)
+            {
+            int lo = 0;
+            int hi = u;
+            while(lo < hi)
+                {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] <= v) lo = mid + 1;
+                else hi = mid;
+                }
+            return lo;
+            }
+
+        // highest rank among values in slots 1 ... slot, or -1
+        int query(int slot)
+            {
+            int r = -1;
+            for(int i = slot; i > 0; i -= (i & -i))
+                if (tree[i] > r) r = tree[i];
+            return r;
+            }
+
+        void update(int slot, int rank, int u)
+            {
+            for(int i = slot; i <= u; i += (i & -i))
+                if (tree[i] < rank) tree[i] = rank;
+            }
+
+        double median(int[] s, int size, int k)
+            {
+            for(int i = 0; i < size; i++)
+                values[i] = get(s[i], k);
+            return select(values, size, size / 2);
+            }
+
+        // Returns, in lexicographic order, the rows in s whose objective k is less than the pivot (-1), equal to
+        // it (0), greater than it (1), no greater than it (2), or no less than it (3).
+        int[] filter(int[] s, int size, int k, double pivot, int which)
+            {
+            int count = 0;
+            for(int i = 0; i < size; i++)
+                if (accept(get(s[i], k), pivot, which)) count++;
+            int[] result = new int[count];
+            count = 0;
+            for(int i = 0; i < size; i++)
+                if (accept(get(s[i], k), pivot, which)) result[count++] = s[i];
+            return result;
+            }
+
+        static boolean accept(double v, double pivot, int which)
+            {
+            switch(which)
+                {
+                case -1: return v < pivot;
+                case 0: return v == pivot;
+                case 1: return v > pivot;
+                case 2: return v <= pivot;
+                default: return v >= pivot;
+                }
+            }
+
+        // Returns the k'th smallest of values[0 ... n), reordering them along the way
+        static double select(double[] values, int n, int k)
+            {
+            int lo = 0;
+            int hi = n - 1;
+            while(lo < hi)
+                {
+                double pivot = values[(lo + hi) >>> 1];
+                int i = lo;
+                int j = hi;
+                while(i <= j)
+                    {
+                    while(values[i] < pivot) i++;
+                    while(values[j] > pivot) j--;
+                    if (i <= j)
+                        {
+                        double t = values[i]; values[i] = values[j]; values[j] = t;
+                        i++; j--;
+                        }
+                    }
+                if (k <= j) hi = j;
+                else if (k >= i) lo = i;
+                else break;
+                }
+            return values[k];
+            }
+        }
+    }
@@ -0,0 +1,109 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+
+/*
+ * EfficientNonDominatedSort.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * EfficientNonDominatedSort implements the binary-search variant of the Efficient Non-dominated Sort (ENS-BS) from
+ *
+ * <p>Xingyi Zhang, Ye Tian, Ran Cheng, and Yaochu Jin, "An Efficient Approach to Nondominated Sorting for
+ * Evolutionary Multiobjective Optimization," IEEE Transactions on Evolutionary Computation, 19 (2), April, 2015.
+ *
+ * <p>The rows are first sorted lexicographically, so that no row can be dominated by a row which comes after it.
+ * Then each row in turn is placed in the first front none of whose members dominate it.  If some member of front
+ * <i>k</i> dominates the row, then some member of every front before <i>k</i> does too, so the right front can
+ * be found with a binary search over the fronts built so far.  Each front is scanned from its most recent
+ * member backwards, as those are the members most likely to dominate the row.
+ *
+ * <p>The worst case is O(m n<sup>2</sup>), but in practice this is very fast when the number of objectives
+ * is small to moderate, or the population has many fronts.
+ *
+ * @version 1.0
+ */
+
+public class EfficientNonDominatedSort extends NonDominatedSort
+    {
+    private static final long serialVersionUID = 1;
+
+    public int sort(double[] objectives, int numObjectives, int[] ranks)
+        {
+        int n = ranks.length;
+        if (n == 0) return 0;
+        int m = numObjectives;
+        int[] order = lexicographicOrder(objectives, m, n);
+
+        // fronts[f] holds the members of front f, in the order they were added, and frontSize[f] their number
+        int[][] fronts = new int[8][];
+        int[] frontSize = new int[8];
+        int numFronts = 0;
+
+        int previous = -1;
+        for(int i = 0; i < n; i++)
+            {
+            int p = order[i];
+            int front;
+            if (previous >= 0 && compare(objectives, m, previous, p) == 0)
+                front = ranks[previous];  // a duplicate shares the rank of its twin
+            else
+                {
+                // find the first front with no member dominating p
+                int lo = 0;
+                int hi = numFronts;
+                while(lo < hi)
+                    {
+                    int mid = (lo + hi) >>> 1;
+                    if (dominated(objectives, m, p, fronts[mid], frontSize[mid]))
+                        lo = mid + 1;
+                    else hi = mid;
+                    }
+                front = lo;
+                }
+
+            if (front == numFronts)  // new front
+                {
+                if (numFronts == fronts.length)
+                    {
+                    fronts = java.util.Arrays.copyOf(fronts, numFronts * 2);
+                    frontSize = java.util.Arrays.copyOf(frontSize, numFronts * 2);
+                    }
+                fronts[numFronts] = new int[8];
+                frontSize[numFronts] = 0;
+                numFronts++;
+                }
+            if (frontSize[front] == fronts[front].length)
+                fronts[front] = java.util.Arrays.copyOf(fronts[front], frontSize[front] * 2);
+            fronts[front][frontSize[front]++] = p;
+            ranks[p] = front;
+            previous = p;
+            }
+        return numFronts;
+        }
+
+    // Returns true if some member of the front dominates row p.  Every member comes lexicographically no later
+    // than p and is not identical to it, so it dominates p exactly when it is no worse in every objective.
+    // Its first objective is already known to be no worse.
+    static boolean dominated(double[] objectives, int m, int p, int[] front, int size)
+        {
+        int ip = p * m;
+        for(int k = size - 1; k >= 0; k--)
+            {
+            int iq = front[k] * m;
+            boolean dominates = true;
+            for(int j = 1; j < m; j++)
+                if (objectives[iq + j] > objectives[ip + j])
+                    { dominates = false; break; }
+            if (dominates) return true;
+            }
+        return false;
+        }
+    }
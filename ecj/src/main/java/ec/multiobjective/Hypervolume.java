@@ -0,0 +1,153 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+import ec.*;
+import ec.util.*;
+import java.util.*;
+
+/*
+ * Hypervolume.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * Hypervolume is the superclass of algorithms which compute the hypervolume of a set of points: the volume of
+ * the region which they dominate and which is bounded by a reference point.  Like NonDominatedSorts, Hypervolumes
+ * work on a packed point matrix: a double[] of <i>n</i> rows of <i>m</i> objectives each, all to be
+ * <i>minimized</i>, with a reference point which is no better than any of the rows in any objective.
+ * pack(...) builds such a matrix, and the matching reference point, out of a list of Individuals.
+ *
+ * <p>Besides the total hypervolume, a Hypervolume can compute each point's <i>exclusive contribution</i>, that is,
+ * the volume which it alone dominates, or equivalently the volume lost if it were removed, which is what
+ * hypervolume-based selection needs.  Note that a point which dominates others shares part of its volume with
+ * them.  The default method follows the WFG algorithm: the contribution of point <i>p</i> is the volume of the
+ * box between <i>p</i> and the reference point, less the hypervolume of the <i>limit set</i> of the other points,
+ * each moved to be no better than <i>p</i>.  For removing points one at a time, see HypervolumeContributions.
+ *
+ * <p>Subclasses need not be threadsafe: if several threads compute hypervolumes, give each its own instance.
+ *
+ * @version 1.0
+ */
+
+public abstract class Hypervolume implements Setup
+    {
+    private static final long serialVersionUID = 1;
+
+    public void setup(final EvolutionState state, final Parameter base) { }
+
+    /** Returns the hypervolume of the first n rows of points, a packed matrix of (minimized) rows of m objectives,
+        with respect to the given reference point.  Rows may be dominated by, or identical to, other rows. */
+    public abstract double volume(double[] points, int n, int m, double[] reference);
+
+    /** Returns the volume which row i of points, and no other of the first n rows, dominates. */
+    public double contribution(double[] points, int n, int m, double[] reference, int i)
+        {
+        double[] limit = new double[(n - 1) * m];
+        int size = 0;
+        for(int j = 0; j < n; j++)
+            {
+            if (j == i) continue;
+            for(int k = 0; k < m; k++)
+                limit[size * m + k] = Math.max(points[i * m + k], points[j * m + k]);
+            size++;
+            }
+        size = nonDominated(limit, size, m);
+        return inclusive(points, i, m, reference) - volume(limit, size, m, reference);
+        }
+
+    /** Returns the exclusive contribution of each of the first n rows of points. */
+    public double[] contributions(double[] points, int n, int m, double[] reference)
+        {
+        double[] c = new double[n];
+        for(int i = 0; i < n; i++)
+            c[i] = contribution(points, n, m, reference, i);
+        return c;
+        }
+
+
+
+    //// Utilities
+
+
+    /** Returns the volume of the box between row i of points and the reference point. */
+    public static double inclusive(double[] points, int i, int m, double[] reference)
+        {
+        double product = 1.0;
+        for(int k = 0; k < m; k++)
+            product *= reference[k] - points[i * m + k];
+        return product;
+        }
+
+    /** Moves the rows among the first n which are not weakly dominated by any other row (keeping only one of
+        any set of identical rows) to the front of points, and returns their number. */
+    public static int nonDominated(double[] points, int n, int m)
+        {
+        // after a lexicographic sort, a row can only be weakly dominated by a row before it
+        int[] order = NonDominatedSort.lexicographicOrder(points, m, n);
+        int[] kept = new int[n];
+        int size = 0;
+        for(int i = 0; i < n; i++)
+            {
+            int p = order[i];
+            boolean dominated = false;
+            for(int j = size - 1; j >= 0 && !dominated; j--)
+                {
+                int q = kept[j];
+                dominated = true;
+                for(int k = 1; k < m; k++)
+                    if (points[q * m + k] > points[p * m + k])
+                        { dominated = false; break; }
+                }
+            if (!dominated) kept[size++] = p;
+            }
+
+        double[] result = new double[size * m];
+        for(int i = 0; i < size; i++)
+            System.arraycopy(points, kept[i] * m, result, i * m, m);
+        System.arraycopy(result, 0, points, 0, size * m);
+        return size;
+        }
+
+    /** Returns the packed point matrix of the given individuals, whose fitnesses must be MultiObjectiveFitnesses,
+        and fills converted (if non-null) with the matching reference point.  Maximized objectives are negated.
+        Throws an IllegalStateException if an individual has the wrong number of objectives, or does not
+        Pareto-dominate the reference point. */
+    public static double[] pack(ArrayList<Individual> inds, double[] referencePoint, double[] converted)
+        {
+        int m = referencePoint.length;
+        double[] points = new double[inds.size() * m];
+        for(int i = 0; i < inds.size(); i++)
+            {
+            Individual ind = inds.get(i);
+            if (!(ind.fitness instanceof MultiObjectiveFitness))
+                throw new IllegalStateException(String.format("%s: found an individual with a %s.  Hypervolume can only be computed for %s.", HypervolumeStatistics.class.getSimpleName(), ind.fitness.getClass().getSimpleName(), MultiObjectiveFitness.class.getSimpleName()));
+            MultiObjectiveFitness fitness = (MultiObjectiveFitness)(ind.fitness);
+            if (fitness.objectives.length != m)
+                throw new IllegalStateException(String.format("%s: %s has %d dimensions, but we encountered an individual with an %d-dimensional fitness.", HypervolumeStatistics.class.getSimpleName(), HypervolumeStatistics.P_REFERENCE_POINT, m, fitness.objectives.length));
+
+            boolean better = false;
+            for(int k = 0; k < m; k++)
+                {
+                double v = (fitness.maximize[k] ? -fitness.objectives[k] : fitness.objectives[k]);
+                double r = (fitness.maximize[k] ? -referencePoint[k] : referencePoint[k]);
+                if (v > r)
+                    { better = false; break; }
+                if (v < r) better = true;
+                points[i * m + k] = v;
+                }
+            if (!better)
+                throw new IllegalStateException(String.format("%s: found an individual (fitness: %s) that does not dominate the reference point (%s).  Cowardly refusing to compute a negative hypervolume contribution for this individual.  You probably need to choosing a different reference pointor check the maximization/minimization setting for the objectives.", HypervolumeStatistics.class.getSimpleName(), Arrays.toString(fitness.objectives), Arrays.toString(referencePoint)));
+
+            if (converted != null)
+                for(int k = 0; k < m; k++)
+                    converted[k] = (fitness.maximize[k] ? -referencePoint[k] : referencePoint[k]);
+            }
+        return points;
+        }
+    }
@@ -0,0 +1,118 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+
+/*
+ * HypervolumeContributions.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * HypervolumeContributions keeps the exclusive hypervolume contribution of each of a set of points while points
+ * are removed from the set one by one, as in hypervolume-based selection (for example SMS-EMOA, which repeatedly
+ * throws away the point contributing least).  Rather than computing every contribution from scratch after each
+ * removal, it updates them.
+ *
+ * <p>When point <i>k</i> is removed, point <i>j</i> gains the region which <i>j</i> and <i>k</i> dominated
+ * together and no other point does.  That region lies in the box of the point <i>z</i> which is the worse of
+ * <i>j</i> and <i>k</i> in each objective, and is exactly the exclusive contribution of <i>z</i> among the
+ * other remaining points.  If some remaining point weakly dominates <i>z</i>, which is the common case, the gain
+ * is zero and can be found in O(mn) time; otherwise it is computed by the Hypervolume given.
+ *
+ * @version 1.0
+ */
+
+public class HypervolumeContributions
+    {
+    Hypervolume hypervolume;
+    double[] points;
+    int n;
+    int m;
+    double[] reference;
+    double[] contributions;
+    boolean[] removed;
+    int remaining;
+
+    /** Computes the contributions of the first n rows of points, with m (minimized) objectives each.  The points
+        are not copied and must not be changed. */
+    public HypervolumeContributions(Hypervolume hypervolume, double[] points, int n, int m, double[] reference)
+        {
+        this.hypervolume = hypervolume;
+        this.points = points;
+        this.n = n;
+        this.m = m;
+        this.reference = reference;
+        contributions = hypervolume.contributions(points, n, m, reference);
+        removed = new boolean[n];
+        remaining = n;
+        }
+
+    /** Returns the number of points remaining. */
+    public int size() { return remaining; }
+
+    /** Returns true if row i has been removed. */
+    public boolean isRemoved(int i) { return removed[i]; }
+
+    /** Returns the exclusive contribution of row i among the remaining points. */
+    public double contribution(int i) { return contributions[i]; }
+
+    /** Returns the remaining row with the smallest contribution (the first one, on ties), or -1 if there are none. */
+    public int leastContributor()
+        {
+        int best = -1;
+        for(int i = 0; i < n; i++)
+            if (!removed[i] && (best == -1 || contributions[i] < contributions[best]))
+                best = i;
+        return best;
+        }
+
+    /** Removes row k, and updates the contributions of the remaining rows. */
+    public void remove(int k)
+        {
+        if (removed[k]) return;
+        removed[k] = true;
+        remaining--;
+
+        double[] z = new double[m];
+        double[] others = new double[(remaining > 0 ? remaining : 1) * m + m];
+        for(int j = 0; j < n; j++)
+            {
+            if (removed[j]) continue;
+            for(int i = 0; i < m; i++)
+                z[i] = Math.max(points[j * m + i], points[k * m + i]);
+            if (covered(z, j)) continue;
+
+            // z goes in row 0, followed by everyone else but j
+            System.arraycopy(z, 0, others, 0, m);
+            int size = 1;
+            for(int l = 0; l < n; l++)
+                {
+                if (removed[l] || l == j) continue;
+                System.arraycopy(points, l * m, others, size * m, m);
+                size++;
+                }
+            contributions[j] += hypervolume.contribution(others, size, m, reference, 0);
+            }
+        }
+
+    // is z weakly dominated by some remaining row other than j?
+    boolean covered(double[] z, int j)
+        {
+        for(int l = 0; l < n; l++)
+            {
+            if (removed[l] || l == j) continue;
+            boolean dominates = true;
+            for(int i = 0; i < m; i++)
+                if (points[l * m + i] > z[i])
+                    { dominates = false; break; }
+            if (dominates) return true;
+            }
+        return false;
+        }
+    }
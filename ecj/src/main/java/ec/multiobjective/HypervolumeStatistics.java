@@ -15,11 +15,36 @@ import java.util.Arrays;
 /**
  * Measures the hypervolume of a population's Pareto front.
  * 
- * Our implementation follows the WFG algorithm, described in
+ * <p>The hypervolume is computed by a Hypervolume engine, by default an AutomaticHypervolume, which picks an
+ * O(n log n) sweep for two or three objectives, the WFG algorithm, described in
  * 
  * Lyndon While, Lucas Bradstreet, and Luigi Barone, "A Fast Way of Calculating
  * Exact Hypervolumes," IEEE Transactions on Evolutionary Computation, 16 (1),
- * February, 2012.
+ * February, 2012,
+ *
+ * <p>for more objectives, and a Monte Carlo estimate for very many objectives.  If <tt>do-time</tt> is true,
+ * each hypervolume is followed by the number of milliseconds it took to compute.
+ *
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>reference-point</tt><br>
+ <font size=-1>double array</font></td>
+ <td valign=top>(the reference point against which the hypervolume is measured)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>hypervolume</tt><br>
+ <font size=-1>classname, inherits and != ec.multiobjective.Hypervolume (default = ec.multiobjective.AutomaticHypervolume)</font></td>
+ <td valign=top>(the algorithm used to compute the hypervolume)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>do-time</tt><br>
+ <font size=-1>bool = <tt>true</tt> or <tt>false</tt> (default)</font></td>
+ <td valign=top>(print the time taken to compute each hypervolume?)</td></tr>
+ </table>
+
+ <p><b>Parameter bases</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>hypervolume</tt></td>
+ <td>hypervolume engine</td></tr>
+ </table>
  * 
  * @author Eric O. Scott
  */
@@ -28,8 +53,14 @@ public class HypervolumeStatistics extends SimpleStatistics
     private static final long serialVersionUID = 1;
     
     public final static String P_REFERENCE_POINT = "reference-point";
+    public final static String P_HYPERVOLUME = "hypervolume";
+    public final static String P_DO_TIME = "do-time";
     private double[] referencePoint;
     
+    /** The algorithm which computes hypervolumes. */
+    public Hypervolume engine = new AutomaticHypervolume();
+    public boolean doTime;
+    
     public double[] getReferencePoint()
         {
         return Arrays.copyOf(referencePoint, referencePoint.length);
@@ -49,8 +80,13 @@ public class HypervolumeStatistics extends SimpleStatistics
         referencePoint = state.parameters.getDoubles(base.push(P_REFERENCE_POINT), null, Double.NEGATIVE_INFINITY);
         if (referencePoint == null)
             state.output.fatal("Missing required parameter.", base.push(P_REFERENCE_POINT));
-        if (doGeneration && referencePoint.length > 3)
-            state.output.warnOnce(String.format("You calculating hypervolume on %d objectives at every generation.  Note that hypervolume calculation can very costly for more than a few objectives.", referencePoint.length), base.push(P_REFERENCE_POINT));
+
+        if (state.parameters.exists(base.push(P_HYPERVOLUME), null))
+            engine = (Hypervolume)(state.parameters.getInstanceForParameter(base.push(P_HYPERVOLUME), null, Hypervolume.class));
+        else engine = new AutomaticHypervolume();
+        engine.setup(state, base.push(P_HYPERVOLUME));
+        
+        doTime = state.parameters.getBoolean(base.push(P_DO_TIME), null, false);
         }
     
     @Override
@@ -66,8 +102,11 @@ public class HypervolumeStatistics extends SimpleStatistics
                 ArrayList<Individual> paretoFront = MultiObjectiveFitness.partitionIntoParetoFront(state.population.subpops.get(s).individuals, null, null);
                 try
                     {
-                    final double hv = hypervolume(paretoFront, referencePoint);
+                    long time = System.nanoTime();
+                    final double hv = hypervolume(paretoFront);
                     state.output.print(", " + hv, statisticslog);
+                    if (doTime)
+                        state.output.print(", " + (System.nanoTime() - time) / 1.0E6, statisticslog);
                     }
                 catch (final Exception e)
                     {
@@ -82,52 +121,37 @@ public class HypervolumeStatistics extends SimpleStatistics
      *  relative to the reference point that was provided to this class's setup() method. */
     public double hypervolume(final ArrayList<Individual> paretoFront)
         {
-        return hypervolume(paretoFront, referencePoint);
+        return hypervolume(paretoFront, referencePoint, engine);
         }
     
     /** Compute the hypervolume of the Pareto front induced by a collection of points,
-     *  relative to the provided reference point. */
+     *  relative to the provided reference point, using an AutomaticHypervolume. */
     public static double hypervolume(final ArrayList<Individual> paretoFront, final double[] referencePoint)
         {
-        assert(paretoFront != null);
-        double exclusiveSum = 0.0;
-        for (int i = 0; i < paretoFront.size(); i++)
-            exclusiveSum += exclusiveHypervolume(paretoFront, i, referencePoint);
-        return exclusiveSum;
+        return hypervolume(paretoFront, referencePoint, new AutomaticHypervolume());
         }
     
-    /** Compute the exclusive hypervolume of the indIDth element of a collection 
-     * of points against the elements whose ID is greater than indID.
-     * 
-     * Note that this does not compute the exclusive hypervolume with respect to
-     * *every* other element in the collection, but only the elements that follow
-     * indID!
-     */
-    private static double exclusiveHypervolume(final ArrayList<Individual> paretoFront, final int indID, final double[] referencePoint)
+    /** Compute the hypervolume of the Pareto front induced by a collection of points,
+     *  relative to the provided reference point, using the given Hypervolume. */
+    public static double hypervolume(final ArrayList<Individual> paretoFront, final double[] referencePoint, final Hypervolume engine)
         {
         assert(paretoFront != null);
-        assert(indID >= 0);
-        assert(indID < paretoFront.size());
-        
-        final Individual ind = paretoFront.get(indID);
-        if (!(ind.fitness instanceof MultiObjectiveFitness))
-            throw new IllegalStateException(String.format("%s: found an individual with a %s.  Hypervolume can only be computed for %s.", HypervolumeStatistics.class.getSimpleName(), ind.fitness.getClass().getSimpleName(), MultiObjectiveFitness.class.getSimpleName()));
-        
-        final MultiObjectiveFitness indFitness = (MultiObjectiveFitness) ind.fitness;
-        final MultiObjectiveFitness refFitness = (MultiObjectiveFitness) ind.fitness.clone();
-        refFitness.objectives = referencePoint;
-        
-        if (!indFitness.paretoDominates(refFitness))
-            throw new IllegalStateException(String.format("%s: found an individual (fitness: %s) that does not dominate the reference point (%s).  Cowardly refusing to compute a negative hypervolume contribution for this individual.  You probably need to choosing a different reference pointor check the maximization/minimization setting for the objectives.", HypervolumeStatistics.class.getSimpleName(), Arrays.toString(indFitness.objectives), Arrays.toString(referencePoint)));
-        
-        final ArrayList<Individual> limitSet = limitSet(paretoFront, indID, referencePoint);
-        final double ihv = inclusiveHypervolume(ind, referencePoint);
-        assert(ihv >= 0);
-        final double result = limitSet.isEmpty() ?
-            ihv :
-            ihv - hypervolume(MultiObjectiveFitness.partitionIntoParetoFront(limitSet, null, null), referencePoint);
-        assert(result >= 0);
-        return result;
+        if (paretoFront.isEmpty())
+            return 0.0;
+        final double[] reference = new double[referencePoint.length];
+        final double[] points = Hypervolume.pack(paretoFront, referencePoint, reference);
+        return engine.volume(points, paretoFront.size(), reference.length, reference);
+        }
+    
+    /** Compute the exclusive hypervolume contribution of each of a collection of points,
+     *  relative to the reference point that was provided to this class's setup() method. */
+    public double[] contributions(final ArrayList<Individual> paretoFront)
+        {
+        if (paretoFront.isEmpty())
+            return new double[0];
+        final double[] reference = new double[referencePoint.length];
+        final double[] points = Hypervolume.pack(paretoFront, referencePoint, reference);
+        return engine.contributions(points, paretoFront.size(), reference.length, reference);
         }
     
     /** Compute the hypervolume covered by a single individual,
@@ -151,42 +175,6 @@ public class HypervolumeStatistics extends SimpleStatistics
             product *= Math.abs(fitness.objectives[i] - referencePoint[i]);
         return product;
         }
-    
-    /** Compute a set of points that define the boundary of the *intersection* 
-     * between an individual's inclusive hypervolume and the area dominated by
-     * all the points in the front that follow indID (i.e. that have an index 
-     * greater than indID). */
-    private static ArrayList<Individual> limitSet(final ArrayList<Individual> paretoFront, final int indID, final double[] referencePoint)
-        {
-        assert(paretoFront != null);
-        assert(indID >= 0);
-        assert(indID < paretoFront.size());
-        
-        final Individual contributingPoint = paretoFront.get(indID);
-        assert(contributingPoint != null);
-        assert(contributingPoint.fitness instanceof MultiObjectiveFitness);
-        final MultiObjectiveFitness contributingFitness = (MultiObjectiveFitness) contributingPoint.fitness;
-        if (contributingFitness.objectives.length != referencePoint.length)
-            throw new IllegalStateException(String.format("%s: %s has %d dimensions, but we encountered an individual with an %d-dimensional fitness.", HypervolumeStatistics.class.getSimpleName(), P_REFERENCE_POINT, referencePoint.length, contributingFitness.objectives.length));
-
-        final ArrayList<Individual> set = new ArrayList<Individual>(paretoFront.size());
-        for (int i = indID + 1; i < paretoFront.size(); i++)
-            {
-            final MultiObjectiveFitness refFitness = (MultiObjectiveFitness) paretoFront.get(i).fitness;
-            final double[] newPoint = new double[referencePoint.length];
-            for (int j = 0; j < newPoint.length; j++)
-                {
-                newPoint[j] = contributingFitness.isMaximizing(j) ? 
-                    Math.min(contributingFitness.getObjective(j), refFitness.getObjective(j)) :
-                    Math.max(contributingFitness.getObjective(j), refFitness.getObjective(j));
-                }
-            final Individual newPointInd = (Individual) contributingPoint.clone();
-            newPointInd.fitness = (MultiObjectiveFitness) contributingFitness.clone();
-            ((MultiObjectiveFitness)newPointInd.fitness).objectives = newPoint;
-            set.add(newPointInd);
-            }
-        return set;
-        }
 
     /** Logs the best individual of the run. */
     @Override
@@ -200,8 +188,12 @@ public class HypervolumeStatistics extends SimpleStatistics
         for (int s = 0; s < state.population.subpops.size(); s++)
             {
             ArrayList<Individual> paretoFront = MultiObjectiveFitness.partitionIntoParetoFront(state.population.subpops.get(s).individuals, null, null);
-            final double hv = hypervolume(paretoFront, referencePoint);
-            state.output.println(", " + hv, statisticslog);
+            long time = System.nanoTime();
+            final double hv = hypervolume(paretoFront);
+            state.output.print(", " + hv, statisticslog);
+            if (doTime)
+                state.output.print(", " + (System.nanoTime() - time) / 1.0E6, statisticslog);
+            state.output.println("", statisticslog);
             }
         state.output.print("\n", statisticslog);
         }
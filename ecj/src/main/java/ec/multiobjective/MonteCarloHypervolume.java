@@ -0,0 +1,119 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+import ec.*;
+import ec.util.*;
+
+/*
+ * MonteCarloHypervolume.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * MonteCarloHypervolume estimates hypervolumes by sampling uniformly from the box between the best value of each
+ * objective and the reference point, and counting the samples which some point dominates.  The number of samples
+ * is chosen, by Hoeffding's inequality, so that with probability at least <i>confidence</i> the estimate is off by
+ * no more than <i>error</i> times the volume of that box.  The cost is O(m n) per sample, whatever the number
+ * of objectives, which makes this the only practical choice for many objectives and large fronts.
+ *
+ * <p>The samples are drawn from a random number generator of the engine's own, so that computing hypervolumes
+ * in statistics does not change the course of an evolutionary run.
+ *
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>error</tt><br>
+ <font size=-1>0.0 &lt; double &lt; 1.0 (default = 0.01)</font></td>
+ <td valign=top>(the error bound, as a fraction of the volume of the sampled box)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>confidence</tt><br>
+ <font size=-1>0.0 &lt; double &lt; 1.0 (default = 0.95)</font></td>
+ <td valign=top>(the probability that the estimate is within the error bound)</td></tr>
+
+ <tr><td valign=top><i>base</i>.<tt>seed</tt><br>
+ <font size=-1>int (default = 0)</font></td>
+ <td valign=top>(the seed of the engine's random number generator)</td></tr>
+ </table>
+ *
+ * @version 1.0
+ */
+
+public class MonteCarloHypervolume extends Hypervolume
+    {
+    private static final long serialVersionUID = 1;
+
+    public static final String P_ERROR = "error";
+    public static final String P_CONFIDENCE = "confidence";
+    public static final String P_SEED = "seed";
+
+    public double error = 0.01;
+    public double confidence = 0.95;
+    public MersenneTwisterFast random = new MersenneTwisterFast(0);
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        super.setup(state, base);
+        if (state.parameters.exists(base.push(P_ERROR), null))
+            {
+            error = state.parameters.getDouble(base.push(P_ERROR), null, 0.0);
+            if (error <= 0.0 || error >= 1.0)
+                state.output.fatal("The Monte Carlo hypervolume error must be > 0.0 and < 1.0.", base.push(P_ERROR));
+            }
+        if (state.parameters.exists(base.push(P_CONFIDENCE), null))
+            {
+            confidence = state.parameters.getDouble(base.push(P_CONFIDENCE), null, 0.0);
+            if (confidence <= 0.0 || confidence >= 1.0)
+                state.output.fatal("The Monte Carlo hypervolume confidence must be > 0.0 and < 1.0.", base.push(P_CONFIDENCE));
+            }
+        random = new MersenneTwisterFast(state.parameters.getIntWithDefault(base.push(P_SEED), null, 0));
+        }
+
+    /** Returns the number of samples needed to meet the error bound with the given confidence. */
+    public int numSamples()
+        {
+        // Hoeffding: P(|estimate - p| >= error) <= 2 exp(-2 samples error^2)
+        return (int)Math.ceil(Math.log(2.0 / (1.0 - confidence)) / (2.0 * error * error));
+        }
+
+    public double volume(double[] points, int n, int m, double[] reference)
+        {
+        if (n == 0) return 0;
+        double[] low = new double[m];
+        for(int k = 0; k < m; k++)
+            {
+            low[k] = reference[k];
+            for(int i = 0; i < n; i++)
+                low[k] = Math.min(low[k], points[i * m + k]);
+            }
+        double box = 1.0;
+        for(int k = 0; k < m; k++)
+            box *= reference[k] - low[k];
+        if (box == 0) return 0;
+
+        int samples = numSamples();
+        double[] sample = new double[m];
+        int hits = 0;
+        int last = 0;  // the row which dominated the previous sample is likely to dominate this one too
+        for(int s = 0; s < samples; s++)
+            {
+            for(int k = 0; k < m; k++)
+                sample[k] = low[k] + random.nextDouble() * (reference[k] - low[k]);
+            for(int t = 0; t < n; t++)
+                {
+                int i = (last + t) % n;
+                boolean dominates = true;
+                for(int k = 0; k < m; k++)
+                    if (points[i * m + k] > sample[k])
+                        { dominates = false; break; }
+                if (dominates)
+                    { hits++; last = i; break; }
+                }
+            }
+        return box * hits / samples;
+        }
+    }
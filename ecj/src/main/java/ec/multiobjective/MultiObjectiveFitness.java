@@ -503,50 +503,19 @@ public class MultiObjectiveFitness extends Fitness
                 
 
     /** Divides inds into pareto front ranks (each an ArrayList), and returns them, in order,
-        stored in an ArrayList. */
+        stored in an ArrayList.  Within each rank, individuals appear in the same order as in inds.
+        This uses an AutomaticNonDominatedSort. */
     public static ArrayList<ArrayList<Individual>> partitionIntoRanks(ArrayList<Individual> inds)
         {
-        ArrayList<ArrayList<Individual>> frontsByRank = new ArrayList<ArrayList<Individual>>();
-
-        while(inds.size() > 0)
-            {
-            ArrayList<Individual> front = new ArrayList<Individual>();
-            ArrayList<Individual> nonFront = new ArrayList<Individual>();
-            MultiObjectiveFitness.partitionIntoParetoFront(inds, front, nonFront);
-                        
-            // build inds out of remainder
-            inds = new ArrayList<Individual>(nonFront);
-            frontsByRank.add(front);
-            }
-        return frontsByRank;
+        return new AutomaticNonDominatedSort().partitionIntoRanks(inds);
         }
 
 
-    /** Returns the Pareto rank for each individual.  Rank 0 is the best rank, then rank 1, and so on.  This is O(n) but it has a high constant overhead because it
-        allocates a hashmap and does some autoboxing. */
+    /** Returns the Pareto rank for each individual.  Rank 0 is the best rank, then rank 1, and so on.
+        This uses an AutomaticNonDominatedSort. */
     public static int[] getRankings(ArrayList<Individual> inds)
         {
-        int[] r = new int[inds.size()];
-        ArrayList<ArrayList<Individual>> ranks = partitionIntoRanks(inds);  // get all the ranks
-        
-        // build a mapping of Individual -> index in inds array
-        HashMap<Individual, Integer> m = new HashMap<Individual, Integer>();
-        for(int i = 0; i < inds.size(); i++)
-            m.put(inds.get(i), Integer.valueOf(i));
-        
-        int numRanks = ranks.size();
-        for(int rank = 0 ; rank < numRanks; rank++)  // for each rank...
-            {
-            ArrayList<Individual> front = ranks.get(rank);
-            int numInds = front.size();
-            for(int ind = 0; ind < numInds; ind++)  // for each individual in that rank ...
-                {
-                // get the index of the individual in the inds array
-                int i = ((Integer)(m.get(front.get(ind)))).intValue();
-                r[i] = rank;  // set the rank in the corresponding ranks array
-                }
-            }
-        return r;
+        return new AutomaticNonDominatedSort().getRankings(inds);
         }
 
 
@@ -0,0 +1,165 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+import ec.*;
+import java.util.*;
+
+/*
+ * NonDominatedSort.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * NonDominatedSort is the superclass of algorithms which divide a collection of multiobjective fitnesses into
+ * Pareto ranks: rank 0 is the Pareto front, rank 1 is the front of whatever remains once rank 0 is removed,
+ * and so on.  MultiObjectiveFitness.partitionIntoRanks(...) and getRankings(...), and the NSGA-II and NSGA-III
+ * breeders, do their sorting with one of these.
+ *
+ * <p>Subclasses do not work on Individuals but on a packed objective matrix: a double[] of <i>n</i> rows,
+ * each holding the <i>m</i> objectives of one individual, in which every objective is to be <i>minimized</i>.
+ * pack(...) builds such a matrix out of a list of Individuals, negating the objectives they maximize.
+ * Two rows which are identical receive the same rank, just as neither Pareto-dominates the other.
+ *
+ * <p>NonDominatedSorts hold no state between calls, so one may be shared among threads.
+ *
+ * @version 1.0
+ */
+
+public abstract class NonDominatedSort implements java.io.Serializable
+    {
+    private static final long serialVersionUID = 1;
+
+    /** Fills ranks[i] with the Pareto rank of row i of the packed objective matrix, which has ranks.length rows
+        of numObjectives (minimized) objectives each, and returns the number of ranks. */
+    public abstract int sort(double[] objectives, int numObjectives, int[] ranks);
+
+    /** Returns the packed objective matrix of the given individuals, whose fitnesses must be MultiObjectiveFitnesses,
+        with maximized objectives negated so that all are minimized. */
+    public static double[] pack(ArrayList<Individual> inds)
+        {
+        int n = inds.size();
+        if (n == 0) return new double[0];
+        int m = ((MultiObjectiveFitness)(inds.get(0).fitness)).getNumObjectives();
+        double[] objectives = new double[n * m];
+        for(int i = 0; i < n; i++)
+            {
+            MultiObjectiveFitness f = (MultiObjectiveFitness)(inds.get(i).fitness);
+            if (f.objectives.length != m)
+                throw new RuntimeException("Attempt made to sort multiobjective fitnesses; but they have different numbers of objectives.");
+            for(int j = 0; j < m; j++)
+                objectives[i * m + j] = (f.maximize[j] ? -f.objectives[j] : f.objectives[j]);
+            }
+        return objectives;
+        }
+
+    /** Returns the Pareto rank of each of the given individuals.  Rank 0 is the best rank, then rank 1, and so on. */
+    public int[] getRankings(ArrayList<Individual> inds)
+        {
+        int[] ranks = new int[inds.size()];
+        if (ranks.length > 0)
+            sort(pack(inds), ((MultiObjectiveFitness)(inds.get(0).fitness)).getNumObjectives(), ranks);
+        return ranks;
+        }
+
+    /** Divides inds into Pareto ranks (each an ArrayList), and returns them, in order, stored in an ArrayList.
+        Within each rank, the individuals appear in the same order as they do in inds. */
+    public ArrayList<ArrayList<Individual>> partitionIntoRanks(ArrayList<Individual> inds)
+        {
+        int[] ranks = new int[inds.size()];
+        int numRanks = 0;
+        if (ranks.length > 0)
+            numRanks = sort(pack(inds), ((MultiObjectiveFitness)(inds.get(0).fitness)).getNumObjectives(), ranks);
+
+        // count the members of each rank so we can size the fronts exactly
+        int[] counts = new int[numRanks];
+        for(int i = 0; i < ranks.length; i++)
+            counts[ranks[i]]++;
+
+        ArrayList<ArrayList<Individual>> frontsByRank = new ArrayList<ArrayList<Individual>>(numRanks);
+        for(int r = 0; r < numRanks; r++)
+            frontsByRank.add(new ArrayList<Individual>(counts[r]));
+        for(int i = 0; i < ranks.length; i++)
+            frontsByRank.get(ranks[i]).add(inds.get(i));
+        return frontsByRank;
+        }
+
+
+
+    //// Utilities for subclasses
+
+
+    /** Returns the number of ranks in the given ranks array, that is, one more than its largest entry. */
+    protected static int numRanks(int[] ranks)
+        {
+        int max = -1;
+        for(int i = 0; i < ranks.length; i++)
+            if (ranks[i] > max) max = ranks[i];
+        return max + 1;
+        }
+
+    /** Returns &lt; 0, 0, or &gt; 0 as row a of the matrix comes lexicographically before, is identical to,
+        or comes after row b.  Positive and negative zero are considered equal. */
+    protected static int compare(double[] objectives, int numObjectives, int a, int b)
+        {
+        int ia = a * numObjectives;
+        int ib = b * numObjectives;
+        for(int j = 0; j < numObjectives; j++)
+            {
+            double x = objectives[ia + j];
+            double y = objectives[ib + j];
+            if (x < y) return -1;
+            if (x > y) return 1;
+            }
+        return 0;
+        }
+
+    /** Returns the row indices 0 ... n-1 of the matrix sorted lexicographically by their objectives, with identical
+        rows left in index order. */
+    protected static int[] lexicographicOrder(double[] objectives, int numObjectives, int n)
+        {
+        int[] order = new int[n];
+        for(int i = 0; i < n; i++)
+            order[i] = i;
+        mergeSort(objectives, numObjectives, order, new int[n], 0, n);
+        return order;
+        }
+
+    // a stable merge sort of order[from...to), which doesn't need boxed Integers and a Comparator
+    static void mergeSort(double[] objectives, int numObjectives, int[] order, int[] scratch, int from, int to)
+        {
+        if (to - from < 8)  // insertion sort
+            {
+            for(int i = from + 1; i < to; i++)
+                {
+                int v = order[i];
+                int j = i - 1;
+                while(j >= from && compare(objectives, numObjectives, order[j], v) > 0)
+                    { order[j + 1] = order[j]; j--; }
+                order[j + 1] = v;
+                }
+            return;
+            }
+
+        int mid = (from + to) >>> 1;
+        mergeSort(objectives, numObjectives, order, scratch, from, mid);
+        mergeSort(objectives, numObjectives, order, scratch, mid, to);
+        if (compare(objectives, numObjectives, order[mid - 1], order[mid]) <= 0)
+            return;  // already in order
+
+        System.arraycopy(order, from, scratch, from, to - from);
+        int a = from;
+        int b = mid;
+        for(int i = from; i < to; i++)
+            {
+            if (b >= to || (a < mid && compare(objectives, numObjectives, scratch[a], scratch[b]) <= 0))
+                order[i] = scratch[a++];
+            else order[i] = scratch[b++];
+            }
+        }
+    }
@@ -0,0 +1,127 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+import ec.*;
+import ec.util.*;
+import java.util.*;
+
+/*
+ * NonDominatedSortBenchmark.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * NonDominatedSortBenchmark times each NonDominatedSort against the older approach of repeatedly peeling off the
+ * Pareto front with MultiObjectiveFitness.partitionIntoParetoFront(...), on populations of random objectives, and
+ * checks that they all agree.  Objectives are either uniform random doubles, or random integers from 0 to 9
+ * (to exercise ties and duplicates).
+ *
+ * <p>Usage: <tt>java ec.multiobjective.NonDominatedSortBenchmark [<i>size</i> [<i>repetitions</i>]]</tt>
+ *
+ * <p>The size defaults to 10000 and the repetitions to 5.  The peeling approach is O(n<sup>3</sup>) in the
+ * worst case, so it is only run on populations of up to 20000.
+ *
+ * @version 1.0
+ */
+
+public class NonDominatedSortBenchmark
+    {
+    public static final int[] OBJECTIVES = { 2, 3, 4, 5, 8 };
+    public static final int MAX_PEELING_SIZE = 20000;
+
+    public static void main(String[] args)
+        {
+        int size = (args.length > 0 ? Integer.parseInt(args[0]) : 10000);
+        int reps = (args.length > 1 ? Integer.parseInt(args[1]) : 5);
+
+        NonDominatedSort[] sorts = { new EfficientNonDominatedSort(), new DivideAndConquerNonDominatedSort(),
+                                     new TwoObjectiveNonDominatedSort(), new AutomaticNonDominatedSort() };
+        MersenneTwisterFast random = new MersenneTwisterFast(0);
+
+        for(int discrete = 0; discrete < 2; discrete++)
+            for(int o = 0; o < OBJECTIVES.length; o++)
+                {
+                int m = OBJECTIVES[o];
+                ArrayList<Individual> inds = population(random, size, m, discrete == 1);
+                int[] expected = null;
+                System.out.print((discrete == 1 ? "discrete" : "uniform ") + "\t" + m + " objectives");
+
+                if (size <= MAX_PEELING_SIZE)
+                    {
+                    long time = 0;
+                    for(int r = 0; r <= reps; r++)  // the first is warmup
+                        {
+                        long t = System.nanoTime();
+                        expected = peel(inds);
+                        if (r > 0) time += System.nanoTime() - t;
+                        }
+                    System.out.print("\tpeeling " + (time / reps / 1000) + " us");
+                    }
+
+                for(int s = 0; s < sorts.length; s++)
+                    {
+                    if (m > 2 && sorts[s] instanceof TwoObjectiveNonDominatedSort) continue;
+                    long time = 0;
+                    int[] ranks = null;
+                    for(int r = 0; r <= reps; r++)
+                        {
+                        long t = System.nanoTime();
+                        ranks = sorts[s].getRankings(inds);
+                        if (r > 0) time += System.nanoTime() - t;
+                        }
+                    if (expected == null) expected = ranks;
+                    else if (!Arrays.equals(expected, ranks))
+                        throw new RuntimeException(sorts[s].getClass().getSimpleName() + " disagrees on " + m + " objectives");
+                    System.out.print("\t" + sorts[s].getClass().getSimpleName().replace("NonDominatedSort", "") + " " + (time / reps / 1000) + " us");
+                    }
+                System.out.println("\t(" + (NonDominatedSort.numRanks(expected)) + " ranks)");
+                }
+        }
+
+    /** Builds a population of individuals with random minimized objectives. */
+    static ArrayList<Individual> population(MersenneTwisterFast random, int size, int m, boolean discrete)
+        {
+        ArrayList<Individual> inds = new ArrayList<Individual>();
+        boolean[] maximize = new boolean[m];
+        for(int i = 0; i < size; i++)
+            {
+            MultiObjectiveFitness f = new MultiObjectiveFitness();
+            f.objectives = new double[m];
+            f.maximize = maximize;
+            for(int j = 0; j < m; j++)
+                f.objectives[j] = (discrete ? random.nextInt(10) : random.nextDouble());
+            Individual ind = new ec.vector.DoubleVectorIndividual();
+            ind.fitness = f;
+            inds.add(ind);
+            }
+        return inds;
+        }
+
+    /** Ranks the individuals the old way, by repeatedly removing the Pareto front. */
+    static int[] peel(ArrayList<Individual> inds)
+        {
+        int[] ranks = new int[inds.size()];
+        IdentityHashMap<Individual, Integer> index = new IdentityHashMap<Individual, Integer>();
+        for(int i = 0; i < inds.size(); i++)
+            index.put(inds.get(i), Integer.valueOf(i));
+
+        int rank = 0;
+        while(inds.size() > 0)
+            {
+            ArrayList<Individual> front = new ArrayList<Individual>();
+            ArrayList<Individual> nonFront = new ArrayList<Individual>();
+            MultiObjectiveFitness.partitionIntoParetoFront(inds, front, nonFront);
+            for(int i = 0; i < front.size(); i++)
+                ranks[index.get(front.get(i)).intValue()] = rank;
+            inds = nonFront;
+            rank++;
+            }
+        return ranks;
+        }
+    }
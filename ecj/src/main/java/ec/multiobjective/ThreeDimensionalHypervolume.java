@@ -0,0 +1,94 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+import java.util.*;
+
+/*
+ * ThreeDimensionalHypervolume.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * ThreeDimensionalHypervolume computes the hypervolume of points with three objectives in O(n log n) time,
+ * following the sweep of
+ *
+ * <p>Nicola Beume, Carlos M. Fonseca, Manuel L&oacute;pez-Ib&aacute;&ntilde;ez, Lu&iacute;s Paquete, and Jan Vahrenhold,
+ * "On the Complexity of Computing the Hypervolume Indicator," IEEE Transactions on Evolutionary Computation,
+ * 13 (5), October, 2009.
+ *
+ * <p>The points are swept in order of their third objective.  The sweep keeps the two-dimensional staircase of
+ * the points seen so far, sorted by first objective in a balanced tree, along with the area it dominates.  Adding a
+ * point removes the staircase points it dominates and adds the area which only it dominates, both of which are
+ * found by walking right from the point along the staircase.  Each slab between successive third objectives adds
+ * the current area times the thickness of the slab.
+ *
+ * @version 1.0
+ */
+
+public class ThreeDimensionalHypervolume extends Hypervolume
+    {
+    private static final long serialVersionUID = 1;
+
+    public double volume(double[] points, int n, int m, double[] reference)
+        {
+        if (m != 3)
+            throw new IllegalArgumentException("ThreeDimensionalHypervolume can only handle three objectives, not " + m);
+        return volume3(points, n, reference);
+        }
+
+    /** Returns the hypervolume of the first n rows of points, which have three objectives each. */
+    public static double volume3(final double[] points, int n, double[] reference)
+        {
+        Integer[] order = new Integer[n];
+        for(int i = 0; i < n; i++)
+            order[i] = Integer.valueOf(i);
+        Arrays.sort(order, new Comparator<Integer>()
+            {
+            public int compare(Integer a, Integer b) { return Double.compare(points[a.intValue() * 3 + 2], points[b.intValue() * 3 + 2]); }
+            });
+
+        // the staircase, mapping first objective to second objective, with the second falling as the first rises
+        TreeMap<Double, Double> stair = new TreeMap<Double, Double>();
+        double r0 = reference[0];
+        double r1 = reference[1];
+        double area = 0;
+        double volume = 0;
+
+        for(int i = 0; i < n; i++)
+            {
+            int p = order[i].intValue();
+            double x = points[p * 3] + 0.0;  // TreeMap would consider -0.0 and 0.0 to be different keys
+            double y = points[p * 3 + 1];
+
+            Map.Entry<Double, Double> left = stair.floorEntry(x);
+            if (left == null || left.getValue().doubleValue() > y)  // not weakly dominated by the staircase
+                {
+                // walk right, adding the area under the staircase and above y, and removing dominated points
+                double top = (left == null ? r1 : left.getValue().doubleValue());
+                double from = x;
+                Map.Entry<Double, Double> right = stair.ceilingEntry(x);
+                while(right != null && right.getValue().doubleValue() >= y)
+                    {
+                    double rx = right.getKey().doubleValue();
+                    area += (rx - from) * (top - y);
+                    from = rx;
+                    top = right.getValue().doubleValue();
+                    stair.remove(right.getKey());
+                    right = stair.higherEntry(rx);
+                    }
+                area += ((right == null ? r0 : right.getKey().doubleValue()) - from) * (top - y);
+                stair.put(Double.valueOf(x), Double.valueOf(y));
+                }
+
+            double next = (i + 1 < n ? points[order[i + 1].intValue() * 3 + 2] : reference[2]);
+            volume += area * (next - points[p * 3 + 2]);
+            }
+        return volume;
+        }
+    }
@@ -0,0 +1,94 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+
+/*
+ * TwoDimensionalHypervolume.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * TwoDimensionalHypervolume computes the hypervolume of points with two objectives in O(n log n) time.  The
+ * points are sorted by their first objective, and then swept from left to right: each point which improves on
+ * the second objective of all points before it adds a rectangle between it, the previous such point, and the
+ * reference point.  If the points are mutually non-dominated, as they are in a Pareto front, they form a
+ * "staircase," and each one's exclusive contribution is the rectangle bounded by its neighbors on the
+ * staircase, so all the contributions are computed with a single sweep too.  Otherwise the general (slower)
+ * method in Hypervolume is used.
+ *
+ * @version 1.0
+ */
+
+public class TwoDimensionalHypervolume extends Hypervolume
+    {
+    private static final long serialVersionUID = 1;
+
+    public double volume(double[] points, int n, int m, double[] reference)
+        {
+        if (m != 2)
+            throw new IllegalArgumentException("TwoDimensionalHypervolume can only handle two objectives, not " + m);
+        return volume2(points, n, reference);
+        }
+
+    /** Returns the hypervolume of the first n rows of points, which have two objectives each. */
+    public static double volume2(double[] points, int n, double[] reference)
+        {
+        int[] order = NonDominatedSort.lexicographicOrder(points, 2, n);
+        double volume = 0;
+        double y = reference[1];
+        for(int i = 0; i < n; i++)
+            {
+            int p = order[i];
+            if (points[p * 2 + 1] < y)
+                {
+                volume += (reference[0] - points[p * 2]) * (y - points[p * 2 + 1]);
+                y = points[p * 2 + 1];
+                }
+            }
+        return volume;
+        }
+
+    public double[] contributions(double[] points, int n, int m, double[] reference)
+        {
+        if (m != 2)
+            throw new IllegalArgumentException("TwoDimensionalHypervolume can only handle two objectives, not " + m);
+        int[] order = NonDominatedSort.lexicographicOrder(points, 2, n);
+
+        // build the staircase: rows not weakly dominated by an earlier row.  An identical row
+        // is weakly dominated by its twin, but takes away the twin's contribution too.
+        int[] stair = new int[n];
+        boolean[] shared = new boolean[n];
+        int size = 0;
+        double y = reference[1];
+        for(int i = 0; i < n; i++)
+            {
+            int p = order[i];
+            if (points[p * 2 + 1] < y)
+                {
+                stair[size++] = p;
+                y = points[p * 2 + 1];
+                }
+            else if (size > 0 && NonDominatedSort.compare(points, 2, stair[size - 1], p) == 0)
+                shared[size - 1] = true;
+            else  // a dominated row eats into the contribution of the rows dominating it
+                return super.contributions(points, n, m, reference);
+            }
+
+        double[] c = new double[n];
+        for(int i = 0; i < size; i++)
+            {
+            if (shared[i]) continue;
+            int p = stair[i];
+            double right = (i + 1 < size ? points[stair[i + 1] * 2] : reference[0]);
+            double above = (i > 0 ? points[stair[i - 1] * 2 + 1] : reference[1]);
+            c[p] = (right - points[p * 2]) * (above - points[p * 2 + 1]);
+            }
+        return c;
+        }
+    }
@@ -0,0 +1,79 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+
+/*
+ * TwoObjectiveNonDominatedSort.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * TwoObjectiveNonDominatedSort sorts rows of exactly two objectives (or one) in O(n log n) time.  The rows are
+ * sorted lexicographically, and each in turn is placed in the first front none of whose members dominate it, as
+ * in EfficientNonDominatedSort.  But with only two objectives, the members of a front, taken in the order they
+ * were added, have strictly falling second objectives, so the most recently added member alone decides whether
+ * the front dominates a row.  Thus only the last second objective of each front is kept, and the right front is
+ * found with a single binary search.
+ *
+ * @version 1.0
+ */
+
+public class TwoObjectiveNonDominatedSort extends NonDominatedSort
+    {
+    private static final long serialVersionUID = 1;
+
+    public int sort(double[] objectives, int numObjectives, int[] ranks)
+        {
+        if (numObjectives > 2)
+            throw new IllegalArgumentException("TwoObjectiveNonDominatedSort can only sort up to two objectives, not " + numObjectives);
+        int n = ranks.length;
+        if (n == 0) return 0;
+        int m = numObjectives;
+        int[] order = lexicographicOrder(objectives, m, n);
+
+        // last[f] is the final objective of the most recent member of front f
+        double[] last = new double[16];
+        int numFronts = 0;
+
+        int previous = -1;
+        for(int i = 0; i < n; i++)
+            {
+            int p = order[i];
+            double y = objectives[p * m + m - 1];
+            int front;
+            if (previous >= 0 && compare(objectives, m, previous, p) == 0)
+                front = ranks[previous];  // a duplicate shares the rank of its twin
+            else
+                {
+                // find the first front whose most recent member doesn't dominate p
+                int lo = 0;
+                int hi = numFronts;
+                while(lo < hi)
+                    {
+                    int mid = (lo + hi) >>> 1;
+                    if (last[mid] <= y)
+                        lo = mid + 1;
+                    else hi = mid;
+                    }
+                front = lo;
+                }
+
+            if (front == numFronts)
+                {
+                if (numFronts == last.length)
+                    last = java.util.Arrays.copyOf(last, numFronts * 2);
+                numFronts++;
+                }
+            last[front] = y;
+            ranks[p] = front;
+            previous = p;
+            }
+        return numFronts;
+        }
+    }
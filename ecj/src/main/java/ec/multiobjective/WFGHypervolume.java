@@ -0,0 +1,105 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective;
+
+/*
+ * WFGHypervolume.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * WFGHypervolume computes exact hypervolumes in any number of objectives with the WFG algorithm of
+ *
+ * <p>Lyndon While, Lucas Bradstreet, and Luigi Barone, "A Fast Way of Calculating Exact Hypervolumes,"
+ * IEEE Transactions on Evolutionary Computation, 16 (1), February, 2012.
+ *
+ * <p>The hypervolume is the sum of each point's exclusive contribution with respect to the points after it.
+ * Those contributions are computed from limit sets (see Hypervolume), reduced to their non-dominated points.
+ * The points are first sorted from worst to best in their last objective, so each limit set has a constant last
+ * objective and its hypervolume is a slab of a problem with one objective fewer.  Three- and two-objective
+ * problems are handed to ThreeDimensionalHypervolume and TwoDimensionalHypervolume.
+ *
+ * <p>HypervolumeStatistics used to compute the same sums, but without the sorting, reduction of dimensions, or
+ * non-dominated limit sets.
+ *
+ * @version 1.0
+ */
+
+public class WFGHypervolume extends Hypervolume
+    {
+    private static final long serialVersionUID = 1;
+
+    public double volume(double[] points, int n, int m, double[] reference)
+        {
+        double[] copy = new double[n * m];
+        System.arraycopy(points, 0, copy, 0, n * m);
+        return wfg(copy, n, m, reference);
+        }
+
+    // Computes the hypervolume of the first n rows of points, in the first m objectives of reference.
+    // points is reordered.
+    static double wfg(double[] points, int n, int m, double[] reference)
+        {
+        if (n == 0) return 0;
+        if (n == 1) return inclusive(points, 0, m, reference);
+        if (m == 1)
+            {
+            double best = points[0];
+            for(int i = 1; i < n; i++)
+                best = Math.min(best, points[i]);
+            return reference[0] - best;
+            }
+        if (m == 2) return TwoDimensionalHypervolume.volume2(points, n, reference);
+        if (m == 3) return ThreeDimensionalHypervolume.volume3(points, n, reference);
+
+        sortByLastObjective(points, n, m);
+        int d = m - 1;
+        double[] limit = new double[n * d];
+        double volume = 0;
+        for(int k = 0; k < n; k++)
+            {
+            double height = reference[d] - points[k * m + d];
+            if (height == 0) continue;
+
+            // the limit set of the later rows, which are no worse in the last objective
+            int size = 0;
+            for(int j = k + 1; j < n; j++)
+                {
+                for(int i = 0; i < d; i++)
+                    limit[size * d + i] = Math.max(points[k * m + i], points[j * m + i]);
+                size++;
+                }
+            size = nonDominated(limit, size, d);
+
+            double slab = 1.0;
+            for(int i = 0; i < d; i++)
+                slab *= reference[i] - points[k * m + i];
+            volume += height * (slab - wfg(limit, size, d, reference));
+            }
+        return volume;
+        }
+
+    // sorts the rows from worst to best in their last objective
+    static void sortByLastObjective(double[] points, int n, int m)
+        {
+        Integer[] order = new Integer[n];
+        for(int i = 0; i < n; i++)
+            order[i] = Integer.valueOf(i);
+        final double[] p = points;
+        final int mm = m;
+        java.util.Arrays.sort(order, new java.util.Comparator<Integer>()
+            {
+            public int compare(Integer a, Integer b) { return Double.compare(p[b.intValue() * mm + mm - 1], p[a.intValue() * mm + mm - 1]); }
+            });
+        double[] sorted = new double[n * m];
+        for(int i = 0; i < n; i++)
+            System.arraycopy(points, order[i].intValue() * m, sorted, i * m, m);
+        System.arraycopy(sorted, 0, points, 0, n * m);
+        }
+    }
@@ -27,13 +27,26 @@ import ec.multiobjective.*;
  * <p>NSGA-II has fixed archive size (the population size), and so ignores the 'elites'
  * declaration.  However it will adhere to the 'reevaluate-elites' parameter in SimpleBreeder
  * to determine whether to force fitness reevaluation.
+ *
+ * <p>The population is divided into Pareto ranks by a NonDominatedSort, by default an AutomaticNonDominatedSort.
 
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>sort</tt><br>
+ <font size=-1>classname, inherits and != ec.multiobjective.NonDominatedSort (default = ec.multiobjective.AutomaticNonDominatedSort)</font></td>
+ <td valign=top>(the algorithm used to divide the population into Pareto ranks)</td></tr>
+ </table>
  */
 
 public class NSGA2Breeder extends SimpleBreeder
     {
     private static final long serialVersionUID = 1;
 
+    public static final String P_SORT = "sort";
+
+    /** How the population is divided into Pareto ranks. */
+    public NonDominatedSort sort;
+
     /** We use a state variable to make sure that the nextSubpopulationSize() method
      * is only called at the appropriate time.
      */
@@ -56,6 +69,11 @@ public class NSGA2Breeder extends SimpleBreeder
         if (!clonePipelineAndPopulation)
             state.output.fatal(P_CLONE_PIPELINE_AND_POPULATION + " must be true for " + this.getClass().getSimpleName());
         
+        Parameter p = base.push(P_SORT);
+        if (state.parameters.exists(p, null))
+            sort = (NonDominatedSort)(state.parameters.getInstanceForParameter(p, null, NonDominatedSort.class));
+        else sort = new AutomaticNonDominatedSort();
+
         breedingState = BreedingState.BREEDING_COMPLETE;
         }
 
@@ -187,7 +205,7 @@ public class NSGA2Breeder extends SimpleBreeder
     public ArrayList<ArrayList<Individual>> assignFrontRanks(Subpopulation subpop)
         {
         ArrayList<Individual> inds = subpop.individuals;
-        ArrayList<ArrayList<Individual>> frontsByRank = MultiObjectiveFitness.partitionIntoRanks(inds);
+        ArrayList<ArrayList<Individual>> frontsByRank = sort.partitionIntoRanks(inds);
 
         int numRanks = frontsByRank.size();
         for(int rank = 0; rank < numRanks; rank++)
@@ -0,0 +1,469 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective.nsga3;
+import ec.*;
+import ec.util.*;
+import ec.multiobjective.*;
+import java.io.Serializable;
+import java.util.*;
+
+/*
+ * EnvironmentalSelection.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * EnvironmentalSelection picks the individuals which NSGA-III takes from the last front it admits (front L)
+ * to fill out the archive: it normalizes the objectives (Algorithm 2 of Deb and Jain), associates each individual
+ * with its nearest reference direction (Algorithm 3), and then repeatedly picks an individual for the least-crowded
+ * reference direction (Algorithm 4).  It follows the same steps as SelectorTools, but works on packed double[]
+ * arrays rather than on lists of Doubles, and is meant to be kept around from generation to generation: the
+ * reference directions are only built once, and the working arrays are reused.
+ *
+ * <p>The association step, which costs O(<i>nrm</i>) for <i>n</i> individuals, <i>r</i> reference directions, and
+ * <i>m</i> objectives, dominates the cost when there are many objectives and thus thousands of directions.  It
+ * can be split among several threads.  Each individual's nearest direction is the one with which its normalized
+ * objectives have the largest (squared) dot product, once the directions have been scaled to unit length, so only
+ * one dot product is needed per direction.
+ *
+ * <p>Ties among the least-crowded reference directions, and among the members of a direction which already
+ * has some members, are broken with the EvolutionState's random number generator, so runs are repeatable.
+ *
+ * <p>Objectives are treated as in NonDominatedSort.pack(...): maximized objectives are negated, so all
+ * objectives are minimized.
+ *
+ * @version 1.0
+ */
+
+public class EnvironmentalSelection implements Serializable
+    {
+    private static final long serialVersionUID = 1;
+
+    /** The number of divisions of each objective used to build the reference directions. */
+    public int divisions;
+
+    // the reference directions, scaled to unit length, for numObjectives objectives
+    transient double[] references;
+    transient int numReferences;
+    transient int numObjectives;
+
+    // working arrays, grown as needed
+    transient double[] points;
+    transient double[] normalized;
+    transient int[] nearest;
+    transient double[] distance;
+    transient int[] counts;
+    transient int[] start;
+    transient int[] left;
+    transient int[] candidates;
+    transient int[] active;
+    transient int[] ties;
+    transient int[] selected;
+
+    public EnvironmentalSelection(int divisions)
+        {
+        this.divisions = divisions;
+        }
+
+    /** Returns the reference directions for m objectives, <i>divisions</i> divisions each, as a packed array
+        of rows of m values summing to 1 (the simplex-lattice design of Das and Dennis).  There are
+        (divisions + m - 1) choose (m - 1) of them, in the same order as SelectorTools generates them. */
+    public static double[] referenceDirections(int m, int divisions)
+        {
+        double[] directions = new double[numReferenceDirections(m, divisions) * m];
+        generate(directions, new int[m], m, divisions, divisions, 0, 0);
+        return directions;
+        }
+
+    // fills in location[element...] every way that sums to left, writing each full location as a row starting
+    // at the given row, and returns the row after the last one written
+    static int generate(double[] directions, int[] location, int m, int left, int divisions, int element, int row)
+        {
+        if (element == m - 1)
+            {
+            location[element] = left;
+            for(int k = 0; k < m; k++)
+                directions[row * m + k] = location[k] / (double) divisions;
+            return row + 1;
+            }
+        for(int i = 0; i <= left; i++)
+            {
+            location[element] = i;
+            row = generate(directions, location, m, left - i, divisions, element + 1, row);
+            }
+        return row;
+        }
+
+    /** Returns the number of reference directions for m objectives and the given number of divisions. */
+    public static int numReferenceDirections(int m, int divisions)
+        {
+        long count = 1;
+        for(int i = 1; i < m; i++)
+            count = count * (divisions + i) / i;  // exact: the running product is always a binomial coefficient
+        if (count > Integer.MAX_VALUE / Math.max(m, 1))
+            throw new IllegalArgumentException("Too many reference directions (" + count + ") for " + m + " objectives and " + divisions + " divisions.");
+        return (int) count;
+        }
+
+    /** Selects numToSelect individuals from the last of the given fronts, and returns them.  The fronts should be
+        all those admitted to the archive, in order of rank, with each individual's fitness a MultiObjectiveFitness.
+        The distances are computed with up to numThreads threads from the given pool. */
+    public ArrayList<Individual> select(EvolutionState state, List<ArrayList<Individual>> fronts, int numToSelect, int numThreads, ThreadPool pool)
+        {
+        ArrayList<Individual> lastFront = fronts.get(fronts.size() - 1);
+        int m = ((MultiObjectiveFitness)(lastFront.get(0).fitness)).getNumObjectives();
+        int n = 0;
+        for(int i = 0; i < fronts.size(); i++)
+            n += fronts.get(i).size();
+
+        points = grow(points, n * m);
+        int row = 0;
+        for(int i = 0; i < fronts.size(); i++)
+            {
+            ArrayList<Individual> front = fronts.get(i);
+            for(int j = 0; j < front.size(); j++)
+                {
+                MultiObjectiveFitness fitness = (MultiObjectiveFitness)(front.get(j).fitness);
+                for(int k = 0; k < m; k++)
+                    points[row * m + k] = (fitness.maximize[k] ? -fitness.getObjective(k) : fitness.getObjective(k));
+                row++;
+                }
+            }
+
+        int firstFrontEnd = fronts.get(0).size();
+        int lastFrontStart = n - lastFront.size();
+        int[] rows = select(points, n, m, firstFrontEnd, lastFrontStart, numToSelect, state.random[0], numThreads, pool);
+
+        ArrayList<Individual> result = new ArrayList<Individual>(numToSelect);
+        for(int i = 0; i < numToSelect; i++)
+            result.add(lastFront.get(rows[i] - lastFrontStart));
+        return result;
+        }
+
+    /** Selects numToSelect rows from the last front, and returns them in the first numToSelect slots of an array
+        which will be reused by the next call.  points holds n rows of m minimized objectives: the first front is
+        the rows before firstFrontEnd, and the last front (front L) is the rows from lastFrontStart on.  Rows
+        before lastFrontStart have already been admitted.  numThreads threads from pool compute the distances
+        (if numThreads is 1, or pool is null, they are computed in the calling thread). */
+    public int[] select(double[] points, int n, int m, int firstFrontEnd, int lastFrontStart, int numToSelect,
+        MersenneTwisterFast random, int numThreads, ThreadPool pool)
+        {
+        if (numToSelect > n - lastFrontStart)
+            throw new IllegalArgumentException("Cannot select " + numToSelect + " rows from a front of " + (n - lastFrontStart));
+        if (references == null || numObjectives != m)
+            buildReferences(m);
+
+        // ---------- Algorithm 2 ----------
+        normalize(points, n, m, firstFrontEnd);
+
+        // ---------- Algorithm 3 ----------
+        associate(n, m, numThreads, pool);
+
+        // ---------- Algorithm 4 ----------
+        return niche(n, lastFrontStart, numToSelect, random);
+        }
+
+    /** Returns the nearest reference direction to each row in the last call to select(...). */
+    public int[] getNearest() { return nearest; }
+
+    /** Returns the perpendicular distance of each row from its nearest reference direction in the last call
+        to select(...). */
+    public double[] getDistance() { return distance; }
+
+    /** Returns the normalized objectives of each row in the last call to select(...), packed as in points. */
+    public double[] getNormalized() { return normalized; }
+
+    /** Returns the reference directions, scaled to unit length, as a packed array. */
+    public double[] getReferences() { return references; }
+
+    /** Returns the number of reference directions. */
+    public int getNumReferences() { return numReferences; }
+
+
+
+    //// Normalization
+
+
+    void buildReferences(int m)
+        {
+        references = referenceDirections(m, divisions);
+        numReferences = references.length / m;
+        numObjectives = m;
+        for(int r = 0; r < numReferences; r++)
+            {
+            double length = 0;
+            for(int k = 0; k < m; k++)
+                length += references[r * m + k] * references[r * m + k];
+            length = Math.sqrt(length);
+            for(int k = 0; k < m; k++)
+                references[r * m + k] /= length;
+            }
+        counts = new int[numReferences];
+        start = new int[numReferences + 1];
+        left = new int[numReferences];
+        active = new int[numReferences];
+        ties = new int[numReferences];
+        }
+
+    void normalize(double[] points, int n, int m, int firstFrontEnd)
+        {
+        normalized = grow(normalized, n * m);
+
+        // the ideal point: the minimum of each objective, which must appear in the first front
+        double[] ideal = new double[m];
+        for(int k = 0; k < m; k++)
+            {
+            double min = Double.MAX_VALUE;
+            for(int i = 0; i < firstFrontEnd; i++)
+                min = Math.min(min, points[i * m + k]);
+            ideal[k] = min;
+            }
+
+        // the extreme points: the first-front rows which minimize the achievement scalarizing function
+        // along each axis
+        int[] extreme = new int[m];
+        for(int f = 0; f < m; f++)
+            {
+            double min = Double.MAX_VALUE;
+            for(int i = 0; i < firstFrontEnd; i++)
+                {
+                double asf = Double.NEGATIVE_INFINITY;
+                for(int k = 0; k < m; k++)
+                    asf = Math.max(asf, points[i * m + k] / (k == f ? 1.0 : 0.000001));
+                if (asf < min)
+                    {
+                    min = asf;
+                    extreme[f] = i;
+                    }
+                }
+            }
+
+        // the intercepts of the hyperplane through the extreme points.  If two extreme points are the same,
+        // or the points are degenerate, there is no unique hyperplane, and we fall back to the extreme values.
+        double[] intercepts = null;
+        if (!duplicate(points, m, extreme))
+            intercepts = hyperplane(points, m, extreme);
+        if (intercepts == null)
+            {
+            intercepts = new double[m];
+            for(int f = 0; f < m; f++)
+                intercepts[f] = points[extreme[f] * m + f];
+            }
+
+        double[] scale = new double[m];
+        for(int f = 0; f < m; f++)
+            scale[f] = (Math.abs(intercepts[f] - ideal[f]) > 10e-10 ? intercepts[f] - ideal[f] : 10e-10);
+
+        for(int i = 0; i < n; i++)
+            for(int k = 0; k < m; k++)
+                normalized[i * m + k] = (points[i * m + k] - ideal[k]) / scale[k];
+        }
+
+    boolean duplicate(double[] points, int m, int[] extreme)
+        {
+        for(int i = 0; i < m; i++)
+            for(int j = i + 1; j < m; j++)
+                {
+                if (extreme[i] == extreme[j]) return true;
+                boolean same = true;
+                for(int k = 0; k < m && same; k++)
+                    same = (points[extreme[i] * m + k] == points[extreme[j] * m + k]);
+                if (same) return true;
+                }
+        return false;
+        }
+
+    /** Solves A x = 1 by Gaussian elimination, where the rows of A are the extreme points, and returns the
+        intercepts 1/x, or null if they are not all finite. */
+    double[] hyperplane(double[] points, int m, int[] extreme)
+        {
+        int width = m + 1;
+        double[] a = new double[m * width];
+        for(int i = 0; i < m; i++)
+            {
+            System.arraycopy(points, extreme[i] * m, a, i * width, m);
+            a[i * width + m] = 1.0;
+            }
+
+        for(int base = 0; base < m - 1; base++)
+            for(int target = base + 1; target < m; target++)
+                {
+                double ratio = a[target * width + base] / a[base * width + base];
+                for(int term = 0; term < width; term++)
+                    a[target * width + term] -= a[base * width + term] * ratio;
+                }
+
+        double[] x = new double[m];
+        for(int i = m - 1; i >= 0; i--)
+            {
+            double b = a[i * width + m];
+            for(int known = i + 1; known < m; known++)
+                b -= a[i * width + known] * x[known];
+            x[i] = b / a[i * width + i];
+            }
+
+        double[] intercepts = new double[m];
+        for(int f = 0; f < m; f++)
+            {
+            intercepts[f] = 1.0 / x[f];
+            if (Double.isNaN(intercepts[f]) || Double.isInfinite(intercepts[f]))
+                return null;
+            }
+        return intercepts;
+        }
+
+
+
+    //// Association
+
+
+    void associate(final int n, final int m, int numThreads, ThreadPool pool)
+        {
+        nearest = grow(nearest, n);
+        distance = grow(distance, n);
+
+        int threads = Math.max(1, Math.min(numThreads, n));
+        if (threads == 1 || pool == null)
+            {
+            associate(0, n, m);
+            return;
+            }
+
+        int perThread = n / threads;
+        int slop = n - threads * perThread;
+        int from = 0;
+        for(int t = 0; t < threads; t++)
+            {
+            final int begin = from;
+            final int end = from + perThread + (t < slop ? 1 : 0);
+            pool.start(new Runnable() { public void run() { associate(begin, end, m); } },
+                "ECJ NSGA-III Association Thread " + t);
+            from = end;
+            }
+        pool.joinAll();
+        }
+
+    /** Finds the nearest reference direction, and the distance to it, of each row from begin to end. */
+    void associate(int begin, int end, int m)
+        {
+        double[] references = this.references;
+        double[] normalized = this.normalized;
+        int numReferences = this.numReferences;
+        for(int i = begin; i < end; i++)
+            {
+            int p = i * m;
+            int best = 0;
+            double bestDot = -1;
+            for(int r = 0; r < numReferences; r++)
+                {
+                int q = r * m;
+                double dot = 0;
+                for(int k = 0; k < m; k++)
+                    dot += references[q + k] * normalized[p + k];
+                dot *= dot;
+                if (dot > bestDot)
+                    {
+                    bestDot = dot;
+                    best = r;
+                    }
+                }
+
+            // the distance from the row to its projection onto the direction
+            int q = best * m;
+            double along = 0;
+            for(int k = 0; k < m; k++)
+                along += references[q + k] * normalized[p + k];
+            double d = 0;
+            for(int k = 0; k < m; k++)
+                {
+                double diff = along * references[q + k] - normalized[p + k];
+                d += diff * diff;
+                }
+            nearest[i] = best;
+            distance[i] = Math.sqrt(d);
+            }
+        }
+
+
+
+    //// Niching
+
+
+    int[] niche(int n, int lastFrontStart, int numToSelect, MersenneTwisterFast random)
+        {
+        // count the members of each direction among the rows already admitted
+        Arrays.fill(counts, 0);
+        for(int i = 0; i < lastFrontStart; i++)
+            counts[nearest[i]]++;
+
+        // bucket the candidates in the last front by direction
+        int size = n - lastFrontStart;
+        candidates = grow(candidates, size);
+        selected = grow(selected, numToSelect);
+        Arrays.fill(left, 0);
+        for(int i = lastFrontStart; i < n; i++)
+            left[nearest[i]]++;
+        start[0] = 0;
+        int numActive = 0;
+        for(int r = 0; r < numReferences; r++)
+            {
+            start[r + 1] = start[r] + left[r];
+            if (left[r] > 0) active[numActive++] = r;
+            }
+        Arrays.fill(left, 0);
+        for(int i = lastFrontStart; i < n; i++)
+            {
+            int r = nearest[i];
+            candidates[start[r] + left[r]++] = i;
+            }
+
+        for(int s = 0; s < numToSelect; s++)
+            {
+            // the least-crowded directions which still have candidates
+            int min = Integer.MAX_VALUE;
+            int numTies = 0;
+            for(int a = 0; a < numActive; a++)
+                {
+                int c = counts[active[a]];
+                if (c < min) { min = c; numTies = 0; }
+                if (c == min) ties[numTies++] = a;
+                }
+            int a = ties[numTies == 1 ? 0 : random.nextInt(numTies)];
+            int r = active[a];
+
+            // a direction with no members takes its closest candidate, else a random one
+            int chosen;
+            if (counts[r] == 0)
+                {
+                chosen = 0;
+                for(int c = 1; c < left[r]; c++)
+                    if (distance[candidates[start[r] + c]] < distance[candidates[start[r] + chosen]])
+                        chosen = c;
+                }
+            else chosen = random.nextInt(left[r]);
+
+            selected[s] = candidates[start[r] + chosen];
+            candidates[start[r] + chosen] = candidates[start[r] + --left[r]];
+            counts[r]++;
+            if (left[r] == 0)
+                active[a] = active[--numActive];
+            }
+        return selected;
+        }
+
+    static double[] grow(double[] array, int size)
+        {
+        return (array == null || array.length < size ? new double[size] : array);
+        }
+
+    static int[] grow(int[] array, int size)
+        {
+        return (array == null || array.length < size ? new int[size] : array);
+        }
+    }
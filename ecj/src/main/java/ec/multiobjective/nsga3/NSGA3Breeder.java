@@ -28,16 +28,39 @@ import ec.multiobjective.nsga2.*;
  * <p>NSGA-III has fixed archive size (the population size), and so ignores the 'elites'
  * declaration.  However it will adhere to the 'reevaluate-elites' parameter in SimpleBreeder
  * to determine whether to force fitness reevaluation.
+ *
+ * <p>The individuals taken from the last admitted front are chosen by an EnvironmentalSelection per
+ * subpopulation, which is kept from generation to generation.  Its distance computations are divided among
+ * the breeding threads.
 
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>divisions</tt><br>
+ <font size=-1>int &gt;= 1 (default = 6)</font></td>
+ <td valign=top>(the number of divisions of each objective used to place the reference directions.  There are
+ (<i>divisions</i> + <i>m</i> - 1) choose (<i>m</i> - 1) of them for <i>m</i> objectives)</td></tr>
+ </table>
  */
 
 public class NSGA3Breeder extends NSGA2Breeder
     {
     private static final long serialVersionUID = 1;
+
+    public static final String P_DIVISIONS = "divisions";
+    public static final int DEFAULT_DIVISIONS = 6;
+
+    /** The number of divisions of each objective used to place the reference directions. */
+    public int divisions;
+
+    /** The environmental selection of each subpopulation, made as needed. */
+    public EnvironmentalSelection[] selection = new EnvironmentalSelection[0];
     
     public void setup(final EvolutionState state, final Parameter base)
         {
         super.setup(state, base);
+        divisions = state.parameters.getIntWithDefault(base.push(P_DIVISIONS), null, DEFAULT_DIVISIONS);
+        if (divisions < 1)
+            state.output.fatal("The number of divisions must be >= 1.", base.push(P_DIVISIONS));
         }
 
     /** Build the auxiliary fitness data and reduce the subpopulation to just the archive, which is returned. */
@@ -55,8 +78,7 @@ public class NSGA3Breeder extends NSGA2Breeder
             if (rank.size() + newSubpopulation.size() >= originalPopSize)
                 {
                 //This is the differnce between NSGA2 and 3.
-                int numObjectives = ((NSGA3MultiObjectiveFitness) rank.get(0).fitness).getObjectives().length;
-                List<Individual> frontL = new SelectorTools(ranks.subList(0, i+1), numObjectives).selectFrontLIndividuals(originalPopSize- newSubpopulation.size());
+                List<Individual> frontL = getSelection(subpop).select(state, ranks.subList(0, i+1), originalPopSize - newSubpopulation.size(), state.breedthreads, pool);
                 newSubpopulation.addAll(frontL);
                 break;
                 }
@@ -78,13 +100,22 @@ public class NSGA3Breeder extends NSGA2Breeder
         }
 
 
+    /** Returns the EnvironmentalSelection for the given subpopulation, making it if need be. */
+    public EnvironmentalSelection getSelection(int subpop)
+        {
+        if (subpop >= selection.length)
+            selection = Arrays.copyOf(selection, subpop + 1);
+        if (selection[subpop] == null)
+            selection[subpop] = new EnvironmentalSelection(divisions);
+        return selection[subpop];
+        }
 
     /** Divides inds into ranks and assigns each individual's rank to be the rank it was placed into.
         Each front is an ArrayList. */
     public ArrayList<ArrayList<Individual>> assignFrontRanks(Subpopulation subpop)
         {
         ArrayList<Individual> inds = subpop.individuals;
-        ArrayList<ArrayList<Individual>> frontsByRank = MultiObjectiveFitness.partitionIntoRanks(inds);
+        ArrayList<ArrayList<Individual>> frontsByRank = sort.partitionIntoRanks(inds);
 
         int numRanks = frontsByRank.size();
         for(int rank = 0; rank < numRanks; rank++)
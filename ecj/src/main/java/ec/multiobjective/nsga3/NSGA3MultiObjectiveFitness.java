@@ -29,6 +29,9 @@ import java.util.*;
  * Note that we inherit NSGA2's sparsity measure but we don't use it, nor
  * do we read or write it to stdin/out.
  *
+ * <p>normalizedFitness is only filled in by SelectorTools: NSGA3Breeder's EnvironmentalSelection keeps
+ * the normalized objectives in its own arrays instead.
+ *
  */
  
 /* 
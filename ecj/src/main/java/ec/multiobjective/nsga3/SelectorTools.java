@@ -40,6 +40,10 @@ import java.util.*;
 
   The jMetal git implementation:
   https://github.com/jMetal/jMetal/blob/master/jmetal-algorithm/src/main/java/org/uma/jmetal/algorithm/multiobjective/nsgaiii/util/EnvironmentalSelection.java
+
+  NSGA3Breeder no longer uses this class: it uses EnvironmentalSelection, which does the same thing on
+  packed double[] arrays, reuses its reference points and buffers from generation to generation, and
+  breaks ties with the EvolutionState's random number generator.  SelectorTools is kept for compatibility.
 */
 public class SelectorTools
     {
@@ -23,6 +23,24 @@ import java.util.*;
 /**
  * This subclass of SimpleBreeder overrides the loadElites method to build an archive in the top elites[subpopnum]
  * of each subpopulation.  It computes the sparsity metric, then constructs the archive.
+ *
+ * <p>The strengths, raw fitnesses, and sparsities are computed by the breeding threads, each working on a block
+ * of individuals, without building a matrix of the distances between them.  If the Pareto front is bigger than
+ * the archive, it is truncated by a SPEA2Truncation, which keeps only each member's <i>truncation-neighbors</i>
+ * nearest neighbors, so memory stays linear in the size of the archive.
+
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>k</tt><br>
+ <font size=-1>int &gt;= 1 (default = square root of the subpopulation size)</font></td>
+ <td valign=top>(which nearest neighbor's distance gives the sparsity of an individual)</td></tr>
+ <tr><td valign=top><i>base</i>.<tt>normalize-fitnesses</tt><br>
+ <font size=-1>boolean (default = true)</font></td>
+ <td valign=top>(whether distances divide each objective by its maximum value first)</td></tr>
+ <tr><td valign=top><i>base</i>.<tt>truncation-neighbors</tt><br>
+ <font size=-1>int &gt;= 2 (default = 16)</font></td>
+ <td valign=top>(how many nearest neighbors each member of an overfull archive keeps track of during truncation)</td></tr>
+ </table>
  */
 
 public class SPEA2Breeder extends SimpleBreeder
@@ -30,6 +48,7 @@ public class SPEA2Breeder extends SimpleBreeder
     private static final long serialVersionUID = 1;
     public final static String P_K = "k";
     public final static String P_NORMALIZE = "normalize-fitnesses";
+    public final static String P_TRUNCATION_NEIGHBORS = "truncation-neighbors";
     
     private int k;
     private static int NOT_SET = -1;
@@ -37,6 +56,9 @@ public class SPEA2Breeder extends SimpleBreeder
     /** Indicates whether distance calculations first normalize the objectives to range between zero and one. */
     private boolean normalize;
     
+    /** How many nearest neighbors each member of an overfull archive keeps track of during truncation. */
+    private int truncationNeighbors;
+    
     /** We use a state variable to make sure that the archive isn't built twice in a row.
      */
     public enum BreedingState { ARCHIVE_LOADED, BREEDING_COMPLETE };
@@ -55,6 +77,9 @@ public class SPEA2Breeder extends SimpleBreeder
         
         k = state.parameters.getIntWithDefault(base.push(P_K), null, NOT_SET);
         normalize = state.parameters.getBoolean(base.push(P_NORMALIZE), null, true);
+        truncationNeighbors = state.parameters.getIntWithDefault(base.push(P_TRUNCATION_NEIGHBORS), null, 16);
+        if (truncationNeighbors < 2)
+            state.output.fatal("The number of truncation neighbors must be >= 2.", base.push(P_TRUNCATION_NEIGHBORS));
         breedingState = BreedingState.BREEDING_COMPLETE;
         }
     
@@ -173,11 +198,20 @@ public class SPEA2Breeder extends SimpleBreeder
 
 
     private void buildArchive(EvolutionState state, ArrayList<Individual> oldInds, ArrayList<Individual> newInds, int archiveSize)
-        {                
-        // step 1: load the archive with the pareto-nondominated front
+        {
+        // step 1: load the archive with the pareto-nondominated front: those with no raw fitness
         ArrayList<Individual> archive = new ArrayList<Individual>();
         ArrayList<Individual> nonFront = new ArrayList<Individual>();
-        MultiObjectiveFitness.partitionIntoParetoFront(oldInds, archive, nonFront);
+        int[] frontRows = new int[oldInds.size()];
+        for(int i = 0; i < oldInds.size(); i++)
+            {
+            if (raw[i] == 0)
+                {
+                frontRows[archive.size()] = i;
+                archive.add(oldInds.get(i));
+                }
+            else nonFront.add(oldInds.get(i));
+            }
                 
         // step 2: if the archive isn't full, load the remainder with the fittest individuals (using customFitnessMetric) that aren't in the archive yet
         if (archive.size() < archiveSize)
@@ -192,29 +226,20 @@ public class SPEA2Breeder extends SimpleBreeder
                         
 
         // step 3: if the archive is OVERFULL, iterively remove the most crowded individuals
-        while(archive.size() > archiveSize)
+        if (archive.size() > archiveSize)
             {
-            Individual closest = (Individual)(archive.get(0));
-            int closestIndex = 0;
-            double[] closestD = calculateDistancesFromIndividual(closest, archive);
-                        
-            for(int i = 1; i < archive.size(); i++)
+            final SPEA2Truncation truncation = new SPEA2Truncation(scaled, numObjectives, frontRows, archive.size(), truncationNeighbors);
+            parallel(state, archive.size(), new Block()
                 {
-                Individual competitor = (Individual)(archive.get(i));
-                double[] competitorD = calculateDistancesFromIndividual(competitor, archive);
-                                
-                for(int k = 0; k < archive.size(); k++)
-                    {
-                    if (closestD[i] > competitorD[i])
-                        { closest = competitor ; closestD = competitorD;  closestIndex = k; break; }
-                    else if (closestD[i] < competitorD[i])
-                        { break; }
-                    }
-                }
+                public void run(int begin, int end) { truncation.fill(begin, end); }
+                });
+            truncation.truncate(archiveSize);
             
-            // remove him destructively -- put the top guy in his place and remove the top guy.  This is O(1)
-            archive.set(closestIndex, archive.get(archive.size()-1));
-            archive.remove(archive.size()-1);
+            ArrayList<Individual> survivors = new ArrayList<Individual>(archiveSize);
+            for(int i = 0; i < archive.size(); i++)
+                if (!truncation.isRemoved(i))
+                    survivors.add(archive.get(i));
+            archive = survivors;
             }
                                                 
         // step 4: put archive into the new individuals
@@ -223,131 +248,177 @@ public class SPEA2Breeder extends SimpleBreeder
 
 
     /** Computes the strength of individuals, then the raw fitness (wimpiness) and kth-closest sparsity
-        measure.  Finally, computes the final fitness of the individuals.  */
-    private void computeAuxiliaryData(EvolutionState state, ArrayList<Individual> inds)
+        measure.  Finally, computes the final fitness of the individuals.  The work is divided among the
+        breeding threads, and no distance matrix is built: each individual's kth-closest distance is found
+        with a bounded heap of its k nearest neighbors.  */
+    private void computeAuxiliaryData(EvolutionState state, final ArrayList<Individual> inds)
         {
-        double[][] distances = calculateDistances(state, inds);
-                        
+        final int n = inds.size();
+        pack(inds);
+        final int m = numObjectives;
+
+        // calculate k value
+        int kTH = (k == NOT_SET) ? (int) Math.sqrt(n) : k;  // note that the first element is k=1, not k=0 
+        final int kNN = Math.max(0, Math.min(kTH, n - 1));  // we don't count the individual himself
+
         // For each individual calculate the strength
-        for(int y=0;y<inds.size();y++)
+        final double[] strength = new double[n];
+        parallel(state, n, new Block()
             {
-            // Calculate the node strengths
-            int myStrength = 0;
-            for(int z=0;z<inds.size();z++)
-                if (((SPEA2MultiObjectiveFitness)inds.get(y).fitness).paretoDominates((MultiObjectiveFitness)inds.get(z).fitness)) 
-                    myStrength++;
-            ((SPEA2MultiObjectiveFitness)inds.get(y).fitness).strength = myStrength;
-            } //For each individual y calculate the strength
+            public void run(int begin, int end)
+                {
+                for(int y = begin; y < end; y++)
+                    {
+                    int myStrength = 0;
+                    for(int z = 0; z < n; z++)
+                        if (dominates(y, z)) 
+                            myStrength++;
+                    strength[y] = myStrength;
+                    }
+                }
+            });
                 
-        // calculate k value
-        final int kTH = (k == NOT_SET) ? (int) Math.sqrt(inds.size()) : k;  // note that the first element is k=1, not k=0 
-        
         // For each individual calculate the Raw fitness and kth-distance
-        for(int y=0;y<inds.size();y++)
+        final double[] kthNNDistance = new double[n];
+        parallel(state, n, new Block()
             {
-            double fitness = 0;
-            for(int z=0;z<inds.size();z++)
+            public void run(int begin, int end)
                 {
-                // Raw fitness 
-                if ( ((SPEA2MultiObjectiveFitness)inds.get(z).fitness).paretoDominates((MultiObjectiveFitness)inds.get(y).fitness) )
+                double[] heap = new double[kNN];  // the k smallest distances so far, as a max-heap
+                for(int y = begin; y < end; y++)
                     {
-                    fitness += ((SPEA2MultiObjectiveFitness)inds.get(z).fitness).strength;
+                    double fitness = 0;
+                    int size = 0;
+                    for(int z = 0; z < n; z++)
+                        {
+                        if (z == y) continue;
+                                
+                        // Raw fitness 
+                        if (strength[z] > 0 && dominates(z, y))
+                            fitness += strength[z];
+
+                        // Density component
+                        if (kNN == 0) continue;
+                        double d = SPEA2Truncation.distance(scaled, m, y, z);
+                        if (size < kNN)
+                            {
+                            int c = size++;
+                            while(c > 0 && heap[(c - 1) / 2] < d)
+                                { heap[c] = heap[(c - 1) / 2]; c = (c - 1) / 2; }
+                            heap[c] = d;
+                            }
+                        else if (d < heap[0])
+                            {
+                            int c = 0;
+                            while(true)
+                                {
+                                int child = 2 * c + 1;
+                                if (child >= kNN) break;
+                                if (child + 1 < kNN && heap[child + 1] > heap[child]) child++;
+                                if (heap[child] <= d) break;
+                                heap[c] = heap[child];
+                                c = child;
+                                }
+                            heap[c] = d;
+                            }
+                        }
+                    raw[y] = fitness;
+                    // distances are squared, so we need to take the square root.
+                    kthNNDistance[y] = (kNN == 0 ? 0 : Math.sqrt(heap[0]));
                     }
-                } // For each individual z calculate RAW fitness distances
-            // Set SPEA2 raw fitness value for each individual
-                                    
+                }
+            });
+
+        for(int y = 0; y < n; y++)
+            {
             SPEA2MultiObjectiveFitness indYFitness = ((SPEA2MultiObjectiveFitness)inds.get(y).fitness);
-                        
-            // Density component
-                        
-            // calc k-th nearest neighbor distance.
-            // we add 1 to k because the distances[] array includes the distance to self (which we wish to ignore)
-            // distances are squared, so we need to take the square root.
-            double kthDistance = Math.sqrt(orderStatistics(distances[y], kTH + 1, state.random[0]));
+            indYFitness.strength = strength[y];
                         
             // Set SPEA2 k-th NN distance value for each individual
-            indYFitness.kthNNDistance = 1.0 / ( 2 + kthDistance);
+            indYFitness.kthNNDistance = 1.0 / ( 2 + kthNNDistance[y]);
                         
             // Set SPEA2 fitness value for each individual
-            indYFitness.fitness = fitness + indYFitness.kthNNDistance;
+            indYFitness.fitness = raw[y] + indYFitness.kthNNDistance;
             }
         }
     
-        
-    /** Returns a matrix of sum squared distances from each individual to each other individual. */
-    private double[][] calculateDistances(EvolutionState state, ArrayList<Individual> inds)
+
+    // The objectives of the individuals, packed into rows and negated if maximized, so all are minimized
+    double[] points;
+    int numObjectives;
+    // The objectives, each divided by its maximum value if we're normalizing, for computing distances
+    double[] scaled;
+    // The raw fitness of each individual
+    double[] raw;
+
+    /** Packs the objectives of the individuals into points and scaled, reusing them if they're big enough. */
+    void pack(ArrayList<Individual> inds)
         {
-        double[][] distances = new double[inds.size()][inds.size()];
-        for(int y=0;y<inds.size();y++)
+        int n = inds.size();
+        MultiObjectiveFitness first = (MultiObjectiveFitness)(inds.get(0).fitness);
+        int m = first.getNumObjectives();
+        if (points == null || points.length < n * m)
+            points = new double[n * m];
+        if (raw == null || raw.length < n)
+            raw = new double[n];
+        numObjectives = m;
+        for(int i = 0; i < n; i++)
             {
-            distances[y][y] = 0;
-            for(int z=y+1;z<inds.size();z++)
-                {
-                distances[z][y] = distances[y][z] =
-                    ((SPEA2MultiObjectiveFitness)inds.get(y).fitness).
-                    sumSquaredObjectiveDistance( (SPEA2MultiObjectiveFitness)inds.get(z).fitness , normalize);
-                }
+            MultiObjectiveFitness fitness = (MultiObjectiveFitness)(inds.get(i).fitness);
+            for(int k = 0; k < m; k++)
+                points[i * m + k] = (fitness.maximize[k] ? -fitness.getObjective(k) : fitness.getObjective(k));
             }
-        return distances;
-        }
-
 
-    /** Returns the kth smallest element in the array.  Note that here k=1 means the smallest element in the array (not k=0).
-        Uses a randomized sorting technique, hence the need for the random number generator. */
-    private double orderStatistics(double[] array, int kth, MersenneTwisterFast rng)
-        {
-        return randomizedSelect(array, 0, array.length-1, kth, rng);
-        }
-                
-                
-    /* OrderStatistics [Cormen, p187]:
-     * find the ith smallest element of the array between indices p and r */
-    private double randomizedSelect(double[] array, int p, int r, int i, MersenneTwisterFast rng)
-        {
-        if(p==r) return array[p];
-        int q = randomizedPartition(array, p, r, rng);
-        int k = q-p+1;
-        if(i<=k)
-            return randomizedSelect(array, p, q, i,rng);
+        if (!normalize)
+            scaled = points;
         else
-            return randomizedSelect(array, q+1, r, i-k,rng);
-        }
-                
-                
-    /* [Cormen, p162] */
-    private int randomizedPartition(double[] array, int p, int r, MersenneTwisterFast rng)
-        {
-        int i = rng.nextInt(r-p+1)+p;
-                
-        //exchange array[p]<->array[i]
-        double tmp = array[i];
-        array[i]=array[p];
-        array[p]=tmp;
-        return partition(array,p,r);
+            {
+            if (scaled == null || scaled == points || scaled.length < n * m)
+                scaled = new double[points.length];
+            for(int i = 0; i < n; i++)
+                for(int k = 0; k < m; k++)
+                    scaled[i * m + k] = points[i * m + k] / first.maxObjective[k];
+            }
         }
-                
-                
-    /* [cormen p 154] */
-    private int partition(double[] array, int p, int r)
+
+    /** Returns true if row a of points Pareto-dominates row b. */
+    boolean dominates(int a, int b)
         {
-        double x = array[p];
-        int i = p-1;
-        int j = r+1;
-        while(true)
+        int m = numObjectives;
+        boolean better = false;
+        for(int k = 0; k < m; k++)
             {
-            do j--; while(array[j]>x);
-            do i++; while(array[i]<x);
-            if ( i < j )
-                {
-                //exchange array[i]<->array[j]
-                double tmp = array[i];
-                array[i]=array[j];
-                array[j]=tmp;
-                }
-            else
-                return j;
+            double x = points[a * m + k];
+            double y = points[b * m + k];
+            if (x > y) return false;
+            if (x < y) better = true;
             }
+        return better;
         }
 
+    /** A range of work, from begin (inclusive) to end (exclusive). */
+    interface Block { public void run(int begin, int end); }
 
+    /** Divides 0 ... n among the breeding threads and runs the block on each part. */
+    void parallel(EvolutionState state, int n, final Block block)
+        {
+        int numThreads = Math.max(1, Math.min(state.breedthreads, n));
+        if (numThreads == 1)
+            {
+            block.run(0, n);
+            return;
+            }
+
+        int perThread = n / numThreads;  // integer division
+        int slop = n - numThreads * perThread;
+        int from = 0;
+        for(int t = 0; t < numThreads; t++)
+            {
+            final int begin = from;
+            final int end = from + perThread + (t < slop ? 1 : 0);
+            pool.start(new Runnable() { public void run() { block.run(begin, end); } }, "ECJ SPEA2 Thread " + t);
+            from = end;
+            }
+        pool.joinAll();
+        }
     }
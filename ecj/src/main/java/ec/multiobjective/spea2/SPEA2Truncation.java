@@ -0,0 +1,232 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.multiobjective.spea2;
+import java.util.*;
+
+/*
+ * SPEA2Truncation.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * SPEA2Truncation performs SPEA2's archive truncation: while the archive is too big, it removes the member whose
+ * distances to the other members, sorted, are lexicographically smallest (the member closest to its nearest
+ * neighbor, with ties broken by the second-nearest, and so on).
+ *
+ * <p>Rather than recomputing every member's distances after each removal, each member keeps a sorted list of just
+ * its <i>neighbors</i> nearest neighbors, and the members are kept in a TreeSet ordered by those lists.  Removing
+ * a member only affects the lists which contain it, and we know which those are because each member also
+ * remembers whose lists it is in.  Since members are only ever removed, what remains of a list is still the
+ * nearest neighbors of its owner; when a list has lost half its entries, it is refilled from the remaining members.
+ * Memory is thus O(<i>n</i> <i>neighbors</i>) rather than O(<i>n</i><sup>2</sup>).  At least two neighbors are
+ * kept, since two members which are each other's nearest neighbor always agree in the first entry.  Members whose
+ * lists agree in every entry kept are ordered by their position in the archive: with real-valued objectives, this
+ * is only likely for identical members.
+ *
+ * <p>The members are rows of a packed matrix of (already scaled) objectives, and the distance between two of them
+ * is the sum of their squared differences.  The initial lists may be computed
+ * in parallel by calling fill(...) on disjoint ranges of members from several threads.
+ *
+ * @version 1.0
+ */
+
+public class SPEA2Truncation
+    {
+    double[] points;
+    int m;
+    int[] rows;
+    int size;
+    int neighbors;
+
+    // the nearest neighbors of each member, and their distances, sorted by distance
+    int[] nearest;
+    double[] distance;
+    int[] length;
+
+    // the members whose lists each member has (or had) been placed in
+    int[][] reverse;
+    int[] reverseLength;
+
+    boolean[] removed;
+    int remaining;
+
+    /** Prepares to truncate an archive whose members are the given rows of points, a packed matrix of m
+        objectives each.  Each member remembers up to <i>neighbors</i> of its nearest neighbors. */
+    public SPEA2Truncation(double[] points, int m, int[] rows, int size, int neighbors)
+        {
+        this.points = points;
+        this.m = m;
+        this.rows = rows;
+        this.size = size;
+        this.neighbors = Math.max(1, Math.min(Math.max(neighbors, 2), size - 1));
+        nearest = new int[size * this.neighbors];
+        distance = new double[size * this.neighbors];
+        length = new int[size];
+        removed = new boolean[size];
+        remaining = size;
+        }
+
+    /** Returns the number of members. */
+    public int size() { return size; }
+
+    /** Returns true if the given member has been removed. */
+    public boolean isRemoved(int member) { return removed[member]; }
+
+    /** Returns the sum squared distance between rows a and b of points. */
+    public static double distance(double[] points, int m, int a, int b)
+        {
+        double s = 0;
+        int p = a * m;
+        int q = b * m;
+        for(int k = 0; k < m; k++)
+            {
+            double d = points[p + k] - points[q + k];
+            s += d * d;
+            }
+        return s;
+        }
+
+    /** Computes the neighbor lists of the members from begin to end, among the remaining members. */
+    public void fill(int begin, int end)
+        {
+        int capacity = Math.min(neighbors, remaining - 1);
+        for(int i = begin; i < end; i++)
+            {
+            if (removed[i]) continue;
+            int base = i * neighbors;
+            int heap = 0;  // a max-heap, by (distance, member), of the nearest found so far
+            for(int j = 0; j < size; j++)
+                {
+                if (j == i || removed[j]) continue;
+                double d = distance(points, m, rows[i], rows[j]);
+                if (heap < capacity)
+                    {
+                    int c = heap++;
+                    while(c > 0)  // sift up
+                        {
+                        int p = (c - 1) / 2;
+                        if (!after(d, j, distance[base + p], nearest[base + p])) break;
+                        distance[base + c] = distance[base + p];
+                        nearest[base + c] = nearest[base + p];
+                        c = p;
+                        }
+                    distance[base + c] = d;
+                    nearest[base + c] = j;
+                    }
+                else if (after(distance[base], nearest[base], d, j))
+                    siftDown(base, heap, d, j);
+                }
+
+            // unload the heap back to front, so the list is sorted nearest first
+            for(int h = heap - 1; h > 0; h--)
+                {
+                double d = distance[base + h];
+                int j = nearest[base + h];
+                distance[base + h] = distance[base];
+                nearest[base + h] = nearest[base];
+                siftDown(base, h, d, j);
+                }
+            length[i] = heap;
+            }
+        }
+
+    // replaces the top of the max-heap of the given size with (d, j), and restores the heap
+    void siftDown(int base, int heap, double d, int j)
+        {
+        int c = 0;
+        while(true)
+            {
+            int child = 2 * c + 1;
+            if (child >= heap) break;
+            if (child + 1 < heap && after(distance[base + child + 1], nearest[base + child + 1], distance[base + child], nearest[base + child]))
+                child++;
+            if (!after(distance[base + child], nearest[base + child], d, j)) break;
+            distance[base + c] = distance[base + child];
+            nearest[base + c] = nearest[base + child];
+            c = child;
+            }
+        distance[base + c] = d;
+        nearest[base + c] = j;
+        }
+
+    static boolean after(double d1, int j1, double d2, int j2)
+        {
+        return d1 > d2 || (d1 == d2 && j1 > j2);
+        }
+
+    /** Removes members until only target remain.  The neighbor lists must already have been filled. */
+    public void truncate(int target)
+        {
+        reverse = new int[size][];
+        reverseLength = new int[size];
+        for(int i = 0; i < size; i++)
+            if (!removed[i])
+                for(int h = 0; h < length[i]; h++)
+                    addReverse(nearest[i * neighbors + h], i);
+
+        TreeSet<Integer> members = new TreeSet<Integer>(new Comparator<Integer>()
+            {
+            public int compare(Integer a, Integer b) { return compareMembers(a, b); }
+            });
+        for(int i = 0; i < size; i++)
+            if (!removed[i]) members.add(i);
+
+        while(remaining > target && remaining > 0)
+            {
+            int r = members.pollFirst();
+            removed[r] = true;
+            remaining--;
+
+            for(int x = 0; x < reverseLength[r]; x++)
+                {
+                int i = reverse[r][x];
+                if (removed[i]) continue;
+                int base = i * neighbors;
+                int h = 0;
+                while(h < length[i] && nearest[base + h] != r) h++;
+                if (h == length[i]) continue;  // no longer in the list
+
+                members.remove(i);
+                System.arraycopy(nearest, base + h + 1, nearest, base + h, length[i] - h - 1);
+                System.arraycopy(distance, base + h + 1, distance, base + h, length[i] - h - 1);
+                length[i]--;
+                if (length[i] < remaining - 1 && length[i] <= Math.max(neighbors / 2, 1))
+                    {
+                    fill(i, i + 1);
+                    for(h = 0; h < length[i]; h++)
+                        addReverse(nearest[base + h], i);
+                    }
+                members.add(i);
+                }
+            reverse[r] = null;
+            }
+        }
+
+    void addReverse(int j, int i)
+        {
+        if (reverse[j] == null) reverse[j] = new int[4];
+        else if (reverseLength[j] == reverse[j].length)
+            reverse[j] = Arrays.copyOf(reverse[j], reverseLength[j] * 2);
+        reverse[j][reverseLength[j]++] = i;
+        }
+
+    /** Compares the neighbor lists of two members lexicographically, then their positions. */
+    int compareMembers(int a, int b)
+        {
+        int n = Math.min(length[a], length[b]);
+        for(int h = 0; h < n; h++)
+            {
+            double da = distance[a * neighbors + h];
+            double db = distance[b * neighbors + h];
+            if (da < db) return -1;
+            if (da > db) return 1;
+            }
+        return (a < b ? -1 : (a > b ? 1 : 0));
+        }
+    }
@@ -0,0 +1,451 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.neat;
+import java.util.*;
+import ec.neat.NEATNode.*;
+
+/*
+ * NEATCompiledNetwork.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * NEATCompiledNetwork is a flat, compiled form of the phenotype of a NEATIndividual, built by
+ * NEATIndividual.compileNetwork().  Whereas a NEATNetwork is a graph of NEATNodes which is activated by
+ * repeatedly sweeping over all the nodes and following each one's list of incoming NEATGenes until the outputs
+ * turn on, a NEATCompiledNetwork numbers the nodes, orders them, and stores the enabled links as arrays in
+ * compressed sparse row (CSR) form: the incoming links of each node are a contiguous run of source indices and
+ * weights.  Activating it allocates nothing.
+ *
+ * <p>The sensors come first, then the nodes which can ever be activated (those to which some path of links
+ * leads from a sensor), then the rest, whose activation is always 0 and which are never computed.  Just as in
+ * NEATNetwork, inputs are loaded into the INPUT sensors in order, while BIAS sensors are not loaded and so
+ * remain 0.  Each node's incoming links are summed in the order of the genome, so results are the same, to the
+ * last bit, as those of a NEATNetwork.
+ *
+ * <p>A network may be activated in two ways:
+ *
+ * <ul>
+ * <li><b>Feed-forward</b> (activate(inputs, outputs)).  If the links (other than time-delayed ones) form no
+ * cycle, the nodes are in topological order, and a single pass computes every node from nodes which have already
+ * been computed.  This gives the same outputs as activating a NEATNetwork until it settles, as the ec.app.xor and
+ * ec.app.cartpole problems do.  Time-delayed links carry the activations of the previous call.
+ *
+ * <li><b>Recurrent</b> (activate(inputs, outputs, iterations)).  This works for any network.  Each iteration
+ * computes every node from the activations of the previous iteration, so, unlike NEATNetwork, the result doesn't
+ * depend on the order of the nodes.  As in NEATNetwork, a node stays at 0 until one of its sources has become
+ * active, and time-delayed links carry the activations from before the previous iteration.  Activations persist
+ * from call to call until flush() is called.
+ * </ul>
+ *
+ * <p>Each also has a batched form which activates the network, flushed, on many input vectors at once, and is
+ * faster than activating it on each in turn: the activations are held node by node, so each link is applied to
+ * all of the input vectors in one tight loop.
+ *
+ * @version 1.0
+ */
+
+public class NEATCompiledNetwork implements java.io.Serializable
+    {
+    private static final long serialVersionUID = 1;
+
+    /** The level of nodes which can never be activated. */
+    static final int UNREACHED = Integer.MAX_VALUE;
+
+    int numNodes;
+    int numSensors;
+    int numComputed;            // nodes numSensors ... numSensors + numComputed - 1 are computed
+    int numLinks;
+    boolean feedForward;
+    int depth;
+
+    /** The nodeId of each compiled node. */
+    int[] nodeIds;
+    int[] inputs;               // the INPUT sensors, in order
+    int[] outputs;              // the OUTPUT nodes, in order
+
+    // the incoming links of computed node k are start[k] ... start[k+1]-1, likewise the time-delayed ones
+    int[] start;
+    int[] sources;
+    double[] weights;
+    int[] delayedStart;
+    int[] delayedSources;
+    double[] delayedWeights;
+    boolean hasDelayed;
+
+    // the recurrent iteration at which each computed node first becomes active
+    int[] level;
+
+    // the activations, the activations of the previous iteration or call, and scratch space
+    double[] activation;
+    double[] last;
+    double[] next;
+    int iterations;             // recurrent iterations since the last flush
+
+    // the same, node by node for batches
+    double[] batchActivation;
+    double[] batchLast;
+    double[] batchNext;
+
+    /** Compiles the enabled links among the nodes of the given individual. */
+    public NEATCompiledNetwork(NEATIndividual individual)
+        {
+        ArrayList<NEATNode> nodeList = individual.nodes;
+        int n = nodeList.size();
+        numNodes = n;
+        HashMap<Integer, Integer> index = new HashMap<Integer, Integer>();
+        for(int i = 0; i < n; i++)
+            index.put(nodeList.get(i).nodeId, i);
+
+        // gather the enabled links, in genome order
+        int numGenes = 0;
+        int[] from = new int[individual.genome.length];
+        int[] to = new int[individual.genome.length];
+        double[] weight = new double[individual.genome.length];
+        boolean[] delayed = new boolean[individual.genome.length];
+        for(int g = 0; g < individual.genome.length; g++)
+            {
+            NEATGene gene = (NEATGene)(individual.genome[g]);
+            if (!gene.enable) continue;
+            Integer in = index.get(gene.inNodeId);
+            Integer out = index.get(gene.outNodeId);
+            if (in == null || out == null)
+                throw new IllegalStateException("Gene " + gene.innovationNumber + " links node " + (in == null ? gene.inNodeId : gene.outNodeId) + ", which is not in the individual");
+            if (nodeList.get(out).type == NodeType.SENSOR) continue;          // sensors are never computed
+            from[numGenes] = in;
+            to[numGenes] = out;
+            weight[numGenes] = gene.weight;
+            delayed[numGenes] = gene.timeDelay;
+            numGenes++;
+            }
+
+        // outgoing (undelayed) links of each node
+        int[] outStart = new int[n + 1];
+        for(int g = 0; g < numGenes; g++)
+            if (!delayed[g]) outStart[from[g] + 1]++;
+        for(int i = 0; i < n; i++)
+            outStart[i + 1] += outStart[i];
+        int[] outLinks = new int[outStart[n]];
+        int[] fill = Arrays.copyOf(outStart, n);
+        for(int g = 0; g < numGenes; g++)
+            if (!delayed[g]) outLinks[fill[from[g]]++] = g;
+
+        // level: the fewest undelayed links from a sensor, found breadth-first
+        int[] nodeLevel = new int[n];
+        Arrays.fill(nodeLevel, UNREACHED);
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for(int i = 0; i < n; i++)
+            if (nodeList.get(i).type == NodeType.SENSOR)
+                { nodeLevel[i] = 0; queue[tail++] = i; }
+        numSensors = tail;
+        while(head < tail)
+            {
+            int i = queue[head++];
+            for(int e = outStart[i]; e < outStart[i + 1]; e++)
+                {
+                int j = to[outLinks[e]];
+                if (nodeLevel[j] == UNREACHED)
+                    { nodeLevel[j] = nodeLevel[i] + 1; queue[tail++] = j; }
+                }
+            }
+
+        // topological order of the reachable nodes, if there is one (Kahn's algorithm), else their order
+        // in the individual.  Links from sensors or unreachable nodes don't constrain the order.
+        int[] indegree = new int[n];
+        for(int g = 0; g < numGenes; g++)
+            if (!delayed[g] && nodeLevel[from[g]] != UNREACHED && nodeLevel[from[g]] > 0)
+                indegree[to[g]]++;
+        int[] order = new int[n];
+        int[] longest = new int[n];
+        int count = 0;
+        for(int i = 0; i < n; i++)
+            if (nodeLevel[i] != UNREACHED && nodeLevel[i] > 0 && indegree[i] == 0)
+                order[count++] = i;
+        for(int c = 0; c < count; c++)
+            {
+            int i = order[c];
+            for(int e = outStart[i]; e < outStart[i + 1]; e++)
+                {
+                int j = to[outLinks[e]];
+                longest[j] = Math.max(longest[j], longest[i] + 1);
+                if (--indegree[j] == 0)
+                    order[count++] = j;
+                }
+            }
+        numComputed = 0;
+        for(int i = 0; i < n; i++)
+            if (nodeLevel[i] != UNREACHED && nodeLevel[i] > 0)
+                numComputed++;
+        feedForward = (count == numComputed);
+        depth = 0;
+        if (!feedForward)
+            {
+            count = 0;
+            for(int i = 0; i < n; i++)
+                if (nodeLevel[i] != UNREACHED && nodeLevel[i] > 0)
+                    order[count++] = i;
+            }
+
+        // number the nodes: sensors, then computed nodes in order, then the rest
+        int[] position = new int[n];
+        nodeIds = new int[n];
+        level = new int[numComputed];
+        int p = 0;
+        for(int i = 0; i < n; i++)
+            if (nodeLevel[i] == 0)
+                position[i] = p++;
+        for(int c = 0; c < numComputed; c++)
+            {
+            int i = order[c];
+            level[c] = nodeLevel[i];
+            if (feedForward)
+                depth = Math.max(depth, longest[i] + 1);
+            else depth = Math.max(depth, nodeLevel[i]);
+            position[i] = p++;
+            }
+        for(int i = 0; i < n; i++)
+            if (nodeLevel[i] == UNREACHED)
+                position[i] = p++;
+        for(int i = 0; i < n; i++)
+            nodeIds[position[i]] = nodeList.get(i).nodeId;
+
+        int numInputs = 0;
+        int numOutputs = 0;
+        for(int i = 0; i < n; i++)
+            {
+            NEATNode node = nodeList.get(i);
+            if (node.type == NodeType.SENSOR && node.geneticNodeLabel == NodePlace.INPUT) numInputs++;
+            else if (node.geneticNodeLabel == NodePlace.OUTPUT) numOutputs++;
+            }
+        inputs = new int[numInputs];
+        outputs = new int[numOutputs];
+        numInputs = 0;
+        numOutputs = 0;
+        for(int i = 0; i < n; i++)
+            {
+            NEATNode node = nodeList.get(i);
+            if (node.type == NodeType.SENSOR && node.geneticNodeLabel == NodePlace.INPUT) inputs[numInputs++] = position[i];
+            else if (node.geneticNodeLabel == NodePlace.OUTPUT) outputs[numOutputs++] = position[i];
+            }
+
+        // the incoming links of each computed node, leaving out those from unreachable nodes, which are always 0
+        int[] inStart = new int[n + 1];
+        for(int g = 0; g < numGenes; g++)
+            inStart[to[g] + 1]++;
+        for(int i = 0; i < n; i++)
+            inStart[i + 1] += inStart[i];
+        int[] inLinks = new int[inStart[n]];
+        fill = Arrays.copyOf(inStart, n);
+        for(int g = 0; g < numGenes; g++)
+            inLinks[fill[to[g]]++] = g;
+
+        start = new int[numComputed + 1];
+        delayedStart = new int[numComputed + 1];
+        for(int c = 0; c < numComputed; c++)
+            {
+            int i = order[c];
+            start[c + 1] = start[c];
+            delayedStart[c + 1] = delayedStart[c];
+            for(int e = inStart[i]; e < inStart[i + 1]; e++)
+                {
+                int g = inLinks[e];
+                if (nodeLevel[from[g]] == UNREACHED) continue;
+                if (delayed[g]) delayedStart[c + 1]++;
+                else start[c + 1]++;
+                }
+            }
+        sources = new int[start[numComputed]];
+        weights = new double[start[numComputed]];
+        delayedSources = new int[delayedStart[numComputed]];
+        delayedWeights = new double[delayedStart[numComputed]];
+        hasDelayed = (delayedSources.length > 0);
+        numLinks = sources.length + delayedSources.length;
+        for(int c = 0; c < numComputed; c++)
+            {
+            int i = order[c];
+            int s = start[c];
+            int d = delayedStart[c];
+            for(int e = inStart[i]; e < inStart[i + 1]; e++)
+                {
+                int g = inLinks[e];
+                if (nodeLevel[from[g]] == UNREACHED) continue;
+                if (delayed[g]) { delayedSources[d] = position[from[g]]; delayedWeights[d++] = weight[g]; }
+                else { sources[s] = position[from[g]]; weights[s++] = weight[g]; }
+                }
+            }
+
+        activation = new double[n];
+        last = new double[n];
+        next = new double[n];
+        }
+
+    /** Returns true if the network has no cycles (ignoring time-delayed links), and so may be activated feed-forward. */
+    public boolean isFeedForward() { return feedForward; }
+
+    /** Returns the number of input values, that is, the number of INPUT sensors (not counting BIAS sensors). */
+    public int getNumInputs() { return inputs.length; }
+
+    /** Returns the number of outputs. */
+    public int getNumOutputs() { return outputs.length; }
+
+    /** Returns the number of nodes. */
+    public int getNumNodes() { return numNodes; }
+
+    /** Returns the number of links which are actually computed: enabled links from nodes which can be activated. */
+    public int getNumLinks() { return numLinks; }
+
+    /** Returns the nodeId of each node, in compiled order. */
+    public int[] getNodeIds() { return nodeIds; }
+
+    /** For a feed-forward network, returns the largest number of links on a path from a sensor to a node: a
+        recurrent activation with this many iterations gives the same outputs as a feed-forward one.  For other
+        networks, returns the number of iterations after which every node which can be activated has been. */
+    public int getDepth() { return depth; }
+
+    /** Resets all activations to 0. */
+    public void flush()
+        {
+        Arrays.fill(activation, 0.0);
+        Arrays.fill(last, 0.0);
+        Arrays.fill(next, 0.0);
+        iterations = 0;
+        }
+
+    /** Loads the inputs, activates a feed-forward network in a single pass, and stores the activations of
+        the output nodes in outputs.  Throws an IllegalStateException if the network is not feed-forward. */
+    public void activate(double[] inputs, double[] outputs)
+        {
+        if (!feedForward)
+            throw new IllegalStateException("NEATCompiledNetwork cannot activate a recurrent network feed-forward");
+        if (hasDelayed)
+            System.arraycopy(activation, 0, last, 0, numNodes);
+        load(inputs, 0, activation, 1);
+        compute(activation, last, activation, 1, UNREACHED - 1);
+        store(activation, 1, 0, outputs);
+        }
+
+    /** Loads the inputs, activates the network the given number of iterations, and stores the activations of
+        the output nodes in outputs. */
+    public void activate(double[] inputs, double[] outputs, int iterations)
+        {
+        load(inputs, 0, activation, 1);
+        for(int i = 0; i < iterations; i++)
+            {
+            if (this.iterations <= numNodes) this.iterations++;
+            System.arraycopy(activation, 0, next, 0, numSensors);
+            compute(activation, last, next, 1, this.iterations);
+            double[] temp = last;
+            last = activation;
+            activation = next;
+            next = temp;
+            }
+        store(activation, 1, 0, outputs);
+        }
+
+    /** Activates a feed-forward network, flushed, on each of the given input vectors, storing the activations
+        of the output nodes in the corresponding output vectors.  The network's own activations are unaffected.
+        Throws an IllegalStateException if the network is not feed-forward. */
+    public void activateBatch(double[][] inputs, double[][] outputs)
+        {
+        if (!feedForward)
+            throw new IllegalStateException("NEATCompiledNetwork cannot activate a recurrent network feed-forward");
+        int rows = inputs.length;
+        prepareBatch(rows);
+        for(int r = 0; r < rows; r++)
+            load(inputs[r], r, batchActivation, rows);
+        compute(batchActivation, null, batchActivation, rows, UNREACHED - 1);
+        for(int r = 0; r < rows; r++)
+            store(batchActivation, rows, r, outputs[r]);
+        }
+
+    /** Activates the network, flushed, the given number of iterations on each of the given input vectors,
+        storing the activations of the output nodes in the corresponding output vectors.  The network's own
+        activations are unaffected. */
+    public void activateBatch(double[][] inputs, double[][] outputs, int iterations)
+        {
+        int rows = inputs.length;
+        prepareBatch(rows);
+        for(int r = 0; r < rows; r++)
+            load(inputs[r], r, batchActivation, rows);
+        for(int i = 1; i <= iterations; i++)
+            {
+            System.arraycopy(batchActivation, 0, batchNext, 0, numSensors * rows);
+            compute(batchActivation, batchLast, batchNext, rows, Math.min(i, numNodes + 1));
+            double[] temp = batchLast;
+            batchLast = batchActivation;
+            batchActivation = batchNext;
+            batchNext = temp;
+            }
+        for(int r = 0; r < rows; r++)
+            store(batchActivation, rows, r, outputs[r]);
+        }
+
+    void prepareBatch(int rows)
+        {
+        int size = numNodes * rows;
+        if (batchActivation == null || batchActivation.length < size)
+            {
+            batchActivation = new double[size];
+            batchLast = new double[size];
+            batchNext = new double[size];
+            }
+        else
+            {
+            Arrays.fill(batchActivation, 0, size, 0.0);
+            Arrays.fill(batchLast, 0, size, 0.0);
+            Arrays.fill(batchNext, 0, size, 0.0);
+            }
+        }
+
+    // loads an input vector into row r of activations held node by node for the given number of rows
+    void load(double[] values, int r, double[] activations, int rows)
+        {
+        for(int i = 0; i < inputs.length; i++)
+            activations[inputs[i] * rows + r] = values[i];
+        }
+
+    void store(double[] activations, int rows, int r, double[] values)
+        {
+        for(int i = 0; i < outputs.length; i++)
+            values[i] = activations[outputs[i] * rows + r];
+        }
+
+    /** Computes each computed node which is active by the given iteration into to, from the activations in
+        from (and, for time-delayed links, delayed).  If from and to are the same, this is a feed-forward pass. */
+    void compute(double[] from, double[] delayed, double[] to, int rows, int iteration)
+        {
+        final double slope = NEATNetwork.SIGMOID_SLOPE;
+        for(int c = 0; c < numComputed; c++)
+            {
+            if (level[c] > iteration) continue;        // not yet active, so still 0
+            int node = (numSensors + c) * rows;
+            for(int r = 0; r < rows; r++)
+                to[node + r] = 0.0;
+            for(int e = start[c]; e < start[c + 1]; e++)
+                {
+                double w = weights[e];
+                int source = sources[e] * rows;
+                for(int r = 0; r < rows; r++)
+                    to[node + r] += w * from[source + r];
+                }
+            if (delayed != null)
+                for(int e = delayedStart[c]; e < delayedStart[c + 1]; e++)
+                    {
+                    double w = delayedWeights[e];
+                    int source = delayedSources[e] * rows;
+                    for(int r = 0; r < rows; r++)
+                        to[node + r] += w * delayed[source + r];
+                    }
+            for(int r = 0; r < rows; r++)
+                to[node + r] = 1.0 / (1.0 + Math.exp(-(slope * to[node + r])));
+            }
+        }
+    }
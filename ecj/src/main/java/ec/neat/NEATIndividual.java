@@ -1223,6 +1223,13 @@ public class NEATIndividual extends GeneVectorIndividual
         return net;
         }
 
+    /** Compiles the phenotype into a flat NEATCompiledNetwork, which is much faster to activate, 
+        and to activate over and over again, than the NEATNetwork built by createNetwork(). */
+    public NEATCompiledNetwork compileNetwork()
+        {
+        return new NEATCompiledNetwork(this);
+        }
+
     /**
      * This method convert the individual in to human readable format. It can be
      * useful in debugging.
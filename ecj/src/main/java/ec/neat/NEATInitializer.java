@@ -63,10 +63,7 @@ public class NEATInitializer extends SimpleInitializer
                 species.currNodeId = templateInd.getNodeIdSup();
 
                 // speciate
-                for (int j = 0; j < inds.size(); ++j)
-                    {
-                    species.speciate(state, inds.get(j));
-                    }
+                species.speciate(state, inds);
 
                 // switch to the new generation
                 for (int j = 0; j < species.subspecies.size(); ++j)
@@ -15,6 +15,9 @@ import ec.util.*;
  * nodes and genes (links) with its corresponding NEATIndividual. This class
  * handles all operations that is critical in evaluation of the individuals.
  * 
+ * <p>For evaluations which activate the network many times, NEATIndividual.compileNetwork() builds a
+ * NEATCompiledNetwork, which is activated much faster.
+ * 
  * @author Ermo Wei and David Freelan
  *
  */
@@ -0,0 +1,263 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.neat;
+import java.util.*;
+import ec.*;
+import ec.util.*;
+
+/*
+ * NEATSpeciation.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * NEATSpeciation assigns a whole list of new individuals to subspecies at once, with exactly the same result as
+ * calling NEATSpecies.speciate(...) on each of them in turn, but faster.  Each individual joins the first
+ * subspecies whose representative it is compatible with, where the representative of a subspecies is the first
+ * individual it has received in the new generation, or if none, its first individual in the old generation.  An
+ * individual compatible with no subspecies founds a new one.
+ *
+ * <p>The innovation and mutation numbers of each genome are copied once into plain arrays, and the compatibility
+ * test walks two of these arrays in a single merge, stopping as soon as the disjoint and excess genes alone
+ * reach the compatibility threshold.  (This requires the coefficients to be non-negative: otherwise the whole
+ * genomes are always compared.)
+ *
+ * <p>If there is more than one thread, individuals are taken in blocks.  For each block, the threads first find,
+ * in parallel, the first compatible subspecies of each individual according to the representatives as they stood
+ * when the block began.  These guesses are then checked, in order, on one thread: only those subspecies whose
+ * representative has changed since the block began (because they received their first new individual within it),
+ * or which were founded within it, need to be compared again.  Because the checks are made in order, the result
+ * is the same no matter how many threads are used.
+ *
+ * @version 1.0
+ */
+
+public class NEATSpeciation implements java.io.Serializable
+    {
+    private static final long serialVersionUID = 1;
+
+    /** The number of individuals in each block, per thread. */
+    public static final int BLOCK_SIZE = 16;
+
+    NEATSpecies species;
+    ThreadPool pool = new ThreadPool();
+
+    // the innovation and mutation numbers of each individual being speciated, and of the current representative of
+    // each subspecies
+    int[][] innovations;
+    double[][] mutations;
+    ArrayList<int[]> representativeInnovations = new ArrayList<int[]>();
+    ArrayList<double[]> representativeMutations = new ArrayList<double[]>();
+
+    public NEATSpeciation(NEATSpecies species)
+        {
+        this.species = species;
+        }
+
+    /** Returns the innovation numbers of the individual's genes, in genome order. */
+    public static int[] innovationNumbers(NEATIndividual ind)
+        {
+        int[] result = new int[ind.genome.length];
+        for(int i = 0; i < result.length; i++)
+            result[i] = ((NEATGene)(ind.genome[i])).innovationNumber;
+        return result;
+        }
+
+    /** Returns the mutation numbers of the individual's genes, in genome order. */
+    public static double[] mutationNumbers(NEATIndividual ind)
+        {
+        double[] result = new double[ind.genome.length];
+        for(int i = 0; i < result.length; i++)
+            result[i] = ((NEATGene)(ind.genome[i])).mutationNumber;
+        return result;
+        }
+
+    /** Returns true if species.compatibility(...) of the two genomes, given as their innovation and mutation
+        numbers, would be less than species.compatThreshold. */
+    public boolean compatible(int[] aInnovations, double[] aMutations, int[] bInnovations, double[] bMutations)
+        {
+        double disjointCoeff = species.disjointCoeff;
+        double excessCoeff = species.excessCoeff;
+        double threshold = species.compatThreshold;
+        boolean exit = (disjointCoeff >= 0 && excessCoeff >= 0 && species.mutDiffCoeff >= 0);
+
+        int numExcess = 0;
+        int numMatching = 0;
+        int numDisjoint = 0;
+        double mutTotalDiff = 0.0;
+        int i = 0;
+        int j = 0;
+        int aLength = aInnovations.length;
+        int bLength = bInnovations.length;
+        while (i < aLength && j < bLength)
+            {
+            int aInno = aInnovations[i];
+            int bInno = bInnovations[j];
+            if (aInno == bInno)
+                {
+                numMatching++;
+                mutTotalDiff += Math.abs(aMutations[i] - bMutations[j]);
+                i++;
+                j++;
+                }
+            else
+                {
+                if (aInno < bInno) i++;
+                else j++;
+                numDisjoint++;
+                if (exit && disjointCoeff * numDisjoint >= threshold)
+                    return false;
+                }
+            }
+        numExcess = (aLength - i) + (bLength - j);
+
+        // the same arithmetic as NEATSpecies.compatibility(...)
+        double compatibility = disjointCoeff * (((double) numDisjoint) / 1.0);
+        compatibility += excessCoeff * (((double) numExcess) / 1.0);
+        if (exit && compatibility >= threshold)
+            return false;
+        compatibility += species.mutDiffCoeff * (mutTotalDiff / ((double) numMatching));
+        return compatibility < threshold;
+        }
+
+    /** Assigns each of the given individuals, in order, to a subspecies of the species, possibly creating
+        new subspecies, using up to numThreads threads. */
+    public void speciate(final EvolutionState state, final List<? extends Individual> inds, int numThreads)
+        {
+        final int n = inds.size();
+        innovations = new int[n][];
+        mutations = new double[n][];
+        for(int i = 0; i < n; i++)
+            {
+            NEATIndividual ind = (NEATIndividual)(inds.get(i));
+            innovations[i] = innovationNumbers(ind);
+            mutations[i] = mutationNumbers(ind);
+            }
+
+        ArrayList<NEATSubspecies> subspecies = species.subspecies;
+        representativeInnovations.clear();
+        representativeMutations.clear();
+        for(int s = 0; s < subspecies.size(); s++)
+            {
+            NEATIndividual rep = (NEATIndividual)(subspecies.get(s).newGenerationFirst());
+            if (rep == null) rep = (NEATIndividual)(subspecies.get(s).first());
+            representativeInnovations.add(rep == null ? null : innovationNumbers(rep));
+            representativeMutations.add(rep == null ? null : mutationNumbers(rep));
+            }
+
+        if (numThreads <= 1)
+            {
+            for(int i = 0; i < n; i++)
+                assign(inds, i, scan(i, 0, subspecies.size()));
+            }
+        else
+            {
+            int blockSize = BLOCK_SIZE * numThreads;
+            final int[] guess = new int[blockSize];
+            for(int block = 0; block < n; block += blockSize)
+                {
+                final int begin = block;
+                final int end = Math.min(n, block + blockSize);
+                final int size = subspecies.size();
+                final int[][] repInnovations = representativeInnovations.toArray(new int[size][]);
+                final double[][] repMutations = representativeMutations.toArray(new double[size][]);
+
+                // guess in parallel, using the representatives as they are now
+                int perThread = (end - begin) / numThreads;
+                int slop = (end - begin) - perThread * numThreads;
+                int from = begin;
+                for(int t = 0; t < numThreads; t++)
+                    {
+                    final int a = from;
+                    final int b = from + perThread + (t < slop ? 1 : 0);
+                    from = b;
+                    pool.start(new Runnable()
+                        {
+                        public void run()
+                            {
+                            for(int i = a; i < b; i++)
+                                {
+                                guess[i - begin] = -1;
+                                for(int s = 0; s < size; s++)
+                                    if (repInnovations[s] != null && compatible(innovations[i], mutations[i], repInnovations[s], repMutations[s]))
+                                        { guess[i - begin] = s; break; }
+                                }
+                            }
+                        }, "ECJ NEAT Speciation Thread " + t);
+                    }
+                pool.joinAll();
+
+                // check the guesses in order
+                boolean[] changed = new boolean[size];
+                for(int i = begin; i < end; i++)
+                    {
+                    int g = guess[i - begin];
+                    int found = -1;
+                    int limit = (g == -1 ? size : g);
+                    for(int s = 0; s < limit && found == -1; s++)
+                        if (changed[s] && compatibleWith(i, s))
+                            found = s;
+                    if (found == -1 && g != -1)
+                        {
+                        if (!changed[g] || compatibleWith(i, g))
+                            found = g;
+                        else found = scan(i, g + 1, size);
+                        }
+                    if (found == -1)
+                        found = scan(i, size, subspecies.size());
+                    if (found != -1 && found < size && subspecies.get(found).newGenerationFirst() == null)
+                        changed[found] = true;
+                    assign(inds, i, found);
+                    }
+                }
+            }
+
+        innovations = null;
+        mutations = null;
+        representativeInnovations.clear();
+        representativeMutations.clear();
+        }
+
+    boolean compatibleWith(int i, int s)
+        {
+        int[] rep = representativeInnovations.get(s);
+        return rep != null && compatible(innovations[i], mutations[i], rep, representativeMutations.get(s));
+        }
+
+    // returns the first subspecies from begin to end compatible with individual i, or -1
+    int scan(int i, int begin, int end)
+        {
+        for(int s = begin; s < end; s++)
+            if (compatibleWith(i, s))
+                return s;
+        return -1;
+        }
+
+    // adds individual i to subspecies s, or to a new subspecies if s is -1, updating the representatives
+    void assign(List<? extends Individual> inds, int i, int s)
+        {
+        NEATIndividual ind = (NEATIndividual)(inds.get(i));
+        if (s == -1)
+            {
+            species.addSubspecies(ind);
+            representativeInnovations.add(innovations[i]);
+            representativeMutations.add(mutations[i]);
+            }
+        else
+            {
+            NEATSubspecies subs = species.subspecies.get(s);
+            if (subs.newGenerationFirst() == null)
+                {
+                representativeInnovations.set(s, innovations[i]);
+                representativeMutations.set(s, mutations[i]);
+                }
+            subs.addNewGenIndividual(ind);
+            }
+        }
+    }
@@ -159,6 +159,12 @@ import java.util.*;
  * <td valign=top>The number of babies to siphen off to the champions</td>
  * </tr>
  * <tr>
+ * <td valign=top><tt><i>base</i>.fast-speciation</tt><br>
+ * <font size=-1>Boolean (default is true)</font></td>
+ * <td valign=top>Speciate each generation's new individuals all at once, using breedthreads threads, 
+ * with a NEATSpeciation?  The subspecies are the same either way.</td>
+ * </tr>
+ * <tr>
  * <td valign=top><i>base</i>.<tt>node</tt><br>
  * <font size=-1>Classname, = ec.neat.NEATNode</font></td>
  * <td valign=top>Class of node in a network</td>
@@ -233,6 +239,7 @@ public class NEATSpecies extends GeneVectorSpecies
     public static final String P_BABIES_STOLEN = "babies-stolen";
     public static final String P_MAX_NETWORK_DEPTH = "max-network-depth";
     public static final String P_ADD_NODE_MAX_GENOME_LENGTH = "add-node-max-genome-length";
+    public static final String P_FAST_SPECIATION = "fast-speciation";
         
     /** The prototypical node for individuals in this species. */
     public NEATNode nodePrototype;
@@ -342,6 +349,15 @@ public class NEATSpecies extends GeneVectorSpecies
     /** Beyond this genome length, mutateAddNode does a pure random split rather than a bias. */
     public int addNodeMaxGenomeLength;
 
+    /** Should new individuals be speciated all at once by a NEATSpeciation? */
+    public boolean fastSpeciation;
+
+    /** Speciates new individuals all at once. */
+    public NEATSpeciation speciation;
+
+    /** While breeding, new individuals waiting to be speciated all at once. */
+    ArrayList<Individual> unspeciated;
+
     public Parameter base;
 
     /** A list of the all the subspecies. */
@@ -408,6 +424,8 @@ public class NEATSpecies extends GeneVectorSpecies
         babiesStolen = state.parameters.getInt(base.push(P_BABIES_STOLEN), def.push(P_BABIES_STOLEN), 0);
         maxNetworkDepth = state.parameters.getInt(base.push(P_MAX_NETWORK_DEPTH), base.push(P_MAX_NETWORK_DEPTH), 30);
         addNodeMaxGenomeLength = state.parameters.getInt(base.push(P_ADD_NODE_MAX_GENOME_LENGTH), base.push(P_ADD_NODE_MAX_GENOME_LENGTH), 15);
+        fastSpeciation = state.parameters.getBoolean(base.push(P_FAST_SPECIATION), def.push(P_FAST_SPECIATION), true);
+        speciation = new NEATSpeciation(this);
         }
 
     double boundProbabilityParameter(EvolutionState state, Parameter base, String param, String description)
@@ -436,19 +454,22 @@ public class NEATSpecies extends GeneVectorSpecies
         synchronized(innoLock) {currInnovNum = num;}
         }
 
-    /** Assign the individual into a species, if not found, create a new one */
+    /** Assign the individual into a species, if not found, create a new one.  While breeding with
+        fast-speciation, the individual is instead speciated along with all the others at the end. */
     public void speciate(EvolutionState state, Individual ind)
         {
+        if (unspeciated != null)
+            {
+            unspeciated.add(ind);
+            return;
+            }
        
         NEATIndividual neatInd = (NEATIndividual) ind;
         // For each individual, search for a subspecies it is compatible to
         if (subspecies.size() == 0) // not subspecies available, create the
             // first species
             {
-            NEATSubspecies newSubspecies = (NEATSubspecies) subspeciesPrototype.emptyClone();
-            newSubspecies.reset();
-            subspecies.add(newSubspecies);
-            newSubspecies.addNewGenIndividual(neatInd);
+            addSubspecies(neatInd);
             }
         else
             {
@@ -471,16 +492,37 @@ public class NEATSpecies extends GeneVectorSpecies
             // if we didn't find a match, create a new subspecies
             if (!found)
                 {
-                NEATSubspecies newSubspecies = (NEATSubspecies) subspeciesPrototype.emptyClone();
-                newSubspecies.reset();
-                subspecies.add(newSubspecies);
-                newSubspecies.addNewGenIndividual(neatInd);
+                addSubspecies(neatInd);
                 }
             }
             
 
         }
 
+    /** Assign each of the individuals, in order, into a species, as speciate(state, ind) would. */
+    public void speciate(EvolutionState state, List<? extends Individual> inds)
+        {
+        if (fastSpeciation)
+            {
+            speciation.speciate(state, inds, state.breedthreads);
+            }
+        else
+            {
+            for (int i = 0; i < inds.size(); ++i)
+                speciate(state, inds.get(i));
+            }
+        }
+
+    /** Create a new subspecies whose first new generation individual is the given one. */
+    public NEATSubspecies addSubspecies(NEATIndividual neatInd)
+        {
+        NEATSubspecies newSubspecies = (NEATSubspecies) subspeciesPrototype.emptyClone();
+        newSubspecies.reset();
+        subspecies.add(newSubspecies);
+        newSubspecies.addNewGenIndividual(neatInd);
+        return newSubspecies;
+        }
+
     /** Spawn a new individual with given individual as template. */
     public NEATIndividual spawnWithTemplate(EvolutionState state, NEATSpecies species, int thread, NEATIndividual ind)
         {
@@ -767,11 +809,21 @@ public class NEATSpecies extends GeneVectorSpecies
             subs.newGenIndividuals.clear();
             }
 
+        // Reproduction doesn't depend on the new generation's subspecies, so with
+        // fast-speciation, we speciate all the new individuals at the end
+        if (fastSpeciation)
+            unspeciated = new ArrayList<Individual>();
         for (int i = 0; i < sortedSubspecies.size(); ++i)
             {
             NEATSubspecies subs = sortedSubspecies.get(i);
             subs.reproduce(state, thread, subpop, sortedSubspecies);
             }
+        if (unspeciated != null)
+            {
+            ArrayList<Individual> babies = unspeciated;
+            unspeciated = null;
+            speciate(state, babies);
+            }
 
         // Remove all empty subspecies and age ones that survive
         // As this happens, create master individuals list for the new
@@ -0,0 +1,241 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.simple;
+import ec.*;
+import java.io.*;
+import java.util.*;
+
+/*
+ * FitnessCache.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * FitnessCache remembers the fitnesses of individuals which have already been evaluated, so that
+ * a genotypically identical individual appearing later (a reproduced child, a crossover of two identical
+ * parents, a mutation which changed nothing) can be given a copy of the fitness rather than being
+ * evaluated again.  Individuals are compared with their own hashCode() and equals(...) methods, which
+ * every representation implements to compare genotypes, along with the subpopulation they were
+ * evaluated in.  The cache stores private clones of the individuals, so they may be freely modified afterwards.
+ *
+ * <p>The cache holds at most <i>capacity</i> individuals, evicting the least recently used ones
+ * as necessary.  To keep contention low when many evaluation threads share it, it is split into a
+ * number of independently locked stripes.  The cache counts its hits and misses, each stripe counting
+ * its own under its own lock.
+ *
+ * <p>Whether the cached individuals are written out when checkpointing is up to you: if not,
+ * the cache starts out empty after restoring from a checkpoint.
+ *
+ * <p>The cache is only correct if an individual's fitness depends solely on its genotype and
+ * subpopulation.  For noisy problems, problems whose fitness cases change over time, and the like,
+ * don't use it.
+ *
+ * @version 1.0
+ */
+
+public class FitnessCache implements java.io.Serializable
+    {
+    private static final long serialVersionUID = 1;
+
+    /** The number of stripes the cache is split into, unless it is very small. */
+    public static final int NUM_STRIPES = 16;
+
+    /** The maximum number of individuals in the cache. */
+    public int capacity;
+
+    /** Should the cached individuals be written out when checkpointing? */
+    public boolean checkpoint;
+
+    transient Stripe[] stripes;
+
+    public FitnessCache(int capacity, boolean checkpoint)
+        {
+        if (capacity < 1)
+            throw new IllegalArgumentException("FitnessCache capacity must be >= 1, not " + capacity);
+        this.capacity = capacity;
+        this.checkpoint = checkpoint;
+        buildStripes();
+        }
+
+    void buildStripes()
+        {
+        int numStripes = Math.min(NUM_STRIPES, capacity);
+        stripes = new Stripe[numStripes];
+        for(int i = 0; i < numStripes; i++)
+            stripes[i] = new Stripe(capacity / numStripes + (i < capacity % numStripes ? 1 : 0));
+        }
+
+    Stripe stripe(Key key)
+        {
+        int hash = key.hash ^ (key.hash >>> 16);
+        return stripes[(hash & Integer.MAX_VALUE) % stripes.length];
+        }
+
+    /** If an individual equal to <i>ind</i>, evaluated in the same subpopulation, is in the cache,
+        sets ind's fitness to a clone of its fitness, sets ind to evaluated, and returns true.
+        Otherwise returns false. */
+    public boolean lookup(Individual ind, int subpopulation)
+        {
+        Key key = new Key(ind, subpopulation);
+        Individual cached = stripe(key).get(key);
+        if (cached == null)
+            return false;
+        ind.fitness = (Fitness)(cached.fitness.clone());
+        ind.evaluated = true;
+        return true;
+        }
+
+    /** Adds a clone of the individual to the cache if it has been evaluated. */
+    public void store(Individual ind, int subpopulation)
+        {
+        if (!ind.evaluated) return;
+        Key key = new Key((Individual)(ind.clone()), subpopulation);
+        stripe(key).put(key);
+        }
+
+    /** Removes all individuals from the cache.  The counters are not reset. */
+    public void clear()
+        {
+        for(int i = 0; i < stripes.length; i++)
+            stripes[i].clear();
+        }
+
+    /** Returns the number of individuals in the cache. */
+    public int size()
+        {
+        int size = 0;
+        for(int i = 0; i < stripes.length; i++)
+            size += stripes[i].size();
+        return size;
+        }
+
+    /** Returns the number of successful lookups. */
+    public long getHits()
+        {
+        long total = 0;
+        for(int i = 0; i < stripes.length; i++)
+            synchronized(stripes[i]) { total += stripes[i].hits; }
+        return total;
+        }
+
+    /** Returns the number of unsuccessful lookups. */
+    public long getMisses()
+        {
+        long total = 0;
+        for(int i = 0; i < stripes.length; i++)
+            synchronized(stripes[i]) { total += stripes[i].misses; }
+        return total;
+        }
+
+    /** Returns the fraction of lookups which were successful, or 0 if there have been none. */
+    public double getHitRate()
+        {
+        long hits = getHits();
+        long misses = getMisses();
+        return (hits + misses == 0 ? 0.0 : hits / (double)(hits + misses));
+        }
+
+    /** Resets the hit and miss counters to zero. */
+    public void resetCounters()
+        {
+        for(int i = 0; i < stripes.length; i++)
+            synchronized(stripes[i]) { stripes[i].hits = stripes[i].misses = 0; }
+        }
+
+    private void writeObject(ObjectOutputStream out) throws IOException
+        {
+        out.defaultWriteObject();
+        ArrayList<Key> keys = new ArrayList<Key>();
+        if (checkpoint)
+            for(int i = 0; i < stripes.length; i++)
+                keys.addAll(stripes[i].keys());
+        out.writeObject(keys);
+        out.writeLong(getHits());
+        out.writeLong(getMisses());
+        }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+        {
+        in.defaultReadObject();
+        buildStripes();
+        ArrayList<Key> keys = (ArrayList<Key>)(in.readObject());
+        for(int i = 0; i < keys.size(); i++)
+            {
+            Key key = keys.get(i);
+            stripe(key).put(key);
+            }
+        // the counts needn't be spread over the stripes the way they were, just summed properly
+        stripes[0].hits = in.readLong();
+        stripes[0].misses = in.readLong();
+        }
+
+
+    /** An individual and its subpopulation.  The hash code is computed once. */
+    static class Key implements java.io.Serializable
+        {
+        private static final long serialVersionUID = 1;
+
+        final Individual ind;
+        final int subpopulation;
+        final int hash;
+
+        Key(Individual ind, int subpopulation)
+            {
+            this.ind = ind;
+            this.subpopulation = subpopulation;
+            this.hash = ind.hashCode() * 31 + subpopulation;
+            }
+
+        public int hashCode() { return hash; }
+
+        public boolean equals(Object other)
+            {
+            if (other == this) return true;
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return key.hash == hash && key.subpopulation == subpopulation && ind.equals(key.ind);
+            }
+        }
+
+
+    /** One independently locked LRU portion of the cache.  Each key maps to itself, so that the
+        cached individual can be retrieved.  The stripe counts its own hits and misses. */
+    static class Stripe
+        {
+        final LinkedHashMap<Key, Key> map;
+        long hits;
+        long misses;
+
+        Stripe(final int capacity)
+            {
+            map = new LinkedHashMap<Key, Key>(16, 0.75f, true)
+                {
+                protected boolean removeEldestEntry(Map.Entry<Key, Key> eldest)
+                    { return size() > capacity; }
+                };
+            }
+
+        synchronized Individual get(Key key)
+            {
+            Key cached = map.get(key);
+            if (cached == null) misses++;
+            else hits++;
+            return (cached == null ? null : cached.ind);
+            }
+
+        synchronized void put(Key key) { map.put(key, key); }
+
+        synchronized void clear() { map.clear(); }
+
+        synchronized int size() { return map.size(); }
+
+        synchronized ArrayList<Key> keys() { return new ArrayList<Key>(map.keySet()); }
+        }
+    }
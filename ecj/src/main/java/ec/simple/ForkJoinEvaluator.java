@@ -0,0 +1,350 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.simple;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import ec.*;
+import ec.util.*;
+
+/*
+ * ForkJoinEvaluator.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * ForkJoinEvaluator is a SimpleEvaluator which distributes evaluation over a
+ * java.util.concurrent.ForkJoinPool rather than over ECJ's ThreadPool.
+ * Each subpopulation is recursively split into halves until the pieces are no larger than
+ * a certain <i>grain size</i>, and idle threads steal outstanding pieces from busy ones.
+ * Thus if a few individuals are very expensive to evaluate (deep GP trees, long simulations),
+ * the remaining threads keep working on the rest of the population rather than waiting
+ * at the end of a fixed chunk.
+ *
+ * <p>The pool has exactly <tt>evalthreads</tt> workers.  Each worker is permanently assigned
+ * a thread number from 0 to <tt>evalthreads</tt>-1, and so uses its own Problem clone
+ * and its own random number generator exactly as a SimpleEvaluator thread would.
+ * The <tt>num-tests</tt> and <tt>merge</tt> parameters, and GroupedProblemForm problems,
+ * are handled the same way as in SimpleEvaluator: a GroupedProblemForm receives each
+ * piece as a single group.  If <tt>evalthreads</tt> is 1, ForkJoinEvaluator behaves
+ * exactly like SimpleEvaluator.
+ *
+ * <p>After each generation the evaluator records the wall-clock time spent evaluating,
+ * the number of pieces stolen between threads, and the <i>utilization</i> of the pool:
+ * the total time the threads spent evaluating individuals divided by the wall-clock time
+ * times the number of threads.  A utilization near 1.0 means no thread sat idle.  These values
+ * are available in public fields for Statistics objects, and are optionally printed to
+ * the screen.
+ *
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>grain-size</tt><br>
+ <font size=-1>int &gt;= 1 or String = auto (default)</font></td>
+ <td valign=top>(the largest number of individuals which will be evaluated as a single piece.  If auto, then the grain size is the subpopulation size divided by 8 times the number of threads.)</td></tr>
+ <tr><td valign=top><i>base</i>.<tt>report-utilization</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should we print the time, steal count, and utilization of each generation's evaluation to the screen?)</td></tr>
+ </table>
+ *
+ * @version 1.0
+ */
+
+public class ForkJoinEvaluator extends SimpleEvaluator
+    {
+    private static final long serialVersionUID = 1;
+
+    public static final String P_GRAIN_SIZE = "grain-size";
+    public static final String P_REPORT_UTILIZATION = "report-utilization";
+
+    /** Number of pieces a subpopulation is split into per thread when grain-size is auto. */
+    public static final int AUTO_PIECES_PER_THREAD = 8;
+
+    /** The grain size, or C_AUTO */
+    public int grainSize;
+    public boolean reportUtilization;
+
+    /** Wall-clock nanoseconds spent in the most recent evaluatePopulation(...) */
+    public long lastEvaluationTime;
+    /** Fraction of the available thread time spent evaluating in the most recent evaluatePopulation(...) */
+    public double lastUtilization;
+    /** Number of pieces stolen by idle threads in the most recent evaluatePopulation(...) */
+    public long lastStealCount;
+
+    // The pool and its thread factory are rebuilt lazily, in particular after restoring from a checkpoint
+    transient ForkJoinPool forkJoinPool;
+
+    // One Problem clone and one busy-time counter per thread number.
+    // Each slot is only touched by the worker holding that thread number.
+    Problem[] problems;
+    long[] busyTime;
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        super.setup(state, base);
+
+        if (!cloneProblem && state.evalthreads > 1)
+            state.output.fatal("ForkJoinEvaluator must clone its Problem when there is more than one evaluation thread.", base.push(P_CLONE_PROBLEM));
+
+        if (!state.parameters.exists(base.push(P_GRAIN_SIZE), null) ||
+            state.parameters.getString(base.push(P_GRAIN_SIZE), null).equalsIgnoreCase(V_AUTO))
+            {
+            grainSize = C_AUTO;
+            }
+        else
+            {
+            grainSize = state.parameters.getInt(base.push(P_GRAIN_SIZE), null, 1);
+            if (grainSize < 1)
+                state.output.fatal("Grain Size must be either an integer >= 1 or 'auto'", base.push(P_GRAIN_SIZE), null);
+            }
+
+        reportUtilization = state.parameters.getBoolean(base.push(P_REPORT_UTILIZATION), null, false);
+        }
+
+    /** Returns the ForkJoinPool used for evaluation, building it if necessary. */
+    public ForkJoinPool getPool(final EvolutionState state)
+        {
+        if (forkJoinPool == null)
+            forkJoinPool = new ForkJoinPool(state.evalthreads, new WorkerFactory(state.evalthreads), null, false);
+        return forkJoinPool;
+        }
+
+    public void evaluatePopulation(final EvolutionState state)
+        {
+        if (state.evalthreads == 1)
+            {
+            long start = System.nanoTime();
+            super.evaluatePopulation(state);
+            lastEvaluationTime = System.nanoTime() - start;
+            lastUtilization = 1.0;
+            lastStealCount = 0;
+            }
+        else
+            {
+            if (numTests > 1)
+                expand(state);
+
+            if (problems == null || problems.length != state.evalthreads)
+                {
+                problems = new Problem[state.evalthreads];
+                busyTime = new long[state.evalthreads];
+                }
+            for(int i = 0; i < problems.length; i++)
+                {
+                problems[i] = (Problem)(p_problem.clone());
+                busyTime[i] = 0;
+                }
+
+            ForkJoinPool pool = getPool(state);
+            long steals = pool.getStealCount();
+            long start = System.nanoTime();
+            runOnPool(pool, new PopulationTask(state));
+            lastEvaluationTime = System.nanoTime() - start;
+            lastStealCount = pool.getStealCount() - steals;
+
+            long busy = 0;
+            for(int i = 0; i < busyTime.length; i++)
+                busy += busyTime[i];
+            lastUtilization = (lastEvaluationTime == 0 ? 1.0 :
+                busy / (double)(lastEvaluationTime * state.evalthreads));
+
+            if (numTests > 1)
+                contract(state);
+            reportFitnessCache(state);
+            }
+
+        if (reportUtilization)
+            state.output.message("Generation " + state.generation + " evaluation: " +
+                (lastEvaluationTime / 1000000) + " ms, " + lastStealCount + " steals, utilization " + lastUtilization);
+        }
+
+    // Runs the root task on the pool and waits for it.  We don't call pool.invoke(...) because
+    // a thread which joins a CountedCompleter from outside the pool may be put to work helping
+    // to complete it (JDK 19 and later do this), and then pieces would run on this thread,
+    // which has no thread number, and the pieces it forked would land in the common pool.
+    // So instead we submit the task and wait on a latch which the task releases when it completes.
+    void runOnPool(ForkJoinPool pool, PopulationTask task)
+        {
+        pool.execute(task);
+        boolean interrupted = false;
+        while(true)
+            {
+            try
+                {
+                task.done.await();
+                break;
+                }
+            catch (InterruptedException e)
+                {
+                interrupted = true;
+                }
+            }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        if (task.isCompletedAbnormally())
+            task.join();  // the task is done, so this just rethrows its exception
+        }
+
+    // computes the grain size for a subpopulation of a given size
+    int computeGrainSize(EvolutionState state, int subpopSize)
+        {
+        if (grainSize != C_AUTO)
+            return grainSize;
+        int g = subpopSize / (state.evalthreads * AUTO_PIECES_PER_THREAD);
+        return (g < 1 ? 1 : g);
+        }
+
+    // Evaluates individuals [from, to) of the given subpopulation on the current worker thread.
+    // Tasks are only ever started by runOnPool(...), so they and the tasks they fork always
+    // run on one of our workers.
+    void evaluateRange(EvolutionState state, int subpop, int from, int to)
+        {
+        int threadnum = ((WorkerThread)(Thread.currentThread())).threadnum;
+        int[] numinds = new int[state.population.subpops.size()];
+        int[] froms = new int[numinds.length];
+        numinds[subpop] = to - from;
+        froms[subpop] = from;
+
+        long start = System.nanoTime();
+        evalPopChunk(state, numinds, froms, threadnum, problems[threadnum]);
+        busyTime[threadnum] += System.nanoTime() - start;
+        }
+
+
+    /** The root task: forks one RangeTask per nonempty subpopulation, and releases its latch when
+        they have all completed, or when any of them has thrown an exception. */
+    class PopulationTask extends CountedCompleter<Void>
+        {
+        private static final long serialVersionUID = 1;
+        EvolutionState state;
+        final CountDownLatch done = new CountDownLatch(1);
+
+        PopulationTask(EvolutionState state)
+            {
+            this.state = state;
+            }
+
+        public void compute()
+            {
+            ArrayList<Subpopulation> subpops = state.population.subpops;
+            for(int i = 0; i < subpops.size(); i++)
+                {
+                int size = subpops.get(i).individuals.size();
+                if (size > 0)
+                    {
+                    addToPendingCount(1);
+                    new RangeTask(this, state, i, 0, size, computeGrainSize(state, size)).fork();
+                    }
+                }
+            tryComplete();
+            }
+
+        public void onCompletion(CountedCompleter<?> caller)
+            {
+            done.countDown();
+            }
+
+        public boolean onExceptionalCompletion(Throwable ex, CountedCompleter<?> caller)
+            {
+            done.countDown();
+            return true;
+            }
+        }
+
+    /** Splits a range of a subpopulation in half, forking the upper half, until the range
+        is no larger than the grain size, then evaluates it.  Being a CountedCompleter,
+        no worker ever blocks waiting on another, so the pool never needs to create
+        compensating threads beyond evalthreads. */
+    class RangeTask extends CountedCompleter<Void>
+        {
+        private static final long serialVersionUID = 1;
+        EvolutionState state;
+        int subpop;
+        int from;
+        int to;
+        int grain;
+
+        RangeTask(CountedCompleter<?> parent, EvolutionState state, int subpop, int from, int to, int grain)
+            {
+            super(parent);
+            this.state = state;
+            this.subpop = subpop;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            }
+
+        public void compute()
+            {
+            int hi = to;
+            while (hi - from > grain)
+                {
+                int mid = (from + hi) >>> 1;
+                addToPendingCount(1);
+                new RangeTask(this, state, subpop, mid, hi, grain).fork();
+                hi = mid;
+                }
+            evaluateRange(state, subpop, from, hi);
+            tryComplete();
+            }
+        }
+
+    /** A ForkJoinWorkerThread which holds an ECJ thread number. */
+    static class WorkerThread extends ForkJoinWorkerThread
+        {
+        int threadnum;
+        WorkerFactory factory;
+
+        WorkerThread(ForkJoinPool pool, int threadnum, WorkerFactory factory)
+            {
+            super(pool);
+            this.threadnum = threadnum;
+            this.factory = factory;
+            setName("ECJ Evaluation Thread " + threadnum);
+            }
+
+        protected void onTermination(Throwable exception)
+            {
+            factory.release(threadnum);
+            super.onTermination(exception);
+            }
+        }
+
+    /** Hands out thread numbers 0 ... evalthreads-1 to worker threads, reclaiming the number
+        of any worker which the pool retires.  Refuses to build more than evalthreads workers
+        at a time, so two live workers never share a thread number. */
+    static class WorkerFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory
+        {
+        boolean[] taken;
+
+        WorkerFactory(int evalthreads)
+            {
+            taken = new boolean[evalthreads];
+            }
+
+        public synchronized ForkJoinWorkerThread newThread(ForkJoinPool pool)
+            {
+            for(int i = 0; i < taken.length; i++)
+                if (!taken[i])
+                    {
+                    taken[i] = true;
+                    return new WorkerThread(pool, i, this);
+                    }
+            return null;  // the pool will make do with the workers it has
+            }
+
+        synchronized void release(int threadnum)
+            {
+            taken[threadnum] = false;
+            }
+        }
+    }
@@ -36,6 +36,15 @@ import java.util.*;
  * total number of subpopulations.  Use of this parameter outside of a coevolutionary context
  * (see ec.coevolve.MultiPopCoevolutionaryEvaluator) is very rare indeed.
  *
+ * <p>If the <i>pool-individuals</i> parameter is true, each Species is given an IndividualPool.  After each
+ * generation is bred, the individuals of the old population which are not also in the new one are released to
+ * their Species' pools, and the next generation copies its individuals into them (and into their genome arrays)
+ * rather than cloning new ones.  This saves a great deal of allocation and garbage collection when populations
+ * and genomes are large, but only the basic vector individuals presently know how to be recycled; and it is only
+ * safe if nothing else (your statistics, say) holds on to individuals of old populations without cloning them.
+ * Each pool counts the copies it made by recycling and by cloning, and the counts for each generation are
+ * printed out after it is bred.
+ *
  * <p>SimpleBreeder adheres to the default-subpop parameter in Population: if either an 'elite'
  * or 'reevaluate-elites' parameter is missing, it will use the default subpopulation's value
  * and signal a warning.
@@ -51,6 +60,12 @@ import java.util.*;
  <tr><td valign=top><tt><i>base</i>.sequential</tt><br>
  <font size=-1>boolean (default = false)</font></td>
  <td valign=top>(should we breed just one subpopulation each generation (as opposed to all of them)?)</td></tr>
+ <tr><td valign=top><tt><i>base</i>.persistent-threads</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should breeding threads be the long-lived workers of the EvolutionState's PhasedThreadPool, rather than workers started and joined in a ThreadPool each generation?)</td></tr>
+ <tr><td valign=top><tt><i>base</i>.pool-individuals</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should individuals of the old population which die each generation be recycled as copies of new individuals, rather than allocating new ones?  See ec.IndividualPool)</td></tr>
  </table>
  *
  *
@@ -67,12 +82,23 @@ public class SimpleBreeder extends Breeder
     public static final String P_REEVALUATE_ELITES = "reevaluate-elites";
     public static final String P_SEQUENTIAL_BREEDING = "sequential";
     public static final String P_CLONE_PIPELINE_AND_POPULATION = "clone-pipeline-and-population";
+    public static final String P_PERSISTENT_THREADS = "persistent-threads";
+    public static final String P_POOL_INDIVIDUALS = "pool-individuals";
     /** An array[subpop] of the number of elites to keep for that subpopulation */
     public int[] elite;
     /** An array[subpop] of the *fraction* of elites to keep for that subpopulation */
     public double[] eliteFrac;
     public boolean[] reevaluateElites;
     public boolean clonePipelineAndPopulation;
+    public boolean persistentThreads;
+    /** Should dead individuals be recycled through the species' IndividualPools? */
+    public boolean poolIndividuals;
+    // the pools' counts when they were last reported, by subpopulation
+    long[] lastPoolReused = new long[0];
+    long[] lastPoolAllocated = new long[0];
+    /** The total time, in nanoseconds, spent in multithreaded breeding beyond the time taken by the slowest
+        thread each generation: that is, the cost of handing out and gathering back the breeding jobs. */
+    public long schedulingOverhead = 0;
     public Population backupPopulation = null;
     
     // This is a DOUBLE ARRAY of ARRAYLISTS of <INDIVIDUALS>
@@ -129,6 +155,10 @@ public class SimpleBreeder extends Breeder
         if (!clonePipelineAndPopulation && (state.breedthreads > 1)) // uh oh, this can't be right
             state.output.fatal("The Breeder is not cloning its pipeline and population, but you have more than one thread.", base.push(P_CLONE_PIPELINE_AND_POPULATION));
 
+        persistentThreads = state.parameters.getBoolean(base.push(P_PERSISTENT_THREADS), null, false);
+
+        poolIndividuals = state.parameters.getBoolean(base.push(P_POOL_INDIVIDUALS), null, false);
+
         int defaultSubpop = state.parameters.getInt(new Parameter(Initializer.P_POP).push(Population.P_DEFAULT_SUBPOP), null, 0);
         for(int x=0;x<size;x++)
             {
@@ -204,6 +234,14 @@ public class SimpleBreeder extends Breeder
         one per thread, to various subchunks of a new population. */
     public Population breedPopulation(EvolutionState state) 
         {
+        Population oldpop = state.population;
+        if (poolIndividuals)
+            {
+            for(int i = 0; i < oldpop.subpops.size(); i++)
+                if (oldpop.subpops.get(i).species.pool == null)
+                    oldpop.subpops.get(i).species.pool = new IndividualPool(state.breedthreads);
+            }
+
         Population newpop = null;
         if (clonePipelineAndPopulation)
             newpop = (Population) state.population.emptyClone();
@@ -294,7 +332,7 @@ public class SimpleBreeder extends Breeder
             }
         else
             {
-            // start up the threads
+            SimpleBreederThread[] runs = new SimpleBreederThread[numThreads];
             for(int y=0;y<numThreads;y++)
                 {
                 SimpleBreederThread r = new SimpleBreederThread();
@@ -304,10 +342,27 @@ public class SimpleBreeder extends Breeder
                 r.numinds = numinds[y];
                 r.me = this;
                 r.state = state;
-                pool.start(r, "ECJ Breeding Thread " + y );
+                runs[y] = r;
+                }
+
+            long start = System.nanoTime();
+            if (persistentThreads)
+                {
+                state.getPhasedThreadPool().run(runs);
                 }
+            else
+                {
+                // start up the threads
+                for(int y=0;y<numThreads;y++)
+                    pool.start(runs[y], "ECJ Breeding Thread " + y );
                         
-            pool.joinAll();
+                pool.joinAll();
+                }
+
+            long slowest = 0;
+            for(int y=0;y<numThreads;y++)
+                slowest = Math.max(slowest, runs[y].time);
+            schedulingOverhead += System.nanoTime() - start - slowest;
             }
 
         // Coalesce
@@ -317,14 +372,76 @@ public class SimpleBreeder extends Breeder
             for(int thread = 0; thread < numThreads; thread++)
                 {
                 newpopindividuals.addAll(newIndividuals[subpop][thread]);
+
+                // let go of the individuals, so they're not held (or checkpointed) a second time
+                newIndividuals[subpop][thread].clear();
                 }
             }
 
         postProcess(state);
 
+        if (poolIndividuals)
+            {
+            releaseDeadIndividuals(state, oldpop, newpop);
+            reportIndividualPools(state, oldpop);
+            }
+
         return newpop;
         }
 
+    /** Releases to their species' IndividualPools those individuals of the old population which are not also in
+        the new population, first emptying the pools of any individuals left unused from the previous generation. */
+    protected void releaseDeadIndividuals(EvolutionState state, Population oldpop, Population newpop)
+        {
+        IdentityHashMap<Individual, Individual> living = new IdentityHashMap<Individual, Individual>();
+        for(int i = 0; i < newpop.subpops.size(); i++)
+            for(Individual ind : newpop.subpops.get(i).individuals)
+                living.put(ind, ind);
+
+        for(int i = 0; i < oldpop.subpops.size(); i++)
+            if (oldpop.subpops.get(i).species.pool != null)
+                oldpop.subpops.get(i).species.pool.clear();
+
+        for(int i = 0; i < oldpop.subpops.size(); i++)
+            {
+            Species species = oldpop.subpops.get(i).species;
+            if (species.pool == null) continue;
+            for(Individual ind : oldpop.subpops.get(i).individuals)
+                if (living.put(ind, ind) == null)  // not living, nor already released
+                    species.pool.release(ind);
+            }
+        }
+
+    // prints how many individuals each species' pool recycled and cloned this generation, and how many it now holds
+    void reportIndividualPools(EvolutionState state, Population oldpop)
+        {
+        int numSubpops = oldpop.subpops.size();
+        if (lastPoolReused.length != numSubpops)
+            {
+            lastPoolReused = Arrays.copyOf(lastPoolReused, numSubpops);
+            lastPoolAllocated = Arrays.copyOf(lastPoolAllocated, numSubpops);
+            }
+
+        for(int i = 0; i < numSubpops; i++)
+            {
+            Species species = oldpop.subpops.get(i).species;
+            if (species.pool == null) continue;
+            boolean reported = false;  // along with an earlier subpopulation sharing the species?
+            for(int j = 0; j < i; j++)
+                if (oldpop.subpops.get(j).species == species)
+                    reported = true;
+            if (reported) continue;
+
+            long reused = species.pool.getReused();
+            long allocated = species.pool.getAllocated();
+            state.output.message("Generation " + state.generation + " subpop " + i + " individual pool: " +
+                (reused - lastPoolReused[i]) + " reused, " + (allocated - lastPoolAllocated[i]) + " cloned, " +
+                species.pool.size() + " individuals pooled");
+            lastPoolReused[i] = reused;
+            lastPoolAllocated[i] = allocated;
+            }
+        }
+
     /** A hook to do final modifications as necessary to the population after breeding has concluded.
         By default this does nothing, but multiobjective breeders, which temporarily replace the old
         population while it's being breeded, may use this to put the popuplation back again just in
@@ -443,7 +560,7 @@ public class SimpleBreeder extends Breeder
                     if (oldinds.get(x).fitness.betterThan(oldinds.get(best).fitness))
                         best = x;
                 ArrayList<Individual> inds = newpop.subpops.get(sub).individuals;
-                inds.add((Individual)(oldinds.get(best).clone()));
+                inds.add(state.population.subpops.get(sub).species.copyIndividual(oldinds.get(best), 0));
                 }
             else if (numElites(state, sub)>0)  // we'll need to sort
                 {
@@ -457,7 +574,7 @@ public class SimpleBreeder extends Breeder
                 ArrayList<Individual> inds = newpop.subpops.get(sub).individuals;
                 ArrayList<Individual> oldinds = state.population.subpops.get(sub).individuals;
                 for(int x=oldinds.size()-numElites(state, sub);x<oldinds.size();x++)
-                    inds.add((Individual)(oldinds.get(orderedPop[x]).clone()));
+                    inds.add(state.population.subpops.get(sub).species.copyIndividual(oldinds.get(orderedPop[x]), 0));
                 }
             }
                 
@@ -476,8 +593,11 @@ class SimpleBreederThread implements Runnable
     public SimpleBreeder me;
     public EvolutionState state;
     public int threadnum;
+    public long time;
     public void run()
         {
+        long start = System.nanoTime();
         me.breedPopChunk(newpop,state,numinds,from,threadnum);
+        time = System.nanoTime() - start;
         }
     }
@@ -33,6 +33,39 @@ import ec.gp.ge.*;
  * is provided, then each thread sends individuals sequentially to be evaluated
  * one-at-a-time.
  *
+ * <p>By default the evaluation threads are obtained from a ThreadPool and joined
+ * each generation.  If <tt>persistent-threads</tt> is true, they are instead the
+ * long-lived workers of the EvolutionState's PhasedThreadPool, which are shared with a
+ * SimpleBreeder likewise set to use persistent threads.  Either way, the time spent
+ * handing out and gathering back the threads' work (beyond the time taken by the
+ * slowest thread) is accumulated in <tt>schedulingOverhead</tt>.
+ *
+ * <p>If <tt>fitness-cache</tt> is true, the SimpleEvaluator keeps a FitnessCache of the individuals
+ * it has evaluated.  Before handing an unevaluated individual to a SimpleProblemForm, it checks whether a
+ * genotypically identical individual has already been evaluated in the same subpopulation, and if so,
+ * simply gives the individual a copy of that one's fitness.  Such individuals still count towards
+ * the number of evaluations.  The cache is not used with GroupedProblemForms, nor when <tt>num-tests</tt>
+ * is greater than 1, and is only correct if fitness depends solely on the genotype: so not for noisy problems.
+ *
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>persistent-threads</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should evaluation threads be the long-lived workers of the EvolutionState's PhasedThreadPool?)</td></tr>
+ <tr><td valign=top><i>base</i>.<tt>fitness-cache</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should we give individuals identical to previously evaluated ones the same fitness, rather than evaluating them?)</td></tr>
+ <tr><td valign=top><i>base</i>.<tt>fitness-cache-size</tt><br>
+ <font size=-1>int &gt;= 1 (default = 10000)</font></td>
+ <td valign=top>(the maximum number of individuals held in the fitness cache)</td></tr>
+ <tr><td valign=top><i>base</i>.<tt>fitness-cache-checkpoint</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should the contents of the fitness cache be saved in checkpoints?)</td></tr>
+ <tr><td valign=top><i>base</i>.<tt>fitness-cache-report</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should we print the fitness cache's hits and misses each generation to the screen?)</td></tr>
+ </table>
+ *
  * @author Sean Luke
  * @author Eric Scott
  * @version 2.0 
@@ -49,6 +82,12 @@ public class SimpleEvaluator extends Evaluator
     public static final String P_CLONE_PROBLEM = "clone-problem";
     public static final String P_NUM_TESTS = "num-tests";
     public static final String P_MERGE = "merge";
+    public static final String P_PERSISTENT_THREADS = "persistent-threads";
+    public static final String P_FITNESS_CACHE = "fitness-cache";
+    public static final String P_FITNESS_CACHE_SIZE = "fitness-cache-size";
+    public static final String P_FITNESS_CACHE_CHECKPOINT = "fitness-cache-checkpoint";
+    public static final String P_FITNESS_CACHE_REPORT = "fitness-cache-report";
+    public static final int DEFAULT_FITNESS_CACHE_SIZE = 10000;
 
     public static final String V_MEAN = "mean";
     public static final String V_MEDIAN = "median";
@@ -64,6 +103,15 @@ public class SimpleEvaluator extends Evaluator
     public int numTests = 1;
     public int mergeForm = MERGE_MEAN;
     public boolean cloneProblem;
+    public boolean persistentThreads;
+    /** The total time, in nanoseconds, spent in multithreaded evaluation beyond the time taken by the slowest
+        thread each generation: that is, the cost of handing out and gathering back the evaluation jobs. */
+    public long schedulingOverhead = 0;
+    /** The fitness cache, or null if there is none. */
+    public FitnessCache fitnessCache;
+    public boolean reportFitnessCache;
+    long lastFitnessCacheHits = 0;
+    long lastFitnessCacheMisses = 0;
 
     Object[] lock = new Object[0];          // Arrays are serializable
     int individualCounter = 0;
@@ -81,6 +129,8 @@ public class SimpleEvaluator extends Evaluator
         if (!cloneProblem && (state.breedthreads > 1)) // uh oh, this can't be right
             state.output.fatal("The Evaluator is not cloning its Problem, but you have more than one thread.", base.push(P_CLONE_PROBLEM));
 
+        persistentThreads = state.parameters.getBoolean(base.push(P_PERSISTENT_THREADS), null, false);
+
         numTests = state.parameters.getInt(base.push(P_NUM_TESTS), null, 1);
         if (numTests < 1) numTests = 1;
         else if (numTests > 1)
@@ -113,6 +163,21 @@ public class SimpleEvaluator extends Evaluator
                 state.output.fatal("Chunk Size must be either an integer >= 1 or 'auto'", base.push(P_CHUNK_SIZE), null);
             }
 
+        if (state.parameters.getBoolean(base.push(P_FITNESS_CACHE), null, false))
+            {
+            if (numTests > 1)
+                state.output.warning("The fitness cache is not used when there is more than one test per individual.", base.push(P_FITNESS_CACHE));
+            else if (p_problem.isGroupedProblem())
+                state.output.warning("The fitness cache is not used with a GroupedProblemForm.", base.push(P_FITNESS_CACHE));
+            else
+                {
+                int size = state.parameters.getIntWithDefault(base.push(P_FITNESS_CACHE_SIZE), null, DEFAULT_FITNESS_CACHE_SIZE);
+                if (size < 1)
+                    state.output.fatal("Fitness cache size must be an integer >= 1", base.push(P_FITNESS_CACHE_SIZE), null);
+                fitnessCache = new FitnessCache(size, state.parameters.getBoolean(base.push(P_FITNESS_CACHE_CHECKPOINT), null, false));
+                reportFitnessCache = state.parameters.getBoolean(base.push(P_FITNESS_CACHE_REPORT), null, false);
+                }
+            }
         } 
 
     Population oldpop = null;
@@ -210,22 +275,54 @@ public class SimpleEvaluator extends Evaluator
             }
         else
             {
-            ThreadPool.Worker[] threads = new ThreadPool.Worker[state.evalthreads];
-            for(int i = 0; i < threads.length; i++)
+            SimpleEvaluatorThread[] runs = new SimpleEvaluatorThread[state.evalthreads];
+            for(int i = 0; i < runs.length; i++)
                 {
                 SimpleEvaluatorThread run = new SimpleEvaluatorThread();
                 run.threadnum = i;
                 run.state = state;
                 run.prob = (Problem)p_problem.clone();
-                threads[i] = pool.start(run, "ECJ Evaluation Thread " + i);
+                runs[i] = run;
                 }
+
+            long start = System.nanoTime();
+            if (persistentThreads)
+                {
+                state.getPhasedThreadPool().run(runs);
+                }
+            else
+                {
+                for(int i = 0; i < runs.length; i++)
+                    pool.start(runs[i], "ECJ Evaluation Thread " + i);
                         
-            // join
-            pool.joinAll();
+                // join
+                pool.joinAll();
+                }
+
+            long slowest = 0;
+            for(int i = 0; i < runs.length; i++)
+                slowest = Math.max(slowest, runs[i].time);
+            schedulingOverhead += System.nanoTime() - start - slowest;
             }
 
         if (numTests > 1)
             contract(state);
+
+        reportFitnessCache(state);
+        }
+
+    // prints the fitness cache's hits and misses for this generation, if asked to
+    void reportFitnessCache(final EvolutionState state)
+        {
+        if (fitnessCache == null || !reportFitnessCache) return;
+        long hits = fitnessCache.getHits();
+        long misses = fitnessCache.getMisses();
+        long h = hits - lastFitnessCacheHits;
+        long m = misses - lastFitnessCacheMisses;
+        state.output.message("Generation " + state.generation + " fitness cache: " + h + " hits, " + m + " misses, hit rate " +
+            (h + m == 0 ? 0.0 : h / (double)(h + m)) + ", " + fitnessCache.size() + " individuals cached");
+        lastFitnessCacheHits = hits;
+        lastFitnessCacheMisses = misses;
         }
 
     /** The SimpleEvaluator determines that a run is complete by asking
@@ -280,7 +377,16 @@ public class SimpleEvaluator extends Evaluator
             else // Evaluate each individual in the chunk sequentially
                 {
                 for (Individual ind : chunk)
-                    ((SimpleProblemForm)p).evaluate(state, ind, pop, threadnum);
+                    {
+                    if (fitnessCache != null && !ind.evaluated)
+                        {
+                        if (fitnessCache.lookup(ind, pop))
+                            continue;
+                        ((SimpleProblemForm)p).evaluate(state, ind, pop, threadnum);
+                        fitnessCache.store(ind, pop);
+                        }
+                    else ((SimpleProblemForm)p).evaluate(state, ind, pop, threadnum);
+                    }
                 }
             state.incrementEvaluations(upperbound - fp);
             }
@@ -312,8 +418,16 @@ public class SimpleEvaluator extends Evaluator
         public int threadnum;
         public EvolutionState state;
         public Problem prob = null;
+        public long time;
         
         public void run() 
+            {
+            long start = System.nanoTime();
+            evaluateChunks();
+            time = System.nanoTime() - start;
+            }
+
+        void evaluateChunks()
             {
             ArrayList<Subpopulation> subpops = state.population.subpops;
 
@@ -0,0 +1,176 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.steadystate;
+import ec.*;
+import ec.simple.*;
+import ec.util.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * AsynchronousEvaluation.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * AsynchronousEvaluation is the in-process form of Asynchronous Evolution used by SteadyStateEvaluator when
+ * its <tt>asynchronous</tt> parameter is true.  Rather than sending individuals off to remote slaves as
+ * MasterProblem does, it starts some N local evaluation threads, each with its own clone of the Problem.
+ * Individuals submitted for evaluation go into a bounded job queue, from which the threads take them; evaluated
+ * individuals come back through a completion queue, in whatever order they finish.  Breeding, deselection, and
+ * replacement all remain on the main (coordinator) thread, so the duplicate-retry hash table and the
+ * SteadyStateStatisticsForm hooks work just as they do in ordinary steady-state evolution.
+ *
+ * <p>The coordinator breeds with thread 0.  The evaluation threads use thread numbers 1 through N: if there
+ * are not enough random number generators (or per-thread data) for them, state.random and state.data are
+ * extended with new generators seeded from state.random[0].  Because individuals return in the order in which
+ * they happen to finish, runs are not replicable, just as in master-slave Asynchronous Evolution.
+ *
+ * <p>At most <i>capacity</i> individuals are out for evaluation at any one time.  When that many are out,
+ * canEvaluate() returns false and next(...) waits for one to come back; otherwise next(...) returns null if
+ * none has come back yet.
+ *
+ * <p>The threads are not checkpointed: individuals out for evaluation when a checkpoint is made are simply
+ * lost when the run is restarted.
+ *
+ * @version 1.0
+ */
+
+public class AsynchronousEvaluation
+    {
+    /** A job which tells an evaluation thread to quit. */
+    static final QueueIndividual STOP = new QueueIndividual(null, -1);
+
+    EvolutionState state;
+    ArrayBlockingQueue<QueueIndividual> jobs;
+    LinkedBlockingQueue<QueueIndividual> completed = new LinkedBlockingQueue<QueueIndividual>();
+    ThreadPool pool;
+    int numThreads;
+    int capacity;
+    int outstanding;
+    volatile Throwable failure;
+
+    /** Starts numThreads evaluation threads on the given pool, each evaluating with its own clone of problem,
+        with at most capacity individuals out for evaluation at any one time. */
+    public AsynchronousEvaluation(final EvolutionState state, SimpleProblemForm problem, int numThreads, int capacity, ThreadPool pool)
+        {
+        this.state = state;
+        this.numThreads = numThreads;
+        this.capacity = capacity;
+        this.pool = pool;
+        jobs = new ArrayBlockingQueue<QueueIndividual>(capacity);
+
+        // the evaluation threads are numbered 1...numThreads, leaving 0 for the coordinator
+        if (state.random.length <= numThreads)
+            {
+            int old = state.random.length;
+            state.random = Arrays.copyOf(state.random, numThreads + 1);
+            for(int i = old; i < state.random.length; i++)
+                state.random[i] = Evolve.primeGenerator(new MersenneTwisterFast(state.random[0].nextInt()));
+            }
+        if (state.data.length <= numThreads)
+            {
+            int old = state.data.length;
+            state.data = Arrays.copyOf(state.data, numThreads + 1);
+            for(int i = old; i < state.data.length; i++)
+                state.data[i] = new HashMap();
+            }
+
+        for(int t = 1; t <= numThreads; t++)
+            {
+            final SimpleProblemForm p = (SimpleProblemForm)(((Problem)problem).clone());
+            final int thread = t;
+            pool.start(new Runnable()
+                {
+                public void run() { evaluate(p, thread); }
+                }, "ECJ Asynchronous Evaluation Thread " + t);
+            }
+        }
+
+    void evaluate(SimpleProblemForm problem, int thread)
+        {
+        try
+            {
+            while(true)
+                {
+                QueueIndividual job = jobs.take();
+                if (job == STOP) return;
+                try
+                    {
+                    problem.evaluate(state, job.ind, job.subpop, thread);
+                    }
+                catch (RuntimeException | Error e)
+                    {
+                    failure = e;
+                    completed.add(STOP);  // wake up the coordinator
+                    return;
+                    }
+                completed.add(job);
+                }
+            }
+        catch (InterruptedException e) { }  // we're done
+        }
+
+    /** Returns the number of individuals out for evaluation. */
+    public int getOutstanding() { return outstanding; }
+
+    /** Returns the maximum number of individuals out for evaluation at any one time. */
+    public int getCapacity() { return capacity; }
+
+    /** Returns true if another individual may be submitted for evaluation. */
+    public boolean canEvaluate() { return outstanding < capacity; }
+
+    /** Submits an individual to be evaluated.  canEvaluate() must be true. */
+    public void submit(Individual ind, int subpop)
+        {
+        if (!canEvaluate())
+            throw new IllegalStateException("Too many individuals submitted for asynchronous evaluation");
+        jobs.add(new QueueIndividual(ind, subpop));
+        outstanding++;
+        }
+
+    /** Returns the next individual to have been evaluated, and its subpopulation.  If no individual may
+        presently be submitted, waits for one to be evaluated: else returns null if none has yet been. */
+    public QueueIndividual next()
+        {
+        if (outstanding == 0) return null;
+        QueueIndividual qind = null;
+        if (canEvaluate())
+            qind = completed.poll();
+        else
+            {
+            try { qind = completed.take(); }
+            catch (InterruptedException e)
+                {
+                Thread.currentThread().interrupt();
+                return null;
+                }
+            }
+
+        if (qind == STOP)
+            state.output.fatal("An asynchronous evaluation thread failed while evaluating an individual: " + failure);
+        if (qind != null) outstanding--;
+        return qind;
+        }
+
+    /** Stops the evaluation threads and waits for them to finish.  Individuals still out for evaluation
+        are discarded. */
+    public void shutdown()
+        {
+        jobs.clear();
+        for(int t = 0; t < numThreads; t++)
+            {
+            try { jobs.put(STOP); }
+            catch (InterruptedException e) { Thread.currentThread().interrupt(); break; }
+            }
+        pool.joinAll();
+        completed.clear();
+        outstanding = 0;
+        }
+    }
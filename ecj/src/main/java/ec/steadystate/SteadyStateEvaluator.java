@@ -38,7 +38,22 @@ import ec.eval.MasterProblem;
  *
  * <p>When SteadyStateEvaluator sends indivduals off to be evaluated, it stores them in an internal queue, along
  * with the subpopulation in which they were destined.  This tuple is defined by QueueIndividual.java
- * 
+ *
+ * <p>If <tt>asynchronous</tt> is true, SteadyStateEvaluator performs Asynchronous Evolution in-process rather
+ * than with remote slaves: <tt>evalthreads</tt> local threads evaluate individuals while the main thread goes on
+ * breeding and replacing, with at most <tt>queue-size</tt> individuals out for evaluation at any one time.
+ * See AsynchronousEvaluation.  This cannot be combined with a MasterProblem, and like master-slave
+ * Asynchronous Evolution, its runs are not replicable.
+ *
+ <p><b>Parameters</b><br>
+ <table>
+ <tr><td valign=top><i>base</i>.<tt>asynchronous</tt><br>
+ <font size=-1>boolean (default = false)</font></td>
+ <td valign=top>(should individuals be evaluated by <tt>evalthreads</tt> local threads while we continue to breed?)</td></tr>
+ <tr><td valign=top><i>base</i>.<tt>queue-size</tt><br>
+ <font size=-1>int &gt;= 1 (default = twice <tt>evalthreads</tt>)</font></td>
+ <td valign=top>(the maximum number of individuals out for asynchronous evaluation at any one time)</td></tr>
+ </table>
  *
  * @author Sean Luke
  * @version 1.0 
@@ -48,6 +63,9 @@ public class SteadyStateEvaluator extends SimpleEvaluator
     {
     private static final long serialVersionUID = 1;
 
+    public static final String P_ASYNCHRONOUS = "asynchronous";
+    public static final String P_QUEUE_SIZE = "queue-size";
+
     LinkedList<QueueIndividual> queue = new LinkedList<>();
     
     /** Holds the subpopulation currently being evaluated.  */ 
@@ -55,12 +73,31 @@ public class SteadyStateEvaluator extends SimpleEvaluator
 
     /** Our problem. */
     SimpleProblemForm problem; 
+
+    /** Should we evaluate individuals in local threads while we continue to breed? */
+    public boolean asynchronous;
+    
+    /** The maximum number of individuals out for asynchronous evaluation at any one time. */
+    public int queueSize;
+
+    /** Our asynchronous evaluation threads, if any.  These are not checkpointed. */
+    transient AsynchronousEvaluation asynchronousEvaluation;
         
     public void setup(final EvolutionState state, final Parameter base)
         {
         super.setup(state,base);
         if (!cloneProblem)
             state.output.fatal("cloneProblem must be true for SteadyStateEvaluator -- we'll use only one Problem anyway.");
+
+        asynchronous = state.parameters.getBoolean(base.push(P_ASYNCHRONOUS), null, false);
+        if (asynchronous)
+            {
+            if (p_problem instanceof MasterProblem)
+                state.output.fatal("Asynchronous evaluation in local threads cannot be combined with a MasterProblem.", base.push(P_ASYNCHRONOUS));
+            queueSize = state.parameters.getIntWithDefault(base.push(P_QUEUE_SIZE), null, 2 * state.evalthreads);
+            if (queueSize < 1)
+                state.output.fatal("The queue size must be an integer >= 1", base.push(P_QUEUE_SIZE), null);
+            }
         }
         
     public void prepareToEvaluate(EvolutionState state, int thread) 
@@ -72,11 +109,39 @@ public class SteadyStateEvaluator extends SimpleEvaluator
         */
         if (problem instanceof MasterProblem) 
             ((MasterProblem)problem).prepareToEvaluate(state, thread); 
+        
+        if (asynchronous && asynchronousEvaluation == null)
+            asynchronousEvaluation = new AsynchronousEvaluation(state, problem, state.evalthreads, queueSize, pool);
+        }
+
+    /** Restarts the asynchronous evaluation threads, if any, after a checkpoint.  Individuals which were out 
+        for evaluation when the checkpoint was made are lost. */
+    public void reinitializeContacts(EvolutionState state)
+        {
+        super.reinitializeContacts(state);
+        if (asynchronous && problem != null)
+            asynchronousEvaluation = new AsynchronousEvaluation(state, problem, state.evalthreads, queueSize, pool);
+        }
+
+    /** Shuts down the asynchronous evaluation threads, if any. */
+    public void closeContacts(EvolutionState state, int result)
+        {
+        super.closeContacts(state, result);
+        if (asynchronousEvaluation != null)
+            {
+            asynchronousEvaluation.shutdown();
+            asynchronousEvaluation = null;
+            }
         }
         
     /** Submits an individual to be evaluated by the Problem, and adds it and its subpopulation to the queue. */
     public void evaluateIndividual(final EvolutionState state, Individual ind, int subpop)
         {
+        if (asynchronousEvaluation != null)
+            {
+            asynchronousEvaluation.submit(ind, subpop);
+            return;
+            }
         problem.evaluate(state, ind, subpop, 0);
         queue.addLast(new QueueIndividual(ind, subpop));
         }
@@ -85,7 +150,9 @@ public class SteadyStateEvaluator extends SimpleEvaluator
         except in the asynchronous evolution situation, where we may not have a processor ready yet. */
     public boolean canEvaluate() 
         {
-        if (problem instanceof MasterProblem)
+        if (asynchronousEvaluation != null)
+            return asynchronousEvaluation.canEvaluate();
+        else if (problem instanceof MasterProblem)
             return ((MasterProblem)problem).canEvaluate();
         else return true;
         }
@@ -100,7 +167,11 @@ public class SteadyStateEvaluator extends SimpleEvaluator
         {
         QueueIndividual qind = null;
         
-        if (problem instanceof MasterProblem)
+        if (asynchronousEvaluation != null)
+            {
+            qind = asynchronousEvaluation.next();
+            }
+        else if (problem instanceof MasterProblem)
             {
             if (((MasterProblem)problem).evaluatedIndividualAvailable())
                 qind = ((MasterProblem)problem).getNextEvaluatedIndividual();
@@ -34,6 +34,10 @@ import java.io.*;
  * write the checkpoint files.  Otherwise they will be written in your working
  * directory (where you ran the Java process).
  *
+ * <p>If ec.EvolutionState.checkpointIncremental is true, checkpoints are instead
+ * written, under the same names, by an ec.util.IncrementalCheckpoint, mostly in a background
+ * thread.  restoreFromCheckpoint(...) reads either kind of file.
+ *
  * @author Sean Luke
  * @version 1.1
  */
@@ -41,19 +45,31 @@ import java.io.*;
 public class Checkpoint
     {
 
-    /** Writes the evolution state out to a file. */
+    /** Returns the file the evolution state would be checkpointed to right now. */
+    public static File checkpointFile(EvolutionState state)
+        {
+        if (state.checkpointDirectory != null)
+            return new File(state.checkpointDirectory, 
+                "" + state.checkpointPrefix + "." + state.generation + ".gz");
+        else return new File("" + state.checkpointPrefix + "." + state.generation + ".gz");
+        }
+
+    /** Writes the evolution state out to a file.  If the checkpoint is incremental, this
+        may return before the file has been written: see finishCheckpoint(...). */
 
     public static void setCheckpoint(EvolutionState state)
         {
+        if (state.checkpointIncremental)
+            {
+            if (state.incrementalCheckpoint == null)
+                state.incrementalCheckpoint = new IncrementalCheckpoint();
+            state.incrementalCheckpoint.checkpoint(state);
+            return;
+            }
+
         try
             {
-            File file = new File("" + state.checkpointPrefix + "." + state.generation + ".gz");
-            
-            if (state.checkpointDirectory != null)
-                {
-                file = new File(state.checkpointDirectory, 
-                    "" + state.checkpointPrefix + "." + state.generation + ".gz");
-                }
+            File file = checkpointFile(state);
             ObjectOutputStream s = 
                 new ObjectOutputStream(
                     new GZIPOutputStream (
@@ -78,6 +94,14 @@ public class Checkpoint
         }
 
 
+    /** Waits until any checkpoint still being written out in the background is done. */
+    public static void finishCheckpoint(EvolutionState state)
+        {
+        if (state.incrementalCheckpoint != null)
+            state.incrementalCheckpoint.finish();
+        }
+
+
     /** Returns an EvolutionState object read from a checkpoint file
         whose filename is <i>checkpoint</i> 
         *
@@ -88,14 +112,29 @@ public class Checkpoint
     /* must throw something if error -- NEVER return null */
         { 
         // load from the file
-        ObjectInputStream s = 
-            new ObjectInputStream(
+        BufferedInputStream b = 
+            new BufferedInputStream(
                 new GZIPInputStream (
                     new BufferedInputStream (
                         new FileInputStream (checkpoint))));
 
-        EvolutionState e = (EvolutionState) s.readObject();
-        s.close();
+        // is it an incremental checkpoint?
+        b.mark(4);
+        int magic = new DataInputStream(b).readInt();
+        b.reset();
+
+        EvolutionState e;
+        if (magic == IncrementalCheckpoint.MAGIC)
+            {
+            b.close();
+            e = IncrementalCheckpoint.restore(new File(checkpoint));
+            }
+        else
+            {
+            ObjectInputStream s = new ObjectInputStream(b);
+            e = (EvolutionState) s.readObject();
+            s.close();
+            }
 
         // restart from the checkpoint
     
@@ -0,0 +1,443 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.util;
+import ec.*;
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+/*
+ * IncrementalCheckpoint.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * IncrementalCheckpoint writes checkpoints for Checkpoint when <tt>checkpoint-incremental</tt> is true.
+ * Checkpoint ordinarily serializes the entire EvolutionState, population and all, through a GZIPOutputStream,
+ * and evolution waits until it is done.  With large populations this can take a long time.
+ * IncrementalCheckpoint instead does three things:
+ *
+ * <ul>
+ * <li>The individuals are written in their binary form, with Individual.writeIndividual(...), rather than
+ * serialized.  Everything else in the EvolutionState is serialized as usual, but with the subpopulations
+ * emptied of their individuals.
+ * <li>On the EvolutionState's thread, the individuals and the state are only written to arrays in memory,
+ * which are a snapshot of the run.  The snapshot is compressed and written out to the checkpoint file by a background thread,
+ * while evolution continues.  A checkpoint must be done before the next one can start.
+ * <li>Only every <tt>checkpoint-full-modulo</tt>th checkpoint is a <i>full</i> checkpoint, holding every individual.
+ * The others are <i>delta</i> checkpoints, holding only those individuals which differ from every individual
+ * of the last full checkpoint: the rest are stored as references to individuals in the full checkpoint.
+ * </ul>
+ *
+ * <p>Checkpoint files are named just as Checkpoint names them, and you restart from either kind the usual
+ * way, with <tt>java ec.Evolve -checkpoint</tt> <i>file</i>: Checkpoint.restoreFromCheckpoint(...) recognizes
+ * the format.  A delta checkpoint names its full checkpoint, which must be in the same directory.  Each file
+ * ends with a CRC32 checksum of its contents, and a delta checkpoint also holds the checksum of its full
+ * checkpoint, so a corrupt file, or a full checkpoint which has since been overwritten by another run, is
+ * detected rather than silently restored.  Files are written under a temporary name and then renamed,
+ * so a crash while writing doesn't leave a partial checkpoint behind.
+ *
+ * <p>Because individuals are restored with Species.newIndividual(EvolutionState, DataInput), your individuals
+ * and fitnesses must implement their binary reading and writing methods (readGenotype, writeGenotype,
+ * readFitness, writeFitness and so on) completely.  Also, if something other than the population refers
+ * to an individual in the population, the two will be separate (though equal) individuals after restoring.
+ *
+ * <p>An IncrementalCheckpoint is held in a transient variable by the EvolutionState, so after restoring
+ * the first checkpoint written is always a full one.
+ *
+ * @version 1.0
+ */
+
+public class IncrementalCheckpoint
+    {
+    /** The first four bytes of an (uncompressed) incremental checkpoint, "ECJI". */
+    public static final int MAGIC = 0x45434A49;
+    public static final int VERSION = 1;
+
+    // the last full checkpoint we wrote, and its individuals, or null if there isn't one
+    String baseName;
+    long baseChecksum;
+    HashMap<Key, Integer> baseIndividuals;
+
+    // the number of checkpoints since the last full one, including it
+    int count;
+
+    // the thread presently writing a checkpoint, if any
+    Thread writer;
+
+    /** Takes a snapshot of the state and starts writing it out in a background thread, after
+        waiting for any previous checkpoint to be done. */
+    public void checkpoint(final EvolutionState state)
+        {
+        finish();
+
+        final boolean full = (baseName == null || count >= state.checkpointFullModulo);
+        final File file = Checkpoint.checkpointFile(state);
+        final Snapshot snapshot;
+        try
+            {
+            snapshot = new Snapshot(state);
+            }
+        catch (IOException e)
+            {
+            state.output.warning("Unable to create the checkpoint file " + file.getName() +
+                " because of an IOException:\n--EXCEPTION--\n" + e + "\n--EXCEPTION-END--\n");
+            return;
+            }
+        count = (full ? 1 : count + 1);
+
+        writer = new Thread(new Runnable()
+            {
+            public void run() { write(state.output, snapshot, full, file); }
+            }, "Checkpoint " + file.getName());
+        writer.start();
+        }
+
+    /** Waits until the checkpoint being written in the background, if any, is done. */
+    public void finish()
+        {
+        if (writer == null) return;
+        boolean interrupted = false;
+        while(writer.isAlive())
+            {
+            try { writer.join(); }
+            catch (InterruptedException e) { interrupted = true; }
+            }
+        writer = null;
+        if (interrupted) Thread.currentThread().interrupt();
+        }
+
+    void write(Output output, Snapshot snapshot, boolean full, File file)
+        {
+        File tmp = new File(file.getPath() + ".tmp");
+        try
+            {
+            GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            CheckedOutputStream checked = new CheckedOutputStream(gzip, new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeBoolean(!full);
+            if (!full)
+                {
+                out.writeUTF(baseName);
+                out.writeLong(baseChecksum);
+                }
+            out.writeInt(snapshot.state.length);
+            out.write(snapshot.state);
+
+            // the individuals
+            byte[] data = snapshot.individuals;
+            int[] offsets = snapshot.offsets;
+            int changed = 0;
+            int i = 0;
+            out.writeInt(snapshot.sizes.length);
+            for(int s = 0; s < snapshot.sizes.length; s++)
+                {
+                out.writeInt(snapshot.sizes[s]);
+                for(int x = 0; x < snapshot.sizes[s]; x++, i++)
+                    {
+                    int len = offsets[i + 1] - offsets[i];
+                    if (!full)
+                        {
+                        Integer ref = baseIndividuals.get(new Key(data, offsets[i], len));
+                        if (ref != null)
+                            {
+                            out.writeInt(ref.intValue());
+                            continue;
+                            }
+                        out.writeInt(-1);
+                        }
+                    out.writeInt(len);
+                    out.write(data, offsets[i], len);
+                    changed++;
+                    }
+                }
+            out.flush();
+
+            // the checksum goes after everything it sums
+            long checksum = checked.getChecksum().getValue();
+            DataOutputStream trailer = new DataOutputStream(gzip);
+            trailer.writeLong(checksum);
+            trailer.close();
+
+            if (file.exists() && !file.delete())
+                throw new IOException("Could not replace " + file);
+            if (!tmp.renameTo(file))
+                throw new IOException("Could not rename " + tmp + " to " + file);
+
+            if (full)
+                {
+                HashMap<Key, Integer> index = new HashMap<Key, Integer>();
+                for(int j = 0; j < offsets.length - 1; j++)
+                    {
+                    Key key = new Key(data, offsets[j], offsets[j + 1] - offsets[j]);
+                    if (!index.containsKey(key))
+                        index.put(key, Integer.valueOf(j));
+                    }
+                baseName = file.getName();
+                baseChecksum = checksum;
+                baseIndividuals = index;
+                }
+
+            output.message("Wrote out checkpoint file " + file.getName() + (full ? " (full)" :
+                    " (" + changed + " of " + (offsets.length - 1) + " individuals changed since " + baseName + ")"));
+            }
+        catch (IOException e)
+            {
+            tmp.delete();
+            output.warning("Unable to create the checkpoint file " + file.getName() +
+                " because of an IOException:\n--EXCEPTION--\n" + e + "\n--EXCEPTION-END--\n");
+            }
+        }
+
+
+
+    /** Restores an EvolutionState from an incremental checkpoint file, and if it is a delta checkpoint, from its full checkpoint.
+        Doesn't call resetFromCheckpoint() on it.
+        @exception java.io.IOException thrown if the file (or its full checkpoint) is missing, corrupt, or doesn't match.
+    */
+    public static EvolutionState restore(File file)
+        throws IOException, ClassNotFoundException
+        {
+        Contents contents = new Contents(file);
+        DataInputStream in = contents.in;
+        Contents base = null;
+        if (contents.delta)
+            {
+            String name = in.readUTF();
+            long checksum = in.readLong();
+            base = new Contents(new File(file.getAbsoluteFile().getParentFile(), name));
+            if (base.delta)
+                throw new IOException("The checkpoint " + name + " named by " + file + " is not a full checkpoint.");
+            if (base.checksum != checksum)
+                throw new IOException("The checkpoint " + name + " is not the one " + file + " was written against.");
+            base.skipState();
+            base.indexIndividuals();
+            }
+
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        ObjectInputStream s = new ObjectInputStream(new ByteArrayInputStream(bytes));
+        EvolutionState state = (EvolutionState)(s.readObject());
+        s.close();
+
+        int numSubpops = in.readInt();
+        if (numSubpops != state.population.subpops.size())
+            throw new IOException("The checkpoint " + file + " has " + numSubpops + " subpopulations but its population has " +
+                state.population.subpops.size());
+        for(int sp = 0; sp < numSubpops; sp++)
+            {
+            Subpopulation subpop = state.population.subpops.get(sp);
+            int n = in.readInt();
+            for(int x = 0; x < n; x++)
+                {
+                int ref = (contents.delta ? in.readInt() : -1);
+                DataInputStream ind;
+                if (ref == -1)
+                    {
+                    int len = in.readInt();
+                    ind = new DataInputStream(new ByteArrayInputStream(contents.data, contents.position(), len));
+                    in.skipBytes(len);
+                    }
+                else
+                    {
+                    if (ref < 0 || ref >= base.offsets.length - 1)
+                        throw new IOException("The checkpoint " + file + " refers to a nonexistent individual " + ref);
+                    ind = new DataInputStream(new ByteArrayInputStream(base.data, base.offsets[ref], base.offsets[ref + 1] - base.offsets[ref]));
+                    }
+                subpop.individuals.add(subpop.species.newIndividual(state, ind));
+                }
+            }
+        return state;
+        }
+
+
+
+    /** The parts of an EvolutionState which make up a checkpoint, written to arrays. */
+    static class Snapshot
+        {
+        /** The state, serialized with its subpopulations emptied. */
+        byte[] state;
+        /** The individuals, one after the other. */
+        byte[] individuals;
+        /** Where each individual starts in individuals, plus where the last one ends. */
+        int[] offsets;
+        /** The number of individuals in each subpopulation. */
+        int[] sizes;
+
+        Snapshot(EvolutionState state) throws IOException
+            {
+            ArrayList<Subpopulation> subpops = state.population.subpops;
+            sizes = new int[subpops.size()];
+            int total = 0;
+            for(int s = 0; s < sizes.length; s++)
+                total += (sizes[s] = subpops.get(s).individuals.size());
+
+            Buffer buffer = new Buffer();
+            DataOutputStream out = new DataOutputStream(buffer);
+            offsets = new int[total + 1];
+            int i = 0;
+            for(int s = 0; s < sizes.length; s++)
+                {
+                ArrayList<Individual> inds = subpops.get(s).individuals;
+                for(int x = 0; x < sizes[s]; x++)
+                    {
+                    offsets[i++] = buffer.size();
+                    inds.get(x).writeIndividual(state, out);
+                    }
+                }
+            offsets[i] = buffer.size();
+            individuals = buffer.buf();
+
+            // serialize everything else
+            ArrayList<ArrayList<Individual>> saved = new ArrayList<ArrayList<Individual>>();
+            for(int s = 0; s < sizes.length; s++)
+                {
+                saved.add(subpops.get(s).individuals);
+                subpops.get(s).individuals = new ArrayList<Individual>();
+                }
+            try
+                {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream o = new ObjectOutputStream(bytes);
+                o.writeObject(state);
+                o.close();
+                this.state = bytes.toByteArray();
+                }
+            finally
+                {
+                for(int s = 0; s < sizes.length; s++)
+                    subpops.get(s).individuals = saved.get(s);
+                }
+            }
+        }
+
+    // a ByteArrayOutputStream which lets us have its array without a copy
+    static class Buffer extends ByteArrayOutputStream
+        {
+        Buffer() { super(1024); }
+        byte[] buf() { return buf; }
+        }
+
+    /** An individual's binary form, by value. */
+    static class Key
+        {
+        byte[] data;
+        int offset;
+        int length;
+        int hash;
+
+        Key(byte[] data, int offset, int length)
+            {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+            int h = length;
+            for(int i = offset; i < offset + length; i++)
+                h = 31 * h + data[i];
+            hash = h;
+            }
+
+        public int hashCode() { return hash; }
+
+        public boolean equals(Object obj)
+            {
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key)obj;
+            if (other.hash != hash || other.length != length) return false;
+            for(int i = 0; i < length; i++)
+                if (data[offset + i] != other.data[other.offset + i])
+                    return false;
+            return true;
+            }
+        }
+
+    /** The checked, uncompressed contents of an incremental checkpoint file, positioned just past its header. */
+    static class Contents
+        {
+        byte[] data;
+        long checksum;
+        boolean delta;
+        DataInputStream in;
+        int length;
+        int[] offsets;
+
+        Contents(File file) throws IOException
+            {
+            if (!file.exists())
+                throw new FileNotFoundException("The checkpoint " + file + " does not exist.");
+            InputStream stream = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)));
+            Buffer buffer = new Buffer();
+            byte[] b = new byte[8192];
+            int n;
+            try
+                {
+                while((n = stream.read(b)) > 0)
+                    buffer.write(b, 0, n);
+                }
+            finally
+                {
+                stream.close();
+                }
+
+            data = buffer.buf();
+            length = buffer.size() - 8;
+            if (length < 8)
+                throw new IOException("The checkpoint " + file + " is truncated.");
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+            checksum = new DataInputStream(new ByteArrayInputStream(data, length, 8)).readLong();
+            if (crc.getValue() != checksum)
+                throw new IOException("The checkpoint " + file + " is corrupt: its checksum is wrong.");
+
+            in = new DataInputStream(new ByteArrayInputStream(data, 0, length));
+            if (in.readInt() != MAGIC)
+                throw new IOException("The checkpoint " + file + " is not an incremental checkpoint.");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException("The checkpoint " + file + " is of an unknown version " + version);
+            delta = in.readBoolean();
+            }
+
+        /** Returns how far we have read into data. */
+        int position() throws IOException
+            {
+            return length - in.available();
+            }
+
+        void skipState() throws IOException
+            {
+            in.skipBytes(in.readInt());
+            }
+
+        /** Reads where each individual of a full checkpoint is. */
+        void indexIndividuals() throws IOException
+            {
+            int numSubpops = in.readInt();
+            int[] o = new int[1024];
+            int i = 0;
+            for(int s = 0; s < numSubpops; s++)
+                {
+                int n = in.readInt();
+                for(int x = 0; x < n; x++)
+                    {
+                    int len = in.readInt();
+                    if (i + 2 > o.length)
+                        o = Arrays.copyOf(o, o.length * 2);
+                    o[i++] = position();
+                    in.skipBytes(len);
+                    }
+                }
+            o[i++] = position();
+            offsets = Arrays.copyOf(o, i);
+            }
+        }
+    }
@@ -0,0 +1,182 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.util;
+
+import java.util.concurrent.Phaser;
+
+/**
+ * PhasedThreadPool.java
+ *
+ * A fixed set of long-lived worker threads which run one batch of jobs at a time,
+ * meant for the regular breed / evaluate rhythm of generational evolution.
+ *
+ * <p>Unlike ThreadPool, which hands a fresh Runnable to a pooled Worker through
+ * synchronized wait/notify on every start(...), and which requires a joinAll() to gather
+ * them back, a PhasedThreadPool keeps its N workers permanently parked on a single
+ * java.util.concurrent.Phaser.  To run a batch, you call run(...) with an array of up to
+ * N Runnables: the array is published, the calling thread arrives at the phaser (releasing
+ * all the workers at once), and then it waits at the phaser for all the workers to arrive
+ * again.  Worker <i>i</i> always runs job <i>i</i>, so a job's thread number is stable
+ * across batches, and a worker whose job is null simply passes through.  There are no locks
+ * involved in the handoff other than the phaser itself, which briefly spins before parking.
+ *
+ * <p>The pool keeps counters of the number of batches run, the total wall-clock time
+ * spent in run(...), and the total time spent in the jobs proper (the maximum over the
+ * workers, per batch).  The difference between the two is the scheduling overhead of the
+ * pool.  See getOverheadTime().
+ *
+ * <p>A job which throws an exception or an error doesn't bring down its worker: the
+ * throwable is handed back to the caller of run(...), and rethrown there.
+ *
+ * <p>Workers are daemon threads.  A PhasedThreadPool is not serializable: objects holding
+ * one should do so in a transient variable and rebuild it as necessary.
+ */
+
+public class PhasedThreadPool
+    {
+    final Thread[] threads;
+    final Phaser phaser;
+    final long[] jobTime;
+    final Throwable[] failures;
+
+    // The current batch, published before the release barrier.  The phaser provides
+    // the happens-before edges, so these need not be volatile.
+    Runnable[] jobs;
+    boolean die = false;
+
+    long batches = 0;
+    long totalTime = 0;
+    long totalJobTime = 0;
+
+    /** Builds a pool of the given number of workers, naming each thread as <i>name</i> followed by its number. */
+    public PhasedThreadPool(int size, String name)
+        {
+        if (size < 1)
+            throw new IllegalArgumentException("PhasedThreadPool must have at least one worker, not " + size);
+        threads = new Thread[size];
+        jobTime = new long[size];
+        failures = new Throwable[size];
+        phaser = new Phaser(size + 1);  // the workers, plus whoever calls run(...)
+        for(int i = 0; i < size; i++)
+            {
+            final int threadnum = i;
+            threads[i] = new Thread(new Runnable() { public void run() { work(threadnum); } });
+            threads[i].setDaemon(true);
+            threads[i].setName(name + " " + i);
+            threads[i].start();
+            }
+        }
+
+    /** Returns the number of workers. */
+    public int getSize() { return threads.length; }
+
+    // The worker loop: wait for a release, do my job, report back.
+    void work(int threadnum)
+        {
+        while(true)
+            {
+            phaser.arriveAndAwaitAdvance();  // wait for a batch
+            if (die)
+                {
+                phaser.arriveAndDeregister();
+                return;
+                }
+
+            Runnable job = jobs[threadnum];
+            long start = System.nanoTime();
+            try
+                {
+                if (job != null)
+                    job.run();
+                }
+            catch (Throwable e)  // including Errors: the worker must still arrive below, or run(...) would wait forever
+                {
+                failures[threadnum] = e;
+                }
+            jobTime[threadnum] = (job == null ? 0 : System.nanoTime() - start);
+
+            phaser.arriveAndAwaitAdvance();  // report that I'm done
+            }
+        }
+
+    /** Runs jobs[i] on worker i for each i, and blocks until all of them have completed.
+        There may be fewer jobs than workers; null jobs are skipped.  If any job threw an
+        exception or an error, the one thrown by the lowest-numbered worker is rethrown here
+        once all the jobs have completed, and the pool remains usable. */
+    public synchronized void run(Runnable[] jobs)
+        {
+        if (jobs.length > threads.length)
+            throw new IllegalArgumentException("PhasedThreadPool has " + threads.length + " workers, but was given " + jobs.length + " jobs.");
+        if (die)
+            throw new IllegalStateException("PhasedThreadPool has been killed.");
+        if (jobs.length < threads.length)
+            {
+            Runnable[] j = new Runnable[threads.length];
+            System.arraycopy(jobs, 0, j, 0, jobs.length);
+            jobs = j;
+            }
+
+        long start = System.nanoTime();
+        this.jobs = jobs;
+        phaser.arriveAndAwaitAdvance();  // release the workers
+        phaser.arriveAndAwaitAdvance();  // wait for them to finish
+        this.jobs = null;
+        long time = System.nanoTime() - start;
+
+        long max = 0;
+        for(int i = 0; i < jobTime.length; i++)
+            if (jobTime[i] > max) max = jobTime[i];
+        batches++;
+        totalTime += time;
+        totalJobTime += max;
+
+        Throwable failure = null;
+        for(int i = 0; i < failures.length; i++)
+            {
+            if (failure == null) failure = failures[i];
+            failures[i] = null;
+            }
+        if (failure instanceof RuntimeException) throw (RuntimeException)failure;
+        else if (failure instanceof Error) throw (Error)failure;
+        else if (failure != null) throw new RuntimeException(failure);
+        }
+
+    /** Returns the number of batches run so far. */
+    public synchronized long getBatches() { return batches; }
+
+    /** Returns the total wall-clock time, in nanoseconds, spent in run(...) so far. */
+    public synchronized long getTotalTime() { return totalTime; }
+
+    /** Returns the total time, in nanoseconds, spent by the slowest job of each batch so far. */
+    public synchronized long getJobTime() { return totalJobTime; }
+
+    /** Returns the total time, in nanoseconds, spent in run(...) but not in the slowest job:
+        that is, the time spent handing jobs out and gathering them back. */
+    public synchronized long getOverheadTime() { return totalTime - totalJobTime; }
+
+    /** Resets the timing counters to zero. */
+    public synchronized void resetCounters()
+        {
+        batches = 0;
+        totalTime = 0;
+        totalJobTime = 0;
+        }
+
+    /** Stops and joins all the worker threads.  The pool cannot be used afterwards. */
+    public synchronized void kill()
+        {
+        if (die) return;
+        die = true;
+        phaser.arriveAndDeregister();  // release the workers one last time
+        for(int i = 0; i < threads.length; i++)
+            {
+            try { threads[i].join(); }
+            catch (InterruptedException e) { Thread.interrupted(); }  // ignore
+            }
+        }
+    }
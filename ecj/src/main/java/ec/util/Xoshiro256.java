@@ -0,0 +1,463 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.util;
+import java.io.*;
+import java.util.*;
+
+/*
+ * Xoshiro256.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * Xoshiro256 is a small, fast random number generator which can be split into any number of independent,
+ * reproducible streams.  It is the xoshiro256** generator of David Blackman and Sebastiano Vigna (public
+ * domain, see <a href="http://prng.di.unimi.it/">http://prng.di.unimi.it/</a>), seeded with their SplitMix64
+ * generator, and has a period of 2<sup>256</sup>-1 and just four longs of state.  It has the same public
+ * methods as MersenneTwisterFast, with the same meanings (though of course not the same values), so code
+ * written against one is easily moved to the other.  Like MersenneTwisterFast it is not synchronized: an instance
+ * must not be shared among threads.
+ *
+ * <p>MersenneTwisterFast generators are handed out one per thread, so code that runs the same work on a different
+ * number of threads, or hands work out to whichever thread is free, gets different random numbers from run to
+ * run.  Xoshiro256 instead lets you give each <i>task</i> its own stream:
+ *
+ * <ul>
+ * <li><b>substream(index)</b>&nbsp;&nbsp;&nbsp;Returns a new generator for task number <i>index</i>, seeded by
+ * hashing this generator's seed together with the index.  It depends only on the seed and the index, not on how
+ * many numbers have been drawn from this generator or from other substreams, so it is the same whichever thread
+ * runs the task, and in whatever order.  Substreams have substreams of their own.
+ * <li><b>jump()</b> and <b>longJump()</b>&nbsp;&nbsp;&nbsp;Advance the generator by 2<sup>128</sup> or
+ * 2<sup>192</sup> numbers, guaranteeing non-overlapping sequences for up to 2<sup>128</sup> or 2<sup>64</sup>
+ * consecutive jumps.
+ * <li><b>split()</b>&nbsp;&nbsp;&nbsp;Returns a copy of the generator and jumps the generator itself ahead.
+ * </ul>
+ *
+ * <p>Existing code which requires a MersenneTwisterFast may be given one for a task with
+ * substream(index).nextMersenneTwisterFast().
+ *
+ * <p>EvolutionState.randomStreams is a Xoshiro256 seeded from seed.0, which you may use for per-task streams.
+ * The main(...) method checks the generator against the reference implementation and compares its speed with
+ * that of MersenneTwisterFast.
+ *
+ * @version 1.0
+ */
+
+public class Xoshiro256 implements Serializable, Cloneable
+    {
+    private static final long serialVersionUID = 1;
+
+    static final long[] JUMP = { 0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL, 0x39abdc4529b1661cL };
+    static final long[] LONG_JUMP = { 0x76e15d3efefdcbbfL, 0xc5004e441c522fb3L, 0x77710069854ee241L, 0x39109bb02acbe635L };
+    static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    long seed;
+    long s0, s1, s2, s3;
+
+    private double __nextNextGaussian;
+    private boolean __haveNextNextGaussian;
+
+    /** Constructor using the time of day as default seed. */
+    public Xoshiro256()
+        {
+        this(System.currentTimeMillis());
+        }
+
+    /** Constructor using a given seed. */
+    public Xoshiro256(long seed)
+        {
+        setSeed(seed);
+        }
+
+    /** Constructor setting the state directly, as the reference implementation does.  The state must not be all
+        zero.  The seed, which substreams are made from, is set to s0. */
+    public Xoshiro256(long s0, long s1, long s2, long s3)
+        {
+        if ((s0 | s1 | s2 | s3) == 0)
+            throw new IllegalArgumentException("The state of a Xoshiro256 may not be all zero");
+        this.seed = s0;
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+        }
+
+    /** Seeds the generator, filling its state from SplitMix64 started at the seed. */
+    public void setSeed(long seed)
+        {
+        this.seed = seed;
+        long x = seed;
+        s0 = mix64(x += GOLDEN_GAMMA);
+        s1 = mix64(x += GOLDEN_GAMMA);
+        s2 = mix64(x += GOLDEN_GAMMA);
+        s3 = mix64(x += GOLDEN_GAMMA);
+        __haveNextNextGaussian = false;
+        }
+
+    /** Returns the seed from which substreams are made. */
+    public long getSeed() { return seed; }
+
+    /** The output function of SplitMix64. */
+    static long mix64(long z)
+        {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+        }
+
+    public Object clone()
+        {
+        try { return super.clone(); }
+        catch (CloneNotSupportedException e) { throw new InternalError(); } // never happens
+        }
+
+    /** Returns true if the other generator has exactly the same state (and seed) as this one. */
+    public boolean stateEquals(Xoshiro256 other)
+        {
+        if (other == this) return true;
+        if (other == null) return false;
+        return seed == other.seed && s0 == other.s0 && s1 == other.s1 && s2 == other.s2 && s3 == other.s3 &&
+            __haveNextNextGaussian == other.__haveNextNextGaussian &&
+            (!__haveNextNextGaussian || __nextNextGaussian == other.__nextNextGaussian);
+        }
+
+    /** Returns a new generator for the stream numbered index, which depends only on this generator's seed and the
+        index. */
+    public Xoshiro256 substream(long index)
+        {
+        return new Xoshiro256(mix64(seed) ^ mix64(index * GOLDEN_GAMMA + 0x632be59bd9b4e019L));
+        }
+
+    /** Returns a new MersenneTwisterFast, seeded from the next numbers of this generator. */
+    public MersenneTwisterFast nextMersenneTwisterFast()
+        {
+        return new MersenneTwisterFast(new int[] { nextInt(), nextInt(), nextInt(), nextInt() });
+        }
+
+    /** Returns a copy of this generator, then jumps this generator 2<sup>128</sup> numbers ahead. */
+    public Xoshiro256 split()
+        {
+        Xoshiro256 other = (Xoshiro256)(clone());
+        other.__haveNextNextGaussian = false;
+        jump();
+        return other;
+        }
+
+    /** Advances the generator by 2<sup>128</sup> numbers. */
+    public void jump()
+        {
+        jump(JUMP);
+        }
+
+    /** Advances the generator by 2<sup>192</sup> numbers. */
+    public void longJump()
+        {
+        jump(LONG_JUMP);
+        }
+
+    void jump(long[] polynomial)
+        {
+        long t0 = 0, t1 = 0, t2 = 0, t3 = 0;
+        for(int i = 0; i < polynomial.length; i++)
+            for(int b = 0; b < 64; b++)
+                {
+                if ((polynomial[i] & (1L << b)) != 0)
+                    {
+                    t0 ^= s0;
+                    t1 ^= s1;
+                    t2 ^= s2;
+                    t3 ^= s3;
+                    }
+                nextLong();
+                }
+        s0 = t0;
+        s1 = t1;
+        s2 = t2;
+        s3 = t3;
+        __haveNextNextGaussian = false;
+        }
+
+    public long nextLong()
+        {
+        final long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        final long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+        }
+
+    /** Returns a long drawn uniformly from 0 to n-1.  Suffice it to say,
+        n must be &gt; 0, or an IllegalArgumentException is raised. */
+    public long nextLong(long n)
+        {
+        if (n <= 0)
+            throw new IllegalArgumentException("n must be positive, got: " + n);
+
+        long bits, val;
+        do
+            {
+            bits = nextLong() >>> 1;
+            val = bits % n;
+            }
+        while (bits - val + (n - 1) < 0);
+        return val;
+        }
+
+    public int nextInt()
+        {
+        return (int)(nextLong() >>> 32);
+        }
+
+    /** Returns an integer drawn uniformly from 0 to n-1.  Suffice it to say,
+        n must be &gt; 0, or an IllegalArgumentException is raised. */
+    public int nextInt(int n)
+        {
+        if (n <= 0)
+            throw new IllegalArgumentException("n must be positive, got: " + n);
+
+        if ((n & -n) == n)  // i.e., n is a power of 2
+            return (int)((n * (nextLong() >>> 33)) >> 31);
+
+        int bits, val;
+        do
+            {
+            bits = (int)(nextLong() >>> 33);
+            val = bits % n;
+            }
+        while (bits - val + (n - 1) < 0);
+        return val;
+        }
+
+    public short nextShort()
+        {
+        return (short)(nextLong() >>> 48);
+        }
+
+    public char nextChar()
+        {
+        return (char)(nextLong() >>> 48);
+        }
+
+    public byte nextByte()
+        {
+        return (byte)(nextLong() >>> 56);
+        }
+
+    public void nextBytes(byte[] bytes)
+        {
+        for(int i = 0; i < bytes.length; i++)
+            bytes[i] = nextByte();
+        }
+
+    public boolean nextBoolean()
+        {
+        return nextLong() < 0;
+        }
+
+    /** This generates a coin flip with a probability <tt>probability</tt>
+        of returning true, else returning false.  <tt>probability</tt> must
+        be between 0.0 and 1.0, inclusive. */
+    public boolean nextBoolean(float probability)
+        {
+        if (probability < 0.0f || probability > 1.0f)
+            throw new IllegalArgumentException ("probability must be between 0.0 and 1.0 inclusive.");
+        if (probability==0.0f) return false;            // fix half-open issues
+        else if (probability==1.0f) return true;        // fix half-open issues
+        return nextFloat() < probability;
+        }
+
+    /** This generates a coin flip with a probability <tt>probability</tt>
+        of returning true, else returning false.  <tt>probability</tt> must
+        be between 0.0 and 1.0, inclusive. */
+    public boolean nextBoolean(double probability)
+        {
+        if (probability < 0.0 || probability > 1.0)
+            throw new IllegalArgumentException ("probability must be between 0.0 and 1.0 inclusive.");
+        if (probability==0.0) return false;             // fix half-open issues
+        else if (probability==1.0) return true; // fix half-open issues
+        return nextDouble() < probability;
+        }
+
+    /** Returns a random double in the half-open range from [0.0,1.0). */
+    public double nextDouble()
+        {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+        }
+
+    /** Returns a double in the range from 0.0 to 1.0, possibly inclusive of 0.0 and 1.0 themselves,
+        just as MersenneTwisterFast.nextDouble(includeZero, includeOne) does. */
+    public double nextDouble(boolean includeZero, boolean includeOne)
+        {
+        double d = 0.0;
+        do
+            {
+            d = nextDouble();                           // grab a value, initially from half-open [0.0, 1.0)
+            if (includeOne && nextBoolean()) d += 1.0;  // if includeOne, with 1/2 probability, push to [1.0, 2.0)
+            }
+        while ( (d > 1.0) ||                            // everything above 1.0 is always invalid
+            (!includeZero && d == 0.0));            // if we're not including zero, 0.0 is invalid
+        return d;
+        }
+
+    /** Returns a random float in the half-open range from [0.0f,1.0f). */
+    public float nextFloat()
+        {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+        }
+
+    /** Returns a float in the range from 0.0f to 1.0f, possibly inclusive of 0.0f and 1.0f themselves,
+        just as MersenneTwisterFast.nextFloat(includeZero, includeOne) does. */
+    public float nextFloat(boolean includeZero, boolean includeOne)
+        {
+        float d = 0.0f;
+        do
+            {
+            d = nextFloat();                            // grab a value, initially from half-open [0.0f, 1.0f)
+            if (includeOne && nextBoolean()) d += 1.0f; // if includeOne, with 1/2 probability, push to [1.0f, 2.0f)
+            }
+        while ( (d > 1.0f) ||                           // everything above 1.0f is always invalid
+            (!includeZero && d == 0.0f));           // if we're not including zero, 0.0f is invalid
+        return d;
+        }
+
+    /** Clears the internal gaussian variable, as MersenneTwisterFast.clearGaussian() does. */
+    public void clearGaussian() { __haveNextNextGaussian = false; }
+
+    /** Returns a normally distributed double with mean 0 and standard deviation 1, by the polar method,
+        as MersenneTwisterFast does. */
+    public double nextGaussian()
+        {
+        if (__haveNextNextGaussian)
+            {
+            __haveNextNextGaussian = false;
+            return __nextNextGaussian;
+            }
+        double v1, v2, s;
+        do
+            {
+            v1 = 2 * nextDouble() - 1; // between -1.0 and 1.0
+            v2 = 2 * nextDouble() - 1; // between -1.0 and 1.0
+            s = v1 * v1 + v2 * v2;
+            }
+        while (s >= 1 || s==0);
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s)/s);
+        __nextNextGaussian = v2 * multiplier;
+        __haveNextNextGaussian = true;
+        return v1 * multiplier;
+        }
+
+    /**
+     * Tests the code against the reference implementation, and compares its speed with MersenneTwisterFast.
+     */
+    public static void main(String args[])
+        {
+        // CORRECTNESS TEST
+        // THE REFERENCE IMPLEMENTATION, STARTED FROM THE STATE {1, 2, 3, 4}, BEGINS 11520, 0, 1509978240, 1215971899390074240
+
+        Xoshiro256 x = new Xoshiro256(1, 2, 3, 4);
+        long[] expected = { 11520L, 0L, 1509978240L, 1215971899390074240L };
+        for(int j = 0; j < expected.length; j++)
+            {
+            long l = x.nextLong();
+            System.out.println(l + (l == expected[j] ? "" : " WRONG, should be " + expected[j]));
+            }
+
+        // SPEED TEST
+
+        final long SEED = 4357;
+        final int TIMES = 100000000;
+
+        MersenneTwisterFast r = new MersenneTwisterFast(SEED);
+        x = new Xoshiro256(SEED);
+        long ms;
+
+        for(int trial = 0; trial < 2; trial++)  // the first trial warms up the VM
+            {
+            System.out.println("\nTime to test grabbing " + TIMES + " of each" + (trial == 0 ? " (warming up)" : ""));
+
+            int xx = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TIMES; j++)
+                xx += r.nextInt();
+            System.out.println("MersenneTwisterFast nextInt(): " + (System.currentTimeMillis()-ms) + "          Ignore this: " + xx);
+
+            xx = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TIMES; j++)
+                xx += x.nextInt();
+            System.out.println("Xoshiro256 nextInt(): " + (System.currentTimeMillis()-ms) + "          Ignore this: " + xx);
+
+            long ll = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TIMES; j++)
+                ll += r.nextLong();
+            System.out.println("MersenneTwisterFast nextLong(): " + (System.currentTimeMillis()-ms) + "          Ignore this: " + ll);
+
+            ll = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TIMES; j++)
+                ll += x.nextLong();
+            System.out.println("Xoshiro256 nextLong(): " + (System.currentTimeMillis()-ms) + "          Ignore this: " + ll);
+
+            double dd = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TIMES; j++)
+                dd += r.nextDouble();
+            System.out.println("MersenneTwisterFast nextDouble(): " + (System.currentTimeMillis()-ms) + "          Ignore this: " + dd);
+
+            dd = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TIMES; j++)
+                dd += x.nextDouble();
+            System.out.println("Xoshiro256 nextDouble(): " + (System.currentTimeMillis()-ms) + "          Ignore this: " + dd);
+
+            xx = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TIMES; j++)
+                xx += r.nextInt(1000);
+            System.out.println("MersenneTwisterFast nextInt(1000): " + (System.currentTimeMillis()-ms) + "          Ignore this: " + xx);
+
+            xx = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TIMES; j++)
+                xx += x.nextInt(1000);
+            System.out.println("Xoshiro256 nextInt(1000): " + (System.currentTimeMillis()-ms) + "          Ignore this: " + xx);
+
+            dd = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TIMES / 10; j++)
+                dd += r.nextGaussian();
+            System.out.println("MersenneTwisterFast nextGaussian() x " + (TIMES / 10) + ": " + (System.currentTimeMillis()-ms) + "          Ignore this: " + dd);
+
+            dd = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TIMES / 10; j++)
+                dd += x.nextGaussian();
+            System.out.println("Xoshiro256 nextGaussian() x " + (TIMES / 10) + ": " + (System.currentTimeMillis()-ms) + "          Ignore this: " + dd);
+
+            // making a generator per task
+            final int TASKS = 1000000;
+            xx = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TASKS; j++)
+                xx += new MersenneTwisterFast(SEED + j).nextInt();
+            System.out.println("new MersenneTwisterFast() x " + TASKS + ": " + (System.currentTimeMillis()-ms) + "          Ignore this: " + xx);
+
+            xx = 0;
+            ms = System.currentTimeMillis();
+            for (int j = 0; j < TASKS; j++)
+                xx += x.substream(j).nextInt();
+            System.out.println("Xoshiro256 substream() x " + TASKS + ": " + (System.currentTimeMillis()-ms) + "          Ignore this: " + xx);
+            }
+        }
+    }
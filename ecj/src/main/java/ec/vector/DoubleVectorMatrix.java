@@ -0,0 +1,299 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.vector;
+import ec.util.*;
+import java.io.*;
+import java.lang.ref.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+/*
+ * DoubleVectorMatrix.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * A DoubleVectorMatrix stores the genomes of many DoubleVectorViews, all of the same length, as the rows of one
+ * matrix laid out contiguously, row after row.  The matrix is held in chunks of <i>chunkRows</i> rows apiece, and
+ * grows a chunk at a time as more rows are needed.  The chunks may be stored in one of three ways:
+ *
+ * <ul>
+ * <li><b>HEAP</b>&nbsp;&nbsp;&nbsp;Each chunk is an ordinary double array.
+ * <li><b>DIRECT</b>&nbsp;&nbsp;&nbsp;Each chunk is a direct buffer, outside of the Java heap.
+ * <li><b>MAPPED</b>&nbsp;&nbsp;&nbsp;Each chunk is a region of a file mapped into memory, so the matrix may be
+ * larger than available memory and the operating system will page it in and out as necessary.  If no file is
+ * given, a temporary file is created and deleted when Java exits.
+ * </ul>
+ *
+ * <p>Each row belongs to one DoubleVectorView.  Rows are handed out by allocate(...), and a row is automatically
+ * reused once the view which owned it has been garbage collected.
+ *
+ * <p>The matrix is checkpointed along with its contents.  A mapped matrix is restored into its file, which is
+ * overwritten.  Rows belonging to views which were dead (but not yet garbage collected) when the checkpoint was
+ * made are not reused after restarting.
+ *
+ * @version 1.0
+ */
+
+public class DoubleVectorMatrix implements Serializable
+    {
+    private static final long serialVersionUID = 1;
+
+    public static final int HEAP = 0;
+    public static final int DIRECT = 1;
+    public static final int MAPPED = 2;
+
+    /** The largest number of bytes in any chunk. */
+    public static final int MAXIMUM_CHUNK_BYTES = 1 << 30;
+
+    int storage;
+    int genomeSize;
+    int chunkRows;
+    String file;
+    int numChunks = 0;
+
+    transient volatile DoubleBuffer[] chunks;
+    transient RandomAccessFile randomAccessFile;
+    transient ArrayList<RowReference> references;
+    transient ReferenceQueue<DoubleVectorView> queue;
+    transient IntBag free;
+    transient volatile double[][][] buffers;
+
+    /** Records the row owned by a view, so that the row may be freed when the view is garbage collected. */
+    static class RowReference extends WeakReference<DoubleVectorView>
+        {
+        int row;
+        RowReference(DoubleVectorView view, int row, ReferenceQueue<DoubleVectorView> queue)
+            {
+            super(view, queue);
+            this.row = row;
+            }
+        }
+
+    /** Creates an empty matrix of rows of genomeSize doubles, stored in chunks of (at most) chunkRows rows.
+        If storage is MAPPED, the rows are mapped from the given file, or from a temporary file if file is null. */
+    public DoubleVectorMatrix(int genomeSize, int storage, int chunkRows, String file) throws IOException
+        {
+        if (genomeSize < 1)
+            throw new IllegalArgumentException("Genome size must be >= 1: " + genomeSize);
+        if (storage != HEAP && storage != DIRECT && storage != MAPPED)
+            throw new IllegalArgumentException("Invalid storage: " + storage);
+        this.genomeSize = genomeSize;
+        this.storage = storage;
+        this.chunkRows = Math.max(1, Math.min(chunkRows, MAXIMUM_CHUNK_BYTES / (8 * genomeSize)));
+        if (storage == MAPPED && file == null)
+            {
+            File temp = File.createTempFile("ecj", ".genomes");
+            temp.deleteOnExit();
+            file = temp.getPath();
+            }
+        this.file = file;
+        open();
+        }
+
+    void open() throws IOException
+        {
+        chunks = new DoubleBuffer[0];
+        references = new ArrayList<RowReference>();
+        queue = new ReferenceQueue<DoubleVectorView>();
+        free = new IntBag();
+        if (storage == MAPPED)
+            {
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            randomAccessFile.setLength(0);
+            }
+        int n = numChunks;
+        numChunks = 0;
+        for(int i = 0; i < n; i++)
+            addChunk();
+        }
+
+    // adds another chunk of rows to the end of the matrix
+    void addChunk() throws IOException
+        {
+        int bytes = chunkRows * genomeSize * 8;
+        DoubleBuffer chunk;
+        if (storage == HEAP)
+            chunk = DoubleBuffer.wrap(new double[chunkRows * genomeSize]);
+        else if (storage == DIRECT)
+            chunk = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        else
+            chunk = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, ((long) numChunks) * bytes, bytes).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+
+        DoubleBuffer[] c = Arrays.copyOf(chunks, numChunks + 1);
+        c[numChunks] = chunk;
+        chunks = c;
+        numChunks++;
+        for(int i = 0; i < chunkRows; i++)
+            references.add(null);
+        }
+
+    /** Returns the length of each row. */
+    public int getGenomeSize() { return genomeSize; }
+
+    /** Returns the storage of the matrix: HEAP, DIRECT, or MAPPED. */
+    public int getStorage() { return storage; }
+
+    /** Returns the number of rows in each chunk. */
+    public int getChunkRows() { return chunkRows; }
+
+    /** Returns the file the matrix is mapped from, or null if it isn't MAPPED. */
+    public String getFile() { return file; }
+
+    /** Returns the number of rows the matrix presently has room for. */
+    public int getCapacity() { return numChunks * chunkRows; }
+
+    /** Returns a free row for the given view to own, growing the matrix if need be.  The contents of the row
+        are whatever they happened to be. */
+    public synchronized int allocate(DoubleVectorView view)
+        {
+        // free the rows of views which have been garbage collected
+        Reference<? extends DoubleVectorView> ref;
+        while((ref = queue.poll()) != null)
+            {
+            int row = ((RowReference) ref).row;
+            if (references.get(row) == ref)
+                {
+                references.set(row, null);
+                free.add(row);
+                }
+            }
+
+        if (free.numObjs == 0)
+            {
+            int first = getCapacity();
+            try { addChunk(); }
+            catch (IOException e)
+                { throw new RuntimeException("Could not grow DoubleVectorMatrix to " + (first + chunkRows) + " rows", e); }
+            for(int row = getCapacity() - 1; row >= first; row--)
+                free.add(row);
+            }
+        int row = free.pop();
+        references.set(row, new RowReference(view, row, queue));
+        return row;
+        }
+
+    /** Records that the given row is owned by the view, which has been restored from a checkpoint. */
+    synchronized void register(DoubleVectorView view, int row)
+        {
+        references.set(row, new RowReference(view, row, queue));
+        }
+
+    /** Returns gene i of the given row. */
+    public double get(int row, int i)
+        {
+        return chunks[row / chunkRows].get((row % chunkRows) * genomeSize + i);
+        }
+
+    /** Sets gene i of the given row. */
+    public void set(int row, int i, double value)
+        {
+        chunks[row / chunkRows].put((row % chunkRows) * genomeSize + i, value);
+        }
+
+    /** Copies the given row into the array, which must be at least genomeSize long, and returns it. */
+    public double[] getRow(int row, double[] into)
+        {
+        DoubleBuffer chunk = chunks[row / chunkRows];
+        int offset = (row % chunkRows) * genomeSize;
+        for(int i = 0; i < genomeSize; i++)
+            into[i] = chunk.get(offset + i);
+        return into;
+        }
+
+    /** Copies the array, which must be at least genomeSize long, into the given row. */
+    public void setRow(int row, double[] from)
+        {
+        DoubleBuffer chunk = chunks[row / chunkRows];
+        int offset = (row % chunkRows) * genomeSize;
+        for(int i = 0; i < genomeSize; i++)
+            chunk.put(offset + i, from[i]);
+        }
+
+    /** Copies one row into another. */
+    public void copyRow(int from, int to)
+        {
+        DoubleBuffer fromChunk = chunks[from / chunkRows];
+        DoubleBuffer toChunk = chunks[to / chunkRows];
+        int fromOffset = (from % chunkRows) * genomeSize;
+        int toOffset = (to % chunkRows) * genomeSize;
+        for(int i = 0; i < genomeSize; i++)
+            toChunk.put(toOffset + i, fromChunk.get(fromOffset + i));
+        }
+
+    /** Returns the squared Euclidean distance between two rows. */
+    public double squaredDistance(int a, int b)
+        {
+        DoubleBuffer aChunk = chunks[a / chunkRows];
+        DoubleBuffer bChunk = chunks[b / chunkRows];
+        int aOffset = (a % chunkRows) * genomeSize;
+        int bOffset = (b % chunkRows) * genomeSize;
+        double sum = 0;
+        for(int i = 0; i < genomeSize; i++)
+            {
+            double d = aChunk.get(aOffset + i) - bChunk.get(bOffset + i);
+            sum += d * d;
+            }
+        return sum;
+        }
+
+    /** Returns the squared Euclidean distance between a row and the first genomeSize elements of an array. */
+    public double squaredDistance(int row, double[] genome)
+        {
+        DoubleBuffer chunk = chunks[row / chunkRows];
+        int offset = (row % chunkRows) * genomeSize;
+        double sum = 0;
+        for(int i = 0; i < genomeSize; i++)
+            {
+            double d = chunk.get(offset + i) - genome[i];
+            sum += d * d;
+            }
+        return sum;
+        }
+
+    /** Returns a scratch array of genomeSize doubles for the use of the given thread.  Each thread has two, numbered
+        0 and 1, which are reused every time the thread asks for them. */
+    public double[] buffer(int thread, int which)
+        {
+        double[][][] b = buffers;
+        if (b == null || thread >= b.length || b[thread] == null)
+            b = addBuffers(thread);
+        return b[thread][which];
+        }
+
+    synchronized double[][][] addBuffers(int thread)
+        {
+        double[][][] b = buffers;
+        if (b == null) b = new double[0][][];
+        if (thread >= b.length) b = Arrays.copyOf(b, thread + 1);
+        if (b[thread] == null) b[thread] = new double[2][genomeSize];
+        buffers = b;
+        return b;
+        }
+
+    private void writeObject(ObjectOutputStream out) throws IOException
+        {
+        out.defaultWriteObject();
+        int size = chunkRows * genomeSize;
+        for(int c = 0; c < numChunks; c++)
+            for(int i = 0; i < size; i++)
+                out.writeDouble(chunks[c].get(i));
+        }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+        {
+        in.defaultReadObject();
+        open();
+        int size = chunkRows * genomeSize;
+        for(int c = 0; c < numChunks; c++)
+            for(int i = 0; i < size; i++)
+                chunks[c].put(i, in.readDouble());
+        }
+    }
@@ -0,0 +1,335 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+
+package ec.vector;
+import ec.*;
+import ec.util.*;
+import java.io.*;
+
+/*
+ * DoubleVectorView.java
+ *
+ * Created: Fri Oct 16 2026
+ */
+
+/**
+ * DoubleVectorView is a lightweight alternative to DoubleVectorIndividual for very large populations of real-valued
+ * genomes.  Rather than owning its own genome array, a DoubleVectorView is a view onto one row of a
+ * DoubleVectorMatrix shared by every individual of its species, which holds all of their genomes contiguously,
+ * possibly outside of the Java heap or in a memory-mapped file (see DoubleVectorMatrix).  A population of
+ * DoubleVectorViews thus costs the heap little more than its Fitness objects, and may be larger than the heap, or
+ * even than memory.
+ *
+ * <p>DoubleVectorView is used with an ordinary FloatVectorSpecies, whose genome size must be fixed, and supports
+ * all of its mutation and crossover types: the default mutation, crossover, and reset copy the genomes involved
+ * into per-thread scratch arrays, operate on them as a DoubleVectorIndividual would, and copy them back.  Other
+ * breeding operators which need the genome as an array (such as ListCrossoverPipeline) are not supported.
+ * Cloning a DoubleVectorView gives it a new row of the matrix; the row is reused once the view is garbage
+ * collected.  To keep the matrix from growing before that happens, turn on SimpleBreeder's
+ * <tt>pool-individuals</tt> parameter, so that the views themselves (and their rows) are recycled each generation.
+ *
+ * <p>Problems may read genes in place with get(...), stream through the whole genome with
+ * loadGenome(...), or use getMatrix() and getRow() directly.  ec.app.ecsuite.ECSuite accepts DoubleVectorViews as
+ * well as DoubleVectorIndividuals.
+ *
+ * <p><b>Parameters</b><br>
+ * <table>
+ * <tr><td valign=top><i>base</i>.<tt>storage</tt><br>
+ * <font size=-1>String, one of: heap, direct, mapped (default = heap)</font></td>
+ * <td valign=top>(where the genomes are stored: in the heap, in direct buffers outside of the heap, or in a memory-mapped file)</td></tr>
+ *
+ * <tr><td valign=top><i>base</i>.<tt>file</tt><br>
+ * <font size=-1>String (default = a temporary file)</font></td>
+ * <td valign=top>(the file in which to store mapped genomes; its contents are overwritten)</td></tr>
+ *
+ * <tr><td valign=top><i>base</i>.<tt>chunk-rows</tt><br>
+ * <font size=-1>int &gt;= 1 (default = 4096)</font></td>
+ * <td valign=top>(the number of genomes by which the matrix grows at a time)</td></tr>
+ * </table>
+ *
+ * <p><b>Default Base</b><br>
+ * vector.double-vect-view
+ *
+ * @version 1.0
+ */
+
+public class DoubleVectorView extends VectorIndividual
+    {
+    private static final long serialVersionUID = 1;
+
+    public static final String P_DOUBLEVECTORVIEW = "double-vect-view";
+    public static final String P_STORAGE = "storage";
+    public static final String P_FILE = "file";
+    public static final String P_CHUNK_ROWS = "chunk-rows";
+    public static final String V_HEAP = "heap";
+    public static final String V_DIRECT = "direct";
+    public static final String V_MAPPED = "mapped";
+    public static final int DEFAULT_CHUNK_ROWS = 4096;
+
+    DoubleVectorMatrix matrix;
+    /** The row of the matrix holding my genome, or -1 for the prototype, which has none. */
+    int row = -1;
+
+    public Parameter defaultBase()
+        {
+        return VectorDefaults.base().push(P_DOUBLEVECTORVIEW);
+        }
+
+    public void setup(final EvolutionState state, final Parameter base)
+        {
+        super.setup(state, base);
+
+        Parameter def = defaultBase();
+
+        if (!(species instanceof FloatVectorSpecies))
+            state.output.fatal("DoubleVectorView requires a FloatVectorSpecies", base, def);
+        FloatVectorSpecies s = (FloatVectorSpecies) species;
+        if (s.genomeResizeAlgorithm != VectorSpecies.C_NONE)
+            state.output.fatal("DoubleVectorView requires a FloatVectorSpecies of fixed genome size", base, def);
+
+        String st = state.parameters.getStringWithDefault(base.push(P_STORAGE), def.push(P_STORAGE), V_HEAP);
+        int storage = DoubleVectorMatrix.HEAP;
+        if (st.equalsIgnoreCase(V_HEAP))
+            storage = DoubleVectorMatrix.HEAP;
+        else if (st.equalsIgnoreCase(V_DIRECT))
+            storage = DoubleVectorMatrix.DIRECT;
+        else if (st.equalsIgnoreCase(V_MAPPED))
+            storage = DoubleVectorMatrix.MAPPED;
+        else
+            state.output.fatal("DoubleVectorView storage must be " + V_HEAP + ", " + V_DIRECT + ", or " + V_MAPPED,
+                base.push(P_STORAGE), def.push(P_STORAGE));
+
+        String file = state.parameters.getString(base.push(P_FILE), def.push(P_FILE));
+        int chunkRows = state.parameters.getIntWithDefault(base.push(P_CHUNK_ROWS), def.push(P_CHUNK_ROWS), DEFAULT_CHUNK_ROWS);
+        if (chunkRows < 1)
+            state.output.fatal("DoubleVectorView chunk rows must be >= 1", base.push(P_CHUNK_ROWS), def.push(P_CHUNK_ROWS));
+
+        try
+            {
+            matrix = new DoubleVectorMatrix(s.genomeSize, storage, chunkRows, file);
+            }
+        catch (IOException e)
+            {
+            state.output.fatal("DoubleVectorView could not create its genome matrix: " + e, base.push(P_FILE), def.push(P_FILE));
+            }
+        row = -1;
+        }
+
+    /** Returns the matrix holding my genome. */
+    public DoubleVectorMatrix getMatrix() { return matrix; }
+
+    /** Returns the row of the matrix holding my genome. */
+    public int getRow() { return row; }
+
+    /** Returns gene i. */
+    public double get(int i) { return matrix.get(row, i); }
+
+    /** Sets gene i. */
+    public void set(int i, double value) { matrix.set(row, i, value); }
+
+    /** Copies my genome into a scratch array belonging to the given thread, and returns it.  The array is reused the
+        next time the thread calls this method, so you must not hold on to it or modify it. */
+    public double[] loadGenome(int thread)
+        {
+        return matrix.getRow(row, matrix.buffer(thread, 0));
+        }
+
+    public Object clone()
+        {
+        DoubleVectorView myobj = (DoubleVectorView) (super.clone());
+
+        // must get my own row
+        myobj.row = matrix.allocate(myobj);
+        if (row != -1)
+            matrix.copyRow(row, myobj.row);
+
+        return myobj;
+        }
+
+    /** Copies ind's genome into my row (getting a row if I'm a prototype).  Only instances of exactly
+        DoubleVectorView sharing my matrix are copied. */
+    public boolean copyFrom(Individual ind)
+        {
+        if (getClass() != DoubleVectorView.class || ind.getClass() != DoubleVectorView.class ||
+            ((DoubleVectorView)ind).matrix != matrix)
+            return false;
+
+        if (row == -1)
+            row = matrix.allocate(this);
+        int from = ((DoubleVectorView)ind).row;
+        if (from != -1)
+            matrix.copyRow(from, row);
+        copyBasicsFrom(ind);
+        return true;
+        }
+
+    // returns a DoubleVectorIndividual of my species whose genome is a copy of mine in the thread's given scratch array
+    DoubleVectorIndividual load(int thread, int which)
+        {
+        DoubleVectorIndividual ind = new DoubleVectorIndividual();
+        ind.species = species;
+        ind.genome = matrix.getRow(row, matrix.buffer(thread, which));
+        return ind;
+        }
+
+    public void defaultCrossover(EvolutionState state, int thread, VectorIndividual ind)
+        {
+        DoubleVectorView other = (DoubleVectorView) ind;
+        DoubleVectorIndividual a = load(thread, 0);
+        DoubleVectorIndividual b = other.load(thread, 1);
+        a.defaultCrossover(state, thread, b);
+        matrix.setRow(row, a.genome);
+        other.matrix.setRow(other.row, b.genome);
+        }
+
+    public void defaultMutate(EvolutionState state, int thread)
+        {
+        DoubleVectorIndividual a = load(thread, 0);
+        a.defaultMutate(state, thread);
+        matrix.setRow(row, a.genome);
+        }
+
+    /** Initializes the individual just as DoubleVectorIndividual.reset(...) would. */
+    public void reset(EvolutionState state, int thread)
+        {
+        DoubleVectorIndividual a = load(thread, 0);
+        a.reset(state, thread);
+        matrix.setRow(row, a.genome);
+        }
+
+    /** Returns a copy of my genome. */
+    public Object getGenome()
+        {
+        return matrix.getRow(row, new double[matrix.getGenomeSize()]);
+        }
+
+    /** Copies the given double array, which must be genomeLength() long, into my genome. */
+    public void setGenome(Object gen)
+        {
+        double[] genome = (double[]) gen;
+        if (genome.length != matrix.getGenomeSize())
+            throw new IllegalArgumentException("DoubleVectorView genomes must be " + matrix.getGenomeSize() + " long, not " + genome.length);
+        matrix.setRow(row, genome);
+        }
+
+    public int genomeLength()
+        {
+        return matrix.getGenomeSize();
+        }
+
+    /** DoubleVectorView genomes are of fixed length: this throws an exception if len isn't that length. */
+    public void setGenomeLength(int len)
+        {
+        if (len != matrix.getGenomeSize())
+            throw new UnsupportedOperationException("DoubleVectorView genomes must be " + matrix.getGenomeSize() + " long, not " + len);
+        }
+
+    public int hashCode()
+        {
+        // the same as DoubleVectorIndividual
+        int hash = this.getClass().hashCode();
+
+        hash = (hash << 1 | hash >>> 31);
+        for (int x = 0; x < matrix.getGenomeSize(); x++)
+            {
+            long l = Double.doubleToLongBits(matrix.get(row, x));
+            hash = (hash << 1 | hash >>> 31) ^ (int) ((l >>> 16) & 0xFFFFFFF) ^ (int) (l & 0xFFFF);
+            }
+
+        return hash;
+        }
+
+    public boolean equals(Object ind)
+        {
+        if (ind == null) return false;
+        if (!(this.getClass().equals(ind.getClass())))
+            return false;
+        DoubleVectorView i = (DoubleVectorView) ind;
+        if (genomeLength() != i.genomeLength())
+            return false;
+        for (int j = 0; j < genomeLength(); j++)
+            if (matrix.get(row, j) != i.matrix.get(i.row, j))
+                return false;
+        return true;
+        }
+
+    public double distanceTo(Individual otherInd)
+        {
+        if (otherInd instanceof DoubleVectorView && ((DoubleVectorView)otherInd).matrix == matrix)
+            return StrictMath.sqrt(matrix.squaredDistance(row, ((DoubleVectorView)otherInd).row));
+        else if (otherInd instanceof DoubleVectorIndividual)
+            return StrictMath.sqrt(matrix.squaredDistance(row, ((DoubleVectorIndividual)otherInd).genome));
+        else return super.distanceTo(otherInd);  // will return infinity!
+        }
+
+    public String genotypeToStringForHumans()
+        {
+        StringBuilder s = new StringBuilder();
+        for( int i = 0 ; i < genomeLength() ; i++ )
+            { if (i > 0) s.append(" "); s.append(matrix.get(row, i)); }
+        return s.toString();
+        }
+
+    public String genotypeToString()
+        {
+        StringBuilder s = new StringBuilder();
+        s.append(Code.encode(genomeLength()));
+        for (int i = 0; i < genomeLength(); i++)
+            s.append(Code.encode(matrix.get(row, i)));
+        return s.toString();
+        }
+
+    protected void parseGenotype(final EvolutionState state,
+        final LineNumberReader reader) throws IOException
+        {
+        // read in the next line. The first item is the number of genes
+        String s = reader.readLine();
+        DecodeReturn d = new DecodeReturn(s);
+        Code.decode(d);
+        if (d.type != DecodeReturn.T_INTEGER)  // uh oh
+            state.output.fatal("Individual with genome:\n" + s + "\n... does not have an integer at the beginning indicating the genome count.");
+        if ((int)(d.l) != genomeLength())
+            state.output.fatal("Individual with genome:\n" + s + "\n... does not have the genome count of this DoubleVectorView's species (" + genomeLength() + ").");
+        if (row == -1)
+            row = matrix.allocate(this);
+
+        // read in the genes
+        for (int i = 0; i < genomeLength(); i++)
+            {
+            Code.decode(d);
+            matrix.set(row, i, d.d);
+            }
+        }
+
+    public void writeGenotype(final EvolutionState state,
+        final DataOutput dataOutput) throws IOException
+        {
+        dataOutput.writeInt(genomeLength());
+        for (int x = 0; x < genomeLength(); x++)
+            dataOutput.writeDouble(matrix.get(row, x));
+        }
+
+    public void readGenotype(final EvolutionState state,
+        final DataInput dataInput) throws IOException
+        {
+        int len = dataInput.readInt();
+        if (len != genomeLength())
+            state.output.fatal("DoubleVectorView read a genome of length " + len + " rather than its species' " + genomeLength());
+        if (row == -1)
+            row = matrix.allocate(this);
+
+        for (int x = 0; x < genomeLength(); x++)
+            matrix.set(row, x, dataInput.readDouble());
+        }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+        {
+        in.defaultReadObject();
+        if (row != -1)
+            matrix.register(this, row);
+        }
+    }
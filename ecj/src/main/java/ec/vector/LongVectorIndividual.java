@@ -91,6 +91,23 @@ public class LongVectorIndividual extends VectorIndividual
         return myobj;
         } 
 
+    /** Copies ind's genome into this individual's genome array if they are the same length (else clones it).
+        Only instances of exactly LongVectorIndividual are copied: subclasses, which may hold state of their own, return false
+        unless they override this method. */
+    public boolean copyFrom(Individual ind)
+        {
+        if (getClass() != LongVectorIndividual.class || ind.getClass() != LongVectorIndividual.class)
+            return false;
+
+        long[] g = ((LongVectorIndividual)ind).genome;
+        if (genome.length == g.length)
+            System.arraycopy(g, 0, genome, 0, g.length);
+        else
+            genome = (long[])(g.clone());
+        copyBasicsFrom(ind);
+        return true;
+        }
+
     public void setup(final EvolutionState state, final Parameter base)
         {
         super.setup(state,base);  // actually unnecessary (Individual.setup() is empty)
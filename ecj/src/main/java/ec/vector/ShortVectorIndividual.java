@@ -90,6 +90,23 @@ public class ShortVectorIndividual extends VectorIndividual
         return myobj;
         } 
 
+    /** Copies ind's genome into this individual's genome array if they are the same length (else clones it).
+        Only instances of exactly ShortVectorIndividual are copied: subclasses, which may hold state of their own, return false
+        unless they override this method. */
+    public boolean copyFrom(Individual ind)
+        {
+        if (getClass() != ShortVectorIndividual.class || ind.getClass() != ShortVectorIndividual.class)
+            return false;
+
+        short[] g = ((ShortVectorIndividual)ind).genome;
+        if (genome.length == g.length)
+            System.arraycopy(g, 0, genome, 0, g.length);
+        else
+            genome = (short[])(g.clone());
+        copyBasicsFrom(ind);
+        return true;
+        }
+
     public void setup(final EvolutionState state, final Parameter base)
         {
         super.setup(state, base); // actually, unnecessary but...
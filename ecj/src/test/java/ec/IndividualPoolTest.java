@@ -0,0 +1,92 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+package ec;
+
+import ec.pso.Particle;
+import ec.simple.SimpleFitness;
+import ec.vector.DoubleVectorIndividual;
+import ec.vector.IntegerVectorIndividual;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IndividualPoolTest
+    {
+    /** A recycled individual becomes a deep copy of the original, keeping its own genome array. */
+    @Test
+    public void testCopyRecycles()
+        {
+        IndividualPool pool = new IndividualPool(2);
+        DoubleVectorIndividual dead = individual(new double[] { 9, 9, 9 });
+        double[] deadGenome = dead.genome;
+        pool.release(dead);
+        assertEquals(1, pool.size());
+
+        DoubleVectorIndividual original = individual(new double[] { 1, 2, 3 });
+        original.evaluated = true;
+        DoubleVectorIndividual copy = (DoubleVectorIndividual)(pool.copy(original, 0));
+        assertSame(dead, copy);
+        assertSame(deadGenome, copy.genome);
+        assertArrayEquals(original.genome, copy.genome, 0);
+        assertTrue(copy.evaluated);
+        assertNotSame(original.fitness, copy.fitness);
+        assertEquals(original.fitness.fitness(), copy.fitness.fitness(), 0);
+        assertEquals(1, pool.getReused());
+        assertEquals(0, pool.size());
+
+        // now the pool is empty, so we clone
+        DoubleVectorIndividual clone = (DoubleVectorIndividual)(pool.copy(original, 0));
+        assertNotSame(original.genome, clone.genome);
+        assertArrayEquals(original.genome, clone.genome, 0);
+        assertEquals(1, pool.getAllocated());
+        }
+
+    /** Released individuals are dealt out among the threads, and each thread only takes its own. */
+    @Test
+    public void testThreads()
+        {
+        IndividualPool pool = new IndividualPool(2);
+        DoubleVectorIndividual a = individual(new double[] { 0 });
+        DoubleVectorIndividual b = individual(new double[] { 0 });
+        pool.release(a);
+        pool.release(b);
+        DoubleVectorIndividual original = individual(new double[] { 1 });
+        assertSame(b, pool.copy(original, 1));
+        assertNotSame(a, pool.copy(original, 1));
+        assertNotSame(a, pool.copy(original, 5));
+        assertSame(a, pool.copy(original, 0));
+        pool.clear();
+        assertEquals(0, pool.size());
+        }
+
+    /** Individuals of a different class, or of subclasses which don't say they can be copied into, are
+        let go and the original cloned. */
+    @Test
+    public void testIncompatible()
+        {
+        IndividualPool pool = new IndividualPool(1);
+        pool.release(new IntegerVectorIndividual());
+        Particle particle = new Particle();
+        particle.genome = new double[] { 4 };
+        pool.release(particle);
+        DoubleVectorIndividual original = individual(new double[] { 1 });
+        Individual copy = pool.copy(original, 0);
+        assertEquals(DoubleVectorIndividual.class, copy.getClass());
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.getReused());
+        assertEquals(1, pool.getAllocated());
+        }
+
+    DoubleVectorIndividual individual(double[] genome)
+        {
+        DoubleVectorIndividual ind = new DoubleVectorIndividual();
+        ind.genome = genome;
+        SimpleFitness fitness = new SimpleFitness();
+        fitness.setFitness(null, genome[0], false);
+        ind.fitness = fitness;
+        return ind;
+        }
+    }
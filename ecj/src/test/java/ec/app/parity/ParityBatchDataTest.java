@@ -0,0 +1,158 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.app.parity;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.app.parity.func.*;
+import ec.gp.ADFStack;
+import ec.gp.GPIndividual;
+import ec.gp.GPNode;
+import ec.gp.GPTree;
+import ec.gp.koza.KozaFitness;
+import ec.util.MersenneTwisterFast;
+import ec.util.ParameterDatabase;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that bit-parallel batched evaluation of Parity gives exactly what per-case eval(...) gives.
+ */
+public class ParityBatchDataTest
+    {
+    private EvolutionState state;
+
+    static final Class<?>[] FUNCTIONS = { And.class, Or.class, Nand.class, Nor.class };
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        }
+
+    Parity problem(int numBits, boolean even, boolean batch)
+        {
+        Parity problem = new Parity();
+        problem.numBits = numBits;
+        problem.totalSize = 1 << numBits;
+        problem.doEven = even;
+        problem.input = new ParityData();
+        problem.stack = new ADFStack();
+        if (batch) problem.batchInput = new ParityBatchData();
+        return problem;
+        }
+
+    /** Builds a random tree no deeper than the given depth, using data bits 0 ... maxBit. */
+    GPNode randomTree(int depth, int maxBit)
+        {
+        MersenneTwisterFast random = state.random[0];
+        GPNode node;
+        try
+            {
+            if (depth <= 1 || random.nextBoolean(0.3))
+                node = (GPNode)(Class.forName("ec.app.parity.func.D" + random.nextInt(maxBit + 1)).getDeclaredConstructor().newInstance());
+            else
+                node = (GPNode)(FUNCTIONS[random.nextInt(FUNCTIONS.length)].getDeclaredConstructor().newInstance());
+            }
+        catch (ReflectiveOperationException e) { throw new RuntimeException(e); }
+
+        node.children = new GPNode[node.expectedChildren()];
+        for(int i = 0; i < node.children.length; i++)
+            {
+            node.children[i] = randomTree(depth - 1, maxBit);
+            node.children[i].parent = node;
+            node.children[i].argposition = (byte)i;
+            }
+        return node;
+        }
+
+    /** Each case's bit of the batched result is the low bit of what eval(...) gives for that case,
+        including data bits beyond the problem's number of bits, which are always zero. */
+    @Test
+    public void testBatchMatchesEval()
+        {
+        for(int numBits = 2; numBits <= 9; numBits++)
+            {
+            Parity problem = problem(numBits, true, true);
+            int words = (problem.totalSize + 63) / 64;
+            for(int t = 0; t < 100; t++)
+                {
+                GPNode root = randomTree(6, Math.min(numBits + 1, 31));
+                assertTrue(ParityBatchData.batchable(root));
+                problem.batchInput.reset(0, words);
+                problem.batchInput.eval(root, state, 0, problem.stack, null, problem);
+                for(problem.bits = 0; problem.bits < problem.totalSize; problem.bits++)
+                    {
+                    root.eval(state, 0, problem.input, problem.stack, null, problem);
+                    long word = problem.batchInput.x[problem.bits >>> 6];
+                    assertEquals(root.makeLispTree(), ((ParityData)(problem.input)).x & 1, (int)((word >>> (problem.bits & 63)) & 1));
+                    }
+                }
+            }
+        }
+
+    /** Data bits, and the oddness of each case, are right at any starting case. */
+    @Test
+    public void testDataAndOdd()
+        {
+        ParityBatchData data = new ParityBatchData();
+        long[] starts = { 0, 64, 1L << 20, (1L << 30) + 192 };
+        for(long start : starts)
+            {
+            data.reset(start, 4);
+            for(int bit = 0; bit < 31; bit++)
+                {
+                data.data(bit);
+                for(int c = 0; c < 256; c++)
+                    assertEquals(((start + c) >>> bit) & 1, (data.x[c >>> 6] >>> (c & 63)) & 1);
+                }
+            for(int c = 0; c < 256; c++)
+                assertEquals(Long.bitCount(start + c) & 1, (ParityBatchData.odd(start + (c & ~63)) >>> (c & 63)) & 1);
+            }
+        }
+
+    /** Batched and unbatched evaluation give the same fitness and hits, for even and odd parity,
+        for fewer than 64 cases, and for more cases than fit in a single batch. */
+    @Test
+    public void testFitness()
+        {
+        int[] bitCounts = { 3, 7, 17 };
+        for(int numBits : bitCounts)
+            for(int e = 0; e < 2; e++)
+                {
+                boolean even = (e == 0);
+                Parity plain = problem(numBits, even, false);
+                Parity batched = problem(numBits, even, true);
+                for(int t = 0; t < 10; t++)
+                    {
+                    GPNode root = randomTree(5, numBits - 1);
+                    GPIndividual a = individual(root);
+                    GPIndividual b = individual(root);
+                    plain.evaluate(state, a, 0, 0);
+                    batched.evaluate(state, b, 0, 0);
+                    assertEquals(((KozaFitness)(a.fitness)).hits, ((KozaFitness)(b.fitness)).hits);
+                    assertEquals(((KozaFitness)(a.fitness)).standardizedFitness(), ((KozaFitness)(b.fitness)).standardizedFitness(), 0.0);
+                    }
+                }
+        }
+
+    GPIndividual individual(GPNode root)
+        {
+        GPIndividual ind = new GPIndividual();
+        ind.trees = new GPTree[] { new GPTree() };
+        ind.trees[0].child = root;
+        ind.fitness = new KozaFitness();
+        return ind;
+        }
+    }
@@ -0,0 +1,145 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.app.regression;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.app.regression.func.*;
+import ec.gp.ADFStack;
+import ec.gp.GPNode;
+import ec.util.MersenneTwisterFast;
+import ec.util.ParameterDatabase;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that batched evaluation of the regression functions gives exactly what per-case eval(...) gives.
+ */
+public class RegressionBatchDataTest
+    {
+    private EvolutionState state;
+    private Benchmarks problem;
+    private ADFStack stack;
+
+    static final Class<?>[] FUNCTIONS = { Add.class, Sub.class, Mul.class, Div.class, Neg.class,
+        Sin.class, Cos.class, Tan.class, Tanh.class, Exp.class, NegExp.class, Log.class, Sqrt.class,
+        Inv.class, Square.class, Cube.class };
+    static final Class<?>[] TERMINALS = { X1.class, X2.class, X3.class, RegERC.class };
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        problem = new Benchmarks();
+        stack = new ADFStack();
+        }
+
+    /** Builds a random tree no deeper than the given depth. */
+    GPNode randomTree(int depth)
+        {
+        MersenneTwisterFast random = state.random[0];
+        GPNode node;
+        try
+            {
+            if (depth <= 1 || random.nextBoolean(0.3))
+                node = (GPNode)(TERMINALS[random.nextInt(TERMINALS.length)].getDeclaredConstructor().newInstance());
+            else
+                node = (GPNode)(FUNCTIONS[random.nextInt(FUNCTIONS.length)].getDeclaredConstructor().newInstance());
+            }
+        catch (ReflectiveOperationException e) { throw new RuntimeException(e); }
+
+        if (node instanceof RegERC)
+            ((RegERC)node).value = (random.nextBoolean(0.2) ? 0.0 : random.nextDouble() * 10 - 5);
+        node.children = new GPNode[node.expectedChildren()];
+        for(int i = 0; i < node.children.length; i++)
+            {
+            node.children[i] = randomTree(depth - 1);
+            node.children[i].parent = node;
+            node.children[i].argposition = (byte)i;
+            }
+        return node;
+        }
+
+    /** Builds the input columns for the given fitness cases, indexed as cases[case][variable]. */
+    static double[][] columns(double[][] cases, int numVariables)
+        {
+        double[][] columns = new double[numVariables][cases.length];
+        for(int c = 0; c < cases.length; c++)
+            for(int v = 0; v < numVariables; v++)
+                columns[v][c] = cases[c][v];
+        return columns;
+        }
+
+    /** Random trees give exactly the same results batched as case by case, including the protected cases
+        of Div, Log, Sqrt and Inv (zero and negative arguments), and with a reused RegressionBatchData. */
+    @Test
+    public void testBatchMatchesEval()
+        {
+        MersenneTwisterFast random = state.random[0];
+        double[][] cases = new double[40][3];
+        for(int c = 0; c < cases.length; c++)
+            for(int v = 0; v < 3; v++)
+                {
+                switch(c % 4)
+                    {
+                    case 0: cases[c][v] = 0.0; break;               // Div, Inv, Log by zero
+                    case 1: cases[c][v] = -random.nextDouble() * 5; break;  // Log, Sqrt of a negative
+                    default: cases[c][v] = random.nextGaussian() * 10; break;
+                    }
+                }
+        double[][] columns = columns(cases, 3);
+
+        RegressionBatchData batch = new RegressionBatchData();
+        RegressionData data = new RegressionData();
+        for(int t = 0; t < 500; t++)
+            {
+            GPNode root = randomTree(6);
+            assertTrue(RegressionBatchData.batchable(root));
+            batch.reset(columns, cases.length);
+            batch.eval(root, state, 0, stack, null, problem);
+            for(int c = 0; c < cases.length; c++)
+                {
+                problem.currentValue = cases[c];
+                root.eval(state, 0, data, stack, null, problem);
+                assertEquals(root.makeLispTree(), data.x, batch.x[c], 0.0);
+                }
+            }
+        }
+
+    /** The batch can change size between trees, and missing variables read as zero, as in eval(...). */
+    @Test
+    public void testResize()
+        {
+        RegressionBatchData batch = new RegressionBatchData();
+        RegressionData data = new RegressionData();
+        for(int size = 1; size < 20; size += 6)
+            {
+            double[][] cases = new double[size][1];
+            for(int c = 0; c < size; c++)
+                cases[c][0] = c - 3;
+            for(int t = 0; t < 50; t++)
+                {
+                GPNode root = randomTree(5);
+                batch.reset(columns(cases, 1), size);
+                batch.eval(root, state, 0, stack, null, problem);
+                for(int c = 0; c < size; c++)
+                    {
+                    problem.currentValue = cases[c];
+                    root.eval(state, 0, data, stack, null, problem);
+                    assertEquals(root.makeLispTree(), data.x, batch.x[c], 0.0);
+                    }
+                }
+            }
+        }
+    }
@@ -0,0 +1,171 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.app.tsp;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.simple.SimpleEvaluator;
+import ec.simple.SimpleEvolutionState;
+import ec.util.MersenneTwisterFast;
+import ec.util.Parameter;
+import ec.util.ParameterDatabase;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the TSPLocalSearch class, and the distance matrix it relies on.
+ */
+public class TSPLocalSearchTest
+{
+    private final static Parameter BASE = new Parameter("base");
+    private final static Parameter SEARCH_BASE = new Parameter("search");
+    private EvolutionState state;
+    private ParameterDatabase params;
+
+    @Before
+    public void setUp()
+    {
+        params = new ParameterDatabase();
+        state = new SimpleEvolutionState();
+        state.parameters = params;
+        state.output = Evolve.buildOutput();
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.output.setThrowsErrors(true);
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        state.evaluator = new SimpleEvaluator();
+    }
+
+    /** The distance matrix gives the same distances as computing them from coordinates. */
+    @Test
+    public void testDistanceMatrix() throws IOException
+    {
+        for (final String file : new String[] { "att532.tsp", "berlin52.tsp", "gr666.tsp" })
+        {
+            final TSPGraph computed = new TSPGraph(new File("src/main/resources/ec/app/tsp/" + file));
+            final TSPGraph matrix = new TSPGraph(new File("src/main/resources/ec/app/tsp/" + file));
+            assertFalse(matrix.hasDistanceMatrix());
+            assertTrue(matrix.computeDistanceMatrix());
+            assertTrue(matrix.hasDistanceMatrix());
+            for (int i = 0; i < computed.numNodes(); i++)
+                for (int j = 0; j < computed.numNodes(); j += 3)
+                {
+                    assertEquals(computed.distance(i, j), matrix.distance(i, j), 0.0);
+                    assertEquals(computed.getEdge(i, j).distance(), matrix.getEdge(i, j).distance(), 0.0);
+                }
+        }
+    }
+
+    /** Random tours become much shorter, and are still tours. */
+    @Test
+    public void testImprove()
+    {
+        final TSPProblem problem = problem("berlin52.tsp");
+        final TSPLocalSearch search = new TSPLocalSearch();
+        search.setup(state, SEARCH_BASE);
+        for (int i = 0; i < 10; i++)
+        {
+            final TSPIndividual ind = randomTour(problem);
+            final double before = length(problem, ind);
+            ind.evaluated = true;
+            final TSPIndividual result = (TSPIndividual) search.improve(state, ind, 0);
+            assertSame(ind, result);
+            assertTour(problem, result);
+            assertFalse(result.evaluated);
+            final double after = length(problem, result);
+            assertTrue(after < before);
+            assertTrue(after < 1.15 * 7542); // The optimal tour of berlin52 has length 7542
+
+            // Improving it again does nothing
+            final TSPIndividual again = (TSPIndividual) result.clone();
+            search.improve(state, again, 0);
+            assertEquals(result, again);
+        }
+    }
+
+    /** Every combination of moves leaves a valid tour, no longer than it was. */
+    @Test
+    public void testMoves()
+    {
+        final TSPProblem problem = problem("att532.tsp");
+        for (final int orOpt : new int[] { 0, 1, 3, 5 })
+            for (final int neighbors : new int[] { 1, 5, 12 })
+            {
+                params.set(SEARCH_BASE.push(TSPLocalSearch.P_OR_OPT), String.valueOf(orOpt));
+                params.set(SEARCH_BASE.push(TSPLocalSearch.P_NEIGHBORS), String.valueOf(neighbors));
+                final TSPLocalSearch search = new TSPLocalSearch();
+                search.setup(state, SEARCH_BASE);
+                final TSPIndividual ind = randomTour(problem);
+                final double before = length(problem, ind);
+                search.improve(state, ind, 0);
+                assertTour(problem, ind);
+                assertTrue(length(problem, ind) < before);
+            }
+
+        // Or-opt finds improvements that 2-opt alone doesn't
+        params.set(SEARCH_BASE.push(TSPLocalSearch.P_NEIGHBORS), "10");
+        params.set(SEARCH_BASE.push(TSPLocalSearch.P_OR_OPT), "0");
+        final TSPLocalSearch twoOpt = new TSPLocalSearch();
+        twoOpt.setup(state, SEARCH_BASE);
+        params.set(SEARCH_BASE.push(TSPLocalSearch.P_OR_OPT), "3");
+        final TSPLocalSearch orOpt = new TSPLocalSearch();
+        orOpt.setup(state, SEARCH_BASE);
+        final TSPIndividual ind = randomTour(problem);
+        twoOpt.improve(state, ind, 0);
+        final double twoOptLength = length(problem, ind);
+        orOpt.improve(state, ind, 0);
+        assertTour(problem, ind);
+        assertTrue(length(problem, ind) < twoOptLength);
+    }
+
+    private TSPProblem problem(final String file)
+    {
+        params.set(BASE.push(TSPProblem.P_FILE), "src/main/resources/ec/app/tsp/" + file);
+        final TSPProblem problem = new TSPProblem();
+        problem.setup(state, BASE);
+        state.evaluator.p_problem = problem;
+        return problem;
+    }
+
+    private TSPIndividual randomTour(final TSPProblem problem)
+    {
+        final int n = problem.numNodes();
+        final int[] nodes = new int[n];
+        for (int i = 0; i < n; i++)
+            nodes[i] = i;
+        for (int i = n - 1; i > 0; i--)
+        {
+            final int j = state.random[0].nextInt(i + 1);
+            final int t = nodes[i];
+            nodes[i] = nodes[j];
+            nodes[j] = t;
+        }
+        final TSPIndividual ind = new TSPIndividual();
+        for (int i = 0; i < n - 1; i++)
+            ind.add(state, problem.getComponent(nodes[i], nodes[i + 1]));
+        return ind;
+    }
+
+    private void assertTour(final TSPProblem problem, final TSPIndividual ind)
+    {
+        assertEquals(problem.numNodes() - 1, ind.size());
+        assertTrue(problem.isCompleteSolution(ind));
+        for (int i = 1; i < ind.size(); i++)
+            assertEquals(ind.get(i - 1).to(), ind.get(i).from());
+        assertTrue(ind.repOK());
+    }
+
+    private double length(final TSPProblem problem, final TSPIndividual ind)
+    {
+        double length = problem.getGraph().distance(ind.get((int) ind.size() - 1).to(), ind.get(0).from());
+        for (int i = 0; i < ind.size(); i++)
+            length += ind.get(i).distance();
+        return length;
+    }
+}
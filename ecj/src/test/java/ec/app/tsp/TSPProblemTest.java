@@ -13,6 +13,7 @@ import ec.simple.SimpleEvaluator;
 import ec.simple.SimpleEvolutionState;
 import ec.util.Output.OutputExitException;
 import ec.util.IIntPoint;
+import ec.util.IntBag;
 import ec.util.MersenneTwisterFast;
 import ec.util.Parameter;
 import ec.util.ParameterDatabase;
@@ -368,4 +369,94 @@ public class TSPProblemTest
         // Reject the hypothesis that the distribution is uniform if p > 0.01 (i.e. if χ^2 > 24.725, the threshold for p = 0.01 at 12-1 = 11 degrees of freedom)
         assertFalse(chiSquared > 24.725);
     }
+    
+    /** Components are numbered from*n + to, and the indexed methods agree with the component methods. */
+    @Test
+    public void testComponentIndices()
+    {
+        state.parameters.set(BASE.push(TSPProblem.P_FILE), "src/main/resources/ec/app/tsp/berlin52.tsp");
+        final TSPProblem instance = new TSPProblem();
+        instance.setup(state, BASE);
+        state.evaluator.p_problem = instance;
+        assertEquals(52*52, instance.numComponents());
+        final List<TSPComponent> all = instance.getAllComponents();
+        for (int i = 0; i < all.size(); i += 7)
+        {
+            assertEquals(i, instance.getComponentIndex(all.get(i)));
+            assertEquals(all.get(i), instance.getComponent(i));
+            if (all.get(i).from() != all.get(i).to())
+                assertEquals(all.get(i).desirability(), instance.desirability(i), 0.0);
+        }
+        
+        final TSPIndividual ind = new TSPIndividual();
+        ind.add(state, instance.getComponent(3, 17));
+        ind.add(state, instance.getComponent(17, 40));
+        final IntBag allowed = new IntBag();
+        instance.getAllowedComponents(ind, allowed);
+        final List<TSPComponent> expected = instance.getAllowedComponents(ind);
+        assertEquals(49, allowed.numObjs);
+        assertEquals(expected.size(), allowed.numObjs);
+        for (int i = 0; i < allowed.numObjs; i++)
+            assertEquals(expected.get(i), instance.getComponent(allowed.get(i)));
+        assertFalse(instance.isCompleteSolution(ind));
+    }
+    
+    /** With a candidate list, only the unvisited nearest neighbors are allowed, until they have all been visited. */
+    @Test
+    public void testCandidates()
+    {
+        state.parameters.set(BASE.push(TSPProblem.P_FILE), "src/main/resources/ec/app/tsp/berlin52.tsp");
+        state.parameters.set(BASE.push(TSPProblem.P_CANDIDATES), "5");
+        final TSPProblem instance = new TSPProblem();
+        instance.setup(state, BASE);
+        state.evaluator.p_problem = instance;
+        final TSPGraph graph = instance.getGraph();
+        assertEquals(5, graph.numNearestNeighbors());
+        
+        // The neighbors are the nearest nodes, nearest first
+        for (int i = 0; i < graph.numNodes(); i++)
+        {
+            final int[] near = graph.getNearestNeighbors(i);
+            double farthest = 0.0;
+            for (int j = 0; j < near.length; j++)
+            {
+                assertNotEquals(i, near[j]);
+                assertTrue(graph.distance(i, near[j]) >= farthest);
+                farthest = graph.distance(i, near[j]);
+            }
+            for (int j = 0; j < graph.numNodes(); j++)
+                if (j != i && graph.distance(i, j) < farthest)
+                {
+                    boolean found = false;
+                    for (int k = 0; k < near.length; k++)
+                        found = found || (near[k] == j);
+                    assertTrue(found);
+                }
+        }
+        
+        final int[] near = graph.getNearestNeighbors(0);
+        final TSPIndividual ind = new TSPIndividual();
+        ind.add(state, instance.getComponent(near[1], 0));
+        final IntBag allowed = new IntBag();
+        instance.getAllowedComponents(ind, allowed);
+        assertEquals(4, allowed.numObjs);
+        for (int i = 0; i < allowed.numObjs; i++)
+            assertEquals(near[i == 0 ? 0 : i + 1], allowed.get(i));
+        
+        // On our 4-city example, node 2's nearest neighbor is node 1 (tied with node 3, which has a larger ID)
+        state.parameters.set(BASE.push(TSPProblem.P_FILE), "src/main/resources/ec/app/tsp/test4.tsp");
+        state.parameters.set(BASE.push(TSPProblem.P_CANDIDATES), "1");
+        instance.setup(state, BASE);
+        assertArrayEquals(new int[] { 1 }, instance.getGraph().getNearestNeighbors(2));
+        final TSPIndividual ind2 = new TSPIndividual();
+        ind2.add(state, instance.getComponent(0, 2));
+        instance.getAllowedComponents(ind2, allowed);
+        assertArrayEquals(new int[] { 2*4 + 1 }, allowed.toArray());
+        
+        // Once every neighbor has been visited, every unvisited node is allowed
+        final TSPIndividual ind3 = new TSPIndividual();
+        ind3.add(state, instance.getComponent(1, 2));
+        instance.getAllowedComponents(ind3, allowed);
+        assertArrayEquals(new int[] { 2*4 + 0, 2*4 + 3 }, allowed.toArray());
+    }
 }
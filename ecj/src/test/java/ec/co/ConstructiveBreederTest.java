@@ -0,0 +1,129 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.co;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.Individual;
+import ec.Population;
+import ec.Subpopulation;
+import ec.simple.SimpleFitness;
+import ec.util.MersenneTwisterFast;
+import ec.util.Parameter;
+import ec.util.ParameterDatabase;
+import ec.util.Xoshiro256;
+import ec.vector.DoubleVectorIndividual;
+import ec.vector.FloatVectorSpecies;
+import ec.vector.VectorSpecies;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that ConstructiveBreeder builds the same individuals for a given seed no matter how many threads it uses.
+ */
+public class ConstructiveBreederTest
+    {
+    private final static Parameter BASE = new Parameter("base");
+    private final static int MAX_THREADS = 7;
+    private EvolutionState state;
+    private FloatVectorSpecies species;
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+
+        state.parameters.set(BASE.push(VectorSpecies.P_INDIVIDUAL), DoubleVectorIndividual.class.getCanonicalName());
+        state.parameters.set(BASE.push(VectorSpecies.P_FITNESS), SimpleFitness.class.getCanonicalName());
+        state.parameters.set(BASE.push(VectorSpecies.P_GENOMESIZE), "5");
+        state.parameters.set(BASE.push(FloatVectorSpecies.P_MINGENE), "-1");
+        state.parameters.set(BASE.push(FloatVectorSpecies.P_MAXGENE), "1");
+        state.parameters.set(BASE.push(VectorSpecies.P_MUTATIONPROB), "0");
+        state.parameters.set(BASE.push(VectorSpecies.P_PIPE), "ec.breed.InitializationPipeline");
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        species = new FloatVectorSpecies();
+        species.setup(state, BASE);
+
+        state.population = new Population();
+        for(int s = 0; s < 2; s++)
+            {
+            Subpopulation subpop = new Subpopulation();
+            subpop.species = species;
+            subpop.individuals = new ArrayList<Individual>();
+            for(int i = 0; i < 23; i++)
+                subpop.individuals.add(species.newIndividual(state, 0));
+            state.population.subpops.add(subpop);
+            }
+        }
+
+    /** Breeds a generation on the given number of threads, with fresh per-thread generators seeded by seed. */
+    Population breed(int breedthreads, int seed, int generation)
+        {
+        state.breedthreads = breedthreads;
+        state.generation = generation;
+        state.random = new MersenneTwisterFast[MAX_THREADS];
+        for(int t = 0; t < MAX_THREADS; t++)
+            state.random[t] = new MersenneTwisterFast(seed + t);
+        state.randomStreams = new Xoshiro256(seed);
+        ConstructiveBreeder breeder = new ConstructiveBreeder();
+        Population population = breeder.breedPopulation(state);
+        breeder.pool.killAll();
+        return population;
+        }
+
+    static double[] genome(Population population, int subpop, int i)
+        {
+        return ((DoubleVectorIndividual)(population.subpops.get(subpop).individuals.get(i))).genome;
+        }
+
+    /** The individuals depend on the seed, the generation, the subpopulation, and their position, but not on the number of threads. */
+    @Test
+    public void testIndependentOfThreads()
+        {
+        Population one = breed(1, 1000, 3);
+        for(int breedthreads = 2; breedthreads <= MAX_THREADS; breedthreads++)
+            {
+            Population many = breed(breedthreads, 1000, 3);
+            for(int s = 0; s < 2; s++)
+                {
+                assertEquals(23, many.subpops.get(s).individuals.size());
+                for(int i = 0; i < 23; i++)
+                    assertArrayEquals(genome(one, s, i), genome(many, s, i), 0.0);
+                }
+            }
+
+        assertFalse(genome(one, 0, 0)[0] == genome(one, 0, 1)[0]);
+        assertFalse(genome(one, 0, 0)[0] == genome(one, 1, 0)[0]);
+        assertFalse(genome(one, 0, 0)[0] == genome(breed(1, 1000, 4), 0, 0)[0]);
+        assertFalse(genome(one, 0, 0)[0] == genome(breed(1, 1001, 3), 0, 0)[0]);
+        }
+
+    /** Each thread gets its own generator back afterwards. */
+    @Test
+    public void testRestoresGenerators()
+        {
+        state.breedthreads = 3;
+        state.randomStreams = new Xoshiro256(1000);
+        MersenneTwisterFast[] random = new MersenneTwisterFast[3];
+        state.random = new MersenneTwisterFast[3];
+        for(int t = 0; t < 3; t++)
+            random[t] = state.random[t] = new MersenneTwisterFast(t);
+        ConstructiveBreeder breeder = new ConstructiveBreeder();
+        breeder.breedPopulation(state);
+        breeder.pool.killAll();
+        for(int t = 0; t < 3; t++)
+            assertSame(random[t], state.random[t]);
+        }
+    }
@@ -0,0 +1,172 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.co.ant;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.app.tsp.TSPGraph.TSPComponent;
+import ec.app.tsp.TSPIndividual;
+import ec.app.tsp.TSPProblem;
+import ec.co.ConstructiveIndividual;
+import ec.simple.SimpleEvaluator;
+import ec.simple.SimpleEvolutionState;
+import ec.simple.SimpleFitness;
+import ec.util.MersenneTwisterFast;
+import ec.util.Parameter;
+import ec.util.ParameterDatabase;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IndexedPheromoneTableTest
+{
+    private final static Parameter BASE = new Parameter("base");
+    private final static Parameter PROBLEM_BASE = new Parameter("prob");
+    private final static Parameter PHEROMONES_BASE = new Parameter("pheromones");
+    private EvolutionState state;
+    private ParameterDatabase params;
+    private TSPProblem problem;
+
+    @Before
+    public void setUp()
+    {
+        params = new ParameterDatabase();
+        params.set(PROBLEM_BASE.push(TSPProblem.P_FILE), "src/main/resources/ec/app/tsp/berlin52.tsp");
+        params.set(BASE.push(SimpleConstructionRule.P_SELECTOR), PseudorandomProportionateComponentSelector.class.getCanonicalName());
+        params.set(BASE.push(SimpleConstructionRule.P_SELECTOR).push(PseudorandomProportionateComponentSelector.P_PROB_BEST), "0.5");
+        params.set(BASE.push(SimpleConstructionRule.P_SELECTOR).push(ProportionateComponentSelector.P_ALPHA), "1.0");
+        params.set(BASE.push(SimpleConstructionRule.P_SELECTOR).push(ProportionateComponentSelector.P_BETA), "2.0");
+        state = new SimpleEvolutionState();
+        state.parameters = params;
+        state.output = Evolve.buildOutput();
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.output.setThrowsErrors(true);
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        state.evaluator = new SimpleEvaluator();
+        problem = new TSPProblem();
+        problem.setup(state, PROBLEM_BASE);
+        state.evaluator.p_problem = problem;
+    }
+
+    /** The indexed table initializes pheromones with the same random numbers as SimplePheromoneTable, and its
+     * component and index methods agree. */
+    @Test
+    public void testGetAndSet()
+    {
+        final SimplePheromoneTable simple = new SimplePheromoneTable();
+        simple.setup(state, PHEROMONES_BASE);
+        final IndexedPheromoneTable indexed = new IndexedPheromoneTable();
+        indexed.setup(state, PHEROMONES_BASE);
+        assertEquals(52*52, indexed.numComponents());
+
+        state.random[0] = new MersenneTwisterFast(1);
+        final double[] expected = new double[100];
+        for (int i = 0; i < expected.length; i++)
+            expected[i] = simple.get(state, problem.getComponent(i), 0);
+        state.random[0] = new MersenneTwisterFast(1);
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], indexed.get(state, problem.getComponent(i), 0), 0.0);
+
+        indexed.set(problem.getComponent(3, 4), 0.5);
+        assertEquals(0.5, indexed.get(state, 3*52 + 4, 0), 0.0);
+        indexed.set(3*52 + 5, 0.25);
+        assertEquals(0.25, indexed.get(state, problem.getComponent(3, 5), 0), 0.0);
+        assertTrue(indexed.repOK());
+    }
+
+    /** Ants built with the indexed table are the same as those built with SimplePheromoneTable. */
+    @Test
+    public void testConstructSolution()
+    {
+        final SimpleConstructionRule rule = new SimpleConstructionRule();
+        rule.setup(state, BASE);
+        final List<ConstructiveIndividual> simpleAnts = construct(rule, new SimplePheromoneTable());
+        final List<ConstructiveIndividual> indexedAnts = construct(rule, new IndexedPheromoneTable());
+        assertEquals(simpleAnts, indexedAnts);
+    }
+
+    /** Ant System updates leave the same pheromones in both tables. */
+    @Test
+    public void testAntSystemUpdate()
+    {
+        params.set(BASE.push(AntSystemUpdateRule.P_DECAY_RATE), "0.1");
+        params.set(BASE.push(AntSystemUpdateRule.P_DEPOSIT_RULE), AntSystemUpdateRule.DepositRule.ANT_CYCLE.toString());
+        final SimpleConstructionRule rule = new SimpleConstructionRule();
+        rule.setup(state, BASE);
+        final SimplePheromoneTable simple = new SimplePheromoneTable();
+        final IndexedPheromoneTable indexed = new IndexedPheromoneTable();
+        final List<ConstructiveIndividual> ants = construct(rule, indexed);
+        for (final ConstructiveIndividual ind : ants)
+            ((SimpleFitness)ind.fitness).setFitness(state, 1.0/ind.size(), false);
+
+        state.random[0] = new MersenneTwisterFast(4357);
+        simple.setup(state, PHEROMONES_BASE);
+        indexed.setup(state, PHEROMONES_BASE);
+        final AntSystemUpdateRule update = new AntSystemUpdateRule();
+        update.setup(state, BASE);
+        for (int i = 0; i < 3; i++)
+        {
+            state.random[0] = new MersenneTwisterFast(i);
+            update.updatePheromones(state, simple, ants);
+            state.random[0] = new MersenneTwisterFast(i);
+            update.updatePheromones(state, indexed, ants);
+        }
+        for (int i = 0; i < indexed.numComponents(); i++)
+            assertEquals(simple.get(state, problem.getComponent(i), 0), indexed.get(state, i, 0), 0.0);
+    }
+
+    /** Updating the table on several threads gives the same pheromones as updating it on one. */
+    @Test
+    public void testParallelUpdate()
+    {
+        params.set(BASE.push(AntSystemUpdateRule.P_DECAY_RATE), "0.1");
+        params.set(BASE.push(AntSystemUpdateRule.P_DEPOSIT_RULE), AntSystemUpdateRule.DepositRule.ANT_CYCLE.toString());
+        final SimpleConstructionRule rule = new SimpleConstructionRule();
+        rule.setup(state, BASE);
+        final IndexedPheromoneTable sequential = new IndexedPheromoneTable();
+        final List<ConstructiveIndividual> ants = construct(rule, sequential);
+        for (final ConstructiveIndividual ind : ants)
+            ((SimpleFitness)ind.fitness).setFitness(state, 1.0/ind.size(), false);
+
+        final IndexedPheromoneTable parallel = new IndexedPheromoneTable();
+        state.random[0] = new MersenneTwisterFast(4357);
+        sequential.setup(state, PHEROMONES_BASE);
+        parallel.setup(state, PHEROMONES_BASE);
+        final AntSystemUpdateRule update = new AntSystemUpdateRule();
+        update.setup(state, BASE);
+        state.random[0] = new MersenneTwisterFast(1);
+        state.breedthreads = 1;
+        update.updatePheromones(state, sequential, ants);
+        state.random[0] = new MersenneTwisterFast(1);
+        state.breedthreads = 3;
+        update.updatePheromones(state, parallel, ants);
+        assertEquals(sequential, parallel);
+
+        parallel.update(state, 4, new IndexedPheromoneTable.Updater()
+        {
+            public double update(final int index, final double pheromone) { return index + 1.0; }
+        });
+        for (int i = 0; i < parallel.numComponents(); i++)
+            assertEquals(i + 1.0, parallel.get(state, i, 0), 0.0);
+    }
+
+    private List<ConstructiveIndividual> construct(final SimpleConstructionRule rule, final PheromoneTable pheromones)
+    {
+        state.random[0] = new MersenneTwisterFast(4357);
+        pheromones.setup(state, PHEROMONES_BASE);
+        final List<ConstructiveIndividual> ants = new ArrayList<ConstructiveIndividual>();
+        for (int i = 0; i < 5; i++)
+        {
+            final TSPIndividual ind = new TSPIndividual();
+            ind.fitness = new SimpleFitness();
+            ants.add(rule.constructSolution(state, ind, pheromones, 0));
+        }
+        return ants;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.eda.cmaes;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.Individual;
+import ec.Population;
+import ec.Statistics;
+import ec.Subpopulation;
+import ec.simple.SimpleFitness;
+import ec.util.MersenneTwisterFast;
+import ec.util.Parameter;
+import ec.util.ParameterDatabase;
+import ec.vector.DoubleVectorIndividual;
+import ec.vector.VectorSpecies;
+import java.util.ArrayList;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for CMAESRestartBreeder's restart strategies.
+ */
+public class CMAESRestartBreederTest
+    {
+    private final static Parameter BASE = new Parameter("base");
+    private final static Parameter BREED_BASE = new Parameter("breed");
+    private EvolutionState state;
+    private CMAESSpecies species;
+    private int restartStatistics;
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        state.parameters.set(BASE.push(CMAESSpecies.P_INDIVIDUAL), DoubleVectorIndividual.class.getCanonicalName());
+        state.parameters.set(BASE.push(CMAESSpecies.P_FITNESS), SimpleFitness.class.getCanonicalName());
+        state.parameters.set(BASE.push(CMAESSpecies.P_GENOMESIZE), "5");
+        state.parameters.set(BASE.push(CMAESSpecies.P_MINGENE), "-5");
+        state.parameters.set(BASE.push(CMAESSpecies.P_MAXGENE), "5");
+        state.parameters.set(BASE.push(VectorSpecies.P_MUTATIONPROB), "0");
+        state.parameters.set(BASE.push(VectorSpecies.P_PIPE), "ec.breed.InitializationPipeline");
+        state.parameters.set(BASE.push(CMAESSpecies.P_MEAN), CMAESSpecies.V_RANDOM);
+        state.parameters.set(BASE.push(CMAESSpecies.P_SIGMA), "1.0");
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+
+        // a statistics object whose child counts the restarts
+        state.statistics = new Statistics();
+        state.statistics.children = new Statistics[] { new CountingStatistics() };
+        state.statistics.children[0].children = new Statistics[0];
+
+        species = new CMAESSpecies();
+        species.setup(state, BASE);
+        Subpopulation subpop = new Subpopulation();
+        subpop.species = species;
+        subpop.individuals = new ArrayList<Individual>();
+        for(int i = 0; i < species.lambda; i++)
+            subpop.individuals.add(species.newIndividual(state, 0));
+        state.population = new Population();
+        state.population.subpops.add(subpop);
+        }
+
+    class CountingStatistics extends Statistics implements CMAESRestartStatisticsForm
+        {
+        public void preRestartStatistics(final EvolutionState state, int subpop, String reason) { restartStatistics++; }
+        public void postRestartStatistics(final EvolutionState state, int subpop) { restartStatistics++; }
+        }
+
+    CMAESRestartBreeder breeder(String restart)
+        {
+        state.parameters.set(BREED_BASE.push(CMAESRestartBreeder.P_RESTART), restart);
+        CMAESRestartBreeder breeder = new CMAESRestartBreeder();
+        breeder.setup(state, BREED_BASE);
+        breeder.initialize(state, state.population);
+        return breeder;
+        }
+
+    /** IPOP doubles lambda with each restart, and starts over from the initial sigma and covariance. */
+    @Test
+    public void testIpop()
+        {
+        CMAESRestartBreeder breeder = breeder(CMAESRestartBreeder.V_IPOP);
+        int lambda = species.lambda;
+        for(int i = 1; i <= 3; i++)
+            {
+            species.sigma = 0.001;
+            species.iterations = 10;
+            breeder.restart(state, 0, species, "test");
+            assertEquals(lambda << i, species.lambda);
+            assertEquals(species.lambda / 2, species.mu);
+            assertEquals(1.0, species.sigma, 0.0);
+            assertEquals(0, species.iterations);
+            }
+        assertEquals(3, breeder.restarts[0]);
+        assertEquals(6, restartStatistics);
+        }
+
+    /** BIPOP starts with the large regime, then uses whichever regime has used fewer evaluations. */
+    @Test
+    public void testBipop()
+        {
+        CMAESRestartBreeder breeder = breeder(CMAESRestartBreeder.V_BIPOP);
+        int lambda = species.lambda;
+        breeder.restart(state, 0, species, "test");
+        assertEquals(2 * lambda, species.lambda);
+        assertFalse(breeder.smallRegime[0]);
+
+        breeder.largeEvaluations[0] = 100;
+        for(int i = 0; i < 5; i++)
+            {
+            breeder.restart(state, 0, species, "test");
+            assertTrue(breeder.smallRegime[0]);
+            assertEquals(lambda, species.lambda);   // half the largest lambda is just the default
+            assertTrue(species.sigma <= 1.0 && species.sigma > 0.01);
+            }
+
+        breeder.smallEvaluations[0] = 100;
+        breeder.restart(state, 0, species, "test");
+        assertEquals(4 * lambda, species.lambda);
+        assertFalse(breeder.smallRegime[0]);
+        }
+
+    /** Runs on the sphere function restart once they've converged, and the subpopulation is resized to the new lambda. */
+    @Test
+    public void testStagnation()
+        {
+        state.parameters.set(BREED_BASE.push(CMAESRestartBreeder.P_MAX_RESTARTS), "2");
+        CMAESRestartBreeder breeder = breeder(CMAESRestartBreeder.V_IPOP);
+        int lambda = species.lambda;
+        Subpopulation subpop = state.population.subpops.get(0);
+        for(int generation = 0; generation < 3000 && breeder.restarts[0] < 2; generation++)
+            {
+            state.generation = generation;
+            for(Individual ind : subpop.individuals)
+                {
+                double sum = 0.0;
+                for(double gene : ((DoubleVectorIndividual)ind).genome)
+                    sum += gene * gene;
+                ((SimpleFitness)(ind.fitness)).setFitness(state, -sum, false);
+                }
+            breeder.breedPopulation(state);
+            }
+        assertEquals(2, breeder.restarts[0]);
+        assertEquals(4 * lambda, species.lambda);
+        assertEquals(4 * lambda, subpop.individuals.size());
+        assertEquals(4, restartStatistics);
+        }
+    }
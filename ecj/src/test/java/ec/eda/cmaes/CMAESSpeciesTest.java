@@ -0,0 +1,155 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.eda.cmaes;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.Individual;
+import ec.Subpopulation;
+import ec.simple.SimpleFitness;
+import ec.util.MersenneTwisterFast;
+import ec.util.Parameter;
+import ec.util.ParameterDatabase;
+import ec.vector.DoubleVectorIndividual;
+import ec.vector.VectorSpecies;
+import java.util.ArrayList;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for CMAESSpecies' sampling, selection, and covariance models.
+ */
+public class CMAESSpeciesTest
+    {
+    private final static Parameter BASE = new Parameter("base");
+    private final static int N = 20;
+    private EvolutionState state;
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        state.parameters.set(BASE.push(CMAESSpecies.P_INDIVIDUAL), DoubleVectorIndividual.class.getCanonicalName());
+        state.parameters.set(BASE.push(CMAESSpecies.P_FITNESS), SimpleFitness.class.getCanonicalName());
+        state.parameters.set(BASE.push(CMAESSpecies.P_GENOMESIZE), "" + N);
+        state.parameters.set(BASE.push(CMAESSpecies.P_MINGENE), "-100");
+        state.parameters.set(BASE.push(CMAESSpecies.P_MAXGENE), "100");
+        state.parameters.set(BASE.push(VectorSpecies.P_MUTATIONPROB), "0");
+        state.parameters.set(BASE.push(VectorSpecies.P_PIPE), "ec.breed.InitializationPipeline");
+        state.parameters.set(BASE.push(CMAESSpecies.P_MEAN), CMAESSpecies.V_CENTER);
+        state.parameters.set(BASE.push(CMAESSpecies.P_SIGMA), "0.5");
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        }
+
+    CMAESSpecies species(String model)
+        {
+        state.parameters.set(BASE.push(CMAESSpecies.P_MODEL), model);
+        CMAESSpecies species = new CMAESSpecies();
+        species.setup(state, BASE);
+        return species;
+        }
+
+    /** Selecting the mu best gives the same individuals, in the same order, as a stable sort. */
+    @Test
+    public void testSelectBest()
+        {
+        CMAESSpecies species = species(CMAESSpecies.V_FULL);
+        ArrayList<Individual> inds = new ArrayList<Individual>();
+        for(int i = 0; i < 50; i++)
+            {
+            Individual ind = species.newIndividual(state, 0);
+            ((SimpleFitness)(ind.fitness)).setFitness(state, state.random[0].nextInt(10), false);
+            inds.add(ind);
+            }
+        ArrayList<Individual> sorted = new ArrayList<Individual>(inds);
+        Collections.sort(sorted);
+        for(int mu = 1; mu <= inds.size(); mu += 7)
+            {
+            int[] selected = new int[mu];
+            species.selectBest(inds, selected);
+            for(int i = 0; i < mu; i++)
+                assertSame(sorted.get(i), inds.get(selected[i]));
+            }
+        }
+
+    /** Sampling a whole population at once gives the same individuals as sampling them one at a time. */
+    @Test
+    public void testNewIndividuals()
+        {
+        for(String model : new String[] { CMAESSpecies.V_FULL, CMAESSpecies.V_SEPARABLE, CMAESSpecies.V_LIMITED_MEMORY })
+            {
+            CMAESSpecies species = species(model);
+            ArrayList<Individual> inds = new ArrayList<Individual>();
+            for(int i = 0; i < species.lambda; i++)
+                inds.add(null);
+
+            state.random[0] = new MersenneTwisterFast(1);
+            species.newIndividuals(state, inds, 0);
+            state.random[0] = new MersenneTwisterFast(1);
+            for(int i = 0; i < species.lambda; i++)
+                assertArrayEquals(((DoubleVectorIndividual)(species.newIndividual(state, 0))).genome,
+                    ((DoubleVectorIndividual)(inds.get(i))).genome, 1e-12);
+            }
+        }
+
+    /** In the limited-memory model, untransform undoes transform. */
+    @Test
+    public void testUntransform()
+        {
+        state.parameters.set(BASE.push(CMAESSpecies.P_COVARIANCE), CMAESSpecies.V_SCALED);
+        CMAESSpecies species = species(CMAESSpecies.V_LIMITED_MEMORY);
+        for(int i = 0; i < species.memory.data.length; i++)
+            species.memory.data[i] = state.random[0].nextGaussian();
+        species.memoryUsed = species.memory.numRows;
+
+        double[] z = new double[N];
+        for(int i = 0; i < N; i++)
+            z[i] = state.random[0].nextGaussian();
+        double[] y = new double[N];
+        species.transform(z, 0, y, 0);
+        for(int i = 0; i < N; i++)
+            y[i] /= species.sigma * species.memoryScale[i];
+        species.untransform(y);
+        assertArrayEquals(z, y, 1e-10);
+        }
+
+    /** Each model finds the minimum of the sphere function. */
+    @Test
+    public void testSphere()
+        {
+        for(String model : new String[] { CMAESSpecies.V_FULL, CMAESSpecies.V_SEPARABLE, CMAESSpecies.V_LIMITED_MEMORY })
+            {
+            CMAESSpecies species = species(model);
+            Subpopulation subpop = new Subpopulation();
+            subpop.species = species;
+            subpop.individuals = new ArrayList<Individual>();
+            for(int i = 0; i < species.lambda; i++)
+                subpop.individuals.add(species.newIndividual(state, 0));
+            for(int generation = 0; generation < 1000; generation++)
+                {
+                state.generation = generation;
+                for(Individual ind : subpop.individuals)
+                    {
+                    double sum = 0.0;
+                    for(double gene : ((DoubleVectorIndividual)ind).genome)
+                        sum += gene * gene;
+                    ((SimpleFitness)(ind.fitness)).setFitness(state, -sum, false);
+                    }
+                species.updateDistribution(state, subpop);
+                species.newIndividuals(state, subpop.individuals, 0);
+                }
+            for(int i = 0; i < N; i++)
+                assertEquals(model, 0.0, species.xmean.get(i, 0), 1e-6);
+            }
+        }
+    }
@@ -0,0 +1,233 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.eval;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.util.MersenneTwisterFast;
+import ec.util.ParameterDatabase;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the framing used by the NIO transport: FramedOutputStream and FramedInputStream, which the Slave
+ * writes and reads with, and NIOSlaveConnection.read(...), which gathers up frames on the master.
+ */
+public class FramedStreamTest
+    {
+    private EvolutionState state;
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        }
+
+    /** Returns size random bytes, the first of which is val. */
+    byte[] payload(byte val, int size)
+        {
+        byte[] b = new byte[size];
+        for(int i = 1; i < size; i++)
+            b[i] = state.random[0].nextByte();
+        b[0] = val;
+        return b;
+        }
+
+    /** Returns the given payloads written out as frames by a FramedOutputStream, flushing after each one. */
+    static byte[] frames(byte[]... payloads) throws IOException
+        {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FramedOutputStream out = new FramedOutputStream(bytes);
+        for(int i = 0; i < payloads.length; i++)
+            {
+            out.write(payloads[i]);
+            out.flush();
+            }
+        return bytes.toByteArray();
+        }
+
+    /** A channel which hands out the given bytes in chunks of the given sizes, then the rest, then ends. */
+    static class ChunkedChannel implements ReadableByteChannel
+        {
+        byte[] bytes;
+        int[] chunks;
+        int pos = 0;
+        int chunk = 0;
+
+        ChunkedChannel(byte[] bytes, int... chunks) { this.bytes = bytes; this.chunks = chunks; }
+
+        public int read(ByteBuffer dst)
+            {
+            if (pos == bytes.length) return -1;
+            int n = Math.min(dst.remaining(), bytes.length - pos);
+            if (chunk < chunks.length)
+                n = Math.min(n, chunks[chunk++]);
+            dst.put(bytes, pos, n);
+            pos += n;
+            return n;
+            }
+
+        public boolean isOpen() { return true; }
+        public void close() { }
+        }
+
+    /** An NIOSlaveConnection which, rather than reading job results, records the bytes of each frame. */
+    static class RecordingConnection extends NIOSlaveConnection
+        {
+        ArrayList<byte[]> frames = new ArrayList<byte[]>();
+
+        RecordingConnection(EvolutionState state)
+            {
+            super(state, "recording", new SlaveMonitor(state, 4, false, 1.0, 100, false));
+            }
+
+        void readJob(byte val, DataInputStream dataIn) throws IOException
+            {
+            byte[] frame = new byte[dataIn.available() + 1];
+            frame[0] = val;
+            dataIn.readFully(frame, 1, frame.length - 1);
+            frames.add(frame);
+            }
+        }
+
+    /** Several frames, of all sizes, come back out of a FramedInputStream as they went into a FramedOutputStream. */
+    @Test
+    public void testRoundTrip() throws IOException
+        {
+        byte[][] payloads = { payload((byte)1, 1), payload((byte)2, 100), payload((byte)3, 5000), payload((byte)4, 1023), payload((byte)5, 30000) };
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(new FramedOutputStream(bytes));
+        for(int i = 0; i < payloads.length; i++)
+            {
+            out.write(payloads[i]);
+            out.flush();
+            out.flush();        // empty frames aren't sent
+            }
+        out.writeInt(12345678);
+        out.writeDouble(3.5);
+        out.close();
+        assertEquals(frames(payloads).length + 4 + 12, bytes.size());     // one more frame, with the int and the double
+
+        DataInputStream in = new DataInputStream(new FramedInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        for(int i = 0; i < payloads.length; i++)
+            {
+            byte[] b = new byte[payloads[i].length];
+            in.readFully(b);
+            assertArrayEquals(payloads[i], b);
+            }
+        assertEquals(12345678, in.readInt());
+        assertEquals(3.5, in.readDouble(), 0.0);
+        assertEquals(-1, in.read());
+        }
+
+    /** A frame cut off partway through is reported, rather than its bytes being handed out. */
+    @Test(expected = EOFException.class)
+    public void testTruncatedFrame() throws IOException
+        {
+        byte[] bytes = frames(payload((byte)1, 10));
+        InputStream in = new FramedInputStream(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 3)));
+        in.read(new byte[10], 0, 10);
+        }
+
+    @Test(expected = IOException.class)
+    public void testBadFrameLength() throws IOException
+        {
+        new FramedInputStream(new ByteArrayInputStream(new byte[] { -1, -1, -1, -1, 0 })).read();
+        }
+
+    /** A frame split across two reads is only processed once it's all come in. */
+    @Test
+    public void testSplitFrame() throws IOException
+        {
+        for(int split = 1; split < 20; split++)
+            {
+            byte[] payload = payload((byte)7, 16);
+            RecordingConnection connection = new RecordingConnection(state);
+            ChunkedChannel channel = new ChunkedChannel(frames(payload), split);
+            connection.read(channel);
+            assertEquals(0, connection.frames.size());
+            connection.read(channel);
+            assertEquals(1, connection.frames.size());
+            assertArrayEquals(payload, connection.frames.get(0));
+            }
+        }
+
+    /** Several frames arriving in one read are all processed, and a following partial frame is kept for later. */
+    @Test
+    public void testSeveralFrames() throws IOException
+        {
+        byte[][] payloads = { payload((byte)1, 5), payload((byte)2, 50), payload((byte)3, 500) };
+        byte[] bytes = frames(payloads);
+        RecordingConnection connection = new RecordingConnection(state);
+        ChunkedChannel channel = new ChunkedChannel(bytes, bytes.length - 100);
+        connection.read(channel);
+        assertEquals(2, connection.frames.size());
+        connection.read(channel);
+        assertEquals(3, connection.frames.size());
+        for(int i = 0; i < payloads.length; i++)
+            assertArrayEquals(payloads[i], connection.frames.get(i));
+        }
+
+    /** A frame larger than the input buffer makes the buffer grow, and is processed once it's all come in,
+        along with the frames around it. */
+    @Test
+    public void testLargeFrame() throws IOException
+        {
+        byte[][] payloads = { payload((byte)1, 10), payload((byte)2, NIOSlaveConnection.BUFFER_SIZE * 3 + 17), payload((byte)3, 10) };
+        RecordingConnection connection = new RecordingConnection(state);
+        ChunkedChannel channel = new ChunkedChannel(frames(payloads));
+        boolean ended = false;
+        try
+            {
+            for(int i = 0; i < 100; i++)  // if the buffer didn't grow, we'd never get anywhere
+                connection.read(channel);
+            }
+        catch (EOFException e) { ended = true; }  // all done
+        assertTrue(ended);
+        assertTrue(connection.in.capacity() >= NIOSlaveConnection.BUFFER_SIZE * 3 + 17 + 4);
+        assertEquals(3, connection.frames.size());
+        for(int i = 0; i < payloads.length; i++)
+            assertArrayEquals(payloads[i], connection.frames.get(i));
+        }
+
+    /** A connection which ends partway through a frame is reported, and the partial frame isn't processed. */
+    @Test
+    public void testTruncatedRead() throws IOException
+        {
+        byte[] bytes = frames(payload((byte)1, 10), payload((byte)2, 10000));
+        RecordingConnection connection = new RecordingConnection(state);
+        ChunkedChannel channel = new ChunkedChannel(Arrays.copyOf(bytes, bytes.length - 1));
+        boolean ended = false;
+        try
+            {
+            for(int i = 0; i < 100; i++)
+                connection.read(channel);
+            }
+        catch (EOFException e) { ended = true; }
+        assertTrue(ended);
+        assertEquals(1, connection.frames.size());
+        }
+
+    @Test(expected = IOException.class)
+    public void testEmptyFrame() throws IOException
+        {
+        new RecordingConnection(state).read(new ChunkedChannel(new byte[] { 0, 0, 0, 0, 1 }));
+        }
+    }
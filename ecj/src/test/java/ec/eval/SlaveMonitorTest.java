@@ -0,0 +1,288 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.eval;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.Individual;
+import ec.simple.SimpleFitness;
+import ec.util.MersenneTwisterFast;
+import ec.util.ParameterDatabase;
+import ec.vector.DoubleVectorIndividual;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the SlaveMonitor's job sizing and speculative scheduling, using SlaveConnections
+ * which aren't connected to anything.
+ */
+public class SlaveMonitorTest
+    {
+    private EvolutionState state;
+
+    // the time "now", in nanoseconds
+    static final long NOW = 100000000000L;
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        }
+
+    static long nanos(double seconds) { return (long)(seconds * 1.0e9); }
+
+    /** Builds a slave of the given speed, which is available for jobs. */
+    SlaveConnection slave(SlaveMonitor monitor, String name, double secondsPerIndividual, double latency)
+        {
+        SlaveConnection slave = new SlaveConnection(state, name, monitor);
+        slave.secondsPerIndividual = secondsPerIndividual;
+        slave.latency = latency;
+        monitor.allSlaves.add(slave);
+        monitor.availableSlaves.add(slave);
+        return slave;
+        }
+
+    Individual individual(double trial)
+        {
+        DoubleVectorIndividual ind = new DoubleVectorIndividual();
+        ind.genome = new double[] { trial };
+        ind.fitness = new SimpleFitness();
+        ind.fitness.trials = new ArrayList();
+        ind.fitness.trials.add(Double.valueOf(trial));
+        return ind;
+        }
+
+    Job job(int size)
+        {
+        Job job = new Job();
+        job.type = Slave.V_EVALUATESIMPLE;
+        job.inds = new Individual[size];
+        for(int i = 0; i < size; i++)
+            job.inds[i] = individual(i);
+        job.subPops = new int[size];
+        job.updateFitness = new boolean[size];
+        return job;
+        }
+
+    /** Marks the job as sent (and completely written out) at the given time. */
+    static void send(Job job, long time)
+        {
+        job.sent = true;
+        job.written = true;
+        job.sentTime = time;
+        }
+
+    @Test
+    public void testJobSize()
+        {
+        assertEquals(7, SlaveConnection.jobSize(-1, 1.0, 100, 7));          // unknown speed
+        assertEquals(10, SlaveConnection.jobSize(0.1, 1.0, 100, 7));
+        assertEquals(100, SlaveConnection.jobSize(0.001, 1.0, 100, 7));     // no more than the maximum
+        assertEquals(1, SlaveConnection.jobSize(5.0, 1.0, 100, 7));         // no less than one
+        assertEquals(3, SlaveConnection.jobSize(0.4, 1.0, 100, 7));         // rounded
+        }
+
+    @Test
+    public void testCapacity()
+        {
+        assertEquals(2, SlaveConnection.capacity(1.0, 0.0, 10));            // at least 2
+        assertEquals(4, SlaveConnection.capacity(1.0, 2.5, 10));            // 1 + ceil(latency / job time)
+        assertEquals(10, SlaveConnection.capacity(0.01, 5.0, 10));          // no more than the maximum
+        assertEquals(1, SlaveConnection.capacity(0.01, 5.0, 1));            // unless the maximum is less than 2
+        }
+
+    @Test
+    public void testSmooth()
+        {
+        assertEquals(3.0, SlaveConnection.smooth(-1, 3.0), 0.0);            // the first measurement is taken as is
+        assertEquals(1.5, SlaveConnection.smooth(1.0, 3.0), 1e-12);
+        assertEquals(0.75, SlaveConnection.smooth(1.0, 0.0), 1e-12);
+        double x = -1;
+        for(int i = 0; i < 100; i++)
+            x = SlaveConnection.smooth(x, 2.0);
+        assertEquals(2.0, x, 1e-12);
+        }
+
+    /** A lone job measures the whole round trip, and once the speed is known, round trips measure the latency. */
+    @Test
+    public void testMeasure()
+        {
+        SlaveMonitor monitor = new SlaveMonitor(state, 4, true, 1.0, 100, true);
+        SlaveConnection slave = new SlaveConnection(state, "slave", monitor);
+        slave.secondsPerIndividual = -1;
+
+        Job job = job(10);
+        job.sentTime = NOW - nanos(5.0);
+        slave.measure(job, NOW);
+        assertEquals(0.5, slave.secondsPerIndividual, 1e-9);
+        assertEquals(0.0, slave.latency, 0.0);
+
+        job.sentTime = NOW;
+        slave.measure(job, NOW + nanos(7.0));
+        assertEquals(0.5, slave.secondsPerIndividual, 1e-9);
+        assertEquals(SlaveConnection.smooth(0, 2.0), slave.latency, 1e-9);
+
+        // a pipelined job is timed from when the previous one came back
+        job.pipelined = true;
+        job.sentTime = NOW;
+        slave.measure(job, NOW + nanos(10.0));
+        assertEquals(SlaveConnection.smooth(0.5, 0.3), slave.secondsPerIndividual, 1e-9);
+        }
+
+    /** The straggler is the job which is expected back last, among those the other slave would return sooner. */
+    @Test
+    public void testStraggler()
+        {
+        SlaveMonitor monitor = new SlaveMonitor(state, 4, true, 1.0, 100, true);
+        SlaveConnection slow = slave(monitor, "slow", 1.0, 0.0);
+        SlaveConnection fast = slave(monitor, "fast", 0.1, 0.0);
+
+        Job first = job(4);
+        send(first, NOW - nanos(1.0));
+        Job second = job(4);
+        slow.jobs.add(first);
+        slow.jobs.add(second);
+
+        // the first job is back in 4 seconds (the slave can't have started it before now), the second in 8
+        assertSame(second, slow.straggler(fast, NOW));
+        assertEquals(8.0, slow.stragglerBack, 1e-9);
+
+        // the first job, if the second has been taken
+        slow.jobs.remove(second);
+        assertSame(first, slow.straggler(fast, NOW));
+        assertEquals(4.0, slow.stragglerBack, 1e-9);
+
+        // a sent job that's not been entirely written out yet, or has already been copied, can't be taken
+        first.written = false;
+        assertNull(slow.straggler(fast, NOW));
+        first.written = true;
+        first.copied = true;
+        assertNull(slow.straggler(fast, NOW));
+        first.copied = false;
+
+        // a slave which isn't expected to be any faster takes nothing
+        SlaveConnection slower = slave(monitor, "slower", 2.0, 0.0);
+        assertNull(slow.straggler(slower, NOW));
+
+        // jobs on a slave of unknown speed are expected back last; a slave of unknown speed is expected to be quick
+        SlaveConnection unknown = slave(monitor, "unknown", -1, 0.0);
+        assertSame(first, slow.straggler(unknown, NOW));
+        unknown.jobs.add(second);
+        assertSame(second, unknown.straggler(fast, NOW));
+        assertEquals(Double.POSITIVE_INFINITY, unknown.stragglerBack, 0.0);
+        }
+
+    /** An idle slave is moved an unsent straggler, or given a copy of a sent one, from the slowest slave. */
+    @Test
+    public void testSpeculate()
+        {
+        SlaveMonitor monitor = new SlaveMonitor(state, 1, true, 1.0, 100, true);
+        SlaveConnection slow = slave(monitor, "slow", 1.0, 0.0);
+        SlaveConnection slower = slave(monitor, "slower", 2.0, 0.0);
+        SlaveConnection idle = slave(monitor, "idle", 0.1, 0.0);
+
+        Job a = job(4);
+        Job b = job(4);
+        send(a, NOW);
+        slow.jobs.add(a);
+        slow.jobs.add(b);                       // back in 8 seconds
+        Job c = job(3);
+        send(c, NOW);
+        slower.jobs.add(c);                     // back in 6 seconds
+
+        monitor.speculate(NOW);
+        assertEquals(1, slow.numJobs());
+        assertEquals(1, idle.numJobs());
+        assertSame(b, idle.jobs.getFirst());
+        assertFalse(b.copied);
+        assertFalse(monitor.availableSlaves.contains(idle));  // it's at capacity
+
+        // now that the idle slave is busy, nothing else happens
+        monitor.speculate(NOW);
+        assertEquals(1, slow.numJobs());
+        assertEquals(1, slower.numJobs());
+
+        // a second idle slave gets a copy of the slower slave's job, which is now expected back last
+        SlaveConnection idle2 = slave(monitor, "idle2", 0.1, 0.0);
+        monitor.speculate(NOW);
+        assertEquals(1, slower.numJobs());
+        assertEquals(1, idle2.numJobs());
+        Job copy = idle2.jobs.getFirst();
+        assertSame(c, copy.original);
+        assertSame(c.inds, copy.inds);
+        assertTrue(c.copied);
+
+        // but a job is never copied twice
+        SlaveConnection idle3 = slave(monitor, "idle3", 0.1, 0.0);
+        assertNull(slower.straggler(idle3, NOW));
+        monitor.speculate(NOW);
+        assertEquals(1, idle3.numJobs());
+        assertSame(a, idle3.jobs.getFirst().original);
+        }
+
+    @Test
+    public void testNextJobSize()
+        {
+        SlaveMonitor monitor = new SlaveMonitor(state, 4, false, 1.0, 100, false);
+        assertEquals(7, monitor.nextJobSize(false, 7));     // not adaptive
+
+        monitor = new SlaveMonitor(state, 4, true, 1.0, 100, false);
+        assertEquals(Integer.MAX_VALUE, monitor.nextJobSize(false, 7));     // nobody to send it to yet
+        SlaveConnection unknown = slave(monitor, "unknown", -1, 0.0);
+        assertEquals(7, monitor.nextJobSize(false, 7));
+        assertEquals(7, monitor.nextJobSize(true, 7));
+        monitor.availableSlaves.remove(unknown);
+        slave(monitor, "fast", 0.05, 0.0);
+        assertEquals(20, monitor.nextJobSize(false, 7));
+        }
+
+    /** Whichever of a job and its copy comes back first is merged into the individuals, exactly once. */
+    @Test
+    public void testCopyMergesOnce()
+        {
+        Job job = job(3);
+        Job copy = job.copy();
+        assertSame(job, copy.primary());
+        assertSame(job, copy.copy().primary());
+
+        job.copyIndividualsForward();
+        copy.copyIndividualsForward();
+        for(int i = 0; i < 3; i++)
+            {
+            assertNull(copy.newinds[i].fitness.trials);
+            assertNotSame(job.newinds[i], copy.newinds[i]);
+            ((DoubleVectorIndividual)(job.newinds[i])).genome[0] = 100;
+            ((DoubleVectorIndividual)(copy.newinds[i])).genome[0] = 200;
+            copy.newinds[i].fitness.trials = new ArrayList();
+            copy.newinds[i].fitness.trials.add(Double.valueOf(200));
+            job.newinds[i].fitness.trials = new ArrayList();
+            job.newinds[i].fitness.trials.add(Double.valueOf(100));
+            }
+
+        assertTrue(copy.copyIndividualsBack(state));
+        assertTrue(job.finished);
+        assertFalse(job.copyIndividualsBack(state));
+        assertFalse(copy.copyIndividualsBack(state));
+        for(int i = 0; i < 3; i++)
+            {
+            assertEquals(200, ((DoubleVectorIndividual)(job.inds[i])).genome[0], 0.0);
+            assertEquals(2, job.inds[i].fitness.trials.size());     // the original trial and the copy's, but not the job's
+            assertFalse(job.inds[i].fitness.trials.contains(Double.valueOf(100)));
+            }
+        assertNull(job.newinds);
+        assertNull(copy.newinds);
+        }
+    }
@@ -0,0 +1,229 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.gp;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.Problem;
+import ec.app.regression.Benchmarks;
+import ec.app.regression.RegressionData;
+import ec.app.regression.func.*;
+import ec.util.MersenneTwisterFast;
+import ec.util.ParameterDatabase;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for GPTreeCompiler, GPTreeKey, and the CompilableNodeForm implementations
+ * of the regression functions.
+ */
+public class GPTreeCompilerTest
+    {
+    private EvolutionState state;
+    private Benchmarks problem;
+    private RegressionData data;
+    private ADFStack stack;
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        problem = new Benchmarks();
+        data = new RegressionData();
+        stack = new ADFStack();
+        }
+
+    static final Class<?>[] FUNCTIONS = { Add.class, Sub.class, Mul.class, Div.class, Neg.class,
+        Sin.class, Cos.class, Tan.class, Tanh.class, Exp.class, NegExp.class, Log.class, Sqrt.class,
+        Inv.class, Square.class, Cube.class };
+    static final Class<?>[] TERMINALS = { X1.class, X2.class, X3.class, RegERC.class };
+
+    /** Builds a random tree no deeper than the given depth.  Every node implements CompilableNodeForm. */
+    GPNode randomTree(int depth)
+        {
+        MersenneTwisterFast random = state.random[0];
+        GPNode node;
+        try
+            {
+            if (depth <= 1 || random.nextBoolean(0.3))
+                node = (GPNode)(TERMINALS[random.nextInt(TERMINALS.length)].getDeclaredConstructor().newInstance());
+            else
+                node = (GPNode)(FUNCTIONS[random.nextInt(FUNCTIONS.length)].getDeclaredConstructor().newInstance());
+            }
+        catch (ReflectiveOperationException e) { throw new RuntimeException(e); }
+
+        if (node instanceof RegERC)
+            {
+            // include zero now and then, to exercise the protected operators
+            ((RegERC)node).value = (random.nextBoolean(0.2) ? 0.0 : random.nextDouble() * 10 - 5);
+            }
+        node.children = new GPNode[node.expectedChildren()];
+        for(int i = 0; i < node.children.length; i++)
+            {
+            node.children[i] = randomTree(depth - 1);
+            node.children[i].parent = node;
+            node.children[i].argposition = (byte)i;
+            }
+        return node;
+        }
+
+    /** Builds the tree (+ x1 erc) for the given ERC value. */
+    GPNode addErc(double value)
+        {
+        RegERC erc = new RegERC();
+        erc.value = value;
+        return node(new Add(), new X1(), erc);
+        }
+
+    static GPNode node(GPNode node, GPNode... children)
+        {
+        node.children = children;
+        for(int i = 0; i < children.length; i++)
+            {
+            if (children[i].children == null)
+                children[i].children = new GPNode[0];
+            children[i].parent = node;
+            children[i].argposition = (byte)i;
+            }
+        return node;
+        }
+
+    double eval(GPNode root, double[] variables)
+        {
+        problem.currentValue = variables;
+        root.eval(state, 0, data, stack, null, problem);
+        return data.x;
+        }
+
+    /** A compiled tree computes exactly what eval(...) computes, ERCs and protected operators included. */
+    @Test
+    public void testCompiledMatchesEval()
+        {
+        GPTreeCompiler compiler = new GPTreeCompiler(1000);
+        double[][] cases = { { 0, 0, 0 }, { 1, -1, 0.5 }, { -3.25, 2, 100 }, { 1e-9, -1e9, 7 }, { 0.5 }, { } };
+        for(int t = 0; t < 500; t++)
+            {
+            GPNode root = randomTree(6);
+            GPTreeCompiler.CompiledTree compiled = compiler.compile(state, root);
+            assertNotNull(root.makeLispTree(), compiled);
+            for(int c = 0; c < cases.length; c++)
+                assertEquals(root.makeLispTree(), eval(root, cases[c]), compiled.eval(cases[c]), 0.0);
+            for(int c = 0; c < 10; c++)
+                {
+                double[] variables = { state.random[0].nextGaussian() * 10, state.random[0].nextGaussian(), state.random[0].nextDouble() };
+                assertEquals(root.makeLispTree(), eval(root, variables), compiled.eval(variables), 0.0);
+                }
+            }
+        assertEquals(0, compiler.getFailures());
+        }
+
+    /** The cache returns the same compiled tree for equal trees, but tells apart trees which differ only in their ERCs. */
+    @Test
+    public void testCache()
+        {
+        GPTreeCompiler compiler = new GPTreeCompiler(1000);
+        GPTreeCompiler.CompiledTree a = compiler.compile(state, addErc(0.5));
+        GPTreeCompiler.CompiledTree b = compiler.compile(state, addErc(0.25));
+        assertNotSame(a, b);
+        assertEquals(2, compiler.getMisses());
+        assertEquals(0, compiler.getHits());
+
+        assertSame(a, compiler.compile(state, addErc(0.5)));
+        assertSame(b, compiler.compile(state, addErc(0.25)));
+        assertEquals(2, compiler.getHits());
+        assertEquals(2, compiler.getMisses());
+
+        double[] variables = { 1.0 };
+        assertEquals(1.5, a.eval(variables), 0.0);
+        assertEquals(1.25, b.eval(variables), 0.0);
+        }
+
+    /** The cache holds a copy of each tree, so modifying a tree after compiling it doesn't corrupt the cache. */
+    @Test
+    public void testCacheSnapshot()
+        {
+        GPTreeCompiler compiler = new GPTreeCompiler(1000);
+        GPNode root = addErc(0.5);
+        GPTreeCompiler.CompiledTree a = compiler.compile(state, root);
+        ((RegERC)(root.children[1])).value = 2.0;
+        GPTreeCompiler.CompiledTree b = compiler.compile(state, root);
+        assertNotSame(a, b);
+        assertEquals(3.0, b.eval(new double[] { 1.0 }), 0.0);
+        assertSame(a, compiler.compile(state, addErc(0.5)));
+        }
+
+    /** The cache never holds more than its capacity, dropping the least recently used tree. */
+    @Test
+    public void testCacheCapacity()
+        {
+        GPTreeCompiler compiler = new GPTreeCompiler(2);
+        GPTreeCompiler.CompiledTree a = compiler.compile(state, addErc(1));
+        compiler.compile(state, addErc(2));
+        compiler.compile(state, addErc(1));     // now 2 is the eldest
+        compiler.compile(state, addErc(3));     // evicts 2
+        assertSame(a, compiler.compile(state, addErc(1)));
+        assertEquals(2, compiler.getHits());
+        compiler.compile(state, addErc(2));
+        assertEquals(4, compiler.getMisses());
+        }
+
+    /** A node which does not implement CompilableNodeForm. */
+    public static class Opaque extends GPNode
+        {
+        public String toString() { return "opaque"; }
+        public int expectedChildren() { return 0; }
+        public void eval(final EvolutionState state, final int thread, final GPData input, final ADFStack stack,
+            final GPIndividual individual, final Problem problem)
+            {
+            ((RegressionData)input).x = 2.0;
+            }
+        }
+
+    /** Trees which can't be compiled come back as null, so the caller falls back on eval(...), and are
+        remembered as uncompilable rather than compiled again. */
+    @Test
+    public void testUncompilable()
+        {
+        GPTreeCompiler compiler = new GPTreeCompiler(1000);
+        GPNode root = node(new Mul(), new X1(), new Opaque());
+        assertNull(compiler.compile(state, root));
+        assertEquals(1, compiler.getFailures());
+        assertEquals(1, compiler.getMisses());
+
+        assertNull(compiler.compile(state, node(new Mul(), new X1(), new Opaque())));
+        assertEquals(1, compiler.getFailures());
+        assertEquals(1, compiler.getHits());
+        assertEquals(6.0, eval(root, new double[] { 3.0 }), 0.0);
+        }
+
+    /** GPTreeKeys are equal exactly when their trees are, and snapshots are equal to their originals but share no nodes. */
+    @Test
+    public void testTreeKey()
+        {
+        GPTreeKey a = new GPTreeKey(addErc(0.5));
+        GPTreeKey b = new GPTreeKey(addErc(0.5));
+        GPTreeKey c = new GPTreeKey(addErc(0.25));
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertFalse(a.equals(c));
+        assertFalse(a.equals(new GPTreeKey(node(new Sub(), new X1(), new RegERC()))));
+
+        GPTreeKey snapshot = a.snapshot();
+        assertEquals(a, snapshot);
+        assertEquals(a.hashCode(), snapshot.hashCode());
+        assertNotSame(a.node, snapshot.node);
+        assertNotSame(a.node.children[1], snapshot.node.children[1]);
+        assertNull(snapshot.node.parent);
+        }
+    }
@@ -0,0 +1,91 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.gp;
+
+import ec.app.regression.func.Add;
+import ec.app.regression.func.Mul;
+import ec.app.regression.func.X;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SemanticsCacheTest
+    {
+    public SemanticsCacheTest()
+        {
+        }
+
+    /** A subtree is only stored the second time it is missed, and is then found
+        under any structurally identical subtree. */
+    @Test
+    public void testAdmitAndGet()
+        {
+        SemanticsCache cache = new SemanticsCache(10, 2);
+        GPTreeKey key = new GPTreeKey(tree(new Add()));
+
+        assertNull(cache.get(key));
+        assertFalse(cache.admit(key));
+        assertNull(cache.get(key));
+        assertTrue(cache.admit(key));
+        double[] value = new double[] { 1, 2, 3 };
+        cache.put(key, value);
+
+        assertSame(value, cache.get(new GPTreeKey(tree(new Add()))));
+        assertNull(cache.get(new GPTreeKey(tree(new Mul()))));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(1, cache.size());
+        }
+
+    /** Stored keys are private copies, unaffected by later changes to the original tree. */
+    @Test
+    public void testSnapshot()
+        {
+        SemanticsCache cache = new SemanticsCache(10, 1);
+        GPNode node = tree(new Add());
+        cache.put(new GPTreeKey(node), "add");
+        node.children[1] = tree(new Mul());
+        assertEquals("add", cache.get(new GPTreeKey(tree(new Add()))));
+        }
+
+    /** A full cache evicts its least-recently-used entries. */
+    @Test
+    public void testEviction()
+        {
+        SemanticsCache cache = new SemanticsCache(2, 1);
+        GPTreeKey add = new GPTreeKey(tree(new Add()));
+        GPTreeKey mul = new GPTreeKey(tree(new Mul()));
+        GPTreeKey x = new GPTreeKey(terminal());
+        cache.put(add, "add");
+        cache.put(mul, "mul");
+        cache.get(add);
+        cache.put(x, "x");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals("add", cache.get(add));
+        assertNull(cache.get(mul));
+        assertEquals("x", cache.get(x));
+        }
+
+    /** Build (node x x) */
+    private GPNode tree(final GPNode node)
+        {
+        node.children = new GPNode[] { terminal(), terminal() };
+        for(int i = 0; i < node.children.length; i++)
+            {
+            node.children[i].parent = node;
+            node.children[i].argposition = (byte)i;
+            }
+        return node;
+        }
+
+    private GPNode terminal()
+        {
+        GPNode node = new X();
+        node.children = new GPNode[0];
+        return node;
+        }
+    }
@@ -0,0 +1,92 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.gp.linear;
+
+import ec.gp.ERC;
+import ec.app.regression.func.RegERC;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LinearGPTreeTest
+    {
+    // opcode 0 is a two-argument function, opcode 1 a terminal
+    static final int F = 0;
+    static final int X = 1;
+
+    public LinearGPTreeTest()
+        {
+        }
+
+    static ERC erc(double value)
+        {
+        RegERC erc = new RegERC();
+        erc.value = value;
+        return erc;
+        }
+
+    /** (F (F X e0) e1) */
+    static LinearGPTree treeA()
+        {
+        return new LinearGPTree(new int[] { F, F, X, -1, -2 }, new int[] { 5, 3, 1, 1, 1 },
+            new ERC[] { erc(1), erc(2) }, (byte)0);
+        }
+
+    /** (F e0 X) */
+    static LinearGPTree treeB()
+        {
+        return new LinearGPTree(new int[] { F, -1, X }, new int[] { 3, 1, 1 },
+            new ERC[] { erc(3) }, (byte)0);
+        }
+
+    @Test
+    public void testNavigation()
+        {
+        LinearGPTree a = treeA();
+        assertEquals(-1, a.parent(0));
+        assertEquals(1, a.parent(3));
+        assertEquals(0, a.parent(4));
+        assertEquals(1, a.argposition(3));
+        assertEquals(1, a.argposition(4));
+        assertEquals(2, a.atDepth(3));
+        assertEquals(3, a.depth(0));
+        assertEquals(2, a.depth(1));
+        assertEquals(2, a.numChildren(1));
+        assertEquals(1, a.ercsBefore(4));
+        }
+
+    /** Replacing a terminal with a bigger subtree grows its ancestors and renumbers the ERCs after it. */
+    @Test
+    public void testReplaceGrow()
+        {
+        LinearGPTree a = treeA();
+        LinearGPTree b = treeB();
+        LinearGPTree c = a.replace(2, b, 0);
+        assertArrayEquals(new int[] { F, F, F, -1, X, -2, -3 }, c.code);
+        assertArrayEquals(new int[] { 7, 5, 3, 1, 1, 1, 1 }, c.size);
+        assertEquals(3, c.ercs.length);
+        assertSame(b.ercs[0], c.ercs[0]);
+        assertSame(a.ercs[0], c.ercs[1]);
+        assertSame(a.ercs[1], c.ercs[2]);
+
+        // the originals are untouched
+        assertTrue(a.treeEquals(treeA()));
+        assertTrue(b.treeEquals(treeB()));
+        }
+
+    /** Replacing an ERC with a terminal drops it from the pool. */
+    @Test
+    public void testReplaceErc()
+        {
+        LinearGPTree a = treeA();
+        LinearGPTree c = a.replace(3, treeB(), 2);
+        assertArrayEquals(new int[] { F, F, X, X, -1 }, c.code);
+        assertArrayEquals(new int[] { 5, 3, 1, 1, 1 }, c.size);
+        assertEquals(1, c.ercs.length);
+        assertSame(a.ercs[1], c.ercs[0]);
+        assertFalse(c.treeEquals(a));
+        }
+    }
@@ -0,0 +1,136 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+package ec.multiobjective;
+
+import ec.util.MersenneTwisterFast;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class HypervolumeTest
+    {
+    final MersenneTwisterFast random = new MersenneTwisterFast(3);
+
+    /** Every exact engine agrees with inclusion-exclusion, with and without ties. */
+    @Test
+    public void testExactVolumes()
+        {
+        for(int discrete = 0; discrete < 2; discrete++)
+            for(int m = 2; m <= 5; m++)
+                for(int trial = 0; trial < 10; trial++)
+                    {
+                    int n = 1 + random.nextInt(10);
+                    double[] points = random(n, m, discrete == 1);
+                    double[] reference = reference(m);
+                    double expected = inclusionExclusion(points, n, m, reference);
+                    assertEquals(expected, new WFGHypervolume().volume(points, n, m, reference), 1E-9);
+                    assertEquals(expected, new AutomaticHypervolume().volume(points, n, m, reference), 1E-9);
+                    if (m == 2)
+                        assertEquals(expected, new TwoDimensionalHypervolume().volume(points, n, m, reference), 1E-9);
+                    if (m == 3)
+                        assertEquals(expected, new ThreeDimensionalHypervolume().volume(points, n, m, reference), 1E-9);
+                    }
+        }
+
+    /** The two-dimensional contributions agree with the general method. */
+    @Test
+    public void testContributions()
+        {
+        for(int discrete = 0; discrete < 2; discrete++)
+            {
+            double[] points = random(50, 2, discrete == 1);
+            double[] reference = reference(2);
+            assertArrayEquals(new WFGHypervolume().contributions(points, 50, 2, reference),
+                new TwoDimensionalHypervolume().contributions(points, 50, 2, reference), 1E-9);
+            }
+        }
+
+    /** Updated contributions agree with those computed from scratch as points are removed. */
+    @Test
+    public void testIncrementalContributions()
+        {
+        for(int m = 2; m <= 4; m++)
+            {
+            int n = 30;
+            double[] points = random(n, m, m == 3);
+            double[] reference = reference(m);
+            Hypervolume engine = new AutomaticHypervolume();
+            HypervolumeContributions c = new HypervolumeContributions(engine, points, n, m, reference);
+            while(c.size() > 1)
+                {
+                c.remove(c.leastContributor());
+
+                double[] rest = new double[c.size() * m];
+                int[] index = new int[c.size()];
+                int size = 0;
+                for(int i = 0; i < n; i++)
+                    if (!c.isRemoved(i))
+                        {
+                        System.arraycopy(points, i * m, rest, size * m, m);
+                        index[size++] = i;
+                        }
+                double[] expected = engine.contributions(rest, size, m, reference);
+                for(int i = 0; i < size; i++)
+                    assertEquals(expected[i], c.contribution(index[i]), 1E-9);
+                }
+            }
+        }
+
+    /** The Monte Carlo estimate falls within its error bound. */
+    @Test
+    public void testMonteCarlo()
+        {
+        int m = 5;
+        double[] points = random(20, m, false);
+        double[] reference = reference(m);
+        double[] low = new double[m];
+        java.util.Arrays.fill(low, 1.0);
+        for(int i = 0; i < points.length; i++)
+            low[i % m] = Math.min(low[i % m], points[i]);
+        double box = 1.0;
+        for(int k = 0; k < m; k++)
+            box *= reference[k] - low[k];
+
+        MonteCarloHypervolume estimator = new MonteCarloHypervolume();
+        assertEquals(new WFGHypervolume().volume(points, 20, m, reference),
+            estimator.volume(points, 20, m, reference), estimator.error * box);
+        }
+
+    double[] random(int n, int m, boolean discrete)
+        {
+        double[] points = new double[n * m];
+        for(int i = 0; i < points.length; i++)
+            points[i] = (discrete ? random.nextInt(4) / 4.0 : random.nextDouble());
+        return points;
+        }
+
+    double[] reference(int m)
+        {
+        double[] reference = new double[m];
+        java.util.Arrays.fill(reference, 1.0);
+        return reference;
+        }
+
+    /** Sums the volumes of the intersections of every subset of the boxes, with alternating signs. */
+    double inclusionExclusion(double[] points, int n, int m, double[] reference)
+        {
+        double volume = 0;
+        for(int subset = 1; subset < (1 << n); subset++)
+            {
+            double box = 1.0;
+            for(int k = 0; k < m; k++)
+                {
+                double worst = Double.NEGATIVE_INFINITY;
+                for(int i = 0; i < n; i++)
+                    if ((subset & (1 << i)) != 0)
+                        worst = Math.max(worst, points[i * m + k]);
+                box *= reference[k] - worst;
+                }
+            volume += (Integer.bitCount(subset) % 2 == 1 ? box : -box);
+            }
+        return volume;
+        }
+    }
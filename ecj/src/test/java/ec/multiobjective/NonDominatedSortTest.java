@@ -0,0 +1,149 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+package ec.multiobjective;
+
+import ec.Individual;
+import ec.util.MersenneTwisterFast;
+import ec.vector.DoubleVectorIndividual;
+import java.util.ArrayList;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class NonDominatedSortTest
+    {
+    final NonDominatedSort[] sorts = new NonDominatedSort[] { new EfficientNonDominatedSort(), new DivideAndConquerNonDominatedSort(), new AutomaticNonDominatedSort() };
+
+    /** Maximized objectives are negated, and duplicates share a rank. */
+    @Test
+    public void testRankings()
+        {
+        final boolean[] maximize = new boolean[] { true, false, true };
+        final ArrayList<Individual> inds = new ArrayList<Individual>();
+        inds.add(createIndForPoint(new double[] { 1, 5, 1 }, maximize));  // dominated by everyone else but the last
+        inds.add(createIndForPoint(new double[] { 3, 1, 2 }, maximize));
+        inds.add(createIndForPoint(new double[] { 2, 2, 3 }, maximize));
+        inds.add(createIndForPoint(new double[] { 3, 1, 2 }, maximize));  // duplicate
+        inds.add(createIndForPoint(new double[] { 2, 2, 2 }, maximize));  // dominated by #2
+        inds.add(createIndForPoint(new double[] { 0, 6, 0 }, maximize));
+
+        int[] expected = new int[] { 2, 0, 0, 0, 1, 3 };
+        for(NonDominatedSort sort : sorts)
+            assertArrayEquals(expected, sort.getRankings(inds));
+        assertArrayEquals(expected, MultiObjectiveFitness.getRankings(inds));
+
+        ArrayList<ArrayList<Individual>> ranks = MultiObjectiveFitness.partitionIntoRanks(inds);
+        assertEquals(4, ranks.size());
+        assertEquals(3, ranks.get(0).size());
+        assertSame(inds.get(1), ranks.get(0).get(0));
+        assertSame(inds.get(2), ranks.get(0).get(1));
+        assertSame(inds.get(3), ranks.get(0).get(2));
+        assertSame(inds.get(4), ranks.get(1).get(0));
+        }
+
+    /** Two objectives, including the two-objective sort. */
+    @Test
+    public void testTwoObjectives()
+        {
+        MersenneTwisterFast random = new MersenneTwisterFast(1);
+        NonDominatedSort two = new TwoObjectiveNonDominatedSort();
+        for(int discrete = 0; discrete < 2; discrete++)
+            {
+            double[] objectives = random(random, 500, 2, discrete == 1);
+            int[] expected = bruteForce(objectives, 2, 500);
+            int[] ranks = new int[500];
+            assertEquals(max(expected) + 1, two.sort(objectives, 2, ranks));
+            assertArrayEquals(expected, ranks);
+            for(NonDominatedSort sort : sorts)
+                {
+                sort.sort(objectives, 2, ranks);
+                assertArrayEquals(expected, ranks);
+                }
+            }
+        }
+
+    /** Several objectives, with and without ties, large enough for the divide-and-conquer sort to recurse. */
+    @Test
+    public void testManyObjectives()
+        {
+        MersenneTwisterFast random = new MersenneTwisterFast(2);
+        int[] objectiveCounts = new int[] { 1, 3, 4, 6 };
+        for(int discrete = 0; discrete < 2; discrete++)
+            for(int m : objectiveCounts)
+                {
+                double[] objectives = random(random, 1000, m, discrete == 1);
+                int[] expected = bruteForce(objectives, m, 1000);
+                for(NonDominatedSort sort : sorts)
+                    {
+                    int[] ranks = new int[1000];
+                    assertEquals(max(expected) + 1, sort.sort(objectives, m, ranks));
+                    assertArrayEquals(sort.getClass().getSimpleName() + " with " + m + " objectives", expected, ranks);
+                    }
+                }
+        }
+
+    double[] random(MersenneTwisterFast random, int n, int m, boolean discrete)
+        {
+        double[] objectives = new double[n * m];
+        for(int i = 0; i < objectives.length; i++)
+            objectives[i] = (discrete ? random.nextInt(5) : random.nextDouble());
+        return objectives;
+        }
+
+    int max(int[] values)
+        {
+        int max = -1;
+        for(int v : values)
+            max = Math.max(max, v);
+        return max;
+        }
+
+    /** Each row's rank is one more than the highest rank of the rows which dominate it. */
+    int[] bruteForce(double[] objectives, int m, int n)
+        {
+        int[] ranks = new int[n];
+        java.util.Arrays.fill(ranks, -1);
+        int assigned = 0;
+        for(int rank = 0; assigned < n; rank++)
+            {
+            ArrayList<Integer> front = new ArrayList<Integer>();
+            for(int q = 0; q < n; q++)
+                {
+                if (ranks[q] != -1) continue;
+                boolean dominated = false;
+                for(int p = 0; p < n && !dominated; p++)
+                    if (p != q && ranks[p] == -1 && dominates(objectives, m, p, q))
+                        dominated = true;
+                if (!dominated) front.add(q);
+                }
+            for(int q : front)
+                ranks[q] = rank;
+            assigned += front.size();
+            }
+        return ranks;
+        }
+
+    boolean dominates(double[] objectives, int m, int p, int q)
+        {
+        boolean better = false;
+        for(int j = 0; j < m; j++)
+            {
+            if (objectives[p * m + j] > objectives[q * m + j]) return false;
+            if (objectives[p * m + j] < objectives[q * m + j]) better = true;
+            }
+        return better;
+        }
+
+    private static Individual createIndForPoint(final double[] point, final boolean[] maximize)
+        {
+        final MultiObjectiveFitness fitness = new MultiObjectiveFitness();
+        fitness.objectives = point;
+        fitness.maximize = maximize;
+        final DoubleVectorIndividual ind = new DoubleVectorIndividual();
+        ind.fitness = fitness;
+        return ind;
+        }
+    }
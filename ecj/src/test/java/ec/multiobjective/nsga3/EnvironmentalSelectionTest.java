@@ -0,0 +1,187 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+package ec.multiobjective.nsga3;
+
+import ec.Individual;
+import ec.util.MersenneTwisterFast;
+import ec.util.ThreadPool;
+import ec.vector.DoubleVectorIndividual;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class EnvironmentalSelectionTest
+    {
+    final MersenneTwisterFast random = new MersenneTwisterFast(7);
+
+    /** The directions lie on the unit simplex, are distinct, and number (H + m - 1) choose (m - 1). */
+    @Test
+    public void testReferenceDirections()
+        {
+        assertEquals(28, EnvironmentalSelection.numReferenceDirections(3, 6));
+        assertEquals(1716, EnvironmentalSelection.numReferenceDirections(8, 6));
+        assertEquals(38760, EnvironmentalSelection.numReferenceDirections(15, 6));
+
+        int m = 5;
+        double[] directions = EnvironmentalSelection.referenceDirections(m, 4);
+        int count = directions.length / m;
+        assertEquals(EnvironmentalSelection.numReferenceDirections(m, 4), count);
+        HashSet<String> seen = new HashSet<String>();
+        for(int r = 0; r < count; r++)
+            {
+            double sum = 0;
+            StringBuilder key = new StringBuilder();
+            for(int k = 0; k < m; k++)
+                {
+                sum += directions[r * m + k];
+                key.append(directions[r * m + k]).append(' ');
+                }
+            assertEquals(1.0, sum, 1E-12);
+            assertTrue(seen.add(key.toString()));
+            }
+        assertEquals(1.0, directions[m - 1], 0);
+        assertEquals(1.0, directions[(count - 1) * m], 0);
+        }
+
+    /** Normalization and association agree with SelectorTools. */
+    @Test
+    public void testAgreesWithSelectorTools()
+        {
+        for(int m = 2; m <= 6; m++)
+            {
+            List<ArrayList<Individual>> fronts = fronts(new int[] { 10, 15, 20 }, m);
+            SelectorTools tools = new SelectorTools(fronts, m);
+            tools.normalizeObjectives();
+            tools.associate();
+
+            int n = 45;
+            double[] points = pack(fronts, m);
+            EnvironmentalSelection selection = new EnvironmentalSelection(SelectorTools.NUMBER_OF_DIVISIONS);
+            selection.select(points, n, m, 10, 25, 5, new MersenneTwisterFast(1), 1, null);
+
+            double[] normalized = selection.getNormalized();
+            int[] nearest = selection.getNearest();
+            int[] expectedCounts = new int[selection.getNumReferences()];
+            int row = 0;
+            for(ArrayList<Individual> front : fronts)
+                for(Individual ind : front)
+                    {
+                    ArrayList<Double> norm = ((NSGA3MultiObjectiveFitness)(ind.fitness)).getNormFit();
+                    for(int k = 0; k < m; k++)
+                        assertEquals(norm.get(k), normalized[row * m + k], 1E-9);
+                    row++;
+                    }
+
+            for(int r = 0; r < tools.referencePoints.size(); r++)
+                {
+                ReferencePoint point = tools.referencePoints.get(r);
+                int count = 0;
+                for(int i = 0; i < 25; i++)
+                    if (nearest[i] == r) count++;
+                assertEquals(point.numAssociations(), count);
+                for(int i = 0; i < point.associates.size(); i++)
+                    {
+                    int index = fronts.get(2).indexOf(point.associates.get(i).getValue());
+                    assertEquals(r, nearest[25 + index]);
+                    assertEquals(point.associates.get(i).getKey(), selection.getDistance()[25 + index], 1E-9);
+                    }
+                }
+            }
+        }
+
+    /** Splitting the association among threads changes nothing. */
+    @Test
+    public void testThreads()
+        {
+        int m = 8;
+        List<ArrayList<Individual>> fronts = fronts(new int[] { 40, 60, 100 }, m);
+        double[] points = pack(fronts, m);
+        EnvironmentalSelection serial = new EnvironmentalSelection(3);
+        EnvironmentalSelection parallel = new EnvironmentalSelection(3);
+        int[] expected = serial.select(points, 200, m, 40, 100, 50, new MersenneTwisterFast(5), 1, null).clone();
+        int[] actual = parallel.select(points, 200, m, 40, 100, 50, new MersenneTwisterFast(5), 4, new ThreadPool()).clone();
+        assertArrayEquals(serial.getNearest(), parallel.getNearest());
+        assertArrayEquals(serial.getDistance(), parallel.getDistance(), 0);
+        for(int i = 0; i < 50; i++)
+            assertEquals(expected[i], actual[i]);
+
+        // the buffers are reused
+        int[] again = parallel.select(points, 200, m, 40, 100, 50, new MersenneTwisterFast(5), 4, new ThreadPool());
+        for(int i = 0; i < 50; i++)
+            assertEquals(expected[i], again[i]);
+        }
+
+    /** Selected rows are distinct members of the last front, and empty directions are filled first. */
+    @Test
+    public void testNiching()
+        {
+        int m = 3;
+        List<ArrayList<Individual>> fronts = fronts(new int[] { 100 }, m);
+        double[] points = pack(fronts, m);
+        EnvironmentalSelection selection = new EnvironmentalSelection(6);
+        int[] selected = selection.select(points, 100, m, 100, 0, 60, new MersenneTwisterFast(2), 1, null);
+        int[] nearest = selection.getNearest();
+
+        HashSet<Integer> directions = new HashSet<Integer>();
+        for(int i = 0; i < 100; i++)
+            directions.add(nearest[i]);
+        HashSet<Integer> rows = new HashSet<Integer>();
+        HashSet<Integer> filled = new HashSet<Integer>();
+        for(int s = 0; s < 60; s++)
+            {
+            assertTrue(rows.add(selected[s]));
+            if (s < directions.size())
+                assertTrue(filled.add(nearest[selected[s]]));
+            }
+        }
+
+    List<ArrayList<Individual>> fronts(int[] sizes, int m)
+        {
+        List<ArrayList<Individual>> fronts = new ArrayList<ArrayList<Individual>>();
+        int id = 0;
+        for(int f = 0; f < sizes.length; f++)
+            {
+            ArrayList<Individual> front = new ArrayList<Individual>();
+            for(int i = 0; i < sizes[f]; i++)
+                {
+                double[] objectives = new double[m];
+                for(int k = 0; k < m; k++)
+                    objectives[k] = f + random.nextDouble();
+                DoubleVectorIndividual ind = new DoubleVectorIndividual();
+                ind.genome = new double[] { id++ };
+                ind.fitness = new TestFitness(objectives);
+                front.add(ind);
+                }
+            fronts.add(front);
+            }
+        return fronts;
+        }
+
+    double[] pack(List<ArrayList<Individual>> fronts, int m)
+        {
+        ArrayList<Double> values = new ArrayList<Double>();
+        for(ArrayList<Individual> front : fronts)
+            for(Individual ind : front)
+                for(int k = 0; k < m; k++)
+                    values.add(((TestFitness)(ind.fitness)).getObjective(k));
+        double[] points = new double[values.size()];
+        for(int i = 0; i < points.length; i++)
+            points[i] = values.get(i);
+        return points;
+        }
+
+    static class TestFitness extends NSGA3MultiObjectiveFitness
+        {
+        TestFitness(double[] objectives)
+            {
+            this.objectives = objectives;
+            maximize = new boolean[objectives.length];
+            }
+        }
+    }
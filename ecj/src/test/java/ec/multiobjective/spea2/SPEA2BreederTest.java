@@ -217,7 +217,8 @@ public class SPEA2BreederTest
         assertTrue(state.population.subpops.get(0).individuals.containsAll(expectedArchive));
         }
     
-    /** Build an archive of size 2 with the default k. */
+    /** Build an archive of size 2 with the default k.  Truncation removes (75, 0.4), whose nearest
+     * neighbor is nearest, and then (80, 0.2), leaving the two ends of the front. */
     @Test
     public void testLoadElites6()
         {
@@ -230,7 +231,7 @@ public class SPEA2BreederTest
         
         final List<Individual> expectedArchive = new ArrayList<Individual>() {{
            add(createTestIndividual(new double[] { 50, 0.5}, 0));
-           add(createTestIndividual(new double[] { 75, 0.4}, 1));
+           add(createTestIndividual(new double[] { 100, 0.05}, 3));
         }};
         
         assertEquals(2, newpop.subpops.get(0).individuals.size());
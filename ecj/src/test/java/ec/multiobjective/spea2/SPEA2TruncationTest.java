@@ -0,0 +1,76 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+package ec.multiobjective.spea2;
+
+import ec.util.MersenneTwisterFast;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SPEA2TruncationTest
+    {
+    final MersenneTwisterFast random = new MersenneTwisterFast(11);
+
+    /** Truncation removes the same members as recomputing every sorted distance list after each removal,
+     * however few neighbors are kept. */
+    @Test
+    public void testAgreesWithBruteForce()
+        {
+        for(int m = 2; m <= 4; m++)
+            for(int neighbors = 2; neighbors <= 20; neighbors *= 3)
+                {
+                int n = 60;
+                double[] points = new double[n * m];
+                for(int i = 0; i < points.length; i++)
+                    points[i] = random.nextDouble();
+                int[] rows = new int[n];
+                for(int i = 0; i < n; i++)
+                    rows[i] = i;
+
+                SPEA2Truncation truncation = new SPEA2Truncation(points, m, rows, n, neighbors);
+                truncation.fill(0, n / 2);
+                truncation.fill(n / 2, n);
+                truncation.truncate(10);
+
+                boolean[] expected = bruteForce(points, n, m, 10);
+                for(int i = 0; i < n; i++)
+                    assertEquals(expected[i], truncation.isRemoved(i));
+                }
+        }
+
+    boolean[] bruteForce(double[] points, int n, int m, int target)
+        {
+        boolean[] removed = new boolean[n];
+        for(int remaining = n; remaining > target; remaining--)
+            {
+            int worst = -1;
+            double[] worstD = null;
+            for(int i = 0; i < n; i++)
+                {
+                if (removed[i]) continue;
+                double[] d = new double[remaining - 1];
+                int size = 0;
+                for(int j = 0; j < n; j++)
+                    if (j != i && !removed[j])
+                        d[size++] = SPEA2Truncation.distance(points, m, i, j);
+                Arrays.sort(d);
+                if (worst == -1 || compare(d, worstD) < 0)
+                    { worst = i; worstD = d; }
+                }
+            removed[worst] = true;
+            }
+        return removed;
+        }
+
+    int compare(double[] a, double[] b)
+        {
+        for(int i = 0; i < a.length; i++)
+            if (a[i] != b[i])
+                return (a[i] < b[i] ? -1 : 1);
+        return 0;
+        }
+    }
@@ -0,0 +1,170 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+package ec.neat;
+
+import ec.neat.NEATNode.*;
+import ec.util.MersenneTwisterFast;
+import ec.vector.Gene;
+import java.util.ArrayList;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class NEATCompiledNetworkTest
+    {
+    final MersenneTwisterFast random = new MersenneTwisterFast(3);
+
+    /** Feed-forward activation gives exactly the outputs of a NEATNetwork activated until it settles. */
+    @Test
+    public void testFeedForwardAgreesWithNetwork()
+        {
+        for(int trial = 0; trial < 50; trial++)
+            {
+            NEATIndividual ind = individual(3, 2, 6, 20, false);
+            NEATCompiledNetwork compiled = ind.compileNetwork();
+            assertTrue(compiled.isFeedForward());
+            assertEquals(3, compiled.getNumInputs());
+            assertEquals(2, compiled.getNumOutputs());
+
+            NEATNetwork net = network(ind);
+            double[] out = new double[2];
+            for(int i = 0; i < 5; i++)
+                {
+                double[] in = new double[] { random.nextDouble(), random.nextDouble(), random.nextDouble() };
+                net.loadSensors(in);
+                for(int relax = 0; relax < compiled.getDepth() + 1; relax++)
+                    net.activate(null);
+                double[] expected = net.getOutputResults();
+                net.flush();
+
+                compiled.activate(in, out);
+                assertArrayEquals(expected, out, 0);
+                }
+            }
+        }
+
+    /** Recurrent activation of a feed-forward network settles on the feed-forward outputs, and batches give the
+        same outputs as activating one input at a time. */
+    @Test
+    public void testRecurrentAndBatches()
+        {
+        for(int trial = 0; trial < 20; trial++)
+            {
+            NEATIndividual ind = individual(4, 3, 8, 30, false);
+            NEATCompiledNetwork compiled = ind.compileNetwork();
+            double[][] in = new double[7][4];
+            for(int r = 0; r < in.length; r++)
+                for(int k = 0; k < 4; k++)
+                    in[r][k] = random.nextDouble();
+
+            double[][] feedForward = new double[7][3];
+            double[][] recurrent = new double[7][3];
+            compiled.activateBatch(in, feedForward);
+            compiled.activateBatch(in, recurrent, compiled.getDepth());
+            double[] out = new double[3];
+            for(int r = 0; r < in.length; r++)
+                {
+                assertArrayEquals(feedForward[r], recurrent[r], 0);
+                compiled.activate(in[r], out);
+                assertArrayEquals(feedForward[r], out, 0);
+                compiled.flush();
+                compiled.activate(in[r], out, compiled.getDepth());
+                assertArrayEquals(feedForward[r], out, 0);
+                compiled.flush();
+                }
+            }
+        }
+
+    /** Networks with cycles are recurrent, and their batches agree with one input at a time. */
+    @Test
+    public void testCycles()
+        {
+        NEATIndividual ind = individual(2, 1, 4, 20, true);
+        NEATCompiledNetwork compiled = ind.compileNetwork();
+        assertFalse(compiled.isFeedForward());
+        try
+            {
+            compiled.activate(new double[2], new double[1]);
+            fail();
+            }
+        catch (IllegalStateException e) { }
+
+        double[][] in = new double[][] { { 0.2, 0.9 }, { 0.7, 0.1 } };
+        double[][] batch = new double[2][1];
+        compiled.activateBatch(in, batch, 10);
+        double[] out = new double[1];
+        for(int r = 0; r < in.length; r++)
+            {
+            compiled.flush();
+            compiled.activate(in[r], out, 4);
+            compiled.activate(in[r], out, 6);
+            assertArrayEquals(batch[r], out, 0);
+            }
+        }
+
+    /** Builds an individual with a bias, the given sensors and outputs, some hidden nodes, and random links.  If
+        not cyclic, links only go from lower-numbered to higher-numbered nodes, and some are disabled. */
+    NEATIndividual individual(int numInputs, int numOutputs, int numHidden, int numLinks, boolean cyclic)
+        {
+        ArrayList<NEATNode> nodes = new ArrayList<NEATNode>();
+        int id = 1;
+        nodes.add(node(NodeType.SENSOR, id++, NodePlace.BIAS));
+        for(int i = 0; i < numInputs; i++)
+            nodes.add(node(NodeType.SENSOR, id++, NodePlace.INPUT));
+        int firstHidden = id;
+        for(int i = 0; i < numHidden; i++)
+            nodes.add(node(NodeType.NEURON, id++, NodePlace.HIDDEN));
+        for(int i = 0; i < numOutputs; i++)
+            nodes.add(node(NodeType.NEURON, id++, NodePlace.OUTPUT));
+
+        ArrayList<Gene> genes = new ArrayList<Gene>();
+        int innovation = 0;
+        // every output is reachable
+        for(int i = 0; i < numOutputs; i++)
+            genes.add(gene(1 + random.nextInt(numInputs + 1), firstHidden + numHidden + i, innovation++));
+        for(int i = 0; i < numLinks; i++)
+            {
+            int to = firstHidden + random.nextInt(numHidden + numOutputs);
+            int from = 1 + random.nextInt(cyclic ? id - 1 : to - 1);
+            NEATGene gene = gene(from, to, innovation++);
+            gene.enable = (cyclic || random.nextDouble() < 0.8);
+            genes.add(gene);
+            }
+        if (cyclic)
+            genes.add(gene(firstHidden + numHidden, firstHidden + numHidden, innovation++));
+
+        NEATIndividual ind = new NEATIndividual();
+        NEATSpecies species = new NEATSpecies();
+        species.maxNetworkDepth = 100;
+        ind.species = species;
+        ind.reset(nodes, genes);
+        return ind;
+        }
+
+    NEATNode node(NodeType type, int id, NodePlace place)
+        {
+        NEATNode node = new NEATNode();
+        node.setup(null, null);
+        node.reset(type, id, place);
+        return node;
+        }
+
+    NEATGene gene(int from, int to, int innovation)
+        {
+        NEATGene gene = new NEATGene();
+        gene.setup(null, null);
+        gene.reset(random.nextDouble() * 4 - 2, from, to, false, innovation, 0);
+        return gene;
+        }
+
+    NEATNetwork network(NEATIndividual ind)
+        {
+        NEATNetwork net = new NEATNetwork();
+        net.setup(null, null);
+        net.buildNetwork(ind);
+        return net;
+        }
+    }
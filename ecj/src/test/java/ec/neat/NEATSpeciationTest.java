@@ -0,0 +1,119 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+package ec.neat;
+
+import ec.Individual;
+import ec.util.MersenneTwisterFast;
+import ec.vector.Gene;
+import java.util.ArrayList;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class NEATSpeciationTest
+    {
+    final MersenneTwisterFast random = new MersenneTwisterFast(5);
+
+    /** Speciating all at once, with any number of threads, gives the same subspecies as speciating one
+        individual at a time, both into an empty species and into one with subspecies from a previous generation. */
+    @Test
+    public void testAgreesWithSpeciate()
+        {
+        for(int threads = 1; threads <= 5; threads += 2)
+            {
+            ArrayList<Individual> first = population(300);
+            ArrayList<Individual> second = population(500);
+
+            NEATSpecies expected = species();
+            for(Individual ind : first)
+                expected.speciate(null, ind);
+            next(expected);
+            for(Individual ind : second)
+                expected.speciate(null, ind);
+
+            NEATSpecies actual = species();
+            actual.speciation.speciate(null, first, threads);
+            next(actual);
+            actual.speciation.speciate(null, second, threads);
+
+            assertTrue(expected.subspecies.size() > 5);
+            assertEquals(expected.subspecies.size(), actual.subspecies.size());
+            for(int s = 0; s < expected.subspecies.size(); s++)
+                {
+                ArrayList<Individual> e = expected.subspecies.get(s).newGenIndividuals;
+                ArrayList<Individual> a = actual.subspecies.get(s).newGenIndividuals;
+                assertEquals(e.size(), a.size());
+                for(int i = 0; i < e.size(); i++)
+                    assertSame(e.get(i), a.get(i));
+                }
+            }
+        }
+
+    /** The compatibility test agrees with NEATSpecies.compatibility(...). */
+    @Test
+    public void testCompatible()
+        {
+        NEATSpecies species = species();
+        ArrayList<Individual> inds = population(60);
+        for(int i = 0; i < inds.size(); i++)
+            for(int j = 0; j < inds.size(); j++)
+                {
+                NEATIndividual a = (NEATIndividual)(inds.get(i));
+                NEATIndividual b = (NEATIndividual)(inds.get(j));
+                assertEquals(species.compatibility(a, b) < species.compatThreshold,
+                    species.speciation.compatible(NEATSpeciation.innovationNumbers(a), NEATSpeciation.mutationNumbers(a),
+                        NEATSpeciation.innovationNumbers(b), NEATSpeciation.mutationNumbers(b)));
+                }
+        }
+
+    // moves every subspecies to its new generation, leaving some subspecies empty of new individuals
+    void next(NEATSpecies species)
+        {
+        for(NEATSubspecies subs : species.subspecies)
+            subs.toNewGeneration();
+        }
+
+    NEATSpecies species()
+        {
+        NEATSpecies species = new NEATSpecies();
+        species.subspeciesPrototype = new NEATSubspecies();
+        species.subspeciesPrototype.setup(null, null);
+        species.subspecies = new ArrayList<NEATSubspecies>();
+        species.disjointCoeff = 1.0;
+        species.excessCoeff = 1.0;
+        species.mutDiffCoeff = 0.4;
+        species.compatThreshold = 3.0;
+        species.speciation = new NEATSpeciation(species);
+        return species;
+        }
+
+    /** Individuals descended from a few ancestors: each has most of its ancestor's genes, plus a few of its own. */
+    ArrayList<Individual> population(int size)
+        {
+        MersenneTwisterFast r = new MersenneTwisterFast(random.nextLong());
+        ArrayList<Individual> inds = new ArrayList<Individual>();
+        for(int i = 0; i < size; i++)
+            {
+            int ancestor = r.nextInt(8);
+            ArrayList<Gene> genes = new ArrayList<Gene>();
+            for(int inno = 0; inno < 40; inno++)
+                {
+                boolean inherited = ((inno + ancestor) % 3 != 0 || inno < 5);
+                if ((inherited && r.nextDouble() < 0.95) || r.nextDouble() < 0.03)
+                    {
+                    NEATGene gene = new NEATGene();
+                    gene.setup(null, null);
+                    gene.reset(0, 0, 0, false, inno, ancestor + r.nextDouble() * 4);
+                    genes.add(gene);
+                    }
+                }
+            NEATIndividual ind = new NEATIndividual();
+            ind.reset(new ArrayList<NEATNode>(), genes);
+            inds.add(ind);
+            }
+        return inds;
+        }
+    }
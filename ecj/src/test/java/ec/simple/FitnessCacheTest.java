@@ -0,0 +1,159 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.simple;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.Individual;
+import ec.util.Parameter;
+import ec.util.ParameterDatabase;
+import ec.vector.DoubleVectorIndividual;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+public class FitnessCacheTest
+    {
+    private EvolutionState state;
+
+    public FitnessCacheTest()
+        {
+        }
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        }
+
+    /** An identical individual in the same subpopulation gets a copy of the cached fitness. */
+    @Test
+    public void testLookup()
+        {
+        FitnessCache cache = new FitnessCache(10, false);
+        Individual evaluated = createTestIndividual(new double[] { 1, 2 }, 7.0);
+        cache.store(evaluated, 0);
+
+        Individual copy = createTestIndividual(new double[] { 1, 2 }, 0.0);
+        copy.evaluated = false;
+        assertTrue(cache.lookup(copy, 0));
+        assertTrue(copy.evaluated);
+        assertEquals(7.0, copy.fitness.fitness(), 0.0);
+        assertNotSame(evaluated.fitness, copy.fitness);
+
+        // the cache holds its own copy of the individual
+        ((DoubleVectorIndividual)evaluated).genome[0] = 5;
+        Individual other = createTestIndividual(new double[] { 1, 2 }, 0.0);
+        assertTrue(cache.lookup(other, 0));
+
+        assertFalse(cache.lookup(createTestIndividual(new double[] { 1, 2 }, 0.0), 1));
+        assertFalse(cache.lookup(createTestIndividual(new double[] { 2, 1 }, 0.0), 0));
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        }
+
+    /** Unevaluated individuals are not stored, and the least recently used individuals are evicted. */
+    @Test
+    public void testStore()
+        {
+        FitnessCache cache = new FitnessCache(1, false);
+        Individual ind = createTestIndividual(new double[] { 1 }, 1.0);
+        ind.evaluated = false;
+        cache.store(ind, 0);
+        assertEquals(0, cache.size());
+
+        cache.store(createTestIndividual(new double[] { 1 }, 1.0), 0);
+        cache.store(createTestIndividual(new double[] { 2 }, 2.0), 0);
+        assertEquals(1, cache.size());
+        assertFalse(cache.lookup(createTestIndividual(new double[] { 1 }, 0.0), 0));
+        assertTrue(cache.lookup(createTestIndividual(new double[] { 2 }, 0.0), 0));
+        }
+
+    /** The contents survive serialization only if asked to. */
+    @Test
+    public void testCheckpoint() throws Exception
+        {
+        for(int i = 0; i < 2; i++)
+            {
+            boolean checkpoint = (i == 1);
+            FitnessCache cache = new FitnessCache(10, checkpoint);
+            cache.store(createTestIndividual(new double[] { 3 }, 3.0), 0);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(cache);
+            out.close();
+            FitnessCache restored = (FitnessCache)(new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject());
+
+            assertEquals(checkpoint ? 1 : 0, restored.size());
+            assertEquals(checkpoint, restored.lookup(createTestIndividual(new double[] { 3 }, 0.0), 0));
+            }
+        }
+
+    /** Lookups from many threads at once, spread over all the stripes, are all counted, and the counts survive serialization. */
+    @Test
+    public void testCounters() throws Exception
+        {
+        final FitnessCache cache = new FitnessCache(1000, false);
+        for(int g = 0; g < 100; g += 2)
+            cache.store(createTestIndividual(new double[] { g }, g), 0);
+
+        Thread[] threads = new Thread[8];
+        for(int t = 0; t < threads.length; t++)
+            {
+            final Individual[] inds = new Individual[100];
+            for(int i = 0; i < inds.length; i++)
+                inds[i] = createTestIndividual(new double[] { i }, 0.0);
+            threads[t] = new Thread(new Runnable()
+                {
+                public void run()
+                    {
+                    for(int i = 0; i < 1000; i++)
+                        cache.lookup(inds[i % 100], 0);
+                    }
+                });
+            threads[t].start();
+            }
+        for(int t = 0; t < threads.length; t++)
+            threads[t].join();
+        assertEquals(4000, cache.getHits());
+        assertEquals(4000, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 0.0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(cache);
+        out.close();
+        FitnessCache restored = (FitnessCache)(new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject());
+        assertEquals(4000, restored.getHits());
+        assertEquals(4000, restored.getMisses());
+
+        cache.resetCounters();
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        assertEquals(0.0, cache.getHitRate(), 0.0);
+        }
+
+    /** Create an evaluated DoubleVectorIndividual with the given genome and fitness. */
+    private Individual createTestIndividual(final double[] genome, final double fitness)
+        {
+        final DoubleVectorIndividual ind = new DoubleVectorIndividual();
+        ind.genome = genome;
+        ind.fitness = new SimpleFitness();
+        ind.fitness.setup(state, new Parameter(""));
+        ((SimpleFitness)ind.fitness).setFitness(state, fitness, false);
+        ind.evaluated = true;
+        return ind;
+        }
+    }
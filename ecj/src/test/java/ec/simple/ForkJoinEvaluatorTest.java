@@ -0,0 +1,187 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.simple;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.Individual;
+import ec.Population;
+import ec.Problem;
+import ec.Subpopulation;
+import ec.util.Parameter;
+import ec.util.ParameterDatabase;
+import ec.vector.DoubleVectorIndividual;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class ForkJoinEvaluatorTest
+    {
+    private final static Parameter BASE = new Parameter("base");
+    private EvolutionState state;
+
+    public ForkJoinEvaluatorTest()
+        {
+        }
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        state.evalthreads = 4;
+
+        state.parameters.set(BASE.push(ForkJoinEvaluator.P_PROBLEM), "ec.test.StubGroupedProblem");
+        }
+
+    /** Every individual of every subpopulation should be evaluated exactly as the problem dictates,
+        regardless of how the pool splits and steals the work. */
+    @Test
+    public void testEvaluate()
+        {
+        state.parameters.set(BASE.push(ForkJoinEvaluator.P_GRAIN_SIZE), "3");
+        ForkJoinEvaluator instance = new ForkJoinEvaluator();
+        instance.setup(state, BASE);
+
+        state.population = getPopulation(new int[] { 101, 7, 0 });
+        instance.evaluatePopulation(state);
+
+        for (final Subpopulation subpop : state.population.subpops)
+            for (final Individual ind : subpop.individuals)
+                {
+                assertTrue(ind.evaluated);
+                assertEquals(((DoubleVectorIndividual)ind).genome[0], ind.fitness.fitness(), 0.0);
+                }
+        assertEquals(108, state.evaluations);
+        assertTrue(instance.lastUtilization >= 0.0);
+        }
+
+    /** num-tests should still expand and contract the population. */
+    @Test
+    public void testEvaluateMultipleTests()
+        {
+        state.parameters.set(BASE.push(ForkJoinEvaluator.P_NUM_TESTS), "3");
+        state.parameters.set(BASE.push(ForkJoinEvaluator.P_MERGE), "best");
+        ForkJoinEvaluator instance = new ForkJoinEvaluator();
+        instance.setup(state, BASE);
+
+        state.population = getPopulation(new int[] { 50 });
+        instance.evaluatePopulation(state);
+
+        final ArrayList<Individual> inds = state.population.subpops.get(0).individuals;
+        assertEquals(50, inds.size());
+        for (final Individual ind : inds)
+            assertEquals(((DoubleVectorIndividual)ind).genome[0], ind.fitness.fitness(), 0.0);
+        assertEquals(150, state.evaluations);
+        }
+
+    /** When the evaluating thread waits on the pool it may be asked to help run outstanding pieces, or
+        even the root task itself.  Every piece must nonetheless be evaluated by one of the pool's own
+        workers, never by the caller and never by the common pool, since only the workers hold thread
+        numbers. */
+    @Test
+    public void testEvaluateOnlyOnWorkers()
+        {
+        state.parameters.set(BASE.push(ForkJoinEvaluator.P_PROBLEM), ThreadRecordingProblem.class.getName());
+        state.parameters.set(BASE.push(ForkJoinEvaluator.P_GRAIN_SIZE), "1");
+        ForkJoinEvaluator instance = new ForkJoinEvaluator();
+        instance.setup(state, BASE);
+
+        ThreadRecordingProblem.threads.clear();
+        for (int generation = 0; generation < 200; generation++)
+            {
+            state.generation = generation;
+            state.population = getPopulation(new int[] { 1, 2, 1, 64 });
+            instance.evaluatePopulation(state);
+            for (final Subpopulation subpop : state.population.subpops)
+                for (final Individual ind : subpop.individuals)
+                    assertTrue(ind.evaluated);
+            }
+
+        assertFalse(ThreadRecordingProblem.threads.isEmpty());
+        for (final Thread thread : ThreadRecordingProblem.threads)
+            {
+            assertNotSame(Thread.currentThread(), thread);
+            assertTrue(thread instanceof ForkJoinEvaluator.WorkerThread);
+            assertSame(instance.getPool(state), ((ForkJoinEvaluator.WorkerThread)thread).getPool());
+            }
+        }
+
+    /** An exception thrown while evaluating a piece reaches the caller rather than leaving it waiting. */
+    @Test(expected = IllegalStateException.class)
+    public void testEvaluateThrows()
+        {
+        state.parameters.set(BASE.push(ForkJoinEvaluator.P_PROBLEM), ThrowingProblem.class.getName());
+        ForkJoinEvaluator instance = new ForkJoinEvaluator();
+        instance.setup(state, BASE);
+        state.population = getPopulation(new int[] { 100 });
+        instance.evaluatePopulation(state);
+        }
+
+    /** A problem which fails on the individual whose first gene is 50. */
+    public static class ThrowingProblem extends Problem implements SimpleProblemForm
+        {
+        private static final long serialVersionUID = 1L;
+
+        public void evaluate(final EvolutionState state, final Individual ind, final int subpopulation, final int threadnum)
+            {
+            if (((DoubleVectorIndividual)ind).genome[0] == 50)
+                throw new IllegalStateException();
+            ((SimpleFitness)ind.fitness).setFitness(state, 0, false);
+            ind.evaluated = true;
+            }
+        }
+
+    /** A problem which records the threads on which it evaluates individuals. */
+    public static class ThreadRecordingProblem extends Problem implements SimpleProblemForm
+        {
+        private static final long serialVersionUID = 1L;
+        static final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+        public void evaluate(final EvolutionState state, final Individual ind, final int subpopulation, final int threadnum)
+            {
+            threads.add(Thread.currentThread());
+            ((SimpleFitness)ind.fitness).setFitness(state, ((DoubleVectorIndividual)ind).genome[0], false);
+            ind.evaluated = true;
+            }
+        }
+
+    /** Create a population with subpopulations of the given sizes. */
+    private Population getPopulation(final int[] sizes)
+        {
+        final Population pop = new Population();
+        pop.subpops = new ArrayList<Subpopulation>();
+        for (int s = 0; s < sizes.length; s++)
+            {
+            final Subpopulation subpop = new Subpopulation();
+            subpop.individuals = new ArrayList<>();
+            for (int i = 0; i < sizes[s]; i++)
+                subpop.individuals.add(createTestIndividual(new double[] { i, s }));
+            pop.subpops.add(subpop);
+            }
+        return pop;
+        }
+
+    /** Create a DoubleVectorIndividual with the given genome. */
+    private Individual createTestIndividual(final double[] genome)
+        {
+        final DoubleVectorIndividual ind = new DoubleVectorIndividual();
+        ind.genome = genome;
+        ind.fitness = new SimpleFitness();
+        ind.fitness.setup(state, new Parameter(""));
+        return ind;
+        }
+    }
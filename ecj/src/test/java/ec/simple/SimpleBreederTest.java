@@ -7,10 +7,17 @@ package ec.simple;
 
 import ec.EvolutionState;
 import ec.Evolve;
+import ec.Individual;
+import ec.IndividualPool;
 import ec.Initializer;
 import ec.Population;
+import ec.Subpopulation;
 import ec.util.Parameter;
 import ec.util.ParameterDatabase;
+import ec.vector.DoubleVectorIndividual;
+import ec.vector.FloatVectorSpecies;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -117,5 +124,41 @@ public class SimpleBreederTest
         assertEquals(0, instance.numElites(state, 0));
         assertEquals(5, instance.numElites(state, 1));
         }
-    
+
+    /** The individual pools' counts are reported each generation, once per species. */
+    @Test
+    public void testReportIndividualPools()
+        {
+        StringWriter writer = new StringWriter();
+        state.output.addLog(writer, null, true, false);
+        FloatVectorSpecies shared = new FloatVectorSpecies();
+        shared.pool = new IndividualPool(1);
+        FloatVectorSpecies unpooled = new FloatVectorSpecies();
+        Population population = new Population();
+        for(int i = 0; i < 3; i++)
+            {
+            Subpopulation subpop = new Subpopulation();
+            subpop.species = (i == 1 ? unpooled : shared);
+            subpop.individuals = new ArrayList<Individual>();
+            population.subpops.add(subpop);
+            }
+
+        SimpleBreeder instance = new SimpleBreeder();
+        DoubleVectorIndividual ind = new DoubleVectorIndividual();
+        ind.genome = new double[] { 1 };
+        ind.fitness = new SimpleFitness();
+        shared.pool.copy(ind, 0);
+        state.generation = 1;
+        instance.reportIndividualPools(state, population);
+        shared.pool.release((Individual)(ind.clone()));
+        shared.pool.copy(ind, 0);
+        state.generation = 2;
+        instance.reportIndividualPools(state, population);
+
+        state.output.flush();
+        String[] lines = writer.toString().trim().split("\\s*\n");
+        assertEquals(2, lines.length);
+        assertEquals("Generation 1 subpop 0 individual pool: 0 reused, 1 cloned, 0 individuals pooled", lines[0]);
+        assertEquals("Generation 2 subpop 0 individual pool: 1 reused, 0 cloned, 0 individuals pooled", lines[1]);
+        }
     }
@@ -0,0 +1,197 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.steadystate;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.Individual;
+import ec.Problem;
+import ec.simple.SimpleFitness;
+import ec.simple.SimpleProblemForm;
+import ec.util.MersenneTwisterFast;
+import ec.util.ParameterDatabase;
+import ec.vector.DoubleVectorIndividual;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests SteadyStateEvaluator's asynchronous evaluation in local threads, with a Problem which
+ * finishes its individuals out of order.
+ */
+public class AsynchronousEvaluationTest
+    {
+    static final int NUM_THREADS = 3;
+    static final int QUEUE_SIZE = 6;
+
+    private EvolutionState state;
+    private SteadyStateEvaluator evaluator;
+
+    /** Sets each individual's fitness to its first gene plus 1000 times its subpopulation, and counts how
+        often each individual (numbered by its first gene) is evaluated.  Individual 0 isn't finished until
+        individual <i>last</i> has been. */
+    public static class OutOfOrderProblem extends Problem implements SimpleProblemForm
+        {
+        AtomicIntegerArray evaluations;
+        CountDownLatch lastDone = new CountDownLatch(1);
+        int last;
+
+        public void evaluate(final EvolutionState state, final Individual ind, final int subpopulation, final int threadnum)
+            {
+            int number = (int)(((DoubleVectorIndividual)ind).genome[0]);
+            if (number == 0)
+                {
+                try { lastDone.await(10, TimeUnit.SECONDS); }
+                catch (InterruptedException e) { }
+                }
+            ((SimpleFitness)(ind.fitness)).setFitness(state, number + 1000 * subpopulation, false);
+            ind.evaluated = true;
+            evaluations.incrementAndGet(number);
+            if (number == last)
+                lastDone.countDown();
+            }
+
+        public void describe(final EvolutionState state, final Individual ind, final int subpopulation, final int threadnum, final int log) { }
+        }
+
+    @Before
+    public void setUp()
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        state.data = new HashMap[] { new HashMap() };
+        state.evalthreads = NUM_THREADS;
+
+        evaluator = new SteadyStateEvaluator();
+        evaluator.asynchronous = true;
+        evaluator.queueSize = QUEUE_SIZE;
+        state.evaluator = evaluator;
+        }
+
+    @After
+    public void tearDown()
+        {
+        evaluator.closeContacts(state, EvolutionState.R_SUCCESS);
+        }
+
+    /** Starts the evaluation threads with a problem for individuals numbered 0 ... size - 1. */
+    OutOfOrderProblem start(int size)
+        {
+        OutOfOrderProblem problem = new OutOfOrderProblem();
+        problem.evaluations = new AtomicIntegerArray(size);
+        problem.last = size - 1;
+        evaluator.p_problem = problem;
+        evaluator.prepareToEvaluate(state, 0);
+        return problem;
+        }
+
+    static Individual individual(int number)
+        {
+        DoubleVectorIndividual ind = new DoubleVectorIndividual();
+        ind.genome = new double[] { number };
+        ind.fitness = new SimpleFitness();
+        return ind;
+        }
+
+    /** Waits for the next evaluated individual: the evaluator only blocks while its queue is full. */
+    Individual next()
+        {
+        Individual ind = evaluator.getNextEvaluatedIndividual(state);
+        while(ind == null)
+            {
+            Thread.yield();
+            ind = evaluator.getNextEvaluatedIndividual(state);
+            }
+        return ind;
+        }
+
+    /** Each individual comes back, exactly once, with its own fitness and subpopulation, though not in
+        the order sent, and each counts as one evaluation. */
+    @Test
+    public void testOutOfOrder()
+        {
+        OutOfOrderProblem problem = start(QUEUE_SIZE);
+        IdentityHashMap<Individual, Integer> sent = new IdentityHashMap<Individual, Integer>();
+        for(int i = 0; i < QUEUE_SIZE; i++)
+            {
+            assertTrue(evaluator.canEvaluate());
+            Individual ind = individual(i);
+            sent.put(ind, Integer.valueOf(i));
+            evaluator.evaluateIndividual(state, ind, i % 2);
+            }
+        assertFalse(evaluator.canEvaluate());
+
+        ArrayList<Integer> order = new ArrayList<Integer>();
+        for(int i = 0; i < QUEUE_SIZE; i++)
+            {
+            Individual ind = next();
+            Integer number = sent.remove(ind);
+            assertNotNull("an individual came back which wasn't sent, or came back twice", number);
+            int subpop = number.intValue() % 2;
+            assertEquals(subpop, evaluator.getSubpopulationOfEvaluatedIndividual());
+            assertTrue(ind.evaluated);
+            assertEquals(number.intValue() + 1000 * subpop, ind.fitness.fitness(), 0.0);
+            order.add(number);
+            assertTrue(evaluator.canEvaluate());
+            }
+        assertTrue(sent.isEmpty());
+        assertTrue(order.get(0).intValue() != 0);      // the first one sent is held up until the last is evaluated
+        assertEquals(QUEUE_SIZE, state.evaluations);
+        for(int i = 0; i < QUEUE_SIZE; i++)
+            assertEquals(1, problem.evaluations.get(i));
+        assertNull(evaluator.getNextEvaluatedIndividual(state));
+        }
+
+    /** Individuals are submitted and collected as in a steady-state run: a new one is sent whenever there's
+        room, and one is collected whenever one is ready, until all have been evaluated exactly once. */
+    @Test
+    public void testSteadyState()
+        {
+        final int total = 200;
+        OutOfOrderProblem problem = start(total);
+        IdentityHashMap<Individual, Integer> sent = new IdentityHashMap<Individual, Integer>();
+        int next = 0;
+        int collected = 0;
+        while(collected < total)
+            {
+            if (next < total && evaluator.canEvaluate())
+                {
+                Individual ind = individual(next);
+                sent.put(ind, Integer.valueOf(next));
+                evaluator.evaluateIndividual(state, ind, 0);
+                next++;
+                }
+            Individual ind = evaluator.getNextEvaluatedIndividual(state);
+            if (ind == null)
+                {
+                if (next == total) Thread.yield();
+                continue;
+                }
+            Integer number = sent.remove(ind);
+            assertNotNull(number);
+            assertEquals(number.intValue(), ind.fitness.fitness(), 0.0);
+            collected++;
+            assertEquals(collected, state.evaluations);
+            }
+        assertTrue(sent.isEmpty());
+        for(int i = 0; i < total; i++)
+            assertEquals(1, problem.evaluations.get(i));
+        }
+    }
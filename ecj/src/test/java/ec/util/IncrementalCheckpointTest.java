@@ -0,0 +1,286 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.util;
+
+import ec.EvolutionState;
+import ec.Evolve;
+import ec.Individual;
+import ec.Population;
+import ec.Subpopulation;
+import ec.simple.SimpleEvaluator;
+import ec.simple.SimpleExchanger;
+import ec.simple.SimpleFitness;
+import ec.test.StubGroupedProblem;
+import ec.vector.DoubleVectorIndividual;
+import ec.vector.FloatVectorSpecies;
+import ec.vector.VectorSpecies;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Round-trip tests for IncrementalCheckpoint and Checkpoint.
+ */
+public class IncrementalCheckpointTest
+    {
+    private final static Parameter BASE = new Parameter("base");
+    private EvolutionState state;
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException
+        {
+        state = new EvolutionState();
+        state.output = Evolve.buildOutput();
+        state.output.setThrowsErrors(true);
+        state.output.getLog(0).silent = true;
+        state.output.getLog(1).silent = true;
+        state.parameters = new ParameterDatabase();
+        state.random = new MersenneTwisterFast[] { new MersenneTwisterFast(4357) };
+        state.exchanger = new SimpleExchanger();
+        state.evaluator = new SimpleEvaluator();
+        state.evaluator.p_problem = new StubGroupedProblem();
+
+        directory = File.createTempFile("checkpoint", "");
+        directory.delete();
+        directory.mkdir();
+        state.checkpointDirectory = directory;
+        state.checkpointPrefix = "ec";
+        state.checkpointIncremental = true;
+        state.checkpointFullModulo = 10;
+
+        state.parameters.set(BASE.push(VectorSpecies.P_INDIVIDUAL), DoubleVectorIndividual.class.getCanonicalName());
+        state.parameters.set(BASE.push(VectorSpecies.P_FITNESS), SimpleFitness.class.getCanonicalName());
+        state.parameters.set(BASE.push(VectorSpecies.P_GENOMESIZE), "10");
+        state.parameters.set(BASE.push(FloatVectorSpecies.P_MINGENE), "-1");
+        state.parameters.set(BASE.push(FloatVectorSpecies.P_MAXGENE), "1");
+        state.parameters.set(BASE.push(VectorSpecies.P_MUTATIONPROB), "0");
+        state.parameters.set(BASE.push(VectorSpecies.P_PIPE), "ec.breed.InitializationPipeline");
+        FloatVectorSpecies species = new FloatVectorSpecies();
+        species.setup(state, BASE);
+
+        state.population = new Population();
+        for(int s = 0; s < 2; s++)
+            {
+            Subpopulation subpop = new Subpopulation();
+            subpop.species = species;
+            subpop.individuals = new ArrayList<Individual>();
+            for(int i = 0; i < 50; i++)
+                {
+                Individual ind = species.newIndividual(state, 0);
+                ((SimpleFitness)(ind.fitness)).setFitness(state, state.random[0].nextDouble(), false);
+                ind.evaluated = (i % 2 == 0);
+                subpop.individuals.add(ind);
+                }
+            state.population.subpops.add(subpop);
+            }
+        }
+
+    @After
+    public void tearDown()
+        {
+        File[] files = directory.listFiles();
+        if (files != null)
+            for(int i = 0; i < files.length; i++)
+                files[i].delete();
+        directory.delete();
+        }
+
+    /** Checkpoints the state at the given generation with the given IncrementalCheckpoint, and waits for it to be written. */
+    File checkpoint(IncrementalCheckpoint checkpoint, int generation)
+        {
+        state.generation = generation;
+        checkpoint.checkpoint(state);
+        checkpoint.finish();
+        File file = Checkpoint.checkpointFile(state);
+        assertTrue(file.exists());
+        return file;
+        }
+
+    /** Changes the first gene of every third individual of each subpopulation. */
+    void mutate()
+        {
+        for(int s = 0; s < state.population.subpops.size(); s++)
+            {
+            ArrayList<Individual> inds = state.population.subpops.get(s).individuals;
+            for(int i = 0; i < inds.size(); i += 3)
+                ((DoubleVectorIndividual)(inds.get(i))).genome[0] += 1;
+            }
+        }
+
+    /** Returns a deep copy of the population's individuals. */
+    ArrayList<ArrayList<Individual>> copy(Population population)
+        {
+        ArrayList<ArrayList<Individual>> copy = new ArrayList<ArrayList<Individual>>();
+        for(int s = 0; s < population.subpops.size(); s++)
+            {
+            ArrayList<Individual> inds = new ArrayList<Individual>();
+            for(Individual ind : population.subpops.get(s).individuals)
+                inds.add((Individual)(ind.clone()));
+            copy.add(inds);
+            }
+        return copy;
+        }
+
+    void assertPopulation(ArrayList<ArrayList<Individual>> expected, EvolutionState restored)
+        {
+        assertEquals(expected.size(), restored.population.subpops.size());
+        for(int s = 0; s < expected.size(); s++)
+            {
+            ArrayList<Individual> inds = restored.population.subpops.get(s).individuals;
+            assertEquals(expected.get(s).size(), inds.size());
+            for(int i = 0; i < inds.size(); i++)
+                {
+                Individual a = expected.get(s).get(i);
+                Individual b = inds.get(i);
+                assertArrayEquals(((DoubleVectorIndividual)a).genome, ((DoubleVectorIndividual)b).genome, 0.0);
+                assertEquals(a.fitness.fitness(), b.fitness.fitness(), 0.0);
+                assertEquals(a.evaluated, b.evaluated);
+                assertSame(restored.population.subpops.get(s).species, b.species);
+                }
+            }
+        }
+
+    /** Rewrites a checkpoint file with one byte of its uncompressed contents changed, so that only its own checksum can tell. */
+    void corrupt(File file) throws IOException
+        {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputStream in = new GZIPInputStream(new FileInputStream(file));
+        byte[] b = new byte[8192];
+        int n;
+        while((n = in.read(b)) > 0)
+            bytes.write(b, 0, n);
+        in.close();
+        byte[] data = bytes.toByteArray();
+        data[data.length - 20] ^= 1;       // in the last individual
+        OutputStream out = new GZIPOutputStream(new FileOutputStream(file));
+        out.write(data);
+        out.close();
+        }
+
+    /** A full checkpoint restores the population and the generation. */
+    @Test
+    public void testFull() throws Exception
+        {
+        ArrayList<ArrayList<Individual>> expected = copy(state.population);
+        File file = checkpoint(new IncrementalCheckpoint(), 5);
+        assertFalse(new IncrementalCheckpoint.Contents(file).delta);
+
+        EvolutionState restored = IncrementalCheckpoint.restore(file);
+        assertEquals(5, restored.generation);
+        assertPopulation(expected, restored);
+        }
+
+    /** A delta checkpoint restores the population as it was when the delta was written, and its full checkpoint as it was before. */
+    @Test
+    public void testDelta() throws Exception
+        {
+        IncrementalCheckpoint checkpoint = new IncrementalCheckpoint();
+        ArrayList<ArrayList<Individual>> first = copy(state.population);
+        File full = checkpoint(checkpoint, 1);
+        mutate();
+        ArrayList<ArrayList<Individual>> second = copy(state.population);
+        File delta = checkpoint(checkpoint, 2);
+        assertTrue(new IncrementalCheckpoint.Contents(delta).delta);
+        assertTrue(delta.length() < full.length());
+
+        EvolutionState restored = IncrementalCheckpoint.restore(delta);
+        assertEquals(2, restored.generation);
+        assertPopulation(second, restored);
+
+        restored = IncrementalCheckpoint.restore(full);
+        assertEquals(1, restored.generation);
+        assertPopulation(first, restored);
+        }
+
+    /** Every checkpoint-full-modulo'th checkpoint is a full one. */
+    @Test
+    public void testFullModulo() throws Exception
+        {
+        state.checkpointFullModulo = 2;
+        IncrementalCheckpoint checkpoint = new IncrementalCheckpoint();
+        for(int generation = 0; generation < 5; generation++)
+            {
+            File file = checkpoint(checkpoint, generation);
+            assertEquals(generation % 2 == 1, new IncrementalCheckpoint.Contents(file).delta);
+            }
+        }
+
+    /** A delta checkpoint whose full checkpoint has gone missing can't be restored. */
+    @Test(expected = IOException.class)
+    public void testMissingBase() throws Exception
+        {
+        IncrementalCheckpoint checkpoint = new IncrementalCheckpoint();
+        File full = checkpoint(checkpoint, 1);
+        mutate();
+        File delta = checkpoint(checkpoint, 2);
+        assertTrue(full.delete());
+        IncrementalCheckpoint.restore(delta);
+        }
+
+    /** A delta checkpoint whose full checkpoint has been overwritten by another run can't be restored. */
+    @Test(expected = IOException.class)
+    public void testReplacedBase() throws Exception
+        {
+        IncrementalCheckpoint checkpoint = new IncrementalCheckpoint();
+        checkpoint(checkpoint, 1);
+        mutate();
+        File delta = checkpoint(checkpoint, 2);
+        mutate();
+        checkpoint(new IncrementalCheckpoint(), 1);     // same name, different contents
+        IncrementalCheckpoint.restore(delta);
+        }
+
+    /** A delta checkpoint whose full checkpoint is corrupt can't be restored. */
+    @Test(expected = IOException.class)
+    public void testCorruptBase() throws Exception
+        {
+        IncrementalCheckpoint checkpoint = new IncrementalCheckpoint();
+        File full = checkpoint(checkpoint, 1);
+        mutate();
+        File delta = checkpoint(checkpoint, 2);
+        corrupt(full);
+        IncrementalCheckpoint.restore(delta);
+        }
+
+    /** A corrupt checkpoint can't be restored. */
+    @Test(expected = IOException.class)
+    public void testCorrupt() throws Exception
+        {
+        File file = checkpoint(new IncrementalCheckpoint(), 1);
+        corrupt(file);
+        IncrementalCheckpoint.restore(file);
+        }
+
+    /** Checkpoint.restoreFromCheckpoint still reads ordinary serialized checkpoints, as well as incremental ones. */
+    @Test
+    public void testRestoreFromCheckpoint() throws Exception
+        {
+        ArrayList<ArrayList<Individual>> expected = copy(state.population);
+        state.checkpointIncremental = false;
+        state.generation = 3;
+        Checkpoint.setCheckpoint(state);
+        EvolutionState restored = Checkpoint.restoreFromCheckpoint(Checkpoint.checkpointFile(state).getPath());
+        assertNull(restored.incrementalCheckpoint);
+        assertEquals(3, restored.generation);
+        assertPopulation(expected, restored);
+
+        state.checkpointIncremental = true;
+        state.generation = 4;
+        Checkpoint.setCheckpoint(state);
+        Checkpoint.finishCheckpoint(state);
+        restored = Checkpoint.restoreFromCheckpoint(Checkpoint.checkpointFile(state).getPath());
+        assertEquals(4, restored.generation);
+        assertPopulation(expected, restored);
+        }
+    }
@@ -0,0 +1,162 @@
+/*
+  Copyright 2026 by Sean Luke and George Mason University
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+package ec.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for PhasedThreadPool.
+ */
+public class PhasedThreadPoolTest
+    {
+    private PhasedThreadPool pool;
+
+    @Before
+    public void setUp()
+        {
+        pool = new PhasedThreadPool(4, "Test Thread");
+        }
+
+    @After
+    public void tearDown()
+        {
+        pool.kill();
+        }
+
+    /** Builds n jobs, each of which records the name of the thread it ran on in names[i]. */
+    Runnable[] jobs(final String[] names)
+        {
+        Runnable[] jobs = new Runnable[names.length];
+        for(int i = 0; i < jobs.length; i++)
+            {
+            final int j = i;
+            jobs[i] = new Runnable() { public void run() { names[j] = Thread.currentThread().getName(); } };
+            }
+        return jobs;
+        }
+
+    /** Job i runs on worker i, batch after batch. */
+    @Test
+    public void testRun()
+        {
+        for(int batch = 0; batch < 100; batch++)
+            {
+            String[] names = new String[4];
+            pool.run(jobs(names));
+            for(int i = 0; i < names.length; i++)
+                assertEquals("Test Thread " + i, names[i]);
+            }
+        assertEquals(100, pool.getBatches());
+        }
+
+    /** Given fewer jobs than workers, or null jobs, the remaining workers pass through. */
+    @Test
+    public void testFewerJobs()
+        {
+        String[] names = new String[2];
+        pool.run(jobs(names));
+        assertEquals("Test Thread 0", names[0]);
+        assertEquals("Test Thread 1", names[1]);
+
+        names = new String[4];
+        Runnable[] jobs = jobs(names);
+        jobs[1] = null;
+        pool.run(jobs);
+        assertNull(names[1]);
+        assertEquals("Test Thread 3", names[3]);
+
+        pool.run(new Runnable[0]);
+        assertEquals(3, pool.getBatches());
+        }
+
+    /** More jobs than workers is an error. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyJobs()
+        {
+        pool.run(new Runnable[5]);
+        }
+
+    /** The job time is that of the slowest job, and never more than the total time. */
+    @Test
+    public void testCounters()
+        {
+        Runnable[] jobs = new Runnable[2];
+        jobs[0] = new Runnable() { public void run() { } };
+        jobs[1] = new Runnable()
+            {
+            public void run()
+                {
+                try { Thread.sleep(20); }
+                catch (InterruptedException e) { }
+                }
+            };
+        pool.run(jobs);
+        pool.run(jobs);
+        assertEquals(2, pool.getBatches());
+        assertTrue(pool.getJobTime() >= 2 * 20000000L);
+        assertTrue(pool.getTotalTime() >= pool.getJobTime());
+        assertEquals(pool.getTotalTime() - pool.getJobTime(), pool.getOverheadTime());
+
+        pool.resetCounters();
+        assertEquals(0, pool.getBatches());
+        assertEquals(0, pool.getTotalTime());
+        assertEquals(0, pool.getJobTime());
+        }
+
+    /** A job which throws, even an Error, doesn't hang run(...) or kill its worker: the throwable
+        is rethrown to the caller after the other jobs have completed, and the pool carries on. */
+    @Test
+    public void testThrowingJob()
+        {
+        final AtomicInteger completed = new AtomicInteger();
+        Runnable ok = new Runnable() { public void run() { completed.incrementAndGet(); } };
+        Runnable error = new Runnable() { public void run() { throw new AssertionError("job failed"); } };
+        Runnable exception = new Runnable() { public void run() { throw new IllegalStateException("job failed"); } };
+
+        try
+            {
+            pool.run(new Runnable[] { ok, error, ok, exception });
+            fail("run(...) should have rethrown the job's error");
+            }
+        catch (AssertionError e)
+            {
+            assertEquals("job failed", e.getMessage());
+            }
+        assertEquals(2, completed.get());
+
+        try
+            {
+            pool.run(new Runnable[] { ok, ok, ok, exception });
+            fail("run(...) should have rethrown the job's exception");
+            }
+        catch (IllegalStateException e) { }
+        assertEquals(5, completed.get());
+
+        pool.run(new Runnable[] { ok, ok, ok, ok });
+        assertEquals(9, completed.get());
+        }
+
+    /** After kill(), the workers are gone and the pool refuses to run. */
+    @Test
+    public void testKill()
+        {
+        pool.run(jobs(new String[4]));
+        pool.kill();
+        for(int i = 0; i < pool.threads.length; i++)
+            assertFalse(pool.threads[i].isAlive());
+        pool.kill();  // harmless
+        try
+            {
+            pool.run(new Runnable[1]);
+            fail("run(...) should refuse to run after kill()");
+            }
+        catch (IllegalStateException e) { }
+        }
+    }
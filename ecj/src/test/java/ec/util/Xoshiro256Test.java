@@ -0,0 +1,99 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+package ec.util;
+
+import java.io.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class Xoshiro256Test
+    {
+    /** The generator matches the reference implementation of xoshiro256**. */
+    @Test
+    public void testReference()
+        {
+        Xoshiro256 x = new Xoshiro256(1, 2, 3, 4);
+        assertEquals(11520L, x.nextLong());
+        assertEquals(0L, x.nextLong());
+        assertEquals(1509978240L, x.nextLong());
+        assertEquals(1215971899390074240L, x.nextLong());
+        }
+
+    /** A substream depends only on the seed and its index, not on what else has been drawn. */
+    @Test
+    public void testSubstreams()
+        {
+        Xoshiro256 a = new Xoshiro256(4357);
+        Xoshiro256 b = new Xoshiro256(4357);
+        for(int i = 0; i < 1000; i++)
+            b.nextLong();
+        b.substream(3).nextLong();
+
+        for(int i = 9; i >= 0; i--)
+            {
+            Xoshiro256 sa = a.substream(i);
+            Xoshiro256 sb = b.substream(i);
+            assertTrue(sa.stateEquals(sb));
+            for(int j = 0; j < 100; j++)
+                assertEquals(sa.nextDouble(), sb.nextDouble(), 0);
+            assertTrue(sa.substream(5).stateEquals(sb.substream(5)));
+            }
+
+        assertNotEquals(a.substream(0).nextLong(), a.substream(1).nextLong());
+        assertNotEquals(a.substream(0).nextLong(), new Xoshiro256(4358).substream(0).nextLong());
+        assertNotEquals(a.substream(1).nextLong(), a.substream(0).substream(1).nextLong());
+        }
+
+    /** Splitting hands out a copy and jumps ahead, deterministically. */
+    @Test
+    public void testSplitAndJump()
+        {
+        Xoshiro256 a = new Xoshiro256(4357);
+        Xoshiro256 b = (Xoshiro256)(a.clone());
+        assertTrue(a.stateEquals(b));
+
+        Xoshiro256 c = a.split();
+        assertTrue(c.stateEquals(b));
+        assertFalse(a.stateEquals(b));
+        b.jump();
+        assertTrue(a.stateEquals(b));
+        assertEquals(a.nextLong(), b.nextLong());
+        a.longJump();
+        b.longJump();
+        assertTrue(a.stateEquals(b));
+        assertNotEquals(a.nextLong(), c.nextLong());
+        }
+
+    /** The ranged and floating-point methods stay within their ranges, and the generator checkpoints. */
+    @Test
+    public void testRanges() throws IOException, ClassNotFoundException
+        {
+        Xoshiro256 x = new Xoshiro256(4357);
+        for(int i = 0; i < 10000; i++)
+            {
+            int n = x.nextInt(7);
+            assertTrue(n >= 0 && n < 7);
+            long l = x.nextLong(1L << 40);
+            assertTrue(l >= 0 && l < (1L << 40));
+            double d = x.nextDouble();
+            assertTrue(d >= 0.0 && d < 1.0);
+            float f = x.nextFloat();
+            assertTrue(f >= 0.0f && f < 1.0f);
+            }
+        assertFalse(x.nextBoolean(0.0));
+        assertTrue(x.nextBoolean(1.0));
+
+        x.nextGaussian();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(x);
+        out.close();
+        Xoshiro256 y = (Xoshiro256)(new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject());
+        assertTrue(x.stateEquals(y));
+        assertEquals(x.nextGaussian(), y.nextGaussian(), 0);
+        }
+    }
@@ -0,0 +1,118 @@
+/*
+  Copyright 2026 by Sean Luke
+  Licensed under the Academic Free License version 3.0
+  See the file "LICENSE" for more information
+*/
+
+package ec.vector;
+
+import java.io.*;
+import java.util.ArrayList;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DoubleVectorMatrixTest
+    {
+    /** Rows are stored and copied the same way whatever the storage, and the matrix grows a chunk at a time. */
+    @Test
+    public void testStorage() throws IOException
+        {
+        for(int storage = DoubleVectorMatrix.HEAP; storage <= DoubleVectorMatrix.MAPPED; storage++)
+            {
+            DoubleVectorMatrix matrix = new DoubleVectorMatrix(3, storage, 4, null);
+            assertEquals(0, matrix.getCapacity());
+            DoubleVectorView[] views = new DoubleVectorView[10];
+            for(int i = 0; i < views.length; i++)
+                {
+                views[i] = view(matrix);
+                matrix.setRow(views[i].getRow(), new double[] { i, i + 1, i + 2 });
+                }
+            assertEquals(12, matrix.getCapacity());
+
+            for(int i = 0; i < views.length; i++)
+                assertArrayEquals(new double[] { i, i + 1, i + 2 }, (double[])(views[i].getGenome()), 0);
+            matrix.copyRow(views[9].getRow(), views[0].getRow());
+            views[1].set(2, -1);
+            assertArrayEquals(new double[] { 9, 10, 11 }, views[0].loadGenome(0), 0);
+            assertEquals(-1, views[1].get(2), 0);
+            assertEquals(27.0, matrix.squaredDistance(views[2].getRow(), views[5].getRow()), 0);
+            assertEquals(Math.sqrt(27.0), views[2].distanceTo(views[5]), 0);
+            assertTrue(views[0].equals(views[9]));
+            assertEquals(views[0].hashCode(), views[9].hashCode());
+            assertFalse(views[0].equals(views[8]));
+            }
+        }
+
+    /** Clones and copies get their own rows, and rows are reused once their views have been garbage collected. */
+    @Test
+    public void testRows() throws IOException
+        {
+        DoubleVectorMatrix matrix = new DoubleVectorMatrix(2, DoubleVectorMatrix.HEAP, 8, null);
+        DoubleVectorView prototype = new DoubleVectorView();
+        prototype.matrix = matrix;
+
+        DoubleVectorView a = (DoubleVectorView)(prototype.clone());
+        a.setGenome(new double[] { 1, 2 });
+        DoubleVectorView b = (DoubleVectorView)(a.clone());
+        assertNotEquals(a.getRow(), b.getRow());
+        assertTrue(a.equals(b));
+        b.set(0, 5);
+        assertEquals(1, a.get(0), 0);
+
+        DoubleVectorView c = new DoubleVectorView();
+        c.matrix = matrix;
+        assertTrue(c.copyFrom(b));
+        assertNotEquals(b.getRow(), c.getRow());
+        assertTrue(b.equals(c));
+
+        // let go of a view and wait for its row to come back
+        int row = a.getRow();
+        a = null;
+        ArrayList<DoubleVectorView> others = new ArrayList<DoubleVectorView>();
+        boolean reused = false;
+        for(int i = 0; i < 100 && !reused; i++)
+            {
+            System.gc();
+            DoubleVectorView d = (DoubleVectorView)(prototype.clone());
+            others.add(d);
+            reused = (d.getRow() == row);
+            }
+        assertTrue(reused);
+        }
+
+    /** A matrix and its views survive serialization, as in checkpointing. */
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException
+        {
+        DoubleVectorMatrix matrix = new DoubleVectorMatrix(2, DoubleVectorMatrix.DIRECT, 4, null);
+        DoubleVectorView[] views = new DoubleVectorView[5];
+        for(int i = 0; i < views.length; i++)
+            {
+            views[i] = view(matrix);
+            views[i].setGenome(new double[] { i, -i });
+            }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(views);
+        out.close();
+        DoubleVectorView[] restored = (DoubleVectorView[])(new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject());
+
+        assertNotSame(matrix, restored[0].getMatrix());
+        assertSame(restored[0].getMatrix(), restored[4].getMatrix());
+        assertEquals(DoubleVectorMatrix.DIRECT, restored[0].getMatrix().getStorage());
+        for(int i = 0; i < views.length; i++)
+            assertTrue(views[i].equals(restored[i]));
+        DoubleVectorView another = (DoubleVectorView)(restored[0].clone());
+        for(int i = 0; i < views.length; i++)
+            assertNotEquals(restored[i].getRow(), another.getRow());
+        }
+
+    DoubleVectorView view(DoubleVectorMatrix matrix)
+        {
+        DoubleVectorView view = new DoubleVectorView();
+        view.matrix = matrix;
+        view.row = matrix.allocate(view);
+        return view;
+        }
+    }